@@ -24,10 +24,9 @@ import android.os.Bundle;
 import android.os.Parcelable;
 import android.util.Log;
 
-import java.text.Collator;
+import com.android.settings.utils.LabelSorter;
+
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 public class AppWidgetLoader<Item extends AppWidgetLoader.LabelledItem> {
@@ -157,13 +156,7 @@ public class AppWidgetLoader<Item extends AppWidgetLoader.LabelledItem> {
         if (sortCustomAppWidgets) {
             putCustomAppWidgets(items, intent);
         }
-        Collections.sort(items, new Comparator<Item>() {
-            Collator mCollator = Collator.getInstance();
-
-            public int compare(Item lhs, Item rhs) {
-                return mCollator.compare(lhs.getLabel(), rhs.getLabel());
-            }
-        });
+        LabelSorter.getInstance().sort(items, Item::getLabel);
         if (!sortCustomAppWidgets) {
             List<Item> customItems = new ArrayList<Item>();
             putCustomAppWidgets(customItems, intent);
@@ -27,6 +27,7 @@ import androidx.annotation.NonNull;
 
 import com.android.settings.activityembedding.ActivityEmbeddingRulesController;
 import com.android.settings.activityembedding.ActivityEmbeddingUtils;
+import com.android.settings.core.StartupScheduler;
 import com.android.settings.core.instrumentation.ElapsedTimeUtils;
 import com.android.settings.homepage.SettingsHomepageActivity;
 import com.android.settings.overlay.FeatureFactory;
@@ -47,28 +48,48 @@ public class SettingsApplication extends Application {
     @Override
     protected void attachBaseContext(Context base) {
         super.attachBaseContext(base);
-        FeatureFactory.setFactory(this, getFeatureFactory());
+        // Content providers are created before onCreate() and use the factory. The providers of
+        // the factory are created lazily, so this only stores it.
+        StartupScheduler.getInstance().schedule("FeatureFactory",
+                StartupScheduler.PHASE_BLOCKING,
+                () -> FeatureFactory.setFactory(this, getFeatureFactory()));
     }
 
     @Override
     public void onCreate() {
         super.onCreate();
+        final StartupScheduler scheduler = StartupScheduler.getInstance();
 
         // Add null checking to avoid test case failed.
-        if (getApplicationContext() != null) {
-            ElapsedTimeUtils.assignSuwFinishedTimeStamp(getApplicationContext());
+        final Context appContext = getApplicationContext();
+        if (appContext != null) {
+            // Metrics logged by the first activity read it, so it must be set before.
+            scheduler.schedule("SuwFinishedTimeStamp", StartupScheduler.PHASE_BLOCKING,
+                    () -> ElapsedTimeUtils.assignSuwFinishedTimeStamp(appContext));
         }
 
-        // Set Spa environment.
-        setSpaEnvironment();
+        // Set Spa environment. Its pages are created lazily, but any activity may open them.
+        scheduler.schedule("SpaEnvironment", StartupScheduler.PHASE_BLOCKING,
+                this::setSpaEnvironment);
 
         if (ActivityEmbeddingUtils.isSettingsSplitEnabled(this)
                 && FeatureFlagUtils.isEnabled(this,
                         FeatureFlagUtils.SETTINGS_SUPPORT_LARGE_SCREEN)) {
             if (WizardManagerHelper.isUserSetupComplete(this)) {
-                new ActivityEmbeddingRulesController(this).initRules();
+                // The rules must be set before the first activity starts to embed it.
+                scheduler.schedule("ActivityEmbeddingRules", StartupScheduler.PHASE_BLOCKING,
+                        () -> new ActivityEmbeddingRulesController(this).initRules());
             } else {
-                new DeviceProvisionedObserver().registerContentObserver();
+                scheduler.schedule("DeviceProvisionedObserver", StartupScheduler.PHASE_IDLE,
+                        () -> {
+                            final DeviceProvisionedObserver observer =
+                                    new DeviceProvisionedObserver();
+                            observer.registerContentObserver();
+                            // Setup may have completed before the observer was registered.
+                            if (WizardManagerHelper.isUserSetupComplete(this)) {
+                                observer.onUserSetupComplete();
+                            }
+                        });
             }
         }
     }
@@ -103,6 +124,7 @@ public class SettingsApplication extends Application {
     private class DeviceProvisionedObserver extends ContentObserver {
         private final Uri mDeviceProvisionedUri = Settings.Secure.getUriFor(
                 Settings.Secure.USER_SETUP_COMPLETE);
+        private boolean mUserSetupComplete;
 
         DeviceProvisionedObserver() {
             super(null /* handler */);
@@ -114,6 +136,15 @@ public class SettingsApplication extends Application {
                 return;
             }
 
+            onUserSetupComplete();
+        }
+
+        /** Sets up the embedding rules once, whether the change or the re-check sees it first. */
+        synchronized void onUserSetupComplete() {
+            if (mUserSetupComplete) {
+                return;
+            }
+            mUserSetupComplete = true;
             SettingsApplication.this.getContentResolver().unregisterContentObserver(this);
             new ActivityEmbeddingRulesController(SettingsApplication.this).initRules();
         }
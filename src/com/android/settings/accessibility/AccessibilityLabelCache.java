@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.accessibility;
+
+import android.content.BroadcastReceiver;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.ComponentInfo;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.util.ArrayMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Process wide cache of the labels of accessibility services and shortcut activities, keyed by
+ * component, so each label is loaded once.
+ *
+ * The labels of a package are dropped when the package is changed, updated or removed.
+ */
+public class AccessibilityLabelCache {
+
+    private static AccessibilityLabelCache sInstance;
+
+    private final PackageManager mPackageManager;
+    // Guarded by this.
+    private final Map<ComponentName, CharSequence> mLabels = new ArrayMap<>();
+
+    private final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final Uri data = intent.getData();
+            if (data != null) {
+                invalidate(data.getSchemeSpecificPart());
+            }
+        }
+    };
+
+    /** Returns the cache shared by the whole process. */
+    public static synchronized AccessibilityLabelCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new AccessibilityLabelCache(context.getApplicationContext());
+            sInstance.registerPackageReceiver(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    AccessibilityLabelCache(Context context) {
+        mPackageManager = context.getPackageManager();
+    }
+
+    private void registerPackageReceiver(Context context) {
+        final IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addDataScheme("package");
+        context.registerReceiver(mPackageReceiver, filter);
+    }
+
+    /** Returns the label of {@code info}, loading it if it isn't cached. */
+    @NonNull
+    public CharSequence getLabel(@NonNull ComponentInfo info) {
+        final ComponentName componentName = new ComponentName(info.packageName, info.name);
+        synchronized (this) {
+            final CharSequence label = mLabels.get(componentName);
+            if (label != null) {
+                return label;
+            }
+        }
+        final CharSequence label = info.loadLabel(mPackageManager);
+        synchronized (this) {
+            mLabels.put(componentName, label);
+        }
+        return label;
+    }
+
+    /** Drops the cached labels of {@code packageName}. */
+    public synchronized void invalidate(String packageName) {
+        final Iterator<ComponentName> iterator = mLabels.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getPackageName().equals(packageName)) {
+                iterator.remove();
+            }
+        }
+    }
+}
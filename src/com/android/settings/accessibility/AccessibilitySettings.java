@@ -29,6 +29,7 @@ import android.os.UserHandle;
 import android.provider.Settings;
 import android.text.TextUtils;
 import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.view.accessibility.AccessibilityManager;
 
 import androidx.annotation.NonNull;
@@ -48,11 +49,13 @@ import com.android.settingslib.RestrictedPreference;
 import com.android.settingslib.core.AbstractPreferenceController;
 import com.android.settingslib.search.SearchIndexable;
 import com.android.settingslib.search.SearchIndexableRaw;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /** Activity with the accessibility settings. */
 @SearchIndexable(forTarget = SearchIndexable.ALL & ~SearchIndexable.ARC)
@@ -112,30 +115,32 @@ public class AccessibilitySettings extends DashboardFragment {
     private final PackageMonitor mSettingsPackageMonitor = new PackageMonitor() {
         @Override
         public void onPackageAdded(String packageName, int uid) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageModified(@NonNull String packageName) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageAppeared(String packageName, int reason) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageDisappeared(String packageName, int reason) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageRemoved(String packageName, int uid) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
-        private void sendUpdate() {
+        private void sendUpdate(String packageName) {
+            // Rows of the package are rebuilt even if their title and summary are unchanged.
+            mUpdatedPackages.add(packageName);
             mHandler.postDelayed(mUpdateRunnable, DELAY_UPDATE_SERVICES_MILLIS);
         }
     };
@@ -154,6 +159,12 @@ public class AccessibilitySettings extends DashboardFragment {
     private boolean mNeedPreferencesUpdate = false;
     private boolean mIsForeground = true;
 
+    // Installed services are loaded on a background thread, a request made while loading
+    // reloads them once the load is done.
+    private boolean mServicesLoading;
+    private boolean mReloadServices;
+    private final Set<String> mUpdatedPackages = new ArraySet<>();
+
     public AccessibilitySettings() {
         // Observe changes to anything that the shortcut can toggle, so we can reflect updates
         final Collection<AccessibilityShortcutController.FrameworkFeatureInfo> features =
@@ -332,17 +343,42 @@ public class AccessibilitySettings extends DashboardFragment {
     }
 
     protected void updateServicePreferences() {
+        if (mServicesLoading) {
+            mReloadServices = true;
+            return;
+        }
+        mServicesLoading = true;
+        final Set<String> updatedPackages = new ArraySet<>(mUpdatedPackages);
+        final Context context = getPrefContext();
+        final AccessibilityLabelCache labelCache = AccessibilityLabelCache.getInstance(context);
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final InstalledAccessibilityList installedList =
+                    loadInstalledAccessibilityList(context, labelCache);
+            ThreadUtils.postOnMainThread(
+                    () -> onInstalledAccessibilityListLoaded(installedList, updatedPackages));
+        });
+    }
+
+    private void onInstalledAccessibilityListLoaded(InstalledAccessibilityList installedList,
+            Set<String> updatedPackages) {
+        mServicesLoading = false;
+        if (getActivity() == null) {
+            return;
+        }
+        if (mReloadServices) {
+            mReloadServices = false;
+            updateServicePreferences();
+            return;
+        }
+        updateServicePreferenceList(createInstalledPreferenceList(getPrefContext(), installedList));
+        // Packages updated during the load are rebuilt again by the next load.
+        mUpdatedPackages.removeAll(updatedPackages);
+    }
+
+    private void updateServicePreferenceList(List<RestrictedPreference> preferenceList) {
         // Since services category is auto generated we have to do a pass
         // to generate it since services can come and go and then based on
         // the global accessibility state to decided whether it is enabled.
-        final ArrayList<Preference> servicePreferences =
-                new ArrayList<>(mServicePreferenceToPreferenceCategoryMap.keySet());
-        for (int i = 0; i < servicePreferences.size(); i++) {
-            Preference service = servicePreferences.get(i);
-            PreferenceCategory category = mServicePreferenceToPreferenceCategoryMap.get(service);
-            category.removePreference(service);
-        }
-
         initializePreBundledServicesMapFromArray(CATEGORY_SCREEN_READER,
                 R.array.config_preinstalled_screen_reader_services);
         initializePreBundledServicesMapFromArray(CATEGORY_CAPTIONS,
@@ -362,12 +398,15 @@ public class AccessibilitySettings extends DashboardFragment {
                 AccessibilityUtils.ACCESSIBILITY_MENU_IN_SYSTEM,
                 mCategoryToPrefCategoryMap.get(CATEGORY_INTERACTION_CONTROL));
 
-        final List<RestrictedPreference> preferenceList = getInstalledAccessibilityList(
-                getPrefContext());
-
         final PreferenceCategory downloadedServicesCategory =
                 mCategoryToPrefCategoryMap.get(CATEGORY_DOWNLOADED_SERVICES);
 
+        // Diff against the shown rows, so only added, removed and changed services are touched.
+        final Map<String, RestrictedPreference> oldPreferences = new ArrayMap<>();
+        for (Preference preference : mServicePreferenceToPreferenceCategoryMap.keySet()) {
+            oldPreferences.put(preference.getKey(), (RestrictedPreference) preference);
+        }
+        final Map<Preference, PreferenceCategory> newPreferences = new ArrayMap<>();
         for (int i = 0, count = preferenceList.size(); i < count; ++i) {
             final RestrictedPreference preference = preferenceList.get(i);
             final ComponentName componentName = preference.getExtras().getParcelable(
@@ -377,9 +416,31 @@ public class AccessibilitySettings extends DashboardFragment {
             if (mPreBundledServiceComponentToCategoryMap.containsKey(componentName)) {
                 prefCategory = mPreBundledServiceComponentToCategoryMap.get(componentName);
             }
+
+            final RestrictedPreference oldPreference = oldPreferences.remove(preference.getKey());
+            if (oldPreference != null) {
+                final PreferenceCategory oldCategory =
+                        mServicePreferenceToPreferenceCategoryMap.get(oldPreference);
+                if (oldCategory == prefCategory
+                        && isSameServicePreference(oldPreference, preference, componentName)) {
+                    // Unchanged row, only refresh the extras read when it is clicked.
+                    oldPreference.getExtras().clear();
+                    oldPreference.getExtras().putAll(preference.getExtras());
+                    newPreferences.put(oldPreference, prefCategory);
+                    continue;
+                }
+                oldCategory.removePreference(oldPreference);
+                preference.setOrder(oldPreference.getOrder());
+            }
             prefCategory.addPreference(preference);
-            mServicePreferenceToPreferenceCategoryMap.put(preference, prefCategory);
+            newPreferences.put(preference, prefCategory);
+        }
+        for (RestrictedPreference oldPreference : oldPreferences.values()) {
+            mServicePreferenceToPreferenceCategoryMap.get(oldPreference)
+                    .removePreference(oldPreference);
         }
+        mServicePreferenceToPreferenceCategoryMap.clear();
+        mServicePreferenceToPreferenceCategoryMap.putAll(newPreferences);
 
         // Update the order of all the category according to the order defined in xml file.
         updateCategoryOrderFromArray(CATEGORY_SCREEN_READER,
@@ -407,9 +468,32 @@ public class AccessibilitySettings extends DashboardFragment {
         updatePreferenceCategoryVisibility(CATEGORY_SPEECH);
     }
 
-    private List<RestrictedPreference> getInstalledAccessibilityList(Context context) {
+    private boolean isSameServicePreference(RestrictedPreference oldPreference,
+            RestrictedPreference newPreference, ComponentName componentName) {
+        return componentName != null
+                && !mUpdatedPackages.contains(componentName.getPackageName())
+                && TextUtils.equals(oldPreference.getTitle(), newPreference.getTitle())
+                && TextUtils.equals(oldPreference.getSummary(), newPreference.getSummary())
+                && TextUtils.equals(oldPreference.getFragment(), newPreference.getFragment())
+                && oldPreference.isEnabled() == newPreference.isEnabled()
+                && oldPreference.isDisabledByAdmin() == newPreference.isDisabledByAdmin();
+    }
+
+    /** Installed accessibility shortcuts and services, read on a background thread. */
+    private static class InstalledAccessibilityList {
+        final List<AccessibilityShortcutInfo> shortcuts;
+        final List<AccessibilityServiceInfo> services;
+
+        InstalledAccessibilityList(List<AccessibilityShortcutInfo> shortcuts,
+                List<AccessibilityServiceInfo> services) {
+            this.shortcuts = shortcuts;
+            this.services = services;
+        }
+    }
+
+    private static InstalledAccessibilityList loadInstalledAccessibilityList(Context context,
+            AccessibilityLabelCache labelCache) {
         final AccessibilityManager a11yManager = AccessibilityManager.getInstance(context);
-        final RestrictedPreferenceHelper preferenceHelper = new RestrictedPreferenceHelper(context);
 
         final List<AccessibilityShortcutInfo> installedShortcutList =
                 a11yManager.getInstalledAccessibilityShortcutListAsUser(context,
@@ -419,14 +503,20 @@ public class AccessibilitySettings extends DashboardFragment {
         // (getInstalledAccessibilityServiceList).
         final List<AccessibilityServiceInfo> installedServiceList = new ArrayList<>(
                 a11yManager.getInstalledAccessibilityServiceList());
-        installedServiceList.removeIf(
-                target -> containsTargetNameInList(installedShortcutList, target));
+        removeServicesWithShortcut(installedServiceList, installedShortcutList, labelCache);
+
+        return new InstalledAccessibilityList(installedShortcutList, installedServiceList);
+    }
+
+    private static List<RestrictedPreference> createInstalledPreferenceList(Context context,
+            InstalledAccessibilityList installedList) {
+        final RestrictedPreferenceHelper preferenceHelper = new RestrictedPreferenceHelper(context);
 
         final List<RestrictedPreference> activityList =
-                preferenceHelper.createAccessibilityActivityPreferenceList(installedShortcutList);
+                preferenceHelper.createAccessibilityActivityPreferenceList(installedList.shortcuts);
 
         final List<RestrictedPreference> serviceList =
-                preferenceHelper.createAccessibilityServicePreferenceList(installedServiceList);
+                preferenceHelper.createAccessibilityServicePreferenceList(installedList.services);
 
         final List<RestrictedPreference> preferenceList = new ArrayList<>();
         preferenceList.addAll(activityList);
@@ -435,22 +525,41 @@ public class AccessibilitySettings extends DashboardFragment {
         return preferenceList;
     }
 
-    private boolean containsTargetNameInList(List<AccessibilityShortcutInfo> shortcutInfos,
-            AccessibilityServiceInfo targetServiceInfo) {
-        final ServiceInfo serviceInfo = targetServiceInfo.getResolveInfo().serviceInfo;
-        final String servicePackageName = serviceInfo.packageName;
-        final CharSequence serviceLabel = serviceInfo.loadLabel(getPackageManager());
-
-        for (int i = 0, count = shortcutInfos.size(); i < count; ++i) {
-            final ActivityInfo activityInfo = shortcutInfos.get(i).getActivityInfo();
-            final String activityPackageName = activityInfo.packageName;
-            final CharSequence activityLabel = activityInfo.loadLabel(getPackageManager());
-            if (servicePackageName.equals(activityPackageName)
-                    && serviceLabel.equals(activityLabel)) {
-                return true;
+    /**
+     * Removes the services that have a shortcut activity with the same package and label. Only
+     * the labels of packages that have both are loaded.
+     */
+    @VisibleForTesting
+    static void removeServicesWithShortcut(List<AccessibilityServiceInfo> services,
+            List<AccessibilityShortcutInfo> shortcuts, AccessibilityLabelCache labelCache) {
+        if (services.isEmpty() || shortcuts.isEmpty()) {
+            return;
+        }
+        final Set<String> servicePackages = new ArraySet<>();
+        for (int i = 0, count = services.size(); i < count; ++i) {
+            servicePackages.add(services.get(i).getResolveInfo().serviceInfo.packageName);
+        }
+
+        final Map<String, Set<String>> shortcutLabelsByPackage = new ArrayMap<>();
+        for (int i = 0, count = shortcuts.size(); i < count; ++i) {
+            final ActivityInfo activityInfo = shortcuts.get(i).getActivityInfo();
+            if (!servicePackages.contains(activityInfo.packageName)) {
+                continue;
             }
+            Set<String> labels = shortcutLabelsByPackage.get(activityInfo.packageName);
+            if (labels == null) {
+                labels = new ArraySet<>();
+                shortcutLabelsByPackage.put(activityInfo.packageName, labels);
+            }
+            labels.add(labelCache.getLabel(activityInfo).toString());
         }
-        return false;
+
+        services.removeIf(service -> {
+            final ServiceInfo serviceInfo = service.getResolveInfo().serviceInfo;
+            final Set<String> labels = shortcutLabelsByPackage.get(serviceInfo.packageName);
+            return labels != null
+                    && labels.contains(labelCache.getLabel(serviceInfo).toString());
+        });
     }
 
     private void initializePreBundledServicesMapFromArray(String categoryKey, int key) {
@@ -30,8 +30,6 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentSender;
 import android.content.SyncAdapterType;
-import android.content.SyncInfo;
-import android.content.SyncStatusInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.ProviderInfo;
 import android.content.pm.UserInfo;
@@ -53,11 +51,11 @@ import androidx.preference.Preference;
 import com.android.settings.R;
 import com.android.settings.Utils;
 import com.android.settings.widget.EntityHeaderController;
+import com.android.settingslib.utils.ThreadUtils;
 import com.android.settingslib.widget.FooterPreference;
 
 import com.google.android.collect.Lists;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -71,8 +69,13 @@ public class AccountSyncSettings extends AccountPreferenceBase {
     private static final String UID_REQUEST_KEY = "uid_request_code";
 
     private Account mAccount;
-    private ArrayList<SyncAdapterType> mInvisibleAdapters = Lists.newArrayList();
+    private List<SyncAdapterType> mInvisibleAdapters = Lists.newArrayList();
     private HashMap<Integer, Integer> mUidRequestCodeMap = new HashMap<>();
+    // Last sync state applied to the switches, only accessed on the main thread.
+    private AccountSyncStateSnapshot mSyncState;
+    private boolean mSyncStateLoading;
+    private boolean mSyncStateDirty;
+    private FooterPreference mSyncFailingFooter;
 
     @Override
     public Dialog onCreateDialog(final int id) {
@@ -234,8 +237,8 @@ public class AccountSyncSettings extends AccountPreferenceBase {
     public void onPrepareOptionsMenu(Menu menu) {
         super.onPrepareOptionsMenu(menu);
         // Note that this also counts accounts that are not currently displayed
-        boolean syncActive = !ContentResolver.getCurrentSyncsAsUser(
-                mUserHandle.getIdentifier()).isEmpty();
+        boolean syncActive = mSyncState != null ? mSyncState.isAnySyncActive()
+                : !ContentResolver.getCurrentSyncsAsUser(mUserHandle.getIdentifier()).isEmpty();
         menu.findItem(MENU_SYNC_NOW_ID).setVisible(!syncActive).setEnabled(enabledSyncNowMenu());
         menu.findItem(MENU_SYNC_CANCEL_ID).setVisible(syncActive);
     }
@@ -403,34 +406,52 @@ public class AccountSyncSettings extends AccountPreferenceBase {
         }
     }
 
-    private boolean isSyncing(List<SyncInfo> currentSyncs, Account account, String authority) {
-        for (SyncInfo syncInfo : currentSyncs) {
-            if (syncInfo.account.equals(account) && syncInfo.authority.equals(authority)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     @Override
     protected void onSyncStateUpdated() {
-        if (!isResumed()) return;
-        setFeedsState();
-        final Activity activity = getActivity();
-        if (activity != null) {
-            activity.invalidateOptionsMenu();
+        if (!isResumed() || mAccount == null) return;
+        if (mSyncStateLoading) {
+            // Coalesce bursts of sync status changes into one more load.
+            mSyncStateDirty = true;
+            return;
         }
+        mSyncStateLoading = true;
+        final Account account = mAccount;
+        final int userId = mUserHandle.getIdentifier();
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final AccountSyncStateSnapshot syncState =
+                    AccountSyncStateSnapshot.load(account, userId);
+            ThreadUtils.postOnMainThread(() -> onSyncStateLoaded(syncState));
+        });
     }
 
-    private void setFeedsState() {
+    @VisibleForTesting
+    void onSyncStateLoaded(AccountSyncStateSnapshot syncState) {
+        mSyncStateLoading = false;
+        if (mSyncStateDirty) {
+            mSyncStateDirty = false;
+            onSyncStateUpdated();
+        }
+        if (!isResumed() || getActivity() == null) return;
+
+        mInvisibleAdapters = syncState.getInvisibleAdapters();
+        if (!syncState.hasSameAdapters(mSyncState)) {
+            // Some syncs may have become active, refresh the sync status switches.
+            updateAccountSwitches(syncState);
+            mSyncState = null;
+        }
+        setFeedsState(syncState, mSyncState);
+        mSyncState = syncState;
+        getActivity().invalidateOptionsMenu();
+    }
+
+    private void setFeedsState(AccountSyncStateSnapshot syncState,
+            AccountSyncStateSnapshot lastSyncState) {
         // iterate over all the preferences, setting the state properly for each
         Date date = new Date();
-        final int userId = mUserHandle.getIdentifier();
-        List<SyncInfo> currentSyncs = ContentResolver.getCurrentSyncsAsUser(userId);
         boolean syncIsFailing = false;
-
-        // Refresh the sync status switches - some syncs may have become active.
-        updateAccountSwitches();
+        final boolean oneTimeSyncMode = !syncState.isMasterSyncAutomatically();
+        final boolean oneTimeSyncModeChanged = lastSyncState == null
+                || lastSyncState.isMasterSyncAutomatically() != !oneTimeSyncMode;
 
         for (int i = 0, count = getPreferenceScreen().getPreferenceCount(); i < count; i++) {
             Preference pref = getPreferenceScreen().getPreference(i);
@@ -442,54 +463,55 @@ public class AccountSyncSettings extends AccountPreferenceBase {
             String authority = syncPref.getAuthority();
             Account account = syncPref.getAccount();
 
-            SyncStatusInfo status = ContentResolver.getSyncStatusAsUser(account, authority, userId);
-            boolean syncEnabled = ContentResolver.getSyncAutomaticallyAsUser(account, authority,
-                    userId);
-            boolean authorityIsPending = status == null ? false : status.pending;
-            boolean initialSync = status == null ? false : status.initialize;
-
-            boolean activelySyncing = isSyncing(currentSyncs, account, authority);
-            boolean lastSyncFailed = status != null
-                    && status.lastFailureTime != 0
-                    && status.getLastFailureMesgAsInt(0)
-                    != ContentResolver.SYNC_ERROR_SYNC_ALREADY_IN_PROGRESS;
-            if (!syncEnabled) lastSyncFailed = false;
-            if (lastSyncFailed && !activelySyncing && !authorityIsPending) {
+            final AccountSyncStateSnapshot.AuthorityState state =
+                    syncState.getAuthorityState(authority);
+            if (state == null) {
+                continue;
+            }
+            if (state.lastSyncFailed && !state.activelySyncing && !state.pending) {
                 syncIsFailing = true;
             }
+            if (!oneTimeSyncModeChanged
+                    && state.equals(lastSyncState.getAuthorityState(authority))) {
+                // Only update the rows whose state changed.
+                continue;
+            }
             if (Log.isLoggable(TAG, Log.DEBUG)) {
                 Log.d(TAG, "Update sync status: " + account + " " + authority +
-                        " active = " + activelySyncing + " pend =" + authorityIsPending);
+                        " active = " + state.activelySyncing + " pend =" + state.pending);
             }
 
-            final long successEndTime = (status == null) ? 0 : status.lastSuccessTime;
-            if (!syncEnabled) {
+            if (!state.syncEnabled) {
                 syncPref.setSummary(R.string.sync_disabled);
-            } else if (activelySyncing) {
+            } else if (state.activelySyncing) {
                 syncPref.setSummary(R.string.sync_in_progress);
-            } else if (successEndTime != 0) {
-                date.setTime(successEndTime);
+            } else if (state.lastSuccessTime != 0) {
+                date.setTime(state.lastSuccessTime);
                 final String timeString = formatSyncDate(getContext(), date);
                 syncPref.setSummary(getResources().getString(R.string.last_synced, timeString));
             } else {
                 syncPref.setSummary("");
             }
-            int syncState = ContentResolver.getIsSyncableAsUser(account, authority, userId);
 
-            syncPref.setActive(activelySyncing && (syncState >= 0) &&
-                    !initialSync);
-            syncPref.setPending(authorityIsPending && (syncState >= 0) &&
-                    !initialSync);
+            // Only syncable authorities are shown, so there's no need to check it again here.
+            syncPref.setActive(state.activelySyncing && !state.initialSync);
+            syncPref.setPending(state.pending && !state.initialSync);
 
-            syncPref.setFailed(lastSyncFailed);
-            final boolean oneTimeSyncMode = !ContentResolver.getMasterSyncAutomaticallyAsUser(
-                    userId);
+            syncPref.setFailed(state.lastSyncFailed);
             syncPref.setOneTimeSyncMode(oneTimeSyncMode);
-            syncPref.setChecked(oneTimeSyncMode || syncEnabled);
+            syncPref.setChecked(oneTimeSyncMode || state.syncEnabled);
         }
         if (syncIsFailing) {
-            getPreferenceScreen().addPreference(new FooterPreference.Builder(
-                    getActivity()).setTitle(R.string.sync_is_failing).build());
+            if (mSyncFailingFooter == null) {
+                mSyncFailingFooter = new FooterPreference.Builder(
+                        getActivity()).setTitle(R.string.sync_is_failing).build();
+            }
+            // The footer is also removed when the sync switches are rebuilt.
+            if (mSyncFailingFooter.getParent() == null) {
+                getPreferenceScreen().addPreference(mSyncFailingFooter);
+            }
+        } else if (mSyncFailingFooter != null) {
+            getPreferenceScreen().removePreference(mSyncFailingFooter);
         }
     }
 
@@ -501,7 +523,8 @@ public class AccountSyncSettings extends AccountPreferenceBase {
             finish();
             return;
         }
-        updateAccountSwitches();
+        // The sync state load refreshes the switches once it's done.
+        mSyncState = null;
         onSyncStateUpdated();
     }
 
@@ -519,53 +542,25 @@ public class AccountSyncSettings extends AccountPreferenceBase {
         return false;
     }
 
-    private void updateAccountSwitches() {
-        mInvisibleAdapters.clear();
-
-        SyncAdapterType[] syncAdapters = ContentResolver.getSyncAdapterTypesAsUser(
-                mUserHandle.getIdentifier());
-        ArrayList<SyncAdapterType> authorities = new ArrayList<>();
-        for (int i = 0, n = syncAdapters.length; i < n; i++) {
-            final SyncAdapterType sa = syncAdapters[i];
-            // Only keep track of sync adapters for this account
-            if (!sa.accountType.equals(mAccount.type)) continue;
-            if (sa.isUserVisible()) {
-                if (Log.isLoggable(TAG, Log.DEBUG)) {
-                    Log.d(TAG, "updateAccountSwitches: added authority " + sa.authority
-                            + " to accountType " + sa.accountType);
-                }
-                authorities.add(sa);
-            } else {
-                // keep track of invisible sync adapters, so sync now forces
-                // them to sync as well.
-                mInvisibleAdapters.add(sa);
-            }
-        }
-
+    private void updateAccountSwitches(AccountSyncStateSnapshot syncState) {
         if (Log.isLoggable(TAG, Log.DEBUG)) {
             Log.d(TAG, "looking for sync adapters that match account " + mAccount);
         }
 
         cacheRemoveAllPrefs(getPreferenceScreen());
         getCachedPreference(EntityHeaderController.PREF_KEY_APP_HEADER);
-        for (int j = 0, m = authorities.size(); j < m; j++) {
-            final SyncAdapterType syncAdapter = authorities.get(j);
-            // We could check services here....
-            int syncState = ContentResolver.getIsSyncableAsUser(mAccount, syncAdapter.authority,
-                    mUserHandle.getIdentifier());
+        for (SyncAdapterType syncAdapter : syncState.getVisibleAdapters()) {
             if (Log.isLoggable(TAG, Log.DEBUG)) {
-                Log.d(TAG, "  found authority " + syncAdapter.authority + " " + syncState);
+                Log.d(TAG, "  found authority " + syncAdapter.authority);
             }
-            if (syncState > 0) {
-                final int uid;
-                try {
-                    uid = getContext().getPackageManager().getPackageUidAsUser(
-                            syncAdapter.getPackageName(), mUserHandle.getIdentifier());
-                    addSyncStateSwitch(mAccount, syncAdapter.authority,
-                            syncAdapter.getPackageName(), uid);
-                } catch (PackageManager.NameNotFoundException e) {
-                    Log.e(TAG, "No uid for package" + syncAdapter.getPackageName(), e);
-                }
+            final int uid;
+            try {
+                uid = getContext().getPackageManager().getPackageUidAsUser(
+                        syncAdapter.getPackageName(), mUserHandle.getIdentifier());
+                addSyncStateSwitch(mAccount, syncAdapter.authority,
+                        syncAdapter.getPackageName(), uid);
+            } catch (PackageManager.NameNotFoundException e) {
+                Log.e(TAG, "No uid for package" + syncAdapter.getPackageName(), e);
             }
         }
         removeCachedPrefs(getPreferenceScreen());
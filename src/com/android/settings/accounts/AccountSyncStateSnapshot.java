@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.accounts;
+
+import android.accounts.Account;
+import android.content.ContentResolver;
+import android.content.SyncAdapterType;
+import android.content.SyncInfo;
+import android.content.SyncStatusInfo;
+import android.util.ArrayMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sync state of one account of a user, read in a single pass of {@link ContentResolver} calls.
+ *
+ * The state is loaded on a background thread and compared with the previous snapshot, so a
+ * burst of sync status changes only updates the rows that actually changed.
+ */
+public class AccountSyncStateSnapshot {
+
+    private final boolean mMasterSyncAutomatically;
+    private final boolean mAnySyncActive;
+    private final List<SyncAdapterType> mVisibleAdapters;
+    private final List<SyncAdapterType> mInvisibleAdapters;
+    private final Map<String, AuthorityState> mAuthorityStates;
+
+    /**
+     * Reads the sync state of every sync adapter of {@code account}.
+     */
+    @WorkerThread
+    public static AccountSyncStateSnapshot load(@NonNull Account account, int userId) {
+        final List<SyncAdapterType> visibleAdapters = new ArrayList<>();
+        final List<SyncAdapterType> invisibleAdapters = new ArrayList<>();
+        for (SyncAdapterType sa : ContentResolver.getSyncAdapterTypesAsUser(userId)) {
+            // Only keep track of sync adapters for this account
+            if (!sa.accountType.equals(account.type)) {
+                continue;
+            }
+            if (!sa.isUserVisible()) {
+                // Keep track of invisible sync adapters, so sync now forces them to sync as well.
+                invisibleAdapters.add(sa);
+            } else if (ContentResolver.getIsSyncableAsUser(account, sa.authority, userId) > 0) {
+                visibleAdapters.add(sa);
+            }
+        }
+
+        final List<SyncInfo> currentSyncs = ContentResolver.getCurrentSyncsAsUser(userId);
+        final Map<String, AuthorityState> authorityStates = new ArrayMap<>();
+        for (SyncAdapterType sa : visibleAdapters) {
+            final SyncStatusInfo status =
+                    ContentResolver.getSyncStatusAsUser(account, sa.authority, userId);
+            final boolean syncEnabled =
+                    ContentResolver.getSyncAutomaticallyAsUser(account, sa.authority, userId);
+            authorityStates.put(sa.authority, new AuthorityState(status, syncEnabled,
+                    isSyncing(currentSyncs, account, sa.authority)));
+        }
+        return new AccountSyncStateSnapshot(
+                ContentResolver.getMasterSyncAutomaticallyAsUser(userId),
+                currentSyncs != null && !currentSyncs.isEmpty(),
+                visibleAdapters, invisibleAdapters, authorityStates);
+    }
+
+    private static boolean isSyncing(List<SyncInfo> currentSyncs, Account account,
+            String authority) {
+        if (currentSyncs == null) {
+            return false;
+        }
+        for (SyncInfo syncInfo : currentSyncs) {
+            if (syncInfo.account.equals(account) && syncInfo.authority.equals(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AccountSyncStateSnapshot(boolean masterSyncAutomatically, boolean anySyncActive,
+            List<SyncAdapterType> visibleAdapters, List<SyncAdapterType> invisibleAdapters,
+            Map<String, AuthorityState> authorityStates) {
+        mMasterSyncAutomatically = masterSyncAutomatically;
+        mAnySyncActive = anySyncActive;
+        mVisibleAdapters = Collections.unmodifiableList(visibleAdapters);
+        mInvisibleAdapters = Collections.unmodifiableList(invisibleAdapters);
+        mAuthorityStates = authorityStates;
+    }
+
+    /** Whether sync is on for the whole user, i.e. not in one time sync mode. */
+    public boolean isMasterSyncAutomatically() {
+        return mMasterSyncAutomatically;
+    }
+
+    /** Whether any account of the user is syncing, including accounts not in this snapshot. */
+    public boolean isAnySyncActive() {
+        return mAnySyncActive;
+    }
+
+    /** Returns the user visible and syncable sync adapters of the account. */
+    public List<SyncAdapterType> getVisibleAdapters() {
+        return mVisibleAdapters;
+    }
+
+    /** Returns the sync adapters of the account that aren't shown to the user. */
+    public List<SyncAdapterType> getInvisibleAdapters() {
+        return mInvisibleAdapters;
+    }
+
+    /** Returns the state of {@code authority}, or {@code null} if it isn't visible. */
+    @Nullable
+    public AuthorityState getAuthorityState(String authority) {
+        return mAuthorityStates.get(authority);
+    }
+
+    /**
+     * Returns {@code true} if the visible sync adapters, i.e. the rows shown for the account,
+     * are the same in both snapshots.
+     */
+    public boolean hasSameAdapters(@Nullable AccountSyncStateSnapshot other) {
+        return other != null && mAuthorityStates.keySet().equals(other.mAuthorityStates.keySet());
+    }
+
+    /**
+     * Sync state of one authority, as shown by its {@link SyncStateSwitchPreference}.
+     */
+    public static class AuthorityState {
+        public final boolean syncEnabled;
+        public final boolean activelySyncing;
+        public final boolean pending;
+        public final boolean initialSync;
+        public final boolean lastSyncFailed;
+        public final long lastSuccessTime;
+
+        AuthorityState(@Nullable SyncStatusInfo status, boolean syncEnabled,
+                boolean activelySyncing) {
+            this.syncEnabled = syncEnabled;
+            this.activelySyncing = activelySyncing;
+            pending = status != null && status.pending;
+            initialSync = status != null && status.initialize;
+            lastSyncFailed = syncEnabled && status != null
+                    && status.lastFailureTime != 0
+                    && status.getLastFailureMesgAsInt(0)
+                    != ContentResolver.SYNC_ERROR_SYNC_ALREADY_IN_PROGRESS;
+            lastSuccessTime = status == null ? 0 : status.lastSuccessTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AuthorityState)) {
+                return false;
+            }
+            final AuthorityState other = (AuthorityState) o;
+            return syncEnabled == other.syncEnabled
+                    && activelySyncing == other.activelySyncing
+                    && pending == other.pending
+                    && initialSync == other.initialSync
+                    && lastSyncFailed == other.lastSyncFailed
+                    && lastSuccessTime == other.lastSuccessTime;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(syncEnabled, activelySyncing, pending, initialSync,
+                    lastSyncFailed, lastSuccessTime);
+        }
+    }
+}
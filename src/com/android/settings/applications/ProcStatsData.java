@@ -26,6 +26,7 @@ import android.os.SystemClock;
 import android.text.format.Formatter;
 import android.util.ArrayMap;
 import android.util.Log;
+import android.util.LruCache;
 import android.util.LongSparseArray;
 import android.util.SparseArray;
 
@@ -55,7 +56,12 @@ public class ProcStatsData {
 
     private static final boolean DEBUG = ProcessStatsUi.DEBUG;
 
-    private static ProcessStats sStatsXfer;
+    /**
+     * Computed summaries of recently shown windows, keyed by duration. Shared across instances so
+     * a recreated page, or a page opened from another one, can reuse them.
+     */
+    private static final LruCache<Long, Summary> sSummaryCache =
+            new LruCache<>(ProcessStatsBase.NUM_DURATIONS);
 
     private PackageManager mPm;
     private Context mContext;
@@ -74,32 +80,31 @@ public class ProcStatsData {
     private MemInfo mMemInfo;
 
     private ArrayList<ProcStatsPackageEntry> pkgEntries;
+    private int mMemState;
+
+    // Cached summaries computed before this time are too old to be shown by this instance.
+    private final long mMinSummaryTime;
 
+    /**
+     * @param useXfer whether summaries computed by a previous instance, e.g. before a
+     *                configuration change, may be reused.
+     */
     public ProcStatsData(Context context, boolean useXfer) {
+        this(context, useXfer ? 0L : SystemClock.elapsedRealtime());
+    }
+
+    private ProcStatsData(Context context, long minSummaryTime) {
         mContext = context;
         mPm = context.getPackageManager();
         mProcessStats = IProcessStats.Stub.asInterface(
                 ServiceManager.getService(ProcessStats.SERVICE_NAME));
         mMemStates = ProcessStats.ALL_MEM_ADJ;
         mStates = ProcessStats.BACKGROUND_PROC_STATES;
-        if (useXfer) {
-            mStats = sStatsXfer;
-        }
-    }
-
-    public void xferStats() {
-        sStatsXfer = mStats;
+        mMinSummaryTime = minSummaryTime;
     }
 
     public int getMemState() {
-        int factor = mStats.mMemFactor;
-        if (factor == ProcessStats.ADJ_NOTHING) {
-            return ProcessStats.ADJ_MEM_FACTOR_NORMAL;
-        }
-        if (factor >= ProcessStats.ADJ_SCREEN_ON) {
-            factor -= ProcessStats.ADJ_SCREEN_ON;
-        }
-        return factor;
+        return mMemState;
     }
 
     public MemInfo getMemInfo() {
@@ -124,16 +129,82 @@ public class ProcStatsData {
     }
 
     /**
-     * Refreshes the stats.
+     * Refreshes the stats. Unless {@code forceLoad} is set, a cached summary of the current
+     * duration is reused if there is one.
      *
      * <p>Note: This needs to be called manually to take effect.
      */
     @WorkerThread
     public void refreshStats(boolean forceLoad) {
-        if (mStats == null || forceLoad) {
-            load();
+        if (!forceLoad && applyCachedStats()) {
+            return;
         }
 
+        load();
+        computeStats();
+        final Summary summary = new Summary(mMemState, mMemInfo, pkgEntries);
+        sSummaryCache.put(mDuration, summary);
+        // The parsed stats are only needed to compute the summary, don't hold on to them.
+        mStats = null;
+        applySummary(summary);
+    }
+
+    /**
+     * Applies the cached summary of the current duration, if there is one. Unlike {@link
+     * #refreshStats(boolean)}, this never loads the stats and may be called on the main thread.
+     *
+     * @return whether a cached summary was applied
+     */
+    public boolean applyCachedStats() {
+        final Summary summary = getCachedSummary(mDuration);
+        if (summary == null) {
+            return false;
+        }
+        applySummary(summary);
+        return true;
+    }
+
+    /**
+     * Computes and caches the summaries of all {@code durations} that aren't cached yet, so the
+     * UI can switch between them without loading the stats again.
+     */
+    @WorkerThread
+    public void precomputeStats(long[] durations) {
+        for (long duration : durations) {
+            if (getCachedSummary(duration) != null) {
+                continue;
+            }
+            final ProcStatsData data = new ProcStatsData(mContext, mMinSummaryTime);
+            data.setDuration(duration);
+            data.refreshStats(true /* forceLoad */);
+        }
+    }
+
+    private Summary getCachedSummary(long duration) {
+        final Summary summary = sSummaryCache.get(duration);
+        return summary != null && summary.mComputedTime >= mMinSummaryTime ? summary : null;
+    }
+
+    private void applySummary(Summary summary) {
+        mMemState = summary.mMemState;
+        mMemInfo = summary.mMemInfo;
+        // The UI updates and sorts the entries in place, so each instance gets its own copies.
+        pkgEntries = new ArrayList<>(summary.mEntries.size());
+        for (ProcStatsPackageEntry entry : summary.mEntries) {
+            pkgEntries.add(new ProcStatsPackageEntry(entry));
+        }
+        memTotalTime = summary.mMemInfo.memTotalTime;
+    }
+
+    private void computeStats() {
+        int factor = mStats.mMemFactor;
+        if (factor == ProcessStats.ADJ_NOTHING) {
+            factor = ProcessStats.ADJ_MEM_FACTOR_NORMAL;
+        } else if (factor >= ProcessStats.ADJ_SCREEN_ON) {
+            factor -= ProcessStats.ADJ_SCREEN_ON;
+        }
+        mMemState = factor;
+
         pkgEntries = new ArrayList<>();
 
         long now = SystemClock.uptimeMillis();
@@ -351,6 +422,22 @@ public class ProcStatsData {
         }
     }
 
+    /**
+     * Everything the UI shows for one duration, computed from a {@link ProcessStats} load.
+     */
+    private static class Summary {
+        final long mComputedTime = SystemClock.elapsedRealtime();
+        final int mMemState;
+        final MemInfo mMemInfo;
+        final ArrayList<ProcStatsPackageEntry> mEntries;
+
+        Summary(int memState, MemInfo memInfo, ArrayList<ProcStatsPackageEntry> entries) {
+            mMemState = memState;
+            mMemInfo = memInfo;
+            mEntries = entries;
+        }
+    }
+
     public static class MemInfo {
         public double realUsedRam;
         public double realFreeRam;
@@ -56,6 +56,24 @@ public class ProcStatsPackageEntry implements Parcelable {
         mWindowLength = windowLength;
     }
 
+    /**
+     * Copies {@code other}, so the copy's metrics and UI data can be updated without changing it.
+     * The process entries are shared.
+     */
+    public ProcStatsPackageEntry(ProcStatsPackageEntry other) {
+        mPackage = other.mPackage;
+        mWindowLength = other.mWindowLength;
+        mEntries.addAll(other.mEntries);
+        mBgDuration = other.mBgDuration;
+        mAvgBgMem = other.mAvgBgMem;
+        mMaxBgMem = other.mMaxBgMem;
+        mBgWeight = other.mBgWeight;
+        mRunDuration = other.mRunDuration;
+        mAvgRunMem = other.mAvgRunMem;
+        mMaxRunMem = other.mMaxRunMem;
+        mRunWeight = other.mRunWeight;
+    }
+
     public ProcStatsPackageEntry(Parcel in) {
         mPackage = in.readString();
         in.readTypedList(mEntries, ProcStatsEntry.CREATOR);
@@ -30,6 +30,7 @@ import com.android.settings.SettingsPreferenceFragment;
 import com.android.settings.applications.ProcStatsData.MemInfo;
 import com.android.settings.core.SubSettingLauncher;
 import com.android.settingslib.core.instrumentation.Instrumentable;
+import com.android.settingslib.utils.ThreadUtils;
 import com.android.settingslib.widget.SettingsSpinnerAdapter;
 
 public abstract class ProcessStatsBase extends SettingsPreferenceFragment
@@ -88,16 +89,7 @@ public abstract class ProcessStatsBase extends SettingsPreferenceFragment
     @Override
     public void onResume() {
         super.onResume();
-        mStatsManager.refreshStats(false);
-        refreshUi();
-    }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-        if (getActivity().isChangingConfigurations()) {
-            mStatsManager.xferStats();
-        }
+        loadStats(true /* precomputeAll */);
     }
 
     @Override
@@ -119,7 +111,7 @@ public abstract class ProcessStatsBase extends SettingsPreferenceFragment
     public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
         mDurationIndex = position;
         mStatsManager.setDuration(sDurations[position]);
-        refreshUi();
+        loadStats(false /* precomputeAll */);
     }
 
     @Override
@@ -130,6 +122,40 @@ public abstract class ProcessStatsBase extends SettingsPreferenceFragment
 
     public abstract void refreshUi();
 
+    /**
+     * Shows the cached stats of the current duration, or loads them on a background thread and
+     * shows them once loaded, unless the duration was changed in the meantime.
+     *
+     * @param precomputeAll whether to also compute the other durations up front, so switching
+     *                      between them is instant.
+     */
+    private void loadStats(boolean precomputeAll) {
+        final ProcStatsData statsManager = mStatsManager;
+        final long duration = statsManager.getDuration();
+        final boolean cached = statsManager.applyCachedStats();
+        if (cached) {
+            refreshUi();
+            if (!precomputeAll) {
+                return;
+            }
+        }
+        ThreadUtils.postOnBackgroundThread(() -> {
+            if (!cached) {
+                statsManager.precomputeStats(new long[] {duration});
+                ThreadUtils.postOnMainThread(() -> {
+                    if (isAdded() && statsManager == mStatsManager
+                            && statsManager.getDuration() == duration
+                            && statsManager.applyCachedStats()) {
+                        refreshUi();
+                    }
+                });
+            }
+            if (precomputeAll) {
+                statsManager.precomputeStats(sDurations);
+            }
+        });
+    }
+
     public static void launchMemoryDetail(SettingsActivity activity, MemInfo memInfo,
             ProcStatsPackageEntry entry, boolean includeAppInfo) {
         Bundle args = new Bundle();
@@ -123,7 +123,6 @@ public class ProcessStatsSummary extends ProcessStatsBase implements OnPreferenc
             final Bundle args = new Bundle();
             args.putBoolean(ARG_TRANSFER_STATS, true);
             args.putInt(ARG_DURATION_INDEX, mDurationIndex);
-            mStatsManager.xferStats();
             new SubSettingLauncher(getContext())
                     .setDestination(ProcessStatsUi.class.getName())
                     .setTitleRes(R.string.memory_usage_apps)
@@ -79,7 +79,10 @@ public class ProcessStatsUi extends ProcessStatsBase {
             case MENU_SHOW_AVG:
             case MENU_SHOW_MAX:
                 mShowMax = !mShowMax;
-                refreshUi();
+                // The stats may still be loading, they are shown sorted once loaded.
+                if (mStatsManager.getEntries() != null) {
+                    refreshUi();
+                }
                 updateMenu();
                 return true;
         }
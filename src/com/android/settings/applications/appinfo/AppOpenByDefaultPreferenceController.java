@@ -20,7 +20,6 @@ import android.content.Context;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageInfo;
 import android.content.pm.verify.domain.DomainVerificationManager;
-import android.content.pm.verify.domain.DomainVerificationUserState;
 import android.os.UserHandle;
 
 import androidx.annotation.VisibleForTesting;
@@ -30,18 +29,20 @@ import androidx.preference.PreferenceScreen;
 import com.android.settings.R;
 import com.android.settings.SettingsPreferenceFragment;
 import com.android.settings.applications.intentpicker.AppLaunchSettings;
-import com.android.settings.applications.intentpicker.IntentPickerUtils;
+import com.android.settings.applications.intentpicker.DomainVerificationStateCache;
 import com.android.settingslib.applications.AppUtils;
 import com.android.settingslib.applications.ApplicationsState;
 
 public class AppOpenByDefaultPreferenceController extends AppInfoPreferenceControllerBase {
 
     private final DomainVerificationManager mDomainVerificationManager;
+    private final DomainVerificationStateCache mDomainVerificationStateCache;
     private String mPackageName;
 
     public AppOpenByDefaultPreferenceController(Context context, String key) {
         super(context, key);
         mDomainVerificationManager = context.getSystemService(DomainVerificationManager.class);
+        mDomainVerificationStateCache = DomainVerificationStateCache.getInstance(context);
     }
 
     /** Set a package name for this controller. */
@@ -88,9 +89,7 @@ public class AppOpenByDefaultPreferenceController extends AppInfoPreferenceContr
 
     @VisibleForTesting
     boolean isLinkHandlingAllowed() {
-        final DomainVerificationUserState userState =
-                IntentPickerUtils.getDomainVerificationUserState(mDomainVerificationManager,
-                        mPackageName);
-        return userState == null ? false : userState.isLinkHandlingAllowed();
+        return mDomainVerificationStateCache.get(mDomainVerificationManager,
+                mContext.getUserId(), mPackageName).isLinkHandlingAllowed();
     }
 }
@@ -31,9 +31,9 @@ import android.util.Log;
 import android.util.SparseArray;
 
 import com.android.settings.R;
+import com.android.settings.utils.LabelSorter;
 
 import java.io.File;
-import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -435,7 +435,6 @@ public class AppOpsState {
      * Perform app op state comparison of application entry objects.
      */
     public static final Comparator<AppOpEntry> RECENCY_COMPARATOR = new Comparator<AppOpEntry>() {
-        private final Collator sCollator = Collator.getInstance();
         @Override
         public int compare(AppOpEntry object1, AppOpEntry object2) {
             if (object1.getSwitchOrder() != object2.getSwitchOrder()) {
@@ -449,7 +448,7 @@ public class AppOpsState {
                 // More recent times go first.
                 return object1.getTime() > object2.getTime() ? -1 : 1;
             }
-            return sCollator.compare(object1.getAppEntry().getLabel(),
+            return LabelSorter.getInstance().compare(object1.getAppEntry().getLabel(),
                     object2.getAppEntry().getLabel());
         }
     };
@@ -458,10 +457,9 @@ public class AppOpsState {
      * Perform alphabetical comparison of application entry objects.
      */
     public static final Comparator<AppOpEntry> LABEL_COMPARATOR = new Comparator<AppOpEntry>() {
-        private final Collator sCollator = Collator.getInstance();
         @Override
         public int compare(AppOpEntry object1, AppOpEntry object2) {
-            return sCollator.compare(object1.getAppEntry().getLabel(),
+            return LabelSorter.getInstance().compare(object1.getAppEntry().getLabel(),
                     object2.getAppEntry().getLabel());
         }
     };
@@ -628,7 +626,12 @@ public class AppOpsState {
         }
 
         // Sort the list.
-        Collections.sort(entries, comparator);
+        if (comparator == LABEL_COMPARATOR) {
+            // Collate each label once instead of on every comparison.
+            LabelSorter.getInstance().sort(entries, entry -> entry.getAppEntry().getLabel());
+        } else {
+            Collections.sort(entries, comparator);
+        }
 
         // Done!
         return entries;
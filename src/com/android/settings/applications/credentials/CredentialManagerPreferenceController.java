@@ -43,7 +43,6 @@ import android.os.OutcomeReceiver;
 import android.os.UserHandle;
 import android.os.UserManager;
 import android.provider.Settings;
-import android.service.autofill.AutofillServiceInfo;
 import android.text.TextUtils;
 import android.util.Log;
 import android.view.View;
@@ -75,6 +74,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
@@ -105,6 +105,9 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
     private final @Nullable CredentialManager mCredentialManager;
     private final Executor mExecutor;
     private final Map<String, CombiPreference> mPrefs = new HashMap<>(); // key is package name
+    private final Map<String, RowState> mRowStates = new HashMap<>(); // key is package name
+    private final CredentialProviderMetadataCache mMetadataCache =
+            CredentialProviderMetadataCache.getInstance();
     private final List<ServiceInfo> mPendingServiceInfos = new ArrayList<>();
     private final Handler mHandler = new Handler();
     private final SettingContentObserver mSettingsContentObserver;
@@ -116,6 +119,8 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
 
     private boolean mVisibility = false;
     private boolean mIsWorkProfile = false;
+    private boolean mLoadingProviders = false;
+    private boolean mReloadProviders = false;
 
     public CredentialManagerPreferenceController(Context context, String preferenceKey) {
         super(context, preferenceKey);
@@ -336,11 +341,43 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
         if (mCredentialManager == null) {
             return;
         }
+        if (mLoadingProviders) {
+            // Coalesce bursts of package and setting changes into one more load.
+            mReloadProviders = true;
+            return;
+        }
+
+        mLoadingProviders = true;
+        final int userId = getUser();
+        ThreadUtils.postOnBackgroundThread(
+                () -> {
+                    final CredentialProviderSnapshot snapshot =
+                            CredentialProviderSnapshot.load(
+                                    mContext, mCredentialManager, userId, mMetadataCache);
+                    ThreadUtils.postOnMainThread(() -> onProvidersLoaded(snapshot));
+                });
+    }
+
+    private void onProvidersLoaded(CredentialProviderSnapshot snapshot) {
+        mLoadingProviders = false;
+        if (mReloadProviders) {
+            mReloadProviders = false;
+            updateFromExternal();
+        }
+
+        // The user may have changed while loading, the load above will catch up.
+        if (snapshot.getUserId() != getUser()) {
+            return;
+        }
+
+        // A package changed while loading, the providers may be stale. The load posted by the
+        // package monitor will catch up.
+        if (snapshot.getGeneration() != mMetadataCache.getGeneration()) {
+            return;
+        }
 
         // Get the list of new providers and components.
-        List<CredentialProviderInfo> newProviders =
-                mCredentialManager.getCredentialProviderServices(
-                        getUser(), CredentialManager.PROVIDER_FILTER_USER_PROVIDERS_ONLY);
+        List<CredentialProviderInfo> newProviders = snapshot.getServices();
         Set<ComponentName> newComponents = buildComponentNameSet(newProviders, false);
         Set<ComponentName> newPrimaryComponents = buildComponentNameSet(newProviders, true);
 
@@ -357,7 +394,7 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
         setAvailableServices(newProviders, null);
 
         if (mPreferenceScreen != null) {
-            displayPreference(mPreferenceScreen);
+            updatePreferenceList(mPreferenceScreen, snapshot.getProviders());
         }
 
         if (mDelegate != null) {
@@ -404,6 +441,7 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
 
         // Since the UI is being cleared, clear any refs.
         mPrefs.clear();
+        mRowStates.clear();
 
         mPreferenceScreen = screen;
         PreferenceGroup group = screen.findPreference(getPreferenceKey());
@@ -413,6 +451,25 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
         mPrefs.putAll(buildPreferenceList(context, group));
     }
 
+    /** Updates the rows in place, only the rows whose provider changed are rebuilt. */
+    private void updatePreferenceList(
+            PreferenceScreen screen, List<CombinedProviderInfo> providers) {
+        PreferenceGroup group = screen.findPreference(getPreferenceKey());
+        if (group == null) {
+            return;
+        }
+
+        Map<String, CombiPreference> reusablePrefs = new HashMap<>(mPrefs);
+        mPrefs.clear();
+        mPrefs.putAll(buildPreferenceList(screen.getContext(), group, providers, reusablePrefs));
+
+        // Remove the rows of providers that are gone.
+        for (Map.Entry<String, CombiPreference> entry : reusablePrefs.entrySet()) {
+            group.removePreference(entry.getValue());
+            mRowStates.remove(entry.getKey());
+        }
+    }
+
     /**
      * Gets the preference that allows to add a new cred man service.
      *
@@ -445,22 +502,21 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
     @VisibleForTesting
     public Map<String, CombiPreference> buildPreferenceList(
             Context context, PreferenceGroup group) {
-        // Get the selected autofill provider. If it is the placeholder then replace it with an
-        // empty string.
-        String selectedAutofillProvider =
-                DefaultCombinedPicker.getSelectedAutofillProvider(mContext, getUser());
-        if (TextUtils.equals(
-                selectedAutofillProvider, AUTOFILL_CREDMAN_ONLY_PROVIDER_PLACEHOLDER)) {
-            selectedAutofillProvider = "";
-        }
-
         // Get the list of combined providers.
         List<CombinedProviderInfo> providers =
-                CombinedProviderInfo.buildMergedList(
-                        AutofillServiceInfo.getAvailableServices(context, getUser()),
-                        mServices,
-                        selectedAutofillProvider);
+                CredentialProviderSnapshot.buildCombinedProviders(mContext, mServices, getUser());
+        return buildPreferenceList(context, group, providers, new HashMap<>());
+    }
 
+    /**
+     * Builds the prefs of {@code providers}. Prefs of {@code reusablePrefs} are taken out of it
+     * and kept if their provider still has a row, the other prefs are added to {@code group}.
+     */
+    private Map<String, CombiPreference> buildPreferenceList(
+            Context context,
+            PreferenceGroup group,
+            List<CombinedProviderInfo> providers,
+            Map<String, CombiPreference> reusablePrefs) {
         // Get the provider that is displayed at the top. If there is none then hide
         // everything.
         CombinedProviderInfo topProvider = CombinedProviderInfo.getTopProvider(providers);
@@ -470,6 +526,8 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
         }
 
         Map<String, CombiPreference> output = new HashMap<>();
+        // Rows are reused and added in any order, keep them in the order of the merged list.
+        int order = 0;
         for (CombinedProviderInfo combinedInfo : providers) {
             final String packageName = combinedInfo.getApplicationInfo().packageName;
 
@@ -488,20 +546,34 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
             CharSequence settingsActivity =
                     combinedInfo.getCredentialProviderInfos().get(0).getSettingsActivity();
 
-            Drawable icon = combinedInfo.getAppIcon(context, getUser());
-            CharSequence title = combinedInfo.getAppName(context);
-
-            // Build the pref and add it to the output & group.
-            CombiPreference pref =
-                    addProviderPreference(
-                            context,
-                            title == null ? "" : title,
-                            icon,
-                            packageName,
-                            combinedInfo.getSettingsSubtitle(),
-                            settingsActivity);
+            // The label and icon are usually already loaded by the background provider load.
+            final CredentialProviderMetadataCache.Metadata metadata =
+                    mMetadataCache.get(context, getUser(), combinedInfo);
+            final RowState rowState =
+                    new RowState(
+                            metadata, combinedInfo.getSettingsSubtitle(), settingsActivity);
+
+            CombiPreference pref = reusablePrefs.remove(packageName);
+            if (pref != null && !rowState.equals(mRowStates.get(packageName))) {
+                // The row changed, rebuild it.
+                group.removePreference(pref);
+                pref = null;
+            }
+            if (pref == null) {
+                // Build the pref and add it to the output & group.
+                pref =
+                        addProviderPreference(
+                                context,
+                                metadata.getLabel(),
+                                metadata.getIcon(),
+                                packageName,
+                                rowState.mSubtitle,
+                                settingsActivity);
+                group.addPreference(pref);
+            }
+            pref.setOrder(order++);
+            mRowStates.put(packageName, rowState);
             output.put(packageName, pref);
-            group.addPreference(pref);
         }
 
         // Set the visibility if we have services.
@@ -816,20 +888,56 @@ public class CredentialManagerPreferenceController extends BasePreferenceControl
             new PackageMonitor() {
                 @Override
                 public void onPackageAdded(String packageName, int uid) {
+                    mMetadataCache.invalidate(packageName);
                     ThreadUtils.postOnMainThread(() -> updateFromExternal());
                 }
 
                 @Override
                 public void onPackageModified(String packageName) {
+                    mMetadataCache.invalidate(packageName);
                     ThreadUtils.postOnMainThread(() -> updateFromExternal());
                 }
 
                 @Override
                 public void onPackageRemoved(String packageName, int uid) {
+                    mMetadataCache.invalidate(packageName);
                     ThreadUtils.postOnMainThread(() -> updateFromExternal());
                 }
             };
 
+    /** What a provider row shows, used to only rebuild the rows that changed. */
+    private static final class RowState {
+        private final CredentialProviderMetadataCache.Metadata mMetadata;
+        private final @Nullable String mSubtitle;
+        private final @Nullable String mSettingsActivity;
+
+        RowState(
+                CredentialProviderMetadataCache.Metadata metadata,
+                @Nullable String subtitle,
+                @Nullable CharSequence settingsActivity) {
+            mMetadata = metadata;
+            mSubtitle = subtitle;
+            mSettingsActivity = settingsActivity == null ? null : settingsActivity.toString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RowState)) {
+                return false;
+            }
+            RowState other = (RowState) o;
+            // Metadata is compared by identity, a new instance means it was reloaded.
+            return mMetadata == other.mMetadata
+                    && TextUtils.equals(mSubtitle, other.mSubtitle)
+                    && TextUtils.equals(mSettingsActivity, other.mSettingsActivity);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mMetadata, mSubtitle, mSettingsActivity);
+        }
+    }
+
     /** Dialog fragment parent class. */
     private abstract static class CredentialManagerDialogFragment extends DialogFragment
             implements DialogInterface.OnClickListener {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.credentials;
+
+import android.annotation.NonNull;
+import android.annotation.Nullable;
+import android.content.Context;
+import android.content.pm.ServiceInfo;
+import android.graphics.drawable.Drawable;
+import android.os.LocaleList;
+import android.util.ArrayMap;
+import android.util.SparseArray;
+
+import com.android.internal.annotations.VisibleForTesting;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Caches the label and icon shown for each credential provider row, per user. The cache is shared
+ * by the whole process, so reopening the page or showing it for another profile doesn't load
+ * them again.
+ *
+ * Entries are loaded on first use, typically from the background provider load, and dropped
+ * when the package of the provider changes or the locales change.
+ */
+final class CredentialProviderMetadataCache {
+
+    private static CredentialProviderMetadataCache sInstance;
+
+    // Guarded by this. Keyed by user id, then by the component used for branding.
+    private final SparseArray<Map<String, Metadata>> mMetadataByUser = new SparseArray<>();
+    // Guarded by this. The locales of the cached labels.
+    private @Nullable LocaleList mLocales;
+    // Guarded by this. Increased on every invalidation.
+    private int mGeneration;
+
+    /** Label and icon of a provider row. */
+    static final class Metadata {
+        private final String mPackageName;
+        private final @NonNull CharSequence mLabel;
+        private final @Nullable Drawable mIcon;
+
+        Metadata(String packageName, @Nullable CharSequence label, @Nullable Drawable icon) {
+            mPackageName = packageName;
+            mLabel = label == null ? "" : label;
+            mIcon = icon;
+        }
+
+        @NonNull
+        CharSequence getLabel() {
+            return mLabel;
+        }
+
+        /** Returns a new drawable for each caller, so rows never share drawable state. */
+        @Nullable
+        Drawable getIcon() {
+            if (mIcon == null || mIcon.getConstantState() == null) {
+                return mIcon;
+            }
+            return mIcon.getConstantState().newDrawable();
+        }
+    }
+
+    /** Returns the cache shared by the whole process. */
+    static synchronized CredentialProviderMetadataCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new CredentialProviderMetadataCache();
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    CredentialProviderMetadataCache() {}
+
+    /**
+     * Returns the label and icon of {@code info}, loading and caching them if needed. Metadata
+     * loaded while the cache was invalidated or the locales changed is returned but not cached.
+     */
+    @NonNull
+    Metadata get(@NonNull Context context, int userId, @NonNull CombinedProviderInfo info) {
+        final Context appContext = context.getApplicationContext();
+        final LocaleList locales = appContext.getResources().getConfiguration().getLocales();
+        final String key = getKey(info);
+        final int generation;
+        synchronized (this) {
+            if (!locales.equals(mLocales)) {
+                // The labels are localized, drop them all.
+                mMetadataByUser.clear();
+                mLocales = locales;
+            }
+            final Map<String, Metadata> userMetadata = mMetadataByUser.get(userId);
+            final Metadata metadata = userMetadata == null ? null : userMetadata.get(key);
+            if (metadata != null) {
+                return metadata;
+            }
+            generation = mGeneration;
+        }
+
+        final Metadata metadata = new Metadata(info.getPackageName(),
+                info.getAppName(appContext), info.getAppIcon(appContext, userId));
+        synchronized (this) {
+            if (generation != mGeneration || !locales.equals(mLocales)) {
+                return metadata;
+            }
+            Map<String, Metadata> userMetadata = mMetadataByUser.get(userId);
+            if (userMetadata == null) {
+                userMetadata = new ArrayMap<>();
+                mMetadataByUser.put(userId, userMetadata);
+            }
+            userMetadata.put(key, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * Returns the generation of the cache, which changes on every invalidation. Loads started in
+     * an older generation may have read stale providers.
+     */
+    synchronized int getGeneration() {
+        return mGeneration;
+    }
+
+    /** Drops the cached rows of {@code packageName}, for all users. */
+    synchronized void invalidate(@Nullable String packageName) {
+        mGeneration++;
+        for (int i = 0; i < mMetadataByUser.size(); i++) {
+            final Iterator<Metadata> iterator = mMetadataByUser.valueAt(i).values().iterator();
+            while (iterator.hasNext()) {
+                final Metadata metadata = iterator.next();
+                if (packageName == null || packageName.equals(metadata.mPackageName)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+    private static String getKey(CombinedProviderInfo info) {
+        // The branding service decides the label and icon, it changes e.g. when the package
+        // also becomes an autofill provider.
+        final ServiceInfo brandingService = info.getBrandingService();
+        if (brandingService != null) {
+            return brandingService.getComponentName().flattenToString();
+        }
+        return String.valueOf(info.getPackageName());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.credentials;
+
+import android.annotation.NonNull;
+import android.annotation.WorkerThread;
+import android.content.Context;
+import android.credentials.CredentialManager;
+import android.credentials.CredentialProviderInfo;
+import android.service.autofill.AutofillServiceInfo;
+import android.text.TextUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of one credential provider discovery pass, i.e. the credential manager
+ * services of a user and the rows they are merged into with the autofill services.
+ */
+final class CredentialProviderSnapshot {
+
+    private final int mUserId;
+    private final int mGeneration;
+    private final List<CredentialProviderInfo> mServices;
+    private final List<CombinedProviderInfo> mProviders;
+
+    private CredentialProviderSnapshot(int userId, int generation,
+            List<CredentialProviderInfo> services, List<CombinedProviderInfo> providers) {
+        mUserId = userId;
+        mGeneration = generation;
+        mServices = Collections.unmodifiableList(services);
+        mProviders = Collections.unmodifiableList(providers);
+    }
+
+    /**
+     * Queries the providers of {@code userId} and warms {@code metadataCache} with the label and
+     * icon of every row, so showing them doesn't load anything on the main thread.
+     */
+    @WorkerThread
+    @NonNull
+    static CredentialProviderSnapshot load(@NonNull Context context,
+            @NonNull CredentialManager credentialManager, int userId,
+            @NonNull CredentialProviderMetadataCache metadataCache) {
+        final int generation = metadataCache.getGeneration();
+        final List<CredentialProviderInfo> services =
+                credentialManager.getCredentialProviderServices(
+                        userId, CredentialManager.PROVIDER_FILTER_USER_PROVIDERS_ONLY);
+        final List<CombinedProviderInfo> providers =
+                buildCombinedProviders(context, services, userId);
+        for (CombinedProviderInfo provider : providers) {
+            if (!provider.getCredentialProviderInfos().isEmpty()) {
+                metadataCache.get(context, userId, provider);
+            }
+        }
+        return new CredentialProviderSnapshot(userId, generation, services, providers);
+    }
+
+    /** Merges {@code services} with the autofill services of {@code userId} into rows. */
+    @NonNull
+    static List<CombinedProviderInfo> buildCombinedProviders(@NonNull Context context,
+            @NonNull List<CredentialProviderInfo> services, int userId) {
+        // Get the selected autofill provider. If it is the placeholder then replace it with an
+        // empty string.
+        String selectedAutofillProvider =
+                DefaultCombinedPicker.getSelectedAutofillProvider(context, userId);
+        if (TextUtils.equals(selectedAutofillProvider,
+                CredentialManagerPreferenceController.AUTOFILL_CREDMAN_ONLY_PROVIDER_PLACEHOLDER)) {
+            selectedAutofillProvider = "";
+        }
+
+        return CombinedProviderInfo.buildMergedList(
+                AutofillServiceInfo.getAvailableServices(context, userId),
+                services,
+                selectedAutofillProvider);
+    }
+
+    int getUserId() {
+        return mUserId;
+    }
+
+    /** Returns the generation of the metadata cache when the load started. */
+    int getGeneration() {
+        return mGeneration;
+    }
+
+    @NonNull
+    List<CredentialProviderInfo> getServices() {
+        return mServices;
+    }
+
+    @NonNull
+    List<CombinedProviderInfo> getProviders() {
+        return mProviders;
+    }
+}
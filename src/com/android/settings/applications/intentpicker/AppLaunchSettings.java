@@ -98,6 +98,7 @@ public class AppLaunchSettings extends AppInfoBase implements
     Context mContext;
     @VisibleForTesting
     DomainVerificationManager mDomainVerificationManager;
+    private DomainVerificationStateCache mDomainVerificationStateCache;
 
     @Override
     public void onAttach(Context context) {
@@ -116,6 +117,7 @@ public class AppLaunchSettings extends AppInfoBase implements
         }
         addPreferencesFromResource(R.xml.installed_app_launch_settings);
         mDomainVerificationManager = mContext.getSystemService(DomainVerificationManager.class);
+        mDomainVerificationStateCache = DomainVerificationStateCache.getInstance(mContext);
         initUIComponents();
     }
 
@@ -155,8 +157,7 @@ public class AppLaunchSettings extends AppInfoBase implements
             domainSet.add(preference.getTitle().toString());
             removePreference(preference.getKey());
             final DomainVerificationUserState userState =
-                    IntentPickerUtils.getDomainVerificationUserState(mDomainVerificationManager,
-                            mPackageName);
+                    getDomainVerificationSnapshot().getUserState();
             if (userState == null) {
                 return false;
             }
@@ -180,6 +181,7 @@ public class AppLaunchSettings extends AppInfoBase implements
             try {
                 mDomainVerificationManager.setDomainVerificationLinkHandlingAllowed(mPackageName,
                         isChecked);
+                mDomainVerificationStateCache.invalidate(mContext.getUserId(), mPackageName);
             } catch (PackageManager.NameNotFoundException e) {
                 Log.w(TAG, "onSwitchChanged: " + e.getMessage());
             }
@@ -233,8 +235,7 @@ public class AppLaunchSettings extends AppInfoBase implements
 
     private boolean canUpdateMainSwitchAndCategories() {
         final DomainVerificationUserState userState =
-                IntentPickerUtils.getDomainVerificationUserState(mDomainVerificationManager,
-                        mPackageName);
+                getDomainVerificationSnapshot().getUserState();
         if (userState == null) {
             disabledPreference();
             return false;
@@ -278,8 +279,8 @@ public class AppLaunchSettings extends AppInfoBase implements
         ((TextView) titleView.findViewById(R.id.dialog_message)).setText(
                 getVerifiedLinksMessage(linksNo));
 
-        final List<String> verifiedLinksList = IntentPickerUtils.getLinksList(
-                mDomainVerificationManager, mPackageName, DOMAIN_STATE_VERIFIED);
+        final List<String> verifiedLinksList =
+                getDomainVerificationSnapshot().getLinks(DOMAIN_STATE_VERIFIED);
         AlertDialog dialog = new AlertDialog.Builder(mContext)
                 .setCustomTitle(titleView)
                 .setCancelable(true)
@@ -319,8 +320,8 @@ public class AppLaunchSettings extends AppInfoBase implements
             return;
         }
         mSelectedLinksPreferenceCategory.removeAll();
-        final List<String> selectedLinks = IntentPickerUtils.getLinksList(
-                mDomainVerificationManager, mPackageName, DOMAIN_STATE_SELECTED);
+        final List<String> selectedLinks =
+                getDomainVerificationSnapshot().getLinks(DOMAIN_STATE_SELECTED);
         for (String host : selectedLinks) {
             generateCheckBoxPreference(mSelectedLinksPreferenceCategory, host);
         }
@@ -413,6 +414,7 @@ public class AppLaunchSettings extends AppInfoBase implements
         try {
             mDomainVerificationManager.setDomainVerificationUserSelection(identifier, domainSet,
                     isEnabled);
+            mDomainVerificationStateCache.invalidate(mContext.getUserId(), mPackageName);
         } catch (PackageManager.NameNotFoundException e) {
             Log.w(TAG, "addSelectedItems : " + e.getMessage());
         }
@@ -429,11 +431,11 @@ public class AppLaunchSettings extends AppInfoBase implements
 
     /** get the number of the specify links */
     private int getLinksNumber(@DomainVerificationUserState.DomainState int state) {
-        final List<String> linkList = IntentPickerUtils.getLinksList(
-                mDomainVerificationManager, mPackageName, state);
-        if (linkList == null) {
-            return 0;
-        }
-        return linkList.size();
+        return getDomainVerificationSnapshot().getLinksCount(state);
+    }
+
+    private DomainVerificationStateCache.Snapshot getDomainVerificationSnapshot() {
+        return mDomainVerificationStateCache.get(mDomainVerificationManager,
+                mContext.getUserId(), mPackageName);
     }
 }
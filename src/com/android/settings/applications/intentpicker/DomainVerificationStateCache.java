@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.intentpicker;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.verify.domain.DomainVerificationManager;
+import android.content.pm.verify.domain.DomainVerificationUserState;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.ArrayMap;
+import android.util.Pair;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache of the {@link DomainVerificationUserState} of the packages, so the link
+ * handling screens showing the same package share one lookup.
+ *
+ * <p>A snapshot is dropped when its package changes, when the link handling of the package is
+ * changed through {@link #invalidate(int, String)}, and after {@link #MAX_AGE_MS} since the
+ * verification agent doesn't announce its results.
+ */
+public class DomainVerificationStateCache {
+
+    @VisibleForTesting
+    static final long MAX_AGE_MS = 30_000L;
+
+    private static DomainVerificationStateCache sInstance;
+
+    // Guarded by this. Keyed by the user and the package.
+    private final ArrayMap<Pair<Integer, String>, Snapshot> mSnapshots = new ArrayMap<>();
+    // Guarded by this. Increased on every invalidation.
+    private int mGeneration;
+
+    private final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final Uri data = intent.getData();
+            if (data != null) {
+                invalidate(context.getUserId(), data.getSchemeSpecificPart());
+            }
+        }
+    };
+
+    /** The link handling state of a package when it was read. */
+    public static final class Snapshot {
+        private final long mReadTimeMs;
+        @Nullable
+        private final DomainVerificationUserState mUserState;
+        // The hosts of each domain state.
+        private final SparseArray<List<String>> mLinks = new SparseArray<>();
+
+        @VisibleForTesting
+        Snapshot(@Nullable DomainVerificationUserState userState, long readTimeMs) {
+            mUserState = userState;
+            mReadTimeMs = readTimeMs;
+            if (userState == null) {
+                return;
+            }
+            for (Map.Entry<String, Integer> entry : userState.getHostToStateMap().entrySet()) {
+                List<String> links = mLinks.get(entry.getValue());
+                if (links == null) {
+                    links = new ArrayList<>();
+                    mLinks.put(entry.getValue(), links);
+                }
+                links.add(entry.getKey());
+            }
+        }
+
+        /** Returns the state, or null if the package isn't found. */
+        @Nullable
+        public DomainVerificationUserState getUserState() {
+            return mUserState;
+        }
+
+        /** Returns whether the package is allowed to open its links. */
+        public boolean isLinkHandlingAllowed() {
+            return mUserState != null && mUserState.isLinkHandlingAllowed();
+        }
+
+        /**
+         * Returns the hosts in {@code state}, or null if the package isn't found. The list must
+         * not be modified.
+         */
+        @Nullable
+        public List<String> getLinks(@DomainVerificationUserState.DomainState int state) {
+            if (mUserState == null) {
+                return null;
+            }
+            final List<String> links = mLinks.get(state);
+            return links != null ? Collections.unmodifiableList(links) : Collections.emptyList();
+        }
+
+        /** Returns the number of the hosts in {@code state}. */
+        public int getLinksCount(@DomainVerificationUserState.DomainState int state) {
+            final List<String> links = mLinks.get(state);
+            return links != null ? links.size() : 0;
+        }
+    }
+
+    /** Returns the cache of the process. */
+    public static synchronized DomainVerificationStateCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new DomainVerificationStateCache();
+            final IntentFilter filter = new IntentFilter();
+            filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+            filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+            filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+            filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+            filter.addDataScheme("package");
+            context.getApplicationContext().registerReceiver(sInstance.mPackageReceiver, filter,
+                    Context.RECEIVER_NOT_EXPORTED);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    DomainVerificationStateCache() {}
+
+    /**
+     * Returns the state of {@code packageName} for {@code userId}, reading it from {@code
+     * manager} if it isn't cached. The manager is only used for the read and isn't kept, so
+     * callers holding managers of different contexts share the same snapshots.
+     */
+    @NonNull
+    public Snapshot get(@Nullable DomainVerificationManager manager, int userId,
+            @NonNull String packageName) {
+        final Pair<Integer, String> key = Pair.create(userId, packageName);
+        final int generation;
+        synchronized (this) {
+            removeExpiredLocked(SystemClock.elapsedRealtime());
+            final Snapshot snapshot = mSnapshots.get(key);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            generation = mGeneration;
+        }
+
+        final Snapshot snapshot = new Snapshot(manager == null ? null
+                : IntentPickerUtils.getDomainVerificationUserState(manager, packageName),
+                SystemClock.elapsedRealtime());
+        synchronized (this) {
+            // Don't cache what may have been read before a change.
+            if (generation == mGeneration) {
+                mSnapshots.put(key, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    /** Drops the state of {@code packageName}, e.g. after its link handling was changed. */
+    public synchronized void invalidate(int userId, @NonNull String packageName) {
+        mGeneration++;
+        mSnapshots.remove(Pair.create(userId, packageName));
+    }
+
+    @VisibleForTesting
+    synchronized int getCachedCount() {
+        return mSnapshots.size();
+    }
+
+    private void removeExpiredLocked(long now) {
+        for (int i = mSnapshots.size() - 1; i >= 0; i--) {
+            if (now - mSnapshots.valueAt(i).mReadTimeMs >= MAX_AGE_MS) {
+                mSnapshots.removeAt(i);
+            }
+        }
+    }
+}
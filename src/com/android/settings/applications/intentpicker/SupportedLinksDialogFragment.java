@@ -127,6 +127,8 @@ public class SupportedLinksDialogFragment extends InstrumentedDialogFragment {
             UUID identifier, Set<String> domainSet, boolean isEnabled) {
         try {
             manager.setDomainVerificationUserSelection(identifier, domainSet, isEnabled);
+            DomainVerificationStateCache.getInstance(getActivity()).invalidate(
+                    getActivity().getUserId(), mPackage);
         } catch (PackageManager.NameNotFoundException e) {
             Log.w(TAG, "addSelectedItems : " + e.getMessage());
         }
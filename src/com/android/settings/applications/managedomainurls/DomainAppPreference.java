@@ -18,13 +18,12 @@ package com.android.settings.applications.managedomainurls;
 
 import android.content.Context;
 import android.content.pm.verify.domain.DomainVerificationManager;
-import android.content.pm.verify.domain.DomainVerificationUserState;
 import android.graphics.drawable.Drawable;
 
 import androidx.preference.PreferenceViewHolder;
 
 import com.android.settings.R;
-import com.android.settings.applications.intentpicker.IntentPickerUtils;
+import com.android.settings.applications.intentpicker.DomainVerificationStateCache;
 import com.android.settingslib.applications.AppUtils;
 import com.android.settingslib.applications.ApplicationsState.AppEntry;
 import com.android.settingslib.utils.ThreadUtils;
@@ -36,10 +35,12 @@ public class DomainAppPreference extends AppPreference {
 
     private final AppEntry mEntry;
     private final DomainVerificationManager mDomainVerificationManager;
+    private final DomainVerificationStateCache mDomainVerificationStateCache;
 
     public DomainAppPreference(final Context context, AppEntry entry) {
         super(context);
         mDomainVerificationManager = context.getSystemService(DomainVerificationManager.class);
+        mDomainVerificationStateCache = DomainVerificationStateCache.getInstance(context);
         mEntry = entry;
         mEntry.ensureLabel(getContext());
         mCacheIcon = AppUtils.getIconFromCache(mEntry);
@@ -72,10 +73,8 @@ public class DomainAppPreference extends AppPreference {
     }
 
     private boolean isLinkHandlingAllowed(String packageName) {
-        final DomainVerificationUserState userState =
-                IntentPickerUtils.getDomainVerificationUserState(mDomainVerificationManager,
-                        packageName);
-        return userState == null ? false : userState.isLinkHandlingAllowed();
+        return mDomainVerificationStateCache.get(mDomainVerificationManager,
+                getContext().getUserId(), packageName).isLinkHandlingAllowed();
     }
 
     @Override
@@ -41,15 +41,15 @@ import com.android.settings.R;
 import com.android.settings.Utils;
 import com.android.settings.applications.AppInfoBase;
 import com.android.settings.search.BaseSearchIndexProvider;
+import com.android.settings.utils.LabelSorter;
 import com.android.settings.widget.EmptyTextSettings;
 import com.android.settingslib.search.SearchIndexable;
 import com.android.settingslib.widget.AppPreference;
 
-import java.text.Collator;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 
 @SearchIndexable
 public class PictureInPictureSettings extends EmptyTextSettings {
@@ -67,7 +67,6 @@ public class PictureInPictureSettings extends EmptyTextSettings {
      */
     static class AppComparator implements Comparator<Pair<ApplicationInfo, Integer>> {
 
-        private final Collator mCollator = Collator.getInstance();
         private final PackageManager mPm;
 
         public AppComparator(PackageManager pm) {
@@ -76,17 +75,30 @@ public class PictureInPictureSettings extends EmptyTextSettings {
 
         public final int compare(Pair<ApplicationInfo, Integer> a,
                 Pair<ApplicationInfo, Integer> b) {
-            CharSequence sa = a.first.loadLabel(mPm);
-            if (sa == null) sa = a.first.name;
-            CharSequence sb = b.first.loadLabel(mPm);
-            if (sb == null) sb = b.first.name;
-            int nameCmp = mCollator.compare(sa.toString(), sb.toString());
+            int nameCmp = LabelSorter.getInstance().compare(getLabel(a.first, mPm),
+                    getLabel(b.first, mPm));
             if (nameCmp != 0) {
                 return nameCmp;
             } else {
-                return a.second - b.second;
+                return compareUserIds(a, b);
             }
         }
+
+        /** Sorts {@code apps} like this comparator, loading each label only once. */
+        static void sort(List<Pair<ApplicationInfo, Integer>> apps, PackageManager pm) {
+            LabelSorter.getInstance().sort(apps, Locale.getDefault(),
+                    app -> getLabel(app.first, pm), AppComparator::compareUserIds);
+        }
+
+        private static CharSequence getLabel(ApplicationInfo info, PackageManager pm) {
+            final CharSequence label = info.loadLabel(pm);
+            return label != null ? label : info.name;
+        }
+
+        private static int compareUserIds(Pair<ApplicationInfo, Integer> a,
+                Pair<ApplicationInfo, Integer> b) {
+            return a.second - b.second;
+        }
     }
 
     private Context mContext;
@@ -149,7 +161,7 @@ public class PictureInPictureSettings extends EmptyTextSettings {
         // declare that they support picture-in-picture
         final ArrayList<Pair<ApplicationInfo, Integer>> pipApps =
                 collectPipApps(UserHandle.myUserId());
-        Collections.sort(pipApps, new AppComparator(mPackageManager));
+        AppComparator.sort(pipApps, mPackageManager);
 
         // Rebuild the list of prefs
         final Context prefContext = getPrefContext();
@@ -19,6 +19,8 @@ import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
 import android.content.Context;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.VisibleForTesting;
@@ -36,7 +38,6 @@ import com.android.settingslib.bluetooth.LocalBluetoothProfileManager;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -63,6 +64,10 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     protected static final String TAG = "BluetoothDeviceUpdater";
     private static final boolean DBG = Log.isLoggable(TAG, Log.DEBUG);
 
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    // Each profile proxy reports its own service connection, rescan once for the whole burst.
+    private final Runnable mForceUpdateRunnable = this::forceUpdate;
+
     @VisibleForTesting
     final GearPreference.OnGearClickListener mDeviceProfilesListener = pref -> {
         launchDeviceDetails(pref);
@@ -83,6 +88,10 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         mLocalManager = localManager;
         mMetricsCategory = metricsCategory;
         mMetricsFeatureProvider = FeatureFactory.getFeatureFactory().getMetricsFeatureProvider();
+        if (mLocalManager != null) {
+            // Devices may have come and gone while no updater was listening.
+            getCachedDeviceSnapshot().invalidate();
+        }
     }
 
     /**
@@ -110,6 +119,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         mLocalManager.setForegroundActivity(null);
         mLocalManager.getEventManager().unregisterCallback(this);
         mLocalManager.getProfileManager().removeServiceListener(this);
+        mHandler.removeCallbacks(mForceUpdateRunnable);
     }
 
     /**
@@ -120,10 +130,11 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
             Log.e(getLogTag(), "forceUpdate() Bluetooth is not supported on this device");
             return;
         }
+        mHandler.removeCallbacks(mForceUpdateRunnable);
         if (BluetoothAdapter.getDefaultAdapter().isEnabled()) {
-            final Collection<CachedBluetoothDevice> cachedDevices =
-                    mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
-            for (CachedBluetoothDevice cachedBluetoothDevice : cachedDevices) {
+            final CachedBluetoothDeviceSnapshot snapshot = getCachedDeviceSnapshot();
+            snapshot.invalidate();
+            for (CachedBluetoothDevice cachedBluetoothDevice : snapshot.getDevices()) {
                 update(cachedBluetoothDevice);
             }
         } else {
@@ -137,9 +148,9 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
                     "removeAllDevicesFromPreference() BT is not supported on this device");
             return;
         }
-        final Collection<CachedBluetoothDevice> cachedDevices =
-                mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
-        for (CachedBluetoothDevice cachedBluetoothDevice : cachedDevices) {
+        final CachedBluetoothDeviceSnapshot snapshot = getCachedDeviceSnapshot();
+        snapshot.invalidate();
+        for (CachedBluetoothDevice cachedBluetoothDevice : snapshot.getDevices()) {
             removePreference(cachedBluetoothDevice);
         }
     }
@@ -155,6 +166,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
 
     @Override
     public void onDeviceAdded(CachedBluetoothDevice cachedDevice) {
+        getCachedDeviceSnapshot().invalidate();
         update(cachedDevice);
     }
 
@@ -163,11 +175,14 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         // Used to combine the hearing aid entries just after pairing. Once both the hearing aids
         // get connected and their hiSyncId gets populated, this gets called for one of the
         // 2 hearing aids so that only one entry in the connected devices list will be seen.
+        getCachedDeviceSnapshot().invalidate();
         removePreference(cachedDevice);
     }
 
     @Override
     public void onDeviceBondStateChanged(CachedBluetoothDevice cachedDevice, int bondState) {
+        // Unbonded devices may be dropped from the cache without a deleted callback.
+        getCachedDeviceSnapshot().invalidate();
         update(cachedDevice);
     }
 
@@ -193,7 +208,8 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     @Override
     public void onServiceConnected() {
         // When bluetooth service connected update the UI
-        forceUpdate();
+        mHandler.removeCallbacks(mForceUpdateRunnable);
+        mHandler.post(mForceUpdateRunnable);
     }
 
     @Override
@@ -329,9 +345,11 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
      * Update the attributes of {@link Preference}.
      */
     public void refreshPreference() {
+        final CachedBluetoothDeviceSnapshot snapshot = getCachedDeviceSnapshot();
+        snapshot.invalidate();
         List<BluetoothDevice> removeList = new ArrayList<>();
         mPreferenceMap.forEach((key, preference) -> {
-            if (isDeviceOfMapInCachedDevicesList(key)) {
+            if (snapshot.findDevice(key) != null) {
                 ((BluetoothDevicePreference) preference).onPreferenceAttributesChanged();
             } else {
                 // If the BluetoothDevice of preference is not in the CachedDevices List, then
@@ -347,18 +365,14 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     }
 
     protected boolean isDeviceInCachedDevicesList(CachedBluetoothDevice cachedDevice) {
-        return mLocalManager.getCachedDeviceManager().getCachedDevicesCopy().contains(cachedDevice);
+        return getCachedDeviceSnapshot().contains(cachedDevice);
     }
 
-    private boolean isDeviceOfMapInCachedDevicesList(BluetoothDevice inputBluetoothDevice) {
-        Collection<CachedBluetoothDevice> cachedDevices =
-                mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
-        if (cachedDevices == null || cachedDevices.isEmpty()) {
-            return false;
-        }
-        return cachedDevices.stream()
-                .anyMatch(cachedBluetoothDevice -> cachedBluetoothDevice.getDevice() != null
-                        && cachedBluetoothDevice.getDevice().equals(inputBluetoothDevice));
+    /**
+     * Returns the address-indexed cached device snapshot shared by all updaters.
+     */
+    protected CachedBluetoothDeviceSnapshot getCachedDeviceSnapshot() {
+        return CachedBluetoothDeviceSnapshot.get(mLocalManager);
     }
 
     protected String getLogTag() {
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.bluetooth;
+
+import android.bluetooth.BluetoothDevice;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.bluetooth.CachedBluetoothDevice;
+import com.android.settingslib.bluetooth.CachedBluetoothDeviceManager;
+import com.android.settingslib.bluetooth.LocalBluetoothManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Snapshot of {@link CachedBluetoothDeviceManager#getCachedDevicesCopy()} indexed by
+ * {@link BluetoothDevice} (i.e. by address), shared by every {@link BluetoothDeviceUpdater} of
+ * the same {@link LocalBluetoothManager}.
+ *
+ * The snapshot is built lazily and rebuilt after {@link #invalidate()}, so membership checks made
+ * while handling a single device event don't copy the whole cached device list again.
+ *
+ * The {@link BluetoothDevice} of a cached device changes when its content is switched with a
+ * member or sub device, without the list changing. Lookups therefore check the current device of
+ * the indexed entry, and fall back to scanning the list (re-indexing it) when the index is stale.
+ */
+public class CachedBluetoothDeviceSnapshot {
+
+    private static final Map<LocalBluetoothManager, CachedBluetoothDeviceSnapshot> sSnapshots =
+            new WeakHashMap<>();
+
+    private final LocalBluetoothManager mLocalManager;
+    private List<CachedBluetoothDevice> mDevices;
+    private Map<BluetoothDevice, CachedBluetoothDevice> mDevicesByAddress;
+
+    /**
+     * Returns the snapshot shared by all updaters of {@code localManager}.
+     */
+    public static CachedBluetoothDeviceSnapshot get(@NonNull LocalBluetoothManager localManager) {
+        synchronized (sSnapshots) {
+            CachedBluetoothDeviceSnapshot snapshot = sSnapshots.get(localManager);
+            if (snapshot == null) {
+                snapshot = new CachedBluetoothDeviceSnapshot(localManager);
+                sSnapshots.put(localManager, snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    @VisibleForTesting
+    CachedBluetoothDeviceSnapshot(LocalBluetoothManager localManager) {
+        mLocalManager = localManager;
+    }
+
+    /**
+     * Drops the snapshot, the next read copies the cached device list again.
+     */
+    public synchronized void invalidate() {
+        mDevices = null;
+        mDevicesByAddress = null;
+    }
+
+    /**
+     * Returns all cached devices, in the order of {@link CachedBluetoothDeviceManager}.
+     */
+    public synchronized List<CachedBluetoothDevice> getDevices() {
+        ensureLoaded();
+        return mDevices;
+    }
+
+    /**
+     * Returns the cached device of {@code device}, or {@code null} if it isn't cached.
+     */
+    @Nullable
+    public synchronized CachedBluetoothDevice findDevice(@Nullable BluetoothDevice device) {
+        if (device == null) {
+            return null;
+        }
+        ensureLoaded();
+        final CachedBluetoothDevice cachedDevice = mDevicesByAddress.get(device);
+        if (cachedDevice != null && device.equals(cachedDevice.getDevice())) {
+            return cachedDevice;
+        }
+        // Either not cached, or the devices were switched since the index was built.
+        for (CachedBluetoothDevice candidate : mDevices) {
+            if (device.equals(candidate.getDevice())) {
+                mDevicesByAddress = buildIndex(mDevices);
+                return candidate;
+            }
+        }
+        if (cachedDevice != null) {
+            mDevicesByAddress = buildIndex(mDevices);
+        }
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if {@code cachedDevice} is in the cached device list.
+     */
+    public synchronized boolean contains(@Nullable CachedBluetoothDevice cachedDevice) {
+        if (cachedDevice == null) {
+            return false;
+        }
+        final BluetoothDevice device = cachedDevice.getDevice();
+        if (device == null) {
+            return getDevices().contains(cachedDevice);
+        }
+        return cachedDevice.equals(findDevice(device));
+    }
+
+    private void ensureLoaded() {
+        if (mDevices != null) {
+            return;
+        }
+        final Collection<CachedBluetoothDevice> cachedDevices =
+                mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
+        if (cachedDevices == null || cachedDevices.isEmpty()) {
+            mDevices = Collections.emptyList();
+            mDevicesByAddress = Collections.emptyMap();
+            return;
+        }
+        final List<CachedBluetoothDevice> devices = new ArrayList<>(cachedDevices);
+        mDevices = Collections.unmodifiableList(devices);
+        mDevicesByAddress = buildIndex(devices);
+    }
+
+    private static Map<BluetoothDevice, CachedBluetoothDevice> buildIndex(
+            List<CachedBluetoothDevice> devices) {
+        final Map<BluetoothDevice, CachedBluetoothDevice> devicesByAddress =
+                new HashMap<>(devices.size());
+        for (CachedBluetoothDevice cachedDevice : devices) {
+            final BluetoothDevice device = cachedDevice.getDevice();
+            if (device != null) {
+                devicesByAddress.putIfAbsent(device, cachedDevice);
+            }
+        }
+        return devicesByAddress;
+    }
+}
@@ -58,6 +58,7 @@ public class SavedBluetoothDeviceUpdater extends BluetoothDeviceUpdater
     @Override
     public void forceUpdate() {
         if (mBluetoothAdapter.isEnabled()) {
+            getCachedDeviceSnapshot().invalidate();
             final CachedBluetoothDeviceManager cachedManager =
                     mLocalManager.getCachedDeviceManager();
             final List<BluetoothDevice> bluetoothDevices =
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the startup work of the Settings process according to how soon it is needed, and records
+ * how long each task took.
+ *
+ * Every task runs in a {@link Trace} section named after it, and its timing is available from
+ * {@link #dump()}, e.g. in {@code dumpsys activity service SettingsDumpService}.
+ */
+public class StartupScheduler {
+
+    /** Runs right away on the calling thread, for work the first activity can't start without. */
+    public static final int PHASE_BLOCKING = 0;
+    /** Runs on the main thread once it is idle, i.e. after the first frame is drawn. */
+    public static final int PHASE_IDLE = 1;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({PHASE_BLOCKING, PHASE_IDLE})
+    public @interface Phase {
+    }
+
+    private static final String TRACE_PREFIX = "SettingsStartup:";
+
+    private static StartupScheduler sInstance;
+
+    // Guarded by this.
+    private final List<TaskTiming> mTimings = new ArrayList<>();
+
+    private static class TaskTiming {
+        final String name;
+        final int phase;
+        final String threadName;
+        final long startMs;
+        final long durationMs;
+
+        TaskTiming(String name, int phase, String threadName, long startMs, long durationMs) {
+            this.name = name;
+            this.phase = phase;
+            this.threadName = threadName;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+        }
+    }
+
+    /** Returns the scheduler of the process. */
+    public static synchronized StartupScheduler getInstance() {
+        if (sInstance == null) {
+            sInstance = new StartupScheduler();
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    StartupScheduler() {
+    }
+
+    /**
+     * Runs {@code task} in the given {@code phase}. Must be called on the main thread for
+     * {@link #PHASE_IDLE}.
+     */
+    public void schedule(@NonNull String name, @Phase int phase, @NonNull Runnable task) {
+        switch (phase) {
+            case PHASE_IDLE:
+                Looper.getMainLooper().getQueue().addIdleHandler(() -> {
+                    run(name, phase, task);
+                    return false;
+                });
+                break;
+            case PHASE_BLOCKING:
+            default:
+                run(name, phase, task);
+        }
+    }
+
+    private void run(String name, int phase, Runnable task) {
+        final long start = SystemClock.elapsedRealtime();
+        Trace.beginSection(TRACE_PREFIX + name);
+        try {
+            task.run();
+        } finally {
+            Trace.endSection();
+            final TaskTiming timing = new TaskTiming(name, phase, Thread.currentThread().getName(),
+                    start - Process.getStartElapsedRealtime(),
+                    SystemClock.elapsedRealtime() - start);
+            synchronized (this) {
+                mTimings.add(timing);
+            }
+        }
+    }
+
+    /**
+     * Returns the timing of the tasks that ran so far, in the order they finished. Start times
+     * are relative to the start of the process.
+     */
+    public JSONArray dump() throws JSONException {
+        final JSONArray array = new JSONArray();
+        synchronized (this) {
+            for (TaskTiming timing : mTimings) {
+                final JSONObject obj = new JSONObject();
+                obj.put("name", timing.name);
+                obj.put("phase", phaseToString(timing.phase));
+                obj.put("thread", timing.threadName);
+                obj.put("start_ms", timing.startMs);
+                obj.put("duration_ms", timing.durationMs);
+                array.put(obj);
+            }
+        }
+        return array;
+    }
+
+    private static String phaseToString(int phase) {
+        switch (phase) {
+            case PHASE_IDLE:
+                return "idle";
+            case PHASE_BLOCKING:
+            default:
+                return "blocking";
+        }
+    }
+}
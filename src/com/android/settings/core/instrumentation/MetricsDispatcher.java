@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.Pair;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.core.instrumentation.LogWriter;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * {@link LogWriter} that queues events and writes them to its writers on a background thread, so
+ * logging never blocks the caller, which is usually the UI thread.
+ *
+ * Events are queued in a bounded lock-free ring buffer, with one background flush at a time so
+ * the writers see the events in order. When the buffer is full new events are dropped and
+ * counted, see {@link #getDroppedEventCount()}.
+ */
+public class MetricsDispatcher implements LogWriter {
+    private static final String TAG = "MetricsDispatcher";
+
+    @VisibleForTesting
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final List<LogWriter> mWriters;
+    private final boolean mSynchronous;
+
+    // Slot i holds the event of sequence number i modulo the capacity. Producers claim sequence
+    // numbers from mTail, the flushing thread is the only one that advances mHead.
+    private final AtomicReferenceArray<Consumer<LogWriter>> mBuffer;
+    private final int mMask;
+    private final AtomicLong mTail = new AtomicLong();
+    private volatile long mHead;
+    private final AtomicBoolean mFlushScheduled = new AtomicBoolean();
+
+    private final AtomicLong mQueuedEventCount = new AtomicLong();
+    private final AtomicLong mDroppedEventCount = new AtomicLong();
+
+    /** Creates a dispatcher writing to {@code writers} on a background thread. */
+    public MetricsDispatcher(List<LogWriter> writers) {
+        this(writers, DEFAULT_CAPACITY, false /* synchronous */);
+    }
+
+    /**
+     * Creates a dispatcher holding up to {@code capacity} events, rounded up to a power of two.
+     * A synchronous dispatcher writes each event on the calling thread, for tests.
+     */
+    @VisibleForTesting
+    MetricsDispatcher(List<LogWriter> writers, int capacity, boolean synchronous) {
+        mWriters = new ArrayList<>(writers);
+        mSynchronous = synchronous;
+        final int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        mBuffer = new AtomicReferenceArray<>(size);
+        mMask = size - 1;
+    }
+
+    @Override
+    public void visible(Context context, int attribution, int pageId, int latency) {
+        dispatch(writer -> writer.visible(context, attribution, pageId, latency));
+    }
+
+    @Override
+    public void hidden(Context context, int pageId, int visibleTime) {
+        dispatch(writer -> writer.hidden(context, pageId, visibleTime));
+    }
+
+    @Override
+    public void clicked(int sourceCategory, String key) {
+        dispatch(writer -> writer.clicked(sourceCategory, key));
+    }
+
+    @Override
+    public void changed(int category, String key, int value) {
+        dispatch(writer -> writer.changed(category, key, value));
+    }
+
+    @Override
+    public void action(Context context, int action, Pair<Integer, Object>... taggedData) {
+        dispatch(writer -> writer.action(context, action, taggedData));
+    }
+
+    @Override
+    public void action(Context context, int action, int value) {
+        dispatch(writer -> writer.action(context, action, value));
+    }
+
+    @Override
+    public void action(Context context, int action, boolean value) {
+        dispatch(writer -> writer.action(context, action, value));
+    }
+
+    @Override
+    public void action(Context context, int action, String pkg) {
+        dispatch(writer -> writer.action(context, action, pkg));
+    }
+
+    @Override
+    public void action(int attribution, int action, int pageId, String key, int value) {
+        dispatch(writer -> writer.action(attribution, action, pageId, key, value));
+    }
+
+    /** Returns the number of events queued since the dispatcher was created. */
+    public long getQueuedEventCount() {
+        return mQueuedEventCount.get();
+    }
+
+    /** Returns the number of events dropped because the buffer was full. */
+    public long getDroppedEventCount() {
+        return mDroppedEventCount.get();
+    }
+
+    private void dispatch(Consumer<LogWriter> event) {
+        if (mSynchronous) {
+            mQueuedEventCount.incrementAndGet();
+            write(event);
+            return;
+        }
+        if (!offer(event)) {
+            if (mDroppedEventCount.incrementAndGet() == 1) {
+                Log.w(TAG, "Metrics buffer is full, dropping events");
+            }
+            return;
+        }
+        mQueuedEventCount.incrementAndGet();
+        if (mFlushScheduled.compareAndSet(false, true)) {
+            ThreadUtils.postOnBackgroundThread(this::flush);
+        }
+    }
+
+    private boolean offer(Consumer<LogWriter> event) {
+        while (true) {
+            final long tail = mTail.get();
+            if (tail - mHead > mMask) {
+                return false;
+            }
+            if (mTail.compareAndSet(tail, tail + 1)) {
+                mBuffer.set((int) (tail & mMask), event);
+                return true;
+            }
+        }
+    }
+
+    /** Returns the oldest queued event, only called by the flushing thread. */
+    private Consumer<LogWriter> poll() {
+        final long head = mHead;
+        if (head == mTail.get()) {
+            return null;
+        }
+        final int index = (int) (head & mMask);
+        Consumer<LogWriter> event;
+        // The slot is claimed, its producer may not have stored the event yet.
+        while ((event = mBuffer.get(index)) == null) {
+            Thread.onSpinWait();
+        }
+        mBuffer.set(index, null);
+        mHead = head + 1;
+        return event;
+    }
+
+    private void flush() {
+        do {
+            Consumer<LogWriter> event;
+            while ((event = poll()) != null) {
+                write(event);
+            }
+            mFlushScheduled.set(false);
+            // Keep flushing if an event was queued after the last poll but before the flag was
+            // cleared, since its producer didn't schedule a flush.
+        } while (mTail.get() != mHead && mFlushScheduled.compareAndSet(false, true));
+    }
+
+    private void write(Consumer<LogWriter> event) {
+        for (int i = 0, size = mWriters.size(); i < size; i++) {
+            try {
+                event.accept(mWriters.get(i));
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to write metrics event", e);
+            }
+        }
+    }
+}
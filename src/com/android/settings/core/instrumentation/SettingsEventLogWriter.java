@@ -24,6 +24,17 @@ import com.android.settingslib.core.instrumentation.EventLogWriter;
 
 public class SettingsEventLogWriter extends EventLogWriter {
 
+    // Read from DeviceConfig on the first event, then kept up to date by mPropertiesListener.
+    private volatile Boolean mGenericEventLoggingEnabled;
+
+    private final DeviceConfig.OnPropertiesChangedListener mPropertiesListener = properties -> {
+        if (properties.getKeyset().contains(
+                SettingsUIDeviceConfig.GENERIC_EVENT_LOGGING_ENABLED)) {
+            mGenericEventLoggingEnabled = properties.getBoolean(
+                    SettingsUIDeviceConfig.GENERIC_EVENT_LOGGING_ENABLED, true /* default */);
+        }
+    };
+
     @Override
     public void visible(Context context, int source, int category, int latency) {
         if (shouldDisableGenericEventLogging()) {
@@ -80,8 +91,23 @@ public class SettingsEventLogWriter extends EventLogWriter {
         super.action(context, category, value);
     }
 
-    private static boolean shouldDisableGenericEventLogging() {
-        return !DeviceConfig.getBoolean(DeviceConfig.NAMESPACE_SETTINGS_UI,
-                SettingsUIDeviceConfig.GENERIC_EVENT_LOGGING_ENABLED, true /* default */);
+    private boolean shouldDisableGenericEventLogging() {
+        Boolean enabled = mGenericEventLoggingEnabled;
+        if (enabled == null) {
+            synchronized (this) {
+                enabled = mGenericEventLoggingEnabled;
+                if (enabled == null) {
+                    // The listener is registered before reading the flag, so no change is missed.
+                    DeviceConfig.addOnPropertiesChangedListener(
+                            DeviceConfig.NAMESPACE_SETTINGS_UI, Runnable::run,
+                            mPropertiesListener);
+                    enabled = DeviceConfig.getBoolean(DeviceConfig.NAMESPACE_SETTINGS_UI,
+                            SettingsUIDeviceConfig.GENERIC_EVENT_LOGGING_ENABLED,
+                            true /* default */);
+                    mGenericEventLoggingEnabled = enabled;
+                }
+            }
+        }
+        return !enabled;
     }
 }
@@ -22,13 +22,16 @@ import android.util.Pair;
 
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 
+import java.util.List;
+
 public class SettingsMetricsFeatureProvider extends MetricsFeatureProvider {
     private static final String TAG = "SettingsMetricsFeature";
 
     @Override
     protected void installLogWriters() {
-        mLoggerWriters.add(new StatsLogWriter());
-        mLoggerWriters.add(new SettingsEventLogWriter());
+        // Events are written on a background thread, in the order they are logged.
+        mLoggerWriters.add(new MetricsDispatcher(
+                List.of(new StatsLogWriter(), new SettingsEventLogWriter())));
     }
 
     /**
@@ -39,6 +39,8 @@ import androidx.preference.PreferenceGroup;
 import androidx.preference.PreferenceManager;
 import androidx.preference.PreferenceScreen;
 import androidx.preference.SwitchPreferenceCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.android.settings.R;
 import com.android.settings.SettingsPreferenceFragment;
@@ -75,6 +77,8 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
     public static final String CATEGORY = "category";
     private static final String TAG = "DashboardFragment";
     private static final long TIMEOUT_MILLIS = 50L;
+    /** Number of rows below the last visible one whose controllers are evaluated on scroll. */
+    private static final int LAZY_STATE_PREFETCH_DISTANCE = 8;
 
     @VisibleForTesting
     final ArrayMap<String, List<DynamicDataObserver>> mDashboardTilePrefKeys = new ArrayMap<>();
@@ -88,6 +92,24 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
     private DashboardTilePlaceholderPreferenceController mPlaceholderPreferenceController;
     private boolean mListeningToCategoryChange;
     private List<String> mSuppressInjectedTileKeys;
+    @VisibleForTesting
+    LazyControllerStateScheduler mLazyStateScheduler;
+
+    private final RecyclerView.OnScrollListener mLazyStateScrollListener =
+            new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                    final RecyclerView.LayoutManager layoutManager =
+                            recyclerView.getLayoutManager();
+                    if (mLazyStateScheduler == null
+                            || !(layoutManager instanceof LinearLayoutManager)) {
+                        return;
+                    }
+                    final int lastVisible =
+                            ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+                    mLazyStateScheduler.flushThrough(lastVisible + LAZY_STATE_PREFETCH_DISTANCE);
+                }
+            };
 
     @Override
     public void onAttach(Context context) {
@@ -179,6 +201,22 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         for (AbstractPreferenceController controller : mControllers) {
             controller.onViewCreated(viewLifecycleOwner);
         }
+        if (isLazyControllerStateEnabled() && getListView() != null) {
+            mLazyStateScheduler = new LazyControllerStateScheduler();
+            getListView().addOnScrollListener(mLazyStateScrollListener);
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        if (mLazyStateScheduler != null) {
+            mLazyStateScheduler.cancel();
+            mLazyStateScheduler = null;
+        }
+        if (getListView() != null) {
+            getListView().removeOnScrollListener(mLazyStateScrollListener);
+        }
+        super.onDestroyView();
     }
 
     @Override
@@ -242,8 +280,20 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         updatePreferenceStates();
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (mLazyStateScheduler != null) {
+            // Pending work is rebuilt by updatePreferenceStates() on the next resume.
+            mLazyStateScheduler.cancel();
+        }
+    }
+
     @Override
     public boolean onPreferenceTreeClick(Preference preference) {
+        if (mLazyStateScheduler != null) {
+            mLazyStateScheduler.flush(preference);
+        }
         final Collection<List<AbstractPreferenceController>> controllers =
                 mPreferenceControllers.values();
         for (List<AbstractPreferenceController> controllerList : controllers) {
@@ -298,6 +348,15 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         return false;
     }
 
+    /**
+     * Returns true if controllers of preferences far below the fold should only be evaluated
+     * when the list scrolls near them or the main thread is idle, instead of all at once in
+     * {@link #updatePreferenceStates()}. Useful for pages with a very long list of controllers.
+     */
+    protected boolean isLazyControllerStateEnabled() {
+        return false;
+    }
+
     protected <T extends AbstractPreferenceController> T use(Class<T> clazz) {
         List<AbstractPreferenceController> controllerList = mPreferenceControllers.get(clazz);
         if (controllerList != null) {
@@ -390,10 +449,26 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      */
     protected void updatePreferenceStates() {
         final PreferenceScreen screen = getPreferenceScreen();
+        final LazyControllerStateScheduler scheduler = mLazyStateScheduler;
+        final Map<String, Integer> positions;
+        if (scheduler != null && screen != null) {
+            scheduler.cancel();
+            positions = getVisiblePreferencePositions(screen);
+        } else {
+            positions = null;
+        }
         Collection<List<AbstractPreferenceController>> controllerLists =
                 mPreferenceControllers.values();
         for (List<AbstractPreferenceController> controllerList : controllerLists) {
             for (AbstractPreferenceController controller : controllerList) {
+                if (positions != null) {
+                    final String key = controller.getPreferenceKey();
+                    final Integer position = TextUtils.isEmpty(key) ? null : positions.get(key);
+                    if (position != null && !scheduler.isEager(position)) {
+                        scheduler.schedule(position, controller, screen.findPreference(key));
+                        continue;
+                    }
+                }
                 if (!controller.isAvailable()) {
                     continue;
                 }
@@ -414,6 +489,42 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
                 controller.updateState(preference);
             }
         }
+        if (positions != null) {
+            scheduler.start();
+        }
+    }
+
+    /**
+     * Returns the position of each visible preference in the flattened list, in display order.
+     */
+    private static Map<String, Integer> getVisiblePreferencePositions(PreferenceGroup root) {
+        final Map<String, Integer> positions = new ArrayMap<>();
+        collectVisiblePreferencePositions(root, positions, new int[1]);
+        return positions;
+    }
+
+    private static void collectVisiblePreferencePositions(PreferenceGroup group,
+            Map<String, Integer> positions, int[] nextPosition) {
+        final List<Preference> children = new ArrayList<>(group.getPreferenceCount());
+        for (int i = 0; i < group.getPreferenceCount(); i++) {
+            children.add(group.getPreference(i));
+        }
+        // PreferenceGroupAdapter lays out children by order, not by insertion.
+        children.sort(Comparator.comparingInt(Preference::getOrder));
+        for (Preference preference : children) {
+            if (!preference.isVisible()) {
+                continue;
+            }
+            final int position = nextPosition[0]++;
+            if (!TextUtils.isEmpty(preference.getKey())) {
+                positions.put(preference.getKey(), position);
+            }
+            if (preference instanceof PreferenceGroup
+                    && !(preference instanceof PreferenceScreen)) {
+                collectVisiblePreferencePositions(
+                        (PreferenceGroup) preference, positions, nextPosition);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.preference.Preference;
+
+import com.android.settingslib.core.AbstractPreferenceController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Defers {@link AbstractPreferenceController#isAvailable()} and
+ * {@link AbstractPreferenceController#updateState(Preference)} for preferences that are far
+ * below the fold.
+ *
+ * Pending controllers are evaluated in list order, either when the list scrolls near them
+ * ({@link #flushThrough(int)}) or in small batches whenever the main thread goes idle.
+ */
+public class LazyControllerStateScheduler {
+    /** Number of list positions evaluated synchronously when the page is shown. */
+    static final int DEFAULT_EAGER_COUNT = 16;
+    /** Number of pending controllers evaluated on each idle pass of the main thread. */
+    static final int DEFAULT_IDLE_BATCH_SIZE = 8;
+
+    private final List<Entry> mPending = new ArrayList<>();
+    private final int mEagerCount;
+    private final int mIdleBatchSize;
+    private boolean mIdleHandlerRegistered;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final MessageQueue.IdleHandler mIdleHandler = () -> {
+        mIdleHandlerRegistered = false;
+        runBatch(mIdleBatchSize);
+        if (!mPending.isEmpty()) {
+            // Idle handlers only run once per idle period, wake the queue up for the next batch
+            // so pending frames and input still get handled in between.
+            mHandler.post(this::registerIdleHandler);
+        }
+        return false;
+    };
+
+    public LazyControllerStateScheduler() {
+        this(DEFAULT_EAGER_COUNT, DEFAULT_IDLE_BATCH_SIZE);
+    }
+
+    @VisibleForTesting
+    LazyControllerStateScheduler(int eagerCount, int idleBatchSize) {
+        mEagerCount = eagerCount;
+        mIdleBatchSize = idleBatchSize;
+    }
+
+    /**
+     * Returns true if a preference at {@code position} should be updated right away instead
+     * of being scheduled.
+     */
+    public boolean isEager(int position) {
+        return position < mEagerCount;
+    }
+
+    /**
+     * Queues a controller to be evaluated later. Call {@link #start()} once all are queued.
+     */
+    public void schedule(int position, @NonNull AbstractPreferenceController controller,
+            @NonNull Preference preference) {
+        mPending.add(new Entry(position, controller, preference));
+    }
+
+    /**
+     * Sorts the pending queue and starts evaluating it when the main thread is idle.
+     */
+    public void start() {
+        mPending.sort(Comparator.comparingInt(entry -> entry.mPosition));
+        registerIdleHandler();
+    }
+
+    /**
+     * Evaluates every pending controller whose preference is at or above {@code position}.
+     */
+    public void flushThrough(int position) {
+        while (!mPending.isEmpty() && mPending.get(0).mPosition <= position) {
+            mPending.remove(0).run();
+        }
+    }
+
+    /**
+     * Evaluates pending controllers of {@code preference} right away, e.g. before it's clicked.
+     */
+    public void flush(@NonNull Preference preference) {
+        final Iterator<Entry> iterator = mPending.iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.mPreference == preference) {
+                iterator.remove();
+                entry.run();
+            }
+        }
+    }
+
+    /**
+     * Drops all pending work without running it.
+     */
+    public void cancel() {
+        mPending.clear();
+        mHandler.removeCallbacksAndMessages(null);
+        if (mIdleHandlerRegistered) {
+            Looper.getMainLooper().getQueue().removeIdleHandler(mIdleHandler);
+            mIdleHandlerRegistered = false;
+        }
+    }
+
+    private void registerIdleHandler() {
+        if (mPending.isEmpty() || mIdleHandlerRegistered) {
+            return;
+        }
+        Looper.getMainLooper().getQueue().addIdleHandler(mIdleHandler);
+        mIdleHandlerRegistered = true;
+    }
+
+    @VisibleForTesting
+    int getPendingCount() {
+        return mPending.size();
+    }
+
+    @VisibleForTesting
+    void runBatch(int count) {
+        for (int i = 0; i < count && !mPending.isEmpty(); i++) {
+            mPending.remove(0).run();
+        }
+    }
+
+    private static class Entry {
+        private final int mPosition;
+        private final AbstractPreferenceController mController;
+        private final Preference mPreference;
+
+        Entry(int position, AbstractPreferenceController controller, Preference preference) {
+            mPosition = position;
+            mController = controller;
+            mPreference = preference;
+        }
+
+        void run() {
+            if (mController.isAvailable()) {
+                mController.updateState(mPreference);
+            }
+        }
+    }
+}
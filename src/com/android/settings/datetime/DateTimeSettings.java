@@ -20,14 +20,19 @@ import android.app.Dialog;
 import android.app.settings.SettingsEnums;
 import android.app.timedetector.TimeDetectorHelper;
 import android.content.Context;
+import android.os.Bundle;
 
 import com.android.settings.R;
 import com.android.settings.dashboard.DashboardFragment;
+import com.android.settings.datetime.timezone.model.TimeZoneData;
 import com.android.settings.search.BaseSearchIndexProvider;
 import com.android.settingslib.search.SearchIndexable;
+import com.android.settingslib.utils.ThreadUtils;
 
 import com.google.android.setupcompat.util.WizardManagerHelper;
 
+import java.util.Locale;
+
 @SearchIndexable
 public class DateTimeSettings extends DashboardFragment implements
         TimePreferenceController.TimePreferenceHost, DatePreferenceController.DatePreferenceHost {
@@ -70,6 +75,16 @@ public class DateTimeSettings extends DashboardFragment implements
 
     }
 
+    @Override
+    public void onCreate(Bundle icicle) {
+        super.onCreate(icicle);
+        // Warm up the time zone data, so the time zone and region pickers open without reading
+        // and sorting it first.
+        final Locale locale = getResources().getConfiguration().getLocales().get(0);
+        ThreadUtils.postOnBackgroundThread(
+                () -> TimeZoneData.getInstance().getLocalizedRegions(locale));
+    }
+
     @Override
     public void updateTimeAndDateDisplay(Context context) {
         updatePreferenceStates();
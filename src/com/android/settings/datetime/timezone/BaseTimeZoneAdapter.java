@@ -16,7 +16,6 @@
 
 package com.android.settings.datetime.timezone;
 
-import android.icu.text.BreakIterator;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -32,6 +31,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.android.settings.R;
 import com.android.settings.datetime.timezone.BaseTimeZonePicker.OnListItemClickListener;
+import com.android.settings.datetime.timezone.model.TimeZoneSearchIndex;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -55,6 +55,8 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
     private final boolean mShowHeader;
     private final CharSequence mHeaderText;
 
+    private final TimeZoneSearchIndex mSearchIndex;
+
     private List<T> mItems;
     private ArrayFilter mFilter;
 
@@ -63,7 +65,20 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
      */
     public BaseTimeZoneAdapter(List<T> items, OnListItemClickListener<T> onListItemClickListener,
             Locale locale, boolean showItemSummary, @Nullable CharSequence headerText) {
+        this(items, onListItemClickListener, locale, showItemSummary, headerText,
+                null /* searchIndex */);
+    }
+
+    /**
+     * @param headerText the text shown in the header, or null to show no header.
+     * @param searchIndex the index of the search keys of {@code items}, or null to build it on
+     *                    the first search.
+     */
+    public BaseTimeZoneAdapter(List<T> items, OnListItemClickListener<T> onListItemClickListener,
+            Locale locale, boolean showItemSummary, @Nullable CharSequence headerText,
+            @Nullable TimeZoneSearchIndex searchIndex) {
         mOriginalItems = items;
+        mSearchIndex = searchIndex;
         mItems = items;
         mOnListItemClickListener = onListItemClickListener;
         mLocale = locale;
@@ -225,14 +240,15 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
      * a prefix. Each item that does not start with the supplied prefix
      * is removed from the list.</p>
      *
-     * The filtering operation is not optimized, due to small data size (~260 regions),
-     * require additional pre-processing. Potentially, a trie structure can be used to match
-     * prefixes of the search keys.
+     * The prefixes of the words in the search keys are matched with a
+     * {@link TimeZoneSearchIndex}, which is built on the first search unless the adapter was
+     * given one.
      */
     @VisibleForTesting
     public class ArrayFilter extends Filter {
 
-        private BreakIterator mBreakIterator = BreakIterator.getWordInstance(mLocale);
+        // Only used on the filter thread.
+        private TimeZoneSearchIndex mIndex = mSearchIndex;
 
         @WorkerThread
         @Override
@@ -241,31 +257,17 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
             if (TextUtils.isEmpty(prefix)) {
                 newItems = mOriginalItems;
             } else {
-                final String prefixString = prefix.toString().toLowerCase(mLocale);
-                newItems = new ArrayList<>();
-
-                for (T item : mOriginalItems) {
-                    outer:
-                    for (String searchKey : item.getSearchKeys()) {
-                        searchKey = searchKey.toLowerCase(mLocale);
-                        // First match against the whole, non-splitted value
-                        if (searchKey.startsWith(prefixString)) {
-                            newItems.add(item);
-                            break outer;
-                        } else {
-                            mBreakIterator.setText(searchKey);
-                            for (int wordStart = 0, wordLimit = mBreakIterator.next();
-                                    wordLimit != BreakIterator.DONE;
-                                    wordStart = wordLimit,
-                                            wordLimit = mBreakIterator.next()) {
-                                if (mBreakIterator.getRuleStatus() != BreakIterator.WORD_NONE
-                                        && searchKey.startsWith(prefixString, wordStart)) {
-                                    newItems.add(item);
-                                    break outer;
-                                }
-                            }
-                        }
+                if (mIndex == null) {
+                    final List<String[]> searchKeys = new ArrayList<>(mOriginalItems.size());
+                    for (T item : mOriginalItems) {
+                        searchKeys.add(item.getSearchKeys());
                     }
+                    mIndex = new TimeZoneSearchIndex(searchKeys, mLocale);
+                }
+                final int[] positions = mIndex.search(prefix);
+                newItems = new ArrayList<>(positions.length);
+                for (int position : positions) {
+                    newItems.add(mOriginalItems.get(position));
                 }
             }
 
@@ -16,13 +16,9 @@
 
 package com.android.settings.datetime.timezone;
 
-import static com.android.settingslib.datetime.ZoneGetter.capitalizeForStandaloneDisplay;
-
 import android.app.Activity;
 import android.app.settings.SettingsEnums;
 import android.content.Intent;
-import android.icu.text.Collator;
-import android.icu.text.LocaleDisplayNames;
 import android.os.Bundle;
 import android.util.Log;
 
@@ -32,13 +28,11 @@ import com.android.settings.R;
 import com.android.settings.core.SubSettingLauncher;
 import com.android.settings.datetime.timezone.BaseTimeZoneAdapter.AdapterItem;
 import com.android.settings.datetime.timezone.model.FilteredCountryTimeZones;
+import com.android.settings.datetime.timezone.model.LocalizedRegions;
 import com.android.settings.datetime.timezone.model.TimeZoneData;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * Render a list of regions into a list view.
@@ -62,9 +56,10 @@ public class RegionSearchPicker extends BaseTimeZonePicker {
     @Override
     protected BaseTimeZoneAdapter createAdapter(TimeZoneData timeZoneData) {
         mTimeZoneData = timeZoneData;
-        mAdapter = new BaseTimeZoneAdapter<>(createAdapterItem(timeZoneData.getRegionIds()),
+        final LocalizedRegions regions = timeZoneData.getLocalizedRegions(getLocale());
+        mAdapter = new BaseTimeZoneAdapter<>(createAdapterItem(regions),
                 this::onListItemClick, getLocale(), false /* showItemSummary */,
-                    null /* headerText */);
+                    null /* headerText */, regions.getSearchIndex());
         return mAdapter;
     }
 
@@ -112,17 +107,13 @@ public class RegionSearchPicker extends BaseTimeZonePicker {
         }
     }
 
-    private List<RegionItem> createAdapterItem(Set<String> regionIds) {
-        final Collator collator = Collator.getInstance(getLocale());
-        final TreeSet<RegionItem> items = new TreeSet<>(new RegionInfoComparator(collator));
-        final LocaleDisplayNames localeDisplayNames = LocaleDisplayNames.getInstance(getLocale());
-        long i = 0;
-        for (String regionId : regionIds) {
-            String name = capitalizeForStandaloneDisplay(
-                    mLocale, localeDisplayNames.regionDisplayName(regionId));
-            items.add(new RegionItem(i++, regionId, name));
+    private List<RegionItem> createAdapterItem(LocalizedRegions regions) {
+        final List<RegionItem> items = new ArrayList<>(regions.size());
+        for (int i = 0; i < regions.size(); i++) {
+            items.add(new RegionItem(i, regions.getRegionId(i), regions.getName(i),
+                    regions.getSearchKeys(i)));
         }
-        return new ArrayList<>(items);
+        return items;
     }
 
     @VisibleForTesting
@@ -133,14 +124,11 @@ public class RegionSearchPicker extends BaseTimeZonePicker {
         private final long mItemId;
         private final String[] mSearchKeys;
 
-        RegionItem(long itemId, String id, String name) {
+        RegionItem(long itemId, String id, String name, String[] searchKeys) {
             mId = id;
             mName = name;
             mItemId = itemId;
-            // Allow to search with ISO_3166-1 alpha-2 code. It's handy for english users in some
-            // countries, e.g. US for United States. It's not best search keys for users, but
-            // ICU doesn't have the data for the alias names of a region.
-            mSearchKeys = new String[] {mId, mName};
+            mSearchKeys = searchKeys;
         }
 
         public String getId() {
@@ -177,17 +165,4 @@ public class RegionSearchPicker extends BaseTimeZonePicker {
             return mSearchKeys;
         }
     }
-
-    private static class RegionInfoComparator implements Comparator<RegionItem> {
-        private final Collator mCollator;
-
-        RegionInfoComparator(Collator collator) {
-            mCollator = collator;
-        }
-
-        @Override
-        public int compare(RegionItem r1, RegionItem r2) {
-            return mCollator.compare(r1.getTitle(), r2.getTitle());
-        }
-    }
 }
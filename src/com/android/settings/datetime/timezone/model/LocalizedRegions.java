@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datetime.timezone.model;
+
+import static com.android.settingslib.datetime.ZoneGetter.capitalizeForStandaloneDisplay;
+
+import android.icu.text.LocaleDisplayNames;
+
+import androidx.annotation.NonNull;
+
+import com.android.settings.utils.LabelSorter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The regions of {@link TimeZoneData} with their display names in a locale, sorted by name, and a
+ * search index over the names and region ids. Get it from
+ * {@link TimeZoneData#getLocalizedRegions(Locale)}, which builds it once per locale.
+ */
+public class LocalizedRegions {
+
+    private final List<String> mRegionIds;
+    private final List<String> mNames;
+    private final List<String[]> mSearchKeys;
+    private final TimeZoneSearchIndex mSearchIndex;
+
+    private static class Region {
+        final String id;
+        final String name;
+
+        Region(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    LocalizedRegions(Collection<String> regionIds, Locale locale) {
+        final LocaleDisplayNames localeDisplayNames = LocaleDisplayNames.getInstance(locale);
+        final List<Region> regions = new ArrayList<>(regionIds.size());
+        for (String regionId : regionIds) {
+            regions.add(new Region(regionId, capitalizeForStandaloneDisplay(
+                    locale, localeDisplayNames.regionDisplayName(regionId))));
+        }
+        final LabelSorter labelSorter = LabelSorter.getInstance();
+        labelSorter.sort(regions, locale, region -> region.name, null /* tieBreaker */);
+
+        final List<String> ids = new ArrayList<>(regions.size());
+        final List<String> names = new ArrayList<>(regions.size());
+        final List<String[]> searchKeys = new ArrayList<>(regions.size());
+        Region previous = null;
+        for (Region region : regions) {
+            // Only show one of the regions sharing a display name.
+            if (previous != null && labelSorter.getCollationKey(locale, previous.name)
+                    .compareTo(labelSorter.getCollationKey(locale, region.name)) == 0) {
+                continue;
+            }
+            previous = region;
+            ids.add(region.id);
+            names.add(region.name);
+            // Allow to search with ISO_3166-1 alpha-2 code. It's handy for english users in some
+            // countries, e.g. US for United States. It's not best search keys for users, but
+            // ICU doesn't have the data for the alias names of a region.
+            searchKeys.add(new String[] {region.id, region.name});
+        }
+        mRegionIds = Collections.unmodifiableList(ids);
+        mNames = Collections.unmodifiableList(names);
+        mSearchKeys = Collections.unmodifiableList(searchKeys);
+        mSearchIndex = new TimeZoneSearchIndex(mSearchKeys, locale);
+    }
+
+    /** Returns the number of regions. */
+    public int size() {
+        return mRegionIds.size();
+    }
+
+    @NonNull
+    public String getRegionId(int position) {
+        return mRegionIds.get(position);
+    }
+
+    @NonNull
+    public String getName(int position) {
+        return mNames.get(position);
+    }
+
+    @NonNull
+    public String[] getSearchKeys(int position) {
+        return mSearchKeys.get(position);
+    }
+
+    /** Returns the search index whose positions are the positions of the regions here. */
+    @NonNull
+    public TimeZoneSearchIndex getSearchIndex() {
+        return mSearchIndex;
+    }
+}
@@ -15,41 +15,43 @@
  */
 package com.android.settings.datetime.timezone.model;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
+import androidx.collection.ArrayMap;
 import androidx.collection.ArraySet;
 
 import com.android.i18n.timezone.CountryTimeZones;
 import com.android.i18n.timezone.CountryZonesFinder;
 import com.android.i18n.timezone.TimeZoneFinder;
 
-import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Wrapper of CountryZonesFinder to normalize the country code and only show the regions that are
  * has time zone shown in the time zone picker.
  * getInstance() reads the data from underlying file, and this means it should not be called
- * from the UI thread.
+ * from the UI thread. The data is kept for the lifetime of the process, so the file is only read
+ * once.
  */
 public class TimeZoneData {
 
-    private static WeakReference<TimeZoneData> sCache = null;
+    private static TimeZoneData sInstance;
 
     private final CountryZonesFinder mCountryZonesFinder;
     private final Set<String> mRegionIds;
+    // Guarded by this.
+    private final Map<Locale, LocalizedRegions> mLocalizedRegions = new ArrayMap<>();
 
     public static synchronized TimeZoneData getInstance() {
-        TimeZoneData data = sCache == null ? null : sCache.get();
-        if (data != null) {
-            return data;
+        if (sInstance == null) {
+            sInstance = new TimeZoneData(TimeZoneFinder.getInstance().getCountryZonesFinder());
         }
-        data = new TimeZoneData(TimeZoneFinder.getInstance().getCountryZonesFinder());
-        sCache = new WeakReference<>(data);
-        return data;
+        return sInstance;
     }
 
     @VisibleForTesting
@@ -62,6 +64,21 @@ public class TimeZoneData {
         return mRegionIds;
     }
 
+    /**
+     * Returns the regions with their names in {@code locale}, sorted by name and indexed for
+     * search. They are built on the first call for each locale, which should not be on the UI
+     * thread.
+     */
+    @NonNull
+    public synchronized LocalizedRegions getLocalizedRegions(@NonNull Locale locale) {
+        LocalizedRegions regions = mLocalizedRegions.get(locale);
+        if (regions == null) {
+            regions = new LocalizedRegions(mRegionIds, locale);
+            mLocalizedRegions.put(locale, regions);
+        }
+        return regions;
+    }
+
     public Set<String> lookupCountryCodesForZoneId(String tzId) {
         if (tzId == null) {
             return Collections.emptySet();
@@ -33,7 +33,11 @@ public class TimeZoneDataLoader extends AsyncLoaderCompat<TimeZoneData> {
     @Override
     public TimeZoneData loadInBackground() {
         // Heavy operation due to reading the underlying file
-        return TimeZoneData.getInstance();
+        final TimeZoneData data = TimeZoneData.getInstance();
+        // Also build the localized regions, so the pickers don't build them on the UI thread.
+        data.getLocalizedRegions(
+                getContext().getResources().getConfiguration().getLocales().get(0));
+        return data;
     }
 
     @Override
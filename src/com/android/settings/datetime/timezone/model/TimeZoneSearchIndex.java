@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datetime.timezone.model;
+
+import android.icu.text.BreakIterator;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Word prefix index over the search keys of a list of items.
+ *
+ * An item matches a query if one of its search keys, or one of the words in a search key, starts
+ * with the query. The lowercase suffixes of the search keys starting at each word are sorted once
+ * when the index is built, so a lookup is a binary search instead of a word segmentation of every
+ * search key. Instances are immutable and can be shared between threads.
+ */
+public class TimeZoneSearchIndex {
+
+    private final Locale mLocale;
+    private final int mItemCount;
+    // Sorted by String#compareTo, so the suffixes with the same prefix are next to each other.
+    private final String[] mSuffixes;
+    // Position of the item of each suffix.
+    private final int[] mPositions;
+
+    private static class Entry {
+        final String suffix;
+        final int position;
+
+        Entry(String suffix, int position) {
+            this.suffix = suffix;
+            this.position = position;
+        }
+    }
+
+    /**
+     * @param searchKeys the search keys of each item, in the order of the items
+     */
+    public TimeZoneSearchIndex(@NonNull List<String[]> searchKeys, @NonNull Locale locale) {
+        mLocale = locale;
+        mItemCount = searchKeys.size();
+        final BreakIterator breakIterator = BreakIterator.getWordInstance(locale);
+        final List<Entry> entries = new ArrayList<>();
+        for (int position = 0; position < mItemCount; position++) {
+            for (String searchKey : searchKeys.get(position)) {
+                if (TextUtils.isEmpty(searchKey)) {
+                    continue;
+                }
+                final String key = searchKey.toLowerCase(locale);
+                // The whole, non-splitted value
+                entries.add(new Entry(key, position));
+                breakIterator.setText(key);
+                for (int wordStart = 0, wordLimit = breakIterator.next();
+                        wordLimit != BreakIterator.DONE;
+                        wordStart = wordLimit, wordLimit = breakIterator.next()) {
+                    if (wordStart > 0 && breakIterator.getRuleStatus() != BreakIterator.WORD_NONE) {
+                        entries.add(new Entry(key.substring(wordStart), position));
+                    }
+                }
+            }
+        }
+        entries.sort((lhs, rhs) -> lhs.suffix.compareTo(rhs.suffix));
+        mSuffixes = new String[entries.size()];
+        mPositions = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            mSuffixes[i] = entries.get(i).suffix;
+            mPositions[i] = entries.get(i).position;
+        }
+    }
+
+    /**
+     * Returns the positions of the items matching {@code prefix} in ascending order, or all
+     * positions if {@code prefix} is empty.
+     */
+    @NonNull
+    public int[] search(CharSequence prefix) {
+        final BitSet matches = new BitSet(mItemCount);
+        if (TextUtils.isEmpty(prefix)) {
+            matches.set(0, mItemCount);
+        } else {
+            final String prefixString = prefix.toString().toLowerCase(mLocale);
+            for (int i = lowerBound(prefixString);
+                    i < mSuffixes.length && mSuffixes[i].startsWith(prefixString); i++) {
+                matches.set(mPositions[i]);
+            }
+        }
+        final int[] result = new int[matches.cardinality()];
+        for (int i = 0, position = matches.nextSetBit(0); position >= 0;
+                i++, position = matches.nextSetBit(position + 1)) {
+            result[i] = position;
+        }
+        return result;
+    }
+
+    /** Returns the index of the first suffix not less than {@code prefix}. */
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = mSuffixes.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (mSuffixes[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -33,14 +33,14 @@ import android.widget.ListView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.fragment.app.ListFragment;
 
 import com.android.settings.SettingsActivity;
+import com.android.settings.utils.LabelSorter;
+import com.android.settingslib.utils.ThreadUtils;
 
-import java.text.Collator;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 public class AppPicker extends SettingsActivity {
@@ -124,14 +124,92 @@ public class AppPicker extends SettingsActivity {
                 mIncludeNothing = getArguments().getBoolean(EXTRA_INCLUDE_NOTHING);
             }
             mAdapter = new AppListAdapter(requireContext());
-            if (mAdapter.getCount() <= 0) {
+            // Labels and package info of every app are loaded and sorted on a background
+            // thread; the list shows its progress indicator until they are ready.
+            final Context appContext = requireContext().getApplicationContext();
+            ThreadUtils.postOnBackgroundThread(() -> {
+                final List<MyApplicationInfo> apps = loadApps(appContext);
+                ThreadUtils.postOnMainThread(() -> onAppsLoaded(apps));
+            });
+        }
+
+        private void onAppsLoaded(List<MyApplicationInfo> apps) {
+            if (!isAdded()) {
+                return;
+            }
+            if (mIncludeNothing) {
+                MyApplicationInfo info = new MyApplicationInfo();
+                info.label = getText(com.android.settingslib.R.string.no_application);
+                apps.add(0, info);
+            }
+            if (apps.isEmpty()) {
                 requireActivity().setResult(RESULT_NO_MATCHING_APPS);
                 requireActivity().finish();
             } else {
+                mAdapter.addAll(apps);
                 setListAdapter(mAdapter);
             }
         }
 
+        @WorkerThread
+        private List<MyApplicationInfo> loadApps(Context context) {
+            final PackageManager pm = context.getPackageManager();
+            final List<MyApplicationInfo> apps = new ArrayList<>();
+            List<ApplicationInfo> pkgs = pm.getInstalledApplications(0);
+            for (int i = 0; i < pkgs.size(); i++) {
+                ApplicationInfo ai = pkgs.get(i);
+                if (ai.uid == Process.SYSTEM_UID) {
+                    continue;
+                }
+
+                // Filter out apps that are not debuggable if required.
+                if (mDebuggableOnly) {
+                    // On a user build, we only allow debugging of apps that
+                    // are marked as debuggable.  Otherwise (for platform development)
+                    // we allow all apps.
+                    if ((ai.flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0
+                            && "user".equals(Build.TYPE)) {
+                        continue;
+                    }
+                }
+
+                // Filter out apps that are system apps if requested
+                if (mNonSystemOnly && ai.isSystemApp()) {
+                    continue;
+                }
+
+                // Filter out apps that do not request the permission if required.
+                if (mPermissionName != null) {
+                    boolean requestsPermission = false;
+                    try {
+                        PackageInfo pi = pm.getPackageInfo(ai.packageName,
+                                PackageManager.GET_PERMISSIONS);
+                        if (pi.requestedPermissions == null) {
+                            continue;
+                        }
+                        for (String requestedPermission : pi.requestedPermissions) {
+                            if (requestedPermission.equals(mPermissionName)) {
+                                requestsPermission = true;
+                                break;
+                            }
+                        }
+                        if (!requestsPermission) {
+                            continue;
+                        }
+                    } catch (PackageManager.NameNotFoundException e) {
+                        continue;
+                    }
+                }
+
+                MyApplicationInfo info = new MyApplicationInfo();
+                info.info = ai;
+                info.label = info.info.loadLabel(pm).toString();
+                apps.add(info);
+            }
+            LabelSorter.getInstance().sort(apps, info -> info.label);
+            return apps;
+        }
+
         @Override
         public void onListItemClick(@NonNull ListView l, @NonNull View v, int position, long id) {
             super.onListItemClick(l, v, position, id);
@@ -154,73 +232,12 @@ public class AppPicker extends SettingsActivity {
         }
 
         private final class AppListAdapter extends ArrayAdapter<MyApplicationInfo> {
-            private final List<MyApplicationInfo> mPackageInfoList =
-                    new ArrayList<MyApplicationInfo>();
             private final LayoutInflater mInflater;
 
             public AppListAdapter(Context context) {
                 super(context, 0);
                 mInflater = (LayoutInflater) context.getSystemService(
                         Context.LAYOUT_INFLATER_SERVICE);
-                List<ApplicationInfo> pkgs = context.getPackageManager().getInstalledApplications(
-                        0);
-                for (int i = 0; i < pkgs.size(); i++) {
-                    ApplicationInfo ai = pkgs.get(i);
-                    if (ai.uid == Process.SYSTEM_UID) {
-                        continue;
-                    }
-
-                    // Filter out apps that are not debuggable if required.
-                    if (mDebuggableOnly) {
-                        // On a user build, we only allow debugging of apps that
-                        // are marked as debuggable.  Otherwise (for platform development)
-                        // we allow all apps.
-                        if ((ai.flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0
-                                && "user".equals(Build.TYPE)) {
-                            continue;
-                        }
-                    }
-
-                    // Filter out apps that are system apps if requested
-                    if (mNonSystemOnly && ai.isSystemApp()) {
-                        continue;
-                    }
-
-                    // Filter out apps that do not request the permission if required.
-                    if (mPermissionName != null) {
-                        boolean requestsPermission = false;
-                        try {
-                            PackageInfo pi = getContext().getPackageManager().getPackageInfo(
-                                    ai.packageName, PackageManager.GET_PERMISSIONS);
-                            if (pi.requestedPermissions == null) {
-                                continue;
-                            }
-                            for (String requestedPermission : pi.requestedPermissions) {
-                                if (requestedPermission.equals(mPermissionName)) {
-                                    requestsPermission = true;
-                                    break;
-                                }
-                            }
-                            if (!requestsPermission) {
-                                continue;
-                            }
-                        } catch (PackageManager.NameNotFoundException e) {
-                            continue;
-                        }
-                    }
-
-                    MyApplicationInfo info = new MyApplicationInfo();
-                    info.info = ai;
-                    info.label = info.info.loadLabel(getContext().getPackageManager()).toString();
-                    mPackageInfoList.add(info);
-                }
-                Collections.sort(mPackageInfoList, sDisplayNameComparator);
-                if (mIncludeNothing) {
-                    MyApplicationInfo info = new MyApplicationInfo();
-                    info.label = context.getText(com.android.settingslib.R.string.no_application);
-                    mPackageInfoList.add(0, info);
-                }
-                addAll(mPackageInfoList);
             }
 
             @Override
@@ -244,15 +261,5 @@ public class AppPicker extends SettingsActivity {
                 return convertView;
             }
         }
-
-        private final static Comparator<MyApplicationInfo> sDisplayNameComparator
-                = new Comparator<MyApplicationInfo>() {
-            public final int
-            compare(MyApplicationInfo a, MyApplicationInfo b) {
-                return collator.compare(a.label, b.label);
-            }
-
-            private final Collator collator = Collator.getInstance();
-        };
     }
 }
@@ -528,6 +528,12 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
         return 0;
     }
 
+    @Override
+    protected boolean isLazyControllerStateEnabled() {
+        // Most of the 100+ controllers sit far below the fold, evaluate them on demand.
+        return true;
+    }
+
     @Override
     protected int getPreferenceScreenResId() {
         return Utils.isMonkeyRunning() ? R.xml.placeholder_prefs : R.xml.development_settings;
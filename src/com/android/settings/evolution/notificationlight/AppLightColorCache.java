@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.evolution.notificationlight;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.util.ArrayMap;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.WorkerThread;
+
+import com.android.internal.util.evolution.ColorUtils;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Caches the light color generated from the icon of each package, so the notification light
+ * pages never decode app icons on the main thread.
+ *
+ * Colors are computed on a background thread from a downscaled copy of the icon and persisted
+ * with the version code of the package, so they survive process restarts and are recomputed
+ * after the package is updated.
+ */
+public class AppLightColorCache {
+    private static final String TAG = "AppLightColorCache";
+
+    private static final String PREFS_NAME = "notification_light_colors";
+    // Icons are downscaled before color extraction, the dominant color doesn't need more.
+    private static final int ICON_SIZE_PX = 48;
+
+    private static AppLightColorCache sInstance;
+
+    private final Context mContext;
+    private final SharedPreferences mPrefs;
+    // Only accessed on the main thread.
+    private final Map<String, Integer> mColors = new ArrayMap<>();
+    private final Map<String, List<IntConsumer>> mPendingCallbacks = new ArrayMap<>();
+
+    private final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final Uri data = intent.getData();
+            if (data == null) {
+                return;
+            }
+            final String packageName = data.getSchemeSpecificPart();
+            mColors.remove(packageName);
+            if (Intent.ACTION_PACKAGE_FULLY_REMOVED.equals(intent.getAction())) {
+                mPrefs.edit().remove(packageName).apply();
+            }
+        }
+    };
+
+    /**
+     * Returns the cache shared by all notification light pages.
+     */
+    public static synchronized AppLightColorCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new AppLightColorCache(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    private AppLightColorCache(Context context) {
+        mContext = context;
+        mPrefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
+        final IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addAction(Intent.ACTION_PACKAGE_FULLY_REMOVED);
+        filter.addDataScheme("package");
+        context.registerReceiver(mPackageReceiver, filter);
+    }
+
+    /**
+     * Calls {@code callback} on the main thread with the light color of {@code packageName}, or
+     * with {@code defaultColor} if the package isn't installed. Calls it right away if the color
+     * is cached in memory.
+     */
+    @MainThread
+    public void load(String packageName, int defaultColor, IntConsumer callback) {
+        final Integer color = mColors.get(packageName);
+        if (color != null) {
+            callback.accept(color);
+            return;
+        }
+
+        List<IntConsumer> callbacks = mPendingCallbacks.get(packageName);
+        if (callbacks != null) {
+            // A load is already running, it will call back everyone.
+            callbacks.add(callback);
+            return;
+        }
+        callbacks = new ArrayList<>();
+        callbacks.add(callback);
+        mPendingCallbacks.put(packageName, callbacks);
+
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final Integer loadedColor = loadColor(packageName);
+            ThreadUtils.postOnMainThread(() -> onLoaded(packageName,
+                    loadedColor != null ? loadedColor : defaultColor, loadedColor != null));
+        });
+    }
+
+    private void onLoaded(String packageName, int color, boolean cache) {
+        if (cache) {
+            mColors.put(packageName, color);
+        }
+        final List<IntConsumer> callbacks = mPendingCallbacks.remove(packageName);
+        if (callbacks == null) {
+            return;
+        }
+        for (IntConsumer callback : callbacks) {
+            callback.accept(color);
+        }
+    }
+
+    @WorkerThread
+    private Integer loadColor(String packageName) {
+        final PackageManager pm = mContext.getPackageManager();
+        final PackageInfo info;
+        try {
+            info = pm.getPackageInfo(packageName, 0 /* flags */);
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+
+        final long versionCode = info.getLongVersionCode();
+        final String persisted = mPrefs.getString(packageName, null);
+        if (persisted != null) {
+            final String[] values = persisted.split(":", -1);
+            try {
+                if (values.length == 2 && Long.parseLong(values[0]) == versionCode) {
+                    return Integer.parseInt(values[1]);
+                }
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Ignoring malformed color of " + packageName);
+            }
+        }
+
+        final Drawable icon = info.applicationInfo.loadIcon(pm);
+        final Bitmap bitmap = Bitmap.createBitmap(ICON_SIZE_PX, ICON_SIZE_PX,
+                Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        icon.setBounds(0, 0, ICON_SIZE_PX, ICON_SIZE_PX);
+        icon.draw(canvas);
+        final int color = ColorUtils.generateAlertColorFromDrawable(
+                new BitmapDrawable(mContext.getResources(), bitmap));
+        bitmap.recycle();
+
+        mPrefs.edit().putString(packageName, versionCode + ":" + color).apply();
+        return color;
+    }
+}
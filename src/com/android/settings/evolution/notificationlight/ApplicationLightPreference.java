@@ -20,6 +20,9 @@ package com.android.settings.evolution.notificationlight;
 import android.app.Dialog;
 import android.content.Context;
 import android.content.DialogInterface;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.graphics.drawable.Drawable;
 import android.graphics.drawable.ShapeDrawable;
 import android.graphics.drawable.shapes.OvalShape;
 import android.os.Bundle;
@@ -36,6 +39,7 @@ import com.android.internal.evolution.notification.LightsCapabilities;
 
 import com.evolution.settings.preference.CustomDialogPreference;
 import com.android.settings.R;
+import com.android.settingslib.utils.ThreadUtils;
 
 public class ApplicationLightPreference extends CustomDialogPreference<LightSettingsDialog>
         implements View.OnLongClickListener {
@@ -62,6 +66,9 @@ public class ApplicationLightPreference extends CustomDialogPreference<LightSett
 
     private LightSettingsDialog mDialog;
 
+    private ApplicationInfo mIconInfo;
+    private boolean mIconRequested;
+
     public interface ItemLongClickListener {
         boolean onItemLongClick(String key);
     }
@@ -124,6 +131,24 @@ public class ApplicationLightPreference extends CustomDialogPreference<LightSett
 
         updatePreferenceViews();
         holder.itemView.setOnLongClickListener(this);
+        maybeLoadIcon();
+    }
+
+    private void maybeLoadIcon() {
+        if (mIconInfo == null || mIconRequested) {
+            return;
+        }
+        mIconRequested = true;
+        final ApplicationInfo info = mIconInfo;
+        final PackageManager pm = getContext().getPackageManager();
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final Drawable icon = info.loadIcon(pm);
+            ThreadUtils.postOnMainThread(() -> {
+                if (info == mIconInfo) {
+                    setIcon(icon);
+                }
+            });
+        });
     }
 
     public void onStop() {
@@ -255,6 +280,15 @@ public class ApplicationLightPreference extends CustomDialogPreference<LightSett
         mHasDefaults = true;
     }
 
+    /**
+     * Sets the icon of {@code info} as icon. It is loaded on a background thread once the row is
+     * shown for the first time, so rows that are never scrolled to don't load their icon.
+     */
+    public void setApplicationIcon(ApplicationInfo info) {
+        mIconInfo = info;
+        mIconRequested = false;
+    }
+
     public void setBrightness(int brightness) {
         mLedBrightness = brightness;
     }
@@ -24,7 +24,6 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.res.Resources;
-import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.provider.Settings;
 import android.telephony.TelephonyManager;
@@ -58,7 +57,6 @@ import java.util.UUID;
 
 import com.evolution.settings.preference.SystemSettingSwitchPreference;
 import com.evolution.settings.preference.SystemSettingMainSwitchPreference;
-import com.android.internal.util.evolution.ColorUtils;
 
 @SearchIndexable
 public class NotificationLightSettings extends SettingsPreferenceFragment implements
@@ -326,7 +324,7 @@ public class NotificationLightSettings extends SettingsPreferenceFragment implem
 
                     pref.setKey(pkg.name);
                     pref.setTitle(info.applicationInfo.loadLabel(mPackageManager));
-                    pref.setIcon(info.applicationInfo.loadIcon(mPackageManager));
+                    pref.setApplicationIcon(info.applicationInfo);
                     pref.setPersistent(false);
                     pref.setOnPreferenceChangeListener(this);
                     pref.setOnLongClickListener(this);
@@ -355,30 +353,31 @@ public class NotificationLightSettings extends SettingsPreferenceFragment implem
         }
     }
 
-    private int getInitialColorForPackage(String packageName) {
-        boolean autoColor = Settings.System.getInt(getActivity().getContentResolver(),
+    private boolean isAutoColorEnabled() {
+        return Settings.System.getInt(getActivity().getContentResolver(),
                 Settings.System.NOTIFICATION_LIGHT_COLOR_AUTO, mMultiColorLed ? 1 : 0) == 1;
-        int color = mDefaultColor;
-        if (autoColor) {
-            try {
-                Drawable icon = mPackageManager.getApplicationIcon(packageName);
-                color = ColorUtils.generateAlertColorFromDrawable(icon);
-            } catch (NameNotFoundException e) {
-                // shouldn't happen, but just return default
-            }
-        }
-        return color;
     }
 
     private void addCustomApplicationPref(String packageName) {
-        Package pkg = mPackages.get(packageName);
-        if (pkg == null) {
-            int color = getInitialColorForPackage(packageName);
-            pkg = new Package(packageName, color, mDefaultLedOn, mDefaultLedOff);
-            mPackages.put(packageName, pkg);
-            savePackageList(false);
-            refreshCustomApplicationPrefs();
+        if (mPackages.containsKey(packageName)) {
+            return;
         }
+        if (!isAutoColorEnabled()) {
+            putCustomApplicationPref(packageName, mDefaultColor);
+            return;
+        }
+        AppLightColorCache.getInstance(getContext()).load(packageName, mDefaultColor, color -> {
+            if (isAdded() && !mPackages.containsKey(packageName)) {
+                putCustomApplicationPref(packageName, color);
+            }
+        });
+    }
+
+    private void putCustomApplicationPref(String packageName, int color) {
+        Package pkg = new Package(packageName, color, mDefaultLedOn, mDefaultLedOff);
+        mPackages.put(packageName, pkg);
+        savePackageList(false);
+        refreshCustomApplicationPrefs();
     }
 
     private void removeCustomApplicationPref(String packageName) {
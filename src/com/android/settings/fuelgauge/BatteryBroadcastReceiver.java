@@ -109,6 +109,14 @@ public class BatteryBroadcastReceiver extends BroadcastReceiver {
         mContext.unregisterReceiver(this);
     }
 
+    private void dispatchBatteryChanged(@BatteryUpdateType int type) {
+        if (type != BatteryUpdateType.MANUAL) {
+            // Cached usage stats are out of date after the battery changed.
+            BatteryUsageStatsCache.getInstance(mContext).invalidate();
+        }
+        mBatteryListener.onBatteryChanged(type);
+    }
+
     private void updateBatteryStatus(Intent intent, boolean forceUpdate) {
         if (intent == null || mBatteryListener == null) {
             return;
@@ -138,27 +146,27 @@ public class BatteryBroadcastReceiver extends BroadcastReceiver {
                             + batteryHealth);
             if (!Utils.isBatteryPresent(intent)) {
                 Log.w(TAG, "Problem reading the battery meter.");
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_NOT_PRESENT);
+                dispatchBatteryChanged(BatteryUpdateType.BATTERY_NOT_PRESENT);
             } else if (forceUpdate) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.MANUAL);
+                dispatchBatteryChanged(BatteryUpdateType.MANUAL);
             } else if (chargingStatus != mChargingStatus) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.CHARGING_STATUS);
+                dispatchBatteryChanged(BatteryUpdateType.CHARGING_STATUS);
             } else if (batteryHealth != mBatteryHealth) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_HEALTH);
+                dispatchBatteryChanged(BatteryUpdateType.BATTERY_HEALTH);
             } else if (!batteryLevel.equals(mBatteryLevel)) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_LEVEL);
+                dispatchBatteryChanged(BatteryUpdateType.BATTERY_LEVEL);
             } else if (!batteryStatus.equals(mBatteryStatus)) {
-                mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_STATUS);
+                dispatchBatteryChanged(BatteryUpdateType.BATTERY_STATUS);
             }
             mBatteryLevel = batteryLevel;
             mBatteryStatus = batteryStatus;
             mChargingStatus = chargingStatus;
             mBatteryHealth = batteryHealth;
         } else if (PowerManager.ACTION_POWER_SAVE_MODE_CHANGED.equals(action)) {
-            mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_SAVER);
+            dispatchBatteryChanged(BatteryUpdateType.BATTERY_SAVER);
         } else if (BatteryUtils.BYPASS_DOCK_DEFENDER_ACTION.equals(action)
                 || UsbManager.ACTION_USB_PORT_COMPLIANCE_CHANGED.equals(action)) {
-            mBatteryListener.onBatteryChanged(BatteryUpdateType.BATTERY_STATUS);
+            dispatchBatteryChanged(BatteryUpdateType.BATTERY_STATUS);
         }
     }
 }
@@ -21,7 +21,6 @@ import android.content.res.Resources;
 import android.os.AsyncTask;
 import android.os.BatteryManager;
 import android.os.BatteryStats.HistoryItem;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.SystemClock;
 import android.provider.Settings;
@@ -177,31 +176,21 @@ public class BatteryInfo {
         new AsyncTask<Void, Void, BatteryInfo>() {
             @Override
             protected BatteryInfo doInBackground(Void... params) {
-                boolean shouldCloseBatteryUsageStats = false;
-                BatteryUsageStats stats;
                 if (batteryUsageStats != null) {
-                    stats = batteryUsageStats;
-                } else {
-                    try {
-                        stats =
-                                context.getSystemService(BatteryStatsManager.class)
-                                        .getBatteryUsageStats();
-                        shouldCloseBatteryUsageStats = true;
-                    } catch (RuntimeException e) {
-                        Log.e(TAG, "getBatteryInfo() from getBatteryUsageStats()", e);
-                        // Use default BatteryUsageStats.
-                        stats = new BatteryUsageStats.Builder(new String[0]).build();
-                    }
+                    return getBatteryInfo(context, batteryUsageStats, shortString);
                 }
-                final BatteryInfo batteryInfo = getBatteryInfo(context, stats, shortString);
-                if (shouldCloseBatteryUsageStats) {
-                    try {
-                        stats.close();
-                    } catch (Exception e) {
-                        Log.e(TAG, "BatteryUsageStats.close() failed", e);
-                    }
+                final BatteryUsageStatsCache cache = BatteryUsageStatsCache.getInstance(context);
+                BatteryUsageStatsCache.Handle statsHandle;
+                try {
+                    statsHandle = cache.acquire(/* flags= */ 0);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "getBatteryInfo() from getBatteryUsageStats()", e);
+                    // Use default BatteryUsageStats.
+                    statsHandle = cache.wrap(new BatteryUsageStats.Builder(new String[0]).build());
+                }
+                try (BatteryUsageStatsCache.Handle handle = statsHandle) {
+                    return getBatteryInfo(context, handle.getStats(), shortString);
                 }
-                return batteryInfo;
             }
 
             @Override
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import android.content.Context;
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+import android.os.Parcel;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide cache of {@link BatteryUsageStats} snapshots, so the loaders of the battery pages
+ * opening together share one snapshot instead of each pulling its own.
+ *
+ * <p>A snapshot is reused for {@link #TTL_MS} or until {@link #invalidate()} is called on a
+ * battery change, by requests whose query flags it covers. Requests missing the cache at the same
+ * time wait for one fetch. Since reading the battery history isn't safe from several threads,
+ * requests for the history get their own in-process copy of the shared snapshot instead of the
+ * snapshot itself.
+ *
+ * <p>Users get a reference-counted {@link Handle} and must close it; the snapshot is closed once
+ * it is out of the cache and the last handle is closed.
+ */
+public class BatteryUsageStatsCache {
+    private static final String TAG = "BatteryUsageStatsCache";
+
+    @VisibleForTesting static final long TTL_MS = 5000L;
+
+    /** Includes the battery history in the snapshot. */
+    public static final int QUERY_HISTORY = 1;
+    /** Includes the usage by process state in the snapshot. */
+    public static final int QUERY_PROCESS_STATE_DATA = 1 << 1;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef(
+            flag = true,
+            value = {QUERY_HISTORY, QUERY_PROCESS_STATE_DATA})
+    public @interface QueryFlags {}
+
+    private static BatteryUsageStatsCache sInstance;
+
+    private final Context mContext;
+    // Guarded by this.
+    private final List<Entry> mEntries = new ArrayList<>();
+    private final Runnable mTrimRunnable = this::trim;
+    // Serializes the copies of the snapshots with the history.
+    private final Object mCopyLock = new Object();
+
+    private static class Entry {
+        final int flags;
+        // Guarded by the cache. Null while the fetch is in flight or after it failed.
+        BatteryUsageStats stats;
+        RuntimeException error;
+        boolean done;
+        // Set when the cache is invalidated while the fetch is in flight.
+        boolean invalidated;
+        long fetchTimeMs;
+        // Guarded by the cache. Includes the reference of the cache while it is cached.
+        int refCount;
+
+        Entry(int flags) {
+            this.flags = flags;
+        }
+    }
+
+    /** A reference to a {@link BatteryUsageStats} snapshot, which must be closed after use. */
+    public static final class Handle implements AutoCloseable {
+        private final BatteryUsageStatsCache mCache;
+        private final Entry mEntry;
+        private boolean mClosed;
+
+        private Handle(BatteryUsageStatsCache cache, Entry entry) {
+            mCache = cache;
+            mEntry = entry;
+        }
+
+        /** Returns the snapshot, which must not be closed by the caller. */
+        @NonNull
+        public BatteryUsageStats getStats() {
+            return mEntry.stats;
+        }
+
+        /** Releases the snapshot. Calling it more than once has no effect. */
+        @Override
+        public void close() {
+            synchronized (mCache) {
+                if (mClosed) {
+                    return;
+                }
+                mClosed = true;
+            }
+            mCache.release(mEntry);
+        }
+    }
+
+    /** Returns the cache of the process. */
+    public static synchronized BatteryUsageStatsCache getInstance(Context context) {
+        final Context appContext = context.getApplicationContext();
+        // The application context only changes between tests.
+        if (sInstance == null || sInstance.mContext != appContext) {
+            sInstance = new BatteryUsageStatsCache(appContext);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    BatteryUsageStatsCache(Context appContext) {
+        mContext = appContext;
+    }
+
+    /**
+     * Returns a handle to a snapshot with at least the data of {@code flags}, fetching it if no
+     * fresh one is cached or being fetched.
+     *
+     * @throws RuntimeException if the snapshot can't be fetched
+     */
+    @WorkerThread
+    @NonNull
+    public Handle acquire(@QueryFlags int flags) {
+        Entry entry;
+        boolean shared;
+        synchronized (this) {
+            entry = findEntry(flags);
+            shared = entry != null;
+            if (shared) {
+                entry.refCount++;
+                while (!entry.done) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (entry.error != null) {
+                    entry.refCount--;
+                    throw entry.error;
+                }
+            } else {
+                entry = new Entry(flags);
+                // One reference for the cache and one for the caller.
+                entry.refCount = 2;
+                mEntries.add(entry);
+            }
+        }
+        if (shared) {
+            return newHandle(entry, flags);
+        }
+
+        BatteryUsageStats stats = null;
+        RuntimeException error = null;
+        try {
+            stats = fetch(flags);
+        } catch (RuntimeException e) {
+            error = e;
+        }
+
+        final List<Entry> replaced = new ArrayList<>();
+        synchronized (this) {
+            entry.done = true;
+            entry.stats = stats;
+            entry.error = error;
+            entry.fetchTimeMs = SystemClock.elapsedRealtime();
+            if (error != null) {
+                // Drops the references of the cache and the caller, the waiters drop theirs.
+                mEntries.remove(entry);
+                entry.refCount -= 2;
+            } else if (entry.invalidated) {
+                // Still hand it to the waiters, but don't keep it.
+                mEntries.remove(entry);
+                entry.refCount--;
+            } else {
+                for (int i = mEntries.size() - 1; i >= 0; i--) {
+                    final Entry cached = mEntries.get(i);
+                    if (cached != entry && cached.done && cached.flags == flags) {
+                        mEntries.remove(i);
+                        replaced.add(cached);
+                    }
+                }
+            }
+            notifyAll();
+        }
+        if (error != null) {
+            throw error;
+        }
+        for (Entry cached : replaced) {
+            release(cached);
+        }
+        ThreadUtils.getUiThreadHandler().removeCallbacks(mTrimRunnable);
+        ThreadUtils.getUiThreadHandler().postDelayed(mTrimRunnable, TTL_MS);
+        return newHandle(entry, flags);
+    }
+
+    /**
+     * Wraps a snapshot that isn't cached, e.g. a fallback after a failed fetch, in a handle that
+     * closes it.
+     */
+    @NonNull
+    public Handle wrap(@NonNull BatteryUsageStats stats) {
+        final Entry entry = new Entry(/* flags= */ 0);
+        entry.stats = stats;
+        entry.done = true;
+        entry.refCount = 1;
+        return new Handle(this, entry);
+    }
+
+    /** Drops the cached snapshots, e.g. when the battery state changed. */
+    public void invalidate() {
+        final List<Entry> dropped = new ArrayList<>();
+        synchronized (this) {
+            for (int i = mEntries.size() - 1; i >= 0; i--) {
+                final Entry entry = mEntries.get(i);
+                if (entry.done) {
+                    dropped.add(mEntries.remove(i));
+                } else {
+                    // New requests start another fetch, the waiters still get this one.
+                    entry.invalidated = true;
+                }
+            }
+        }
+        for (Entry entry : dropped) {
+            release(entry);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int getCachedCount() {
+        return mEntries.size();
+    }
+
+    /** Returns a copy of {@code stats}, including its battery history. */
+    @VisibleForTesting
+    BatteryUsageStats copy(BatteryUsageStats stats) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            synchronized (mCopyLock) {
+                stats.writeToParcel(parcel, /* flags= */ 0);
+            }
+            parcel.setDataPosition(0);
+            return BatteryUsageStats.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /** Returns a handle for a caller holding a reference to the fetched {@code entry}. */
+    private Handle newHandle(Entry entry, int flags) {
+        if ((flags & QUERY_HISTORY) == 0) {
+            return new Handle(this, entry);
+        }
+        try {
+            return wrap(copy(entry.stats));
+        } finally {
+            release(entry);
+        }
+    }
+
+    private BatteryUsageStats fetch(int flags) {
+        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
+        if ((flags & QUERY_HISTORY) != 0) {
+            builder.includeBatteryHistory();
+        }
+        if ((flags & QUERY_PROCESS_STATE_DATA) != 0) {
+            builder.includeProcessStateData();
+        }
+        return mContext.getSystemService(BatteryStatsManager.class)
+                .getBatteryUsageStats(builder.build());
+    }
+
+    private Entry findEntry(int flags) {
+        final long now = SystemClock.elapsedRealtime();
+        for (Entry entry : mEntries) {
+            if ((entry.flags & flags) == flags && !entry.invalidated
+                    && (!entry.done || now - entry.fetchTimeMs < TTL_MS)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void trim() {
+        final long now = SystemClock.elapsedRealtime();
+        final List<Entry> expired = new ArrayList<>();
+        synchronized (this) {
+            for (int i = mEntries.size() - 1; i >= 0; i--) {
+                final Entry entry = mEntries.get(i);
+                if (entry.done && now - entry.fetchTimeMs >= TTL_MS) {
+                    expired.add(mEntries.remove(i));
+                }
+            }
+        }
+        for (Entry entry : expired) {
+            release(entry);
+        }
+    }
+
+    private void release(Entry entry) {
+        synchronized (this) {
+            if (--entry.refCount > 0 || entry.stats == null) {
+                return;
+            }
+        }
+        try {
+            entry.stats.close();
+        } catch (Exception e) {
+            Log.e(TAG, "BatteryUsageStats.close() failed", e);
+        }
+    }
+}
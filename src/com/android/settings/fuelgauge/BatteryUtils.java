@@ -25,9 +25,7 @@ import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 import android.os.BatteryManager;
 import android.os.BatteryStats;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Build;
 import android.os.Process;
 import android.os.SystemClock;
@@ -413,18 +411,16 @@ public class BatteryUtils {
 
     @WorkerThread
     public BatteryInfo getBatteryInfo(final String tag) {
-        final BatteryStatsManager systemService =
-                mContext.getSystemService(BatteryStatsManager.class);
-        BatteryUsageStats batteryUsageStats;
+        final BatteryUsageStatsCache cache = BatteryUsageStatsCache.getInstance(mContext);
+        BatteryUsageStatsCache.Handle statsHandle;
         try {
-            batteryUsageStats =
-                    systemService.getBatteryUsageStats(
-                            new BatteryUsageStatsQuery.Builder().includeBatteryHistory().build());
+            statsHandle = cache.acquire(BatteryUsageStatsCache.QUERY_HISTORY);
         } catch (RuntimeException e) {
             Log.e(TAG, "getBatteryInfo() error from getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
-            batteryUsageStats = new BatteryUsageStats.Builder(new String[0]).build();
+            statsHandle = cache.wrap(new BatteryUsageStats.Builder(new String[0]).build());
         }
+        final BatteryUsageStats batteryUsageStats = statsHandle.getStats();
 
         final long startTime = System.currentTimeMillis();
 
@@ -456,11 +452,7 @@ public class BatteryUtils {
                         false /* shortString */);
         BatteryUtils.logRuntime(tag, "BatteryInfoLoader.loadInBackground", startTime);
 
-        try {
-            batteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        }
+        statsHandle.close();
         return batteryInfo;
     }
 
@@ -37,6 +37,9 @@ public class AnomalyCleanupJobService extends JobService {
 
     @VisibleForTesting static final long CLEAN_UP_FREQUENCY_MS = TimeUnit.DAYS.toMillis(1);
 
+    /** Upper bound of rows deleted by a single run, to keep the write lock short. */
+    @VisibleForTesting static final int MAX_ANOMALIES_TO_DELETE = 5000;
+
     public static void scheduleCleanUp(Context context) {
         final JobScheduler jobScheduler = context.getSystemService(JobScheduler.class);
 
@@ -64,9 +67,13 @@ public class AnomalyCleanupJobService extends JobService {
         final BatteryTipPolicy policy = new BatteryTipPolicy(this);
         ThreadUtils.postOnBackgroundThread(
                 () -> {
-                    batteryDatabaseManager.deleteAllAnomaliesBeforeTimeStamp(
-                            System.currentTimeMillis()
-                                    - TimeUnit.DAYS.toMillis(policy.dataHistoryRetainDay));
+                    final int deleted =
+                            batteryDatabaseManager.compactAnomalies(
+                                    System.currentTimeMillis()
+                                            - TimeUnit.DAYS.toMillis(policy.dataHistoryRetainDay),
+                                    MAX_ANOMALIES_TO_DELETE);
+                    // Leftovers, if any, are picked up by the next periodic run.
+                    Log.i(TAG, "Deleted " + deleted + " expired anomalies");
                     jobFinished(params, false /* wantsReschedule */);
                 });
 
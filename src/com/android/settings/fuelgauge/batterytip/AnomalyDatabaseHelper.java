@@ -31,7 +31,9 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
     private static final String TAG = "BatteryDatabaseHelper";
 
     private static final String DATABASE_NAME = "battery_settings.db";
-    private static final int DATABASE_VERSION = 5;
+    private static final int DATABASE_VERSION = 6;
+    /** Last version whose tables are compatible with the current one, minus the indexes. */
+    private static final int DATABASE_VERSION_WITHOUT_INDEXES = 5;
 
     @Retention(RetentionPolicy.SOURCE)
     @IntDef({State.NEW, State.HANDLED, State.AUTO_HANDLED})
@@ -52,6 +54,14 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
         String TABLE_ACTION = "action";
     }
 
+    public interface Indexes {
+        /** Index to look up the anomalies of an app in a time range */
+        String INDEX_ANOMALY_UID_TIME = "anomaly_uid_time_index";
+
+        /** Index to look up the anomalies in a state in a time range */
+        String INDEX_ANOMALY_STATE_TIME = "anomaly_state_time_index";
+    }
+
     public interface AnomalyColumns {
         /** The package name of the anomaly app */
         String PACKAGE_NAME = "package_name";
@@ -102,6 +112,28 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
                     + ")"
                     + ")";
 
+    private static final String CREATE_ANOMALY_UID_TIME_INDEX =
+            "CREATE INDEX IF NOT EXISTS "
+                    + Indexes.INDEX_ANOMALY_UID_TIME
+                    + " ON "
+                    + Tables.TABLE_ANOMALY
+                    + "("
+                    + AnomalyColumns.UID
+                    + ","
+                    + AnomalyColumns.TIME_STAMP_MS
+                    + ")";
+
+    private static final String CREATE_ANOMALY_STATE_TIME_INDEX =
+            "CREATE INDEX IF NOT EXISTS "
+                    + Indexes.INDEX_ANOMALY_STATE_TIME
+                    + " ON "
+                    + Tables.TABLE_ANOMALY
+                    + "("
+                    + AnomalyColumns.ANOMALY_STATE
+                    + ","
+                    + AnomalyColumns.TIME_STAMP_MS
+                    + ")";
+
     public interface ActionColumns {
         /** The package name of an app been performed an action */
         String PACKAGE_NAME = "package_name";
@@ -161,7 +193,10 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        if (oldVersion < DATABASE_VERSION) {
+        if (oldVersion == DATABASE_VERSION_WITHOUT_INDEXES) {
+            // Tables are unchanged, only the indexes are new, so keep the existing records.
+            createIndexes(db);
+        } else if (oldVersion < DATABASE_VERSION) {
             Log.w(
                     TAG,
                     "Detected schema version '"
@@ -197,9 +232,15 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
     private void bootstrapDB(SQLiteDatabase db) {
         db.execSQL(CREATE_ANOMALY_TABLE);
         db.execSQL(CREATE_ACTION_TABLE);
+        createIndexes(db);
         Log.i(TAG, "Bootstrapped database");
     }
 
+    private void createIndexes(SQLiteDatabase db) {
+        db.execSQL(CREATE_ANOMALY_UID_TIME_INDEX);
+        db.execSQL(CREATE_ANOMALY_STATE_TIME_INDEX);
+    }
+
     private void dropTables(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS " + Tables.TABLE_ANOMALY);
         db.execSQL("DROP TABLE IF EXISTS " + Tables.TABLE_ACTION);
@@ -102,22 +102,46 @@ public class AnomalyDetectionJobService extends JobService {
                     final MetricsFeatureProvider metricsFeatureProvider =
                             FeatureFactory.getFeatureFactory().getMetricsFeatureProvider();
 
-                    for (JobWorkItem item = dequeueWork(params);
-                            item != null;
-                            item = dequeueWork(params)) {
-                        saveAnomalyToDatabase(
-                                context,
-                                userManager,
-                                batteryDatabaseManager,
-                                batteryUtils,
-                                policy,
-                                powerAllowlistBackend,
-                                contentResolver,
-                                powerUsageFeatureProvider,
-                                metricsFeatureProvider,
-                                item.getIntent().getExtras());
-
-                        completeWork(params, item);
+                    // Anomalies usually arrive in bursts, drain the queue and insert them
+                    // together instead of paying for one transaction per anomaly. Only the
+                    // inserts are batched, the rest of the handling runs outside of the
+                    // transaction.
+                    final List<JobWorkItem> items = new ArrayList<>();
+                    final List<BatteryDatabaseManager.AnomalyRecord> anomalies =
+                            new ArrayList<>();
+                    try {
+                        for (JobWorkItem item = dequeueWork(params);
+                                item != null;
+                                item = dequeueWork(params)) {
+                            items.add(item);
+                            try {
+                                final BatteryDatabaseManager.AnomalyRecord anomaly =
+                                        processAnomaly(
+                                                context,
+                                                userManager,
+                                                batteryUtils,
+                                                policy,
+                                                powerAllowlistBackend,
+                                                contentResolver,
+                                                powerUsageFeatureProvider,
+                                                metricsFeatureProvider,
+                                                item.getIntent().getExtras());
+                                if (anomaly != null) {
+                                    anomalies.add(anomaly);
+                                }
+                            } catch (RuntimeException e) {
+                                Log.e(TAG, "Failed to process anomaly.", e);
+                            }
+                        }
+                        if (!anomalies.isEmpty()) {
+                            batteryDatabaseManager.insertAnomalies(anomalies);
+                        }
+                    } catch (RuntimeException e) {
+                        Log.e(TAG, "Failed to save anomalies.", e);
+                    } finally {
+                        for (JobWorkItem item : items) {
+                            completeWork(params, item);
+                        }
                     }
                 });
 
@@ -144,6 +168,42 @@ public class AnomalyDetectionJobService extends JobService {
             PowerUsageFeatureProvider powerUsageFeatureProvider,
             MetricsFeatureProvider metricsFeatureProvider,
             Bundle bundle) {
+        final BatteryDatabaseManager.AnomalyRecord anomaly =
+                processAnomaly(
+                        context,
+                        userManager,
+                        batteryUtils,
+                        policy,
+                        powerAllowlistBackend,
+                        contentResolver,
+                        powerUsageFeatureProvider,
+                        metricsFeatureProvider,
+                        bundle);
+        if (anomaly != null) {
+            databaseManager.insertAnomaly(
+                    anomaly.uid,
+                    anomaly.packageName,
+                    anomaly.type,
+                    anomaly.anomalyState,
+                    anomaly.timestampMs);
+        }
+    }
+
+    /**
+     * Handle the anomaly in {@code bundle}, e.g. restrict the app and log it, and return the
+     * anomaly to save to the database, or {@code null} if it shouldn't be saved.
+     */
+    @VisibleForTesting
+    BatteryDatabaseManager.AnomalyRecord processAnomaly(
+            Context context,
+            UserManager userManager,
+            BatteryUtils batteryUtils,
+            BatteryTipPolicy policy,
+            PowerAllowlistBackend powerAllowlistBackend,
+            ContentResolver contentResolver,
+            PowerUsageFeatureProvider powerUsageFeatureProvider,
+            MetricsFeatureProvider metricsFeatureProvider,
+            Bundle bundle) {
         // The Example of intentDimsValue is: 35:{1:{1:{1:10013|}|}|}
         final StatsDimensionsValue intentDimsValue =
                 bundle.getParcelable(StatsManager.EXTRA_STATS_DIMENSIONS_VALUE);
@@ -180,34 +240,28 @@ public class AnomalyDetectionJobService extends JobService {
                         SettingsEnums.PAGE_UNKNOWN,
                         versionedPackage,
                         anomalyInfo.anomalyType);
-            } else {
-                if (autoFeatureOn && anomalyInfo.autoRestriction) {
-                    // Auto restrict this app
-                    batteryUtils.setForceAppStandby(uid, packageName, AppOpsManager.MODE_IGNORED);
-                    databaseManager.insertAnomaly(
-                            uid,
-                            packageName,
-                            anomalyInfo.anomalyType,
-                            AnomalyDatabaseHelper.State.AUTO_HANDLED,
-                            timeMs);
-                } else {
-                    databaseManager.insertAnomaly(
-                            uid,
-                            packageName,
-                            anomalyInfo.anomalyType,
-                            AnomalyDatabaseHelper.State.NEW,
-                            timeMs);
-                }
-                metricsFeatureProvider.action(
-                        SettingsEnums.PAGE_UNKNOWN,
-                        SettingsEnums.ACTION_ANOMALY_TRIGGERED,
-                        SettingsEnums.PAGE_UNKNOWN,
-                        versionedPackage,
-                        anomalyInfo.anomalyType);
+                return null;
             }
 
+            final int anomalyState;
+            if (autoFeatureOn && anomalyInfo.autoRestriction) {
+                // Auto restrict this app
+                batteryUtils.setForceAppStandby(uid, packageName, AppOpsManager.MODE_IGNORED);
+                anomalyState = AnomalyDatabaseHelper.State.AUTO_HANDLED;
+            } else {
+                anomalyState = AnomalyDatabaseHelper.State.NEW;
+            }
+            metricsFeatureProvider.action(
+                    SettingsEnums.PAGE_UNKNOWN,
+                    SettingsEnums.ACTION_ANOMALY_TRIGGERED,
+                    SettingsEnums.PAGE_UNKNOWN,
+                    versionedPackage,
+                    anomalyInfo.anomalyType);
+            return new BatteryDatabaseManager.AnomalyRecord(
+                    uid, packageName, anomalyInfo.anomalyType, anomalyState, timeMs);
         } catch (NullPointerException | IndexOutOfBoundsException e) {
             Log.e(TAG, "Parse stats dimensions value error.", e);
+            return null;
         }
     }
 
@@ -30,9 +30,11 @@ import static com.android.settings.fuelgauge.batterytip.AnomalyDatabaseHelper.Ta
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 import android.util.ArrayMap;
+import android.util.Log;
 import android.util.SparseLongArray;
 
 import androidx.annotation.VisibleForTesting;
@@ -51,6 +53,8 @@ import java.util.Map;
  * synchronized so each operation won't be interfered by other threads.
  */
 public class BatteryDatabaseManager {
+    private static final String TAG = "BatteryDatabaseManager";
+
     private static BatteryDatabaseManager sSingleton;
 
     private AnomalyDatabaseHelper mDatabaseHelper;
@@ -83,13 +87,45 @@ public class BatteryDatabaseManager {
      */
     public synchronized boolean insertAnomaly(
             int uid, String packageName, int type, int anomalyState, long timestampMs) {
+        return insertAnomaly(
+                mDatabaseHelper.getWritableDatabase(),
+                new AnomalyRecord(uid, packageName, type, anomalyState, timestampMs));
+    }
+
+    /**
+     * Insert {@code anomalies} in a single transaction. An anomaly that fails to be inserted is
+     * skipped without dropping the others.
+     *
+     * @return the number of inserted anomalies
+     */
+    public synchronized int insertAnomalies(List<AnomalyRecord> anomalies) {
         final SQLiteDatabase db = mDatabaseHelper.getWritableDatabase();
+        int inserted = 0;
+        db.beginTransaction();
+        try {
+            for (AnomalyRecord anomaly : anomalies) {
+                try {
+                    if (insertAnomaly(db, anomaly)) {
+                        inserted++;
+                    }
+                } catch (SQLException e) {
+                    Log.e(TAG, "Failed to insert anomaly of " + anomaly.packageName, e);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return inserted;
+    }
+
+    private static boolean insertAnomaly(SQLiteDatabase db, AnomalyRecord anomaly) {
         ContentValues values = new ContentValues();
-        values.put(UID, uid);
-        values.put(PACKAGE_NAME, packageName);
-        values.put(ANOMALY_TYPE, type);
-        values.put(ANOMALY_STATE, anomalyState);
-        values.put(TIME_STAMP_MS, timestampMs);
+        values.put(UID, anomaly.uid);
+        values.put(PACKAGE_NAME, anomaly.packageName);
+        values.put(ANOMALY_TYPE, anomaly.type);
+        values.put(ANOMALY_STATE, anomaly.anomalyState);
+        values.put(TIME_STAMP_MS, anomaly.timestampMs);
 
         return db.insertWithOnConflict(TABLE_ANOMALY, null, values, CONFLICT_IGNORE) != -1;
     }
@@ -145,6 +181,28 @@ public class BatteryDatabaseManager {
                 TABLE_ANOMALY, TIME_STAMP_MS + " < ?", new String[] {String.valueOf(timestampMs)});
     }
 
+    /**
+     * Delete at most {@code maxRows} of the oldest anomalies that happened before
+     * {@code timestampMs}, in a single statement.
+     *
+     * @return the number of deleted anomalies
+     */
+    public synchronized int compactAnomalies(long timestampMs, int maxRows) {
+        final SQLiteDatabase db = mDatabaseHelper.getWritableDatabase();
+        final String where =
+                "rowid IN (SELECT rowid FROM "
+                        + TABLE_ANOMALY
+                        + " WHERE "
+                        + TIME_STAMP_MS
+                        + " < ? ORDER BY "
+                        + TIME_STAMP_MS
+                        + " LIMIT ?)";
+        return db.delete(
+                TABLE_ANOMALY,
+                where,
+                new String[] {String.valueOf(timestampMs), String.valueOf(maxRows)});
+    }
+
     /**
      * Update the type of anomalies to {@code state}
      *
@@ -243,4 +301,22 @@ public class BatteryDatabaseManager {
 
         return db.delete(TABLE_ACTION, where, whereArgs) != 0;
     }
+
+    /** An anomaly to insert with {@link #insertAnomalies(List)}. */
+    public static final class AnomalyRecord {
+        public final int uid;
+        public final String packageName;
+        public final int type;
+        public final int anomalyState;
+        public final long timestampMs;
+
+        public AnomalyRecord(
+                int uid, String packageName, int type, int anomalyState, long timestampMs) {
+            this.uid = uid;
+            this.packageName = packageName;
+            this.type = type;
+            this.anomalyState = anomalyState;
+            this.timestampMs = timestampMs;
+        }
+    }
 }
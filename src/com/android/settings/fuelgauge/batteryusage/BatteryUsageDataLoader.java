@@ -27,6 +27,7 @@ import android.util.Log;
 import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.fuelgauge.BatteryUsageHistoricalLogEntry.Action;
+import com.android.settings.fuelgauge.BatteryUsageStatsCache;
 import com.android.settings.fuelgauge.batteryusage.bugreport.BatteryUsageLogUtils;
 import com.android.settings.overlay.FeatureFactory;
 
@@ -57,7 +58,9 @@ public final class BatteryUsageDataLoader {
     static void loadBatteryStatsData(final Context context, final boolean isFullChargeStart) {
         BatteryUsageLogUtils.writeLog(context, Action.FETCH_USAGE_DATA, "");
         final long currentTime = System.currentTimeMillis();
-        final BatteryUsageStats batteryUsageStats = DataProcessor.getBatteryUsageStats(context);
+        final BatteryUsageStatsCache.Handle statsHandle =
+                DataProcessor.getBatteryUsageStats(context);
+        final BatteryUsageStats batteryUsageStats = statsHandle.getStats();
         final List<BatteryEntry> batteryEntryList =
                 sFakeBatteryEntryListSupplier != null
                         ? sFakeBatteryEntryListSupplier.get()
@@ -80,7 +83,7 @@ public final class BatteryUsageDataLoader {
         // Uploads the BatteryEntry data into database.
         DatabaseUtils.sendBatteryEntryData(
                 context, currentTime, batteryEntryList, batteryUsageStats, isFullChargeStart);
-        DataProcessor.closeBatteryUsageStats(batteryUsageStats);
+        statsHandle.close();
     }
 
     @VisibleForTesting
@@ -17,41 +17,43 @@
 package com.android.settings.fuelgauge.batteryusage;
 
 import android.content.Context;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.util.Log;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsCache;
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
-/** Loader to get new {@link BatteryUsageStats} in the background */
-public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats> {
+/**
+ * Loader to get new {@link BatteryUsageStats} in the background, shared through {@link
+ * BatteryUsageStatsCache}. The receiver of the result must close it.
+ */
+public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStatsCache.Handle> {
     private static final String TAG = "BatteryUsageStatsLoader";
-    private final BatteryStatsManager mBatteryStatsManager;
     private final boolean mIncludeBatteryHistory;
 
     public BatteryUsageStatsLoader(Context context, boolean includeBatteryHistory) {
         super(context);
-        mBatteryStatsManager = context.getSystemService(BatteryStatsManager.class);
         mIncludeBatteryHistory = includeBatteryHistory;
     }
 
     @Override
-    public BatteryUsageStats loadInBackground() {
-        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
+    public BatteryUsageStatsCache.Handle loadInBackground() {
+        final BatteryUsageStatsCache cache = BatteryUsageStatsCache.getInstance(getContext());
+        int flags = BatteryUsageStatsCache.QUERY_PROCESS_STATE_DATA;
         if (mIncludeBatteryHistory) {
-            builder.includeBatteryHistory();
+            flags |= BatteryUsageStatsCache.QUERY_HISTORY;
         }
         try {
-            return mBatteryStatsManager.getBatteryUsageStats(
-                    builder.includeProcessStateData().build());
+            return cache.acquire(flags);
         } catch (RuntimeException e) {
             Log.e(TAG, "loadInBackground() for getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
-            return new BatteryUsageStats.Builder(new String[0]).build();
+            return cache.wrap(new BatteryUsageStats.Builder(new String[0]).build());
         }
     }
 
     @Override
-    protected void onDiscardResult(BatteryUsageStats result) {}
+    protected void onDiscardResult(BatteryUsageStatsCache.Handle result) {
+        result.close();
+    }
 }
@@ -30,9 +30,7 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.pm.UserInfo;
 import android.os.BatteryConsumer;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Process;
 import android.os.RemoteException;
 import android.os.ServiceManager;
@@ -53,6 +51,7 @@ import androidx.annotation.Nullable;
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.internal.os.PowerProfile;
 import com.android.settings.Utils;
+import com.android.settings.fuelgauge.BatteryUsageStatsCache;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.fuelgauge.BatteryStatus;
@@ -169,16 +168,15 @@ public final class DataProcessor {
                         batteryLevelData);
     }
 
-    /** Gets the {@link BatteryUsageStats} from system service. */
-    @Nullable
-    public static BatteryUsageStats getBatteryUsageStats(final Context context) {
-        final BatteryUsageStatsQuery batteryUsageStatsQuery =
-                new BatteryUsageStatsQuery.Builder()
-                        .includeBatteryHistory()
-                        .includeProcessStateData()
-                        .build();
-        return context.getSystemService(BatteryStatsManager.class)
-                .getBatteryUsageStats(batteryUsageStatsQuery);
+    /**
+     * Gets the {@link BatteryUsageStats} from system service, shared through {@link
+     * BatteryUsageStatsCache}. The caller must close the returned handle.
+     */
+    public static BatteryUsageStatsCache.Handle getBatteryUsageStats(final Context context) {
+        return BatteryUsageStatsCache.getInstance(context)
+                .acquire(
+                        BatteryUsageStatsCache.QUERY_HISTORY
+                                | BatteryUsageStatsCache.QUERY_PROCESS_STATE_DATA);
     }
 
     /** Gets the {@link UsageEvents} from system service for all unlocked users. */
@@ -1080,12 +1078,11 @@ public final class DataProcessor {
     private static List<BatteryHistEntry> getBatteryHistListFromFromStatsService(
             final Context context) {
         List<BatteryHistEntry> batteryHistEntryList = null;
-        try {
-            final BatteryUsageStats batteryUsageStats = getBatteryUsageStats(context);
+        try (BatteryUsageStatsCache.Handle statsHandle = getBatteryUsageStats(context)) {
+            final BatteryUsageStats batteryUsageStats = statsHandle.getStats();
             final List<BatteryEntry> batteryEntryList =
                     generateBatteryEntryListFromBatteryUsageStats(context, batteryUsageStats);
             batteryHistEntryList = convertToBatteryHistEntry(batteryEntryList, batteryUsageStats);
-            closeBatteryUsageStats(batteryUsageStats);
         } catch (RuntimeException e) {
             Log.e(TAG, "load batteryUsageStats:", e);
         }
@@ -19,10 +19,8 @@ import static com.android.settings.fuelgauge.BatteryBroadcastReceiver.BatteryUpd
 
 import android.app.Activity;
 import android.content.Context;
-import android.os.BatteryUsageStats;
 import android.os.Bundle;
 import android.os.UserManager;
-import android.util.Log;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
@@ -32,17 +30,17 @@ import androidx.loader.content.Loader;
 
 import com.android.settings.dashboard.DashboardFragment;
 import com.android.settings.fuelgauge.BatteryBroadcastReceiver;
+import com.android.settings.fuelgauge.BatteryUsageStatsCache;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
 /** Common base class for things that need to show the battery usage graph. */
 public abstract class PowerUsageBase extends DashboardFragment {
-    private static final String TAG = "PowerUsageBase";
 
     @VisibleForTesting static final String KEY_REFRESH_TYPE = "refresh_type";
     @VisibleForTesting static final String KEY_INCLUDE_HISTORY = "include_history";
-    @VisibleForTesting BatteryUsageStats mBatteryUsageStats;
+    @VisibleForTesting BatteryUsageStatsCache.Handle mBatteryUsageStats;
 
     protected UserManager mUm;
     protected boolean mIsBatteryPresent = true;
@@ -129,38 +127,36 @@ public abstract class PowerUsageBase extends DashboardFragment {
     protected abstract void refreshUi(@BatteryUpdateType int refreshType);
 
     private class BatteryUsageStatsLoaderCallbacks
-            implements LoaderManager.LoaderCallbacks<BatteryUsageStats> {
+            implements LoaderManager.LoaderCallbacks<BatteryUsageStatsCache.Handle> {
         private int mRefreshType;
 
         @Override
         @NonNull
-        public Loader<BatteryUsageStats> onCreateLoader(int id, Bundle args) {
+        public Loader<BatteryUsageStatsCache.Handle> onCreateLoader(int id, Bundle args) {
             mRefreshType = args.getInt(KEY_REFRESH_TYPE);
             return new BatteryUsageStatsLoader(getContext(), args.getBoolean(KEY_INCLUDE_HISTORY));
         }
 
         @Override
         public void onLoadFinished(
-                Loader<BatteryUsageStats> loader, BatteryUsageStats batteryUsageStats) {
-            closeBatteryUsageStatsIfNeeded();
-            mBatteryUsageStats = batteryUsageStats;
+                Loader<BatteryUsageStatsCache.Handle> loader,
+                BatteryUsageStatsCache.Handle batteryUsageStats) {
+            if (mBatteryUsageStats != batteryUsageStats) {
+                closeBatteryUsageStatsIfNeeded();
+                mBatteryUsageStats = batteryUsageStats;
+            }
             PowerUsageBase.this.onLoadFinished(mRefreshType);
         }
 
         @Override
-        public void onLoaderReset(Loader<BatteryUsageStats> loader) {}
+        public void onLoaderReset(Loader<BatteryUsageStatsCache.Handle> loader) {}
     }
 
     private void closeBatteryUsageStatsIfNeeded() {
         if (mBatteryUsageStats == null) {
             return;
         }
-        try {
-            mBatteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        } finally {
-            mBatteryUsageStats = null;
-        }
+        mBatteryUsageStats.close();
+        mBatteryUsageStats = null;
     }
 }
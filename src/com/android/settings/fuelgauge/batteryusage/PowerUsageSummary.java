@@ -117,7 +117,9 @@ public class PowerUsageSummary extends PowerUsageBase
 
                 @Override
                 public Loader<List<BatteryTip>> onCreateLoader(int id, Bundle args) {
-                    return new BatteryTipLoader(getContext(), mBatteryUsageStats);
+                    return new BatteryTipLoader(
+                            getContext(),
+                            mBatteryUsageStats != null ? mBatteryUsageStats.getStats() : null);
                 }
 
                 @Override
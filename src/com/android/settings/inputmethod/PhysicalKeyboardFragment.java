@@ -50,13 +50,15 @@ import com.android.settings.SettingsPreferenceFragment;
 import com.android.settings.core.SubSettingLauncher;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.search.BaseSearchIndexProvider;
+import com.android.settings.utils.LabelSorter;
 import com.android.settingslib.search.SearchIndexable;
 import com.android.settingslib.utils.ThreadUtils;
 
-import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 @SearchIndexable
@@ -394,19 +396,17 @@ public final class PhysicalKeyboardFragment extends SettingsPreferenceFragment
                     device.getProductId()));
         }
 
-        // We intentionally don't reuse Comparator because Collator may not be thread-safe.
-        final Collator collator = Collator.getInstance();
-        keyboards.sort((a, b) -> {
-            int result = collator.compare(a.mDeviceName, b.mDeviceName);
-            if (result != 0) {
-                return result;
-            }
-            result = a.mDeviceIdentifier.getDescriptor().compareTo(
+        final LabelSorter sorter = LabelSorter.getInstance();
+        final Locale locale = Locale.getDefault();
+        final Comparator<HardKeyboardDeviceInfo> layoutComparator =
+                sorter.comparing(locale, info -> info.mLayoutLabel);
+        sorter.sort(keyboards, locale, info -> info.mDeviceName, (a, b) -> {
+            final int result = a.mDeviceIdentifier.getDescriptor().compareTo(
                     b.mDeviceIdentifier.getDescriptor());
             if (result != 0) {
                 return result;
             }
-            return collator.compare(a.mLayoutLabel, b.mLayoutLabel);
+            return layoutComparator.compare(a, b);
         });
         return keyboards;
     }
@@ -18,16 +18,18 @@ package com.android.settings.inputmethod;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.database.CursorWrapper;
 import android.database.MatrixCursor;
 import android.provider.UserDictionary;
-import android.util.ArraySet;
+import android.text.TextUtils;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.loader.content.CursorLoader;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
-import java.util.Objects;
-import java.util.Set;
 
 public class UserDictionaryCursorLoader extends CursorLoader {
 
@@ -38,7 +40,8 @@ public class UserDictionaryCursorLoader extends CursorLoader {
             UserDictionary.Words.SHORTCUT
     };
 
-    // The index of the shortcut in the above array.
+    // The indices of the word and the shortcut in the above array.
+    static final int INDEX_WORD = 1;
     static final int INDEX_SHORTCUT = 2;
 
     // Either the locale is empty (means the word is applicable to all locales)
@@ -47,7 +50,11 @@ public class UserDictionaryCursorLoader extends CursorLoader {
             UserDictionary.Words.LOCALE + "=?";
     private static final String QUERY_SELECTION_ALL_LOCALES =
             UserDictionary.Words.LOCALE + " is null";
-
+    private static final String QUERY_SELECTION_PREFIX =
+            UserDictionary.Words.WORD + " LIKE ? ESCAPE '\\'";
+    @VisibleForTesting
+    static final String QUERY_SORT_ORDER = "UPPER(" + UserDictionary.Words.WORD + "), "
+            + UserDictionary.Words.WORD + ", " + UserDictionary.Words.SHORTCUT;
 
     // Locale can be any of:
     // - The string representation of a locale, as returned by Locale#toString()
@@ -60,42 +67,156 @@ public class UserDictionaryCursorLoader extends CursorLoader {
     // human-readable, like "all_locales" and "current_locales" strings, provided they
     // can be guaranteed not to match locales that may exist.
     private final String mLocale;
+    // Only words starting with this prefix are loaded, all words if empty.
+    private final String mPrefix;
 
     public UserDictionaryCursorLoader(Context context, String locale) {
+        this(context, locale, null /* prefix */);
+    }
+
+    public UserDictionaryCursorLoader(Context context, String locale, @Nullable String prefix) {
         super(context);
         mLocale = locale;
+        mPrefix = prefix;
     }
 
     @Override
     public Cursor loadInBackground() {
-        final MatrixCursor result = new MatrixCursor(QUERY_PROJECTION);
-        final Cursor candidate;
+        final StringBuilder selection = new StringBuilder();
+        final List<String> selectionArgs = new ArrayList<>();
         if ("".equals(mLocale)) {
-            // Case-insensitive sort
-            candidate = getContext().getContentResolver().query(
-                    UserDictionary.Words.CONTENT_URI, QUERY_PROJECTION,
-                    QUERY_SELECTION_ALL_LOCALES, null,
-                    "UPPER(" + UserDictionary.Words.WORD + ")");
+            selection.append(QUERY_SELECTION_ALL_LOCALES);
         } else {
-            final String queryLocale = null != mLocale ? mLocale : Locale.getDefault().toString();
-            candidate = getContext().getContentResolver().query(UserDictionary.Words.CONTENT_URI,
-                    QUERY_PROJECTION, QUERY_SELECTION,
-                    new String[]{queryLocale}, "UPPER(" + UserDictionary.Words.WORD + ")");
-        }
-        final Set<Integer> hashSet = new ArraySet<>();
-        for (candidate.moveToFirst(); !candidate.isAfterLast(); candidate.moveToNext()) {
-            final int id = candidate.getInt(0);
-            final String word = candidate.getString(1);
-            final String shortcut = candidate.getString(2);
-            final int hash = Objects.hash(word, shortcut);
-            if (hashSet.contains(hash)) {
-                continue;
+            selection.append(QUERY_SELECTION);
+            selectionArgs.add(null != mLocale ? mLocale : Locale.getDefault().toString());
+        }
+        if (!TextUtils.isEmpty(mPrefix)) {
+            selection.append(" AND ").append(QUERY_SELECTION_PREFIX);
+            selectionArgs.add(escapeLikePattern(mPrefix) + "%");
+        }
+        // Case-insensitive sort, duplicates end up next to each other.
+        final Cursor candidate = getContext().getContentResolver().query(
+                UserDictionary.Words.CONTENT_URI, QUERY_PROJECTION, selection.toString(),
+                selectionArgs.toArray(new String[0]), QUERY_SORT_ORDER);
+        if (candidate == null) {
+            return new MatrixCursor(QUERY_PROJECTION);
+        }
+        return UniqueWordsCursor.wrap(candidate);
+    }
+
+    private static String escapeLikePattern(String pattern) {
+        return pattern.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Hides the rows of a sorted word cursor that repeat the word and shortcut of the previous
+     * row. Only the positions of the kept rows are held in memory, the rows themselves are still
+     * read from the windows of the wrapped cursor as the list scrolls.
+     */
+    @VisibleForTesting
+    static class UniqueWordsCursor extends CursorWrapper {
+        private final int[] mPositions;
+        private final int mCount;
+        private int mPos = -1;
+
+        static Cursor wrap(Cursor cursor) {
+            final int[] positions = new int[cursor.getCount()];
+            int count = 0;
+            String lastWord = null;
+            String lastShortcut = null;
+            for (cursor.moveToFirst(); !cursor.isAfterLast(); cursor.moveToNext()) {
+                final String word = cursor.getString(INDEX_WORD);
+                final String shortcut = cursor.getString(INDEX_SHORTCUT);
+                if (count > 0 && TextUtils.equals(word, lastWord)
+                        && TextUtils.equals(shortcut, lastShortcut)) {
+                    continue;
+                }
+                positions[count++] = cursor.getPosition();
+                lastWord = word;
+                lastShortcut = shortcut;
+            }
+            if (count == positions.length) {
+                // Nothing to hide, serve the rows as they are.
+                cursor.moveToPosition(-1);
+                return cursor;
+            }
+            return new UniqueWordsCursor(cursor, positions, count);
+        }
+
+        private UniqueWordsCursor(Cursor cursor, int[] positions, int count) {
+            super(cursor);
+            mPositions = positions;
+            mCount = count;
+            cursor.moveToPosition(-1);
+        }
+
+        @Override
+        public int getCount() {
+            return mCount;
+        }
+
+        @Override
+        public int getPosition() {
+            return mPos;
+        }
+
+        @Override
+        public boolean moveToPosition(int position) {
+            if (position >= mCount) {
+                mPos = mCount;
+                return false;
+            }
+            if (position < 0) {
+                mPos = -1;
+                return false;
             }
-            hashSet.add(hash);
-            result.addRow(new Object[]{id, word, shortcut});
+            mPos = position;
+            return super.moveToPosition(mPositions[position]);
+        }
+
+        @Override
+        public boolean move(int offset) {
+            return moveToPosition(mPos + offset);
+        }
+
+        @Override
+        public boolean moveToFirst() {
+            return moveToPosition(0);
+        }
+
+        @Override
+        public boolean moveToLast() {
+            return moveToPosition(mCount - 1);
+        }
+
+        @Override
+        public boolean moveToNext() {
+            return moveToPosition(mPos + 1);
+        }
+
+        @Override
+        public boolean moveToPrevious() {
+            return moveToPosition(mPos - 1);
+        }
+
+        @Override
+        public boolean isFirst() {
+            return mCount != 0 && mPos == 0;
+        }
+
+        @Override
+        public boolean isLast() {
+            return mCount != 0 && mPos == mCount - 1;
+        }
+
+        @Override
+        public boolean isBeforeFirst() {
+            return mCount == 0 || mPos == -1;
+        }
+
+        @Override
+        public boolean isAfterLast() {
+            return mCount == 0 || mPos == mCount;
         }
-        // The cursor needs to be closed after use, otherwise it will cause resource leakage
-        candidate.close();
-        return result;
     }
 }
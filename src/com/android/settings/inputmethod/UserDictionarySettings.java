@@ -35,6 +35,7 @@ import android.view.ViewGroup;
 import android.widget.AlphabetIndexer;
 import android.widget.ListAdapter;
 import android.widget.ListView;
+import android.widget.SearchView;
 import android.widget.SectionIndexer;
 import android.widget.SimpleCursorAdapter;
 import android.widget.TextView;
@@ -50,7 +51,7 @@ import com.android.settingslib.core.instrumentation.Instrumentable;
 import com.android.settingslib.core.instrumentation.VisibilityLoggerMixin;
 
 public class UserDictionarySettings extends ListFragment implements Instrumentable,
-        LoaderManager.LoaderCallbacks<Cursor> {
+        LoaderManager.LoaderCallbacks<Cursor>, SearchView.OnQueryTextListener {
 
     private static final String DELETE_SELECTION_WITH_SHORTCUT = UserDictionary.Words.WORD
             + "=? AND " + UserDictionary.Words.SHORTCUT + "=?";
@@ -59,12 +60,14 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
             + UserDictionary.Words.SHORTCUT + "=''";
 
     private static final int OPTIONS_MENU_ADD = Menu.FIRST;
+    private static final int OPTIONS_MENU_SEARCH = Menu.FIRST + 1;
     private static final int LOADER_ID = 1;
 
     private VisibilityLoggerMixin mVisibilityLoggerMixin;
 
     private Cursor mCursor;
     private String mLocale;
+    private String mQuery;
 
     @Override
     public int getMetricsCategory() {
@@ -158,6 +161,35 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
                         .setIcon(R.drawable.ic_add_24dp);
         actionItem.setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM |
                 MenuItem.SHOW_AS_ACTION_WITH_TEXT);
+
+        final SearchView searchView = new SearchView(getContext());
+        searchView.setOnQueryTextListener(this);
+        searchView.setIconifiedByDefault(true);
+        if (!TextUtils.isEmpty(mQuery)) {
+            searchView.setIconified(false);
+            searchView.setQuery(mQuery, false /* submit */);
+        }
+        menu.add(0, OPTIONS_MENU_SEARCH, 0, R.string.search_settings)
+                .setIcon(R.drawable.ic_find_in_page_24px)
+                .setActionView(searchView)
+                .setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM
+                        | MenuItem.SHOW_AS_ACTION_COLLAPSE_ACTION_VIEW);
+    }
+
+    @Override
+    public boolean onQueryTextChange(String newText) {
+        final String query = TextUtils.isEmpty(newText) ? null : newText;
+        if (!TextUtils.equals(query, mQuery)) {
+            mQuery = query;
+            // Search in the dictionary itself rather than filtering the loaded list.
+            getLoaderManager().restartLoader(LOADER_ID, null, this /* callback */);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean onQueryTextSubmit(String query) {
+        return onQueryTextChange(query);
     }
 
     @Override
@@ -234,7 +266,7 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
 
     @Override
     public Loader<Cursor> onCreateLoader(int id, Bundle args) {
-        return new UserDictionaryCursorLoader(getContext(), mLocale);
+        return new UserDictionaryCursorLoader(getContext(), mLocale, mQuery);
     }
 
     @Override
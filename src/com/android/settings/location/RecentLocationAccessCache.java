@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.location;
+
+import android.app.AppOpsManager;
+import android.content.Context;
+import android.os.SystemClock;
+import android.text.format.DateUtils;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.applications.RecentAppOpsAccess;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads the recent location accesses of {@link RecentAppOpsAccess} on a background thread and
+ * caches them, so the Location page and its "See all" page share one load.
+ *
+ * A cached list is reused for {@link #MAX_AGE_MS}, which matches the minute precision of the
+ * relative times shown for each app. It is dropped early when an app starts or stops accessing
+ * location.
+ */
+public class RecentLocationAccessCache {
+    private static final String TAG = "RecentLocationAccess";
+
+    @VisibleForTesting
+    static final long MAX_AGE_MS = DateUtils.MINUTE_IN_MILLIS;
+
+    private static final String[] LOCATION_OPS = new String[] {
+            AppOpsManager.OPSTR_FINE_LOCATION,
+            AppOpsManager.OPSTR_COARSE_LOCATION,
+    };
+
+    private static RecentLocationAccessCache sInstance;
+
+    private final RecentAppOpsAccess mRecentAppOpsAccess;
+    // Indexed by showSystem, only accessed on the main thread.
+    private final Snapshot[] mSnapshots = new Snapshot[2];
+    @SuppressWarnings("unchecked")
+    private final List<Consumer<List<RecentAppOpsAccess.Access>>>[] mPendingCallbacks =
+            new List[] {new ArrayList<>(), new ArrayList<>()};
+    private int mGeneration;
+
+    /**
+     * Returns the cache shared by all location pages.
+     */
+    public static synchronized RecentLocationAccessCache getInstance(Context context) {
+        if (sInstance == null) {
+            final Context appContext = context.getApplicationContext();
+            sInstance = new RecentLocationAccessCache(
+                    RecentAppOpsAccess.createForLocation(appContext));
+            sInstance.watchLocationOps(appContext);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    RecentLocationAccessCache(RecentAppOpsAccess recentAppOpsAccess) {
+        mRecentAppOpsAccess = recentAppOpsAccess;
+    }
+
+    /**
+     * Calls {@code callback} on the main thread with the recent accesses, sorted by recency.
+     * Calls it right away if a fresh list is cached.
+     */
+    @MainThread
+    public void load(boolean showSystem,
+            Consumer<List<RecentAppOpsAccess.Access>> callback) {
+        final int index = showSystem ? 1 : 0;
+        final Snapshot snapshot = mSnapshots[index];
+        if (snapshot != null
+                && SystemClock.elapsedRealtime() - snapshot.mLoadTime < MAX_AGE_MS) {
+            callback.accept(snapshot.mAccesses);
+            return;
+        }
+
+        final List<Consumer<List<RecentAppOpsAccess.Access>>> callbacks =
+                mPendingCallbacks[index];
+        callbacks.add(callback);
+        if (callbacks.size() > 1) {
+            // A load is already running, it will call back everyone.
+            return;
+        }
+        final int generation = mGeneration;
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final List<RecentAppOpsAccess.Access> accesses =
+                    mRecentAppOpsAccess.getAppListSorted(showSystem);
+            ThreadUtils.postOnMainThread(() -> onLoaded(index, generation, accesses));
+        });
+    }
+
+    /**
+     * Drops the cached lists, the next {@link #load} reads the app op history again.
+     */
+    @MainThread
+    public void invalidate() {
+        mGeneration++;
+        mSnapshots[0] = null;
+        mSnapshots[1] = null;
+    }
+
+    private void onLoaded(int index, int generation,
+            List<RecentAppOpsAccess.Access> accesses) {
+        if (generation == mGeneration) {
+            mSnapshots[index] = new Snapshot(accesses);
+        }
+        final List<Consumer<List<RecentAppOpsAccess.Access>>> callbacks =
+                new ArrayList<>(mPendingCallbacks[index]);
+        mPendingCallbacks[index].clear();
+        for (Consumer<List<RecentAppOpsAccess.Access>> callback : callbacks) {
+            callback.accept(accesses);
+        }
+    }
+
+    private void watchLocationOps(Context context) {
+        final AppOpsManager appOpsManager = context.getSystemService(AppOpsManager.class);
+        if (appOpsManager == null) {
+            return;
+        }
+        try {
+            appOpsManager.startWatchingActive(LOCATION_OPS, context.getMainExecutor(),
+                    (op, uid, packageName, active) -> invalidate());
+        } catch (SecurityException e) {
+            // Without the watch, cached lists are still dropped after MAX_AGE_MS.
+            Log.w(TAG, "Unable to watch location app ops", e);
+        }
+    }
+
+    @VisibleForTesting
+    @Nullable
+    List<RecentAppOpsAccess.Access> getCachedAccesses(boolean showSystem) {
+        final Snapshot snapshot = mSnapshots[showSystem ? 1 : 0];
+        return snapshot == null ? null : snapshot.mAccesses;
+    }
+
+    private static class Snapshot {
+        private final List<RecentAppOpsAccess.Access> mAccesses;
+        private final long mLoadTime = SystemClock.elapsedRealtime();
+
+        Snapshot(List<RecentAppOpsAccess.Access> accesses) {
+            mAccesses = accesses;
+        }
+    }
+}
@@ -44,8 +44,7 @@ import java.util.List;
  */
 public class RecentLocationAccessPreferenceController extends LocationBasePreferenceController {
     public static final int MAX_APPS = 3;
-    @VisibleForTesting
-    RecentAppOpsAccess mRecentLocationApps;
+    private final RecentLocationAccessCache mRecentLocationAccesses;
     private PreferenceCategory mCategoryRecentLocationRequests;
     private int mType = ProfileSelectFragment.ProfileType.ALL;
     private boolean mShowSystem = false;
@@ -76,14 +75,19 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     }
 
     public RecentLocationAccessPreferenceController(Context context, String key) {
-        this(context, key, RecentAppOpsAccess.createForLocation(context));
+        this(context, key, RecentLocationAccessCache.getInstance(context));
     }
 
     @VisibleForTesting
     public RecentLocationAccessPreferenceController(Context context, String key,
             RecentAppOpsAccess recentLocationApps) {
+        this(context, key, new RecentLocationAccessCache(recentLocationApps));
+    }
+
+    private RecentLocationAccessPreferenceController(Context context, String key,
+            RecentLocationAccessCache recentLocationAccesses) {
         super(context, key);
-        mRecentLocationApps = recentLocationApps;
+        mRecentLocationAccesses = recentLocationAccesses;
         mShowSystem = DeviceConfig.getBoolean(DeviceConfig.NAMESPACE_PRIVACY,
                 SystemUiDeviceConfigFlags.PROPERTY_LOCATION_INDICATORS_SMALL_ENABLED, false)
                 ? Settings.Secure.getInt(mContext.getContentResolver(),
@@ -109,11 +113,21 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     }
 
     private void loadRecentAccesses() {
+        final boolean showSystem = mShowSystem;
+        mRecentLocationAccesses.load(showSystem, accesses -> {
+            // Drop results of a load that was superseded by toggling system apps.
+            if (showSystem == mShowSystem) {
+                showRecentAccesses(accesses);
+            }
+        });
+    }
+
+    private void showRecentAccesses(List<RecentAppOpsAccess.Access> accesses) {
         mCategoryRecentLocationRequests.removeAll();
         final Context prefContext = mCategoryRecentLocationRequests.getContext();
         final List<RecentAppOpsAccess.Access> recentLocationAccesses = new ArrayList<>();
         final UserManager userManager = UserManager.get(mContext);
-        for (RecentAppOpsAccess.Access access : mRecentLocationApps.getAppListSorted(mShowSystem)) {
+        for (RecentAppOpsAccess.Access access : accesses) {
             if (isRequestMatchesProfileType(userManager, access, mType)) {
                 recentLocationAccesses.add(access);
                 if (recentLocationAccesses.size() == MAX_APPS) {
@@ -41,7 +41,7 @@ import java.util.List;
 public class RecentLocationAccessSeeAllPreferenceController
         extends LocationBasePreferenceController {
 
-    private final RecentAppOpsAccess mRecentLocationAccesses;
+    private final RecentLocationAccessCache mRecentLocationAccesses;
 
     private PreferenceScreen mCategoryAllRecentLocationAccess;
     private MetricsFeatureProvider mMetricsFeatureProvider;
@@ -56,7 +56,7 @@ public class RecentLocationAccessSeeAllPreferenceController
             Settings.Secure.LOCATION_SHOW_SYSTEM_OPS, 0) == 1
             : false;
 
-        mRecentLocationAccesses = RecentAppOpsAccess.createForLocation(context);
+        mRecentLocationAccesses = RecentLocationAccessCache.getInstance(context);
         mMetricsFeatureProvider = FeatureFactory.getFeatureFactory().getMetricsFeatureProvider();
     }
 
@@ -73,14 +73,23 @@ public class RecentLocationAccessSeeAllPreferenceController
 
     @Override
     public void updateState(Preference preference) {
-        mCategoryAllRecentLocationAccess.removeAll();
         mPreference = preference;
+        final boolean showSystem = mShowSystem;
+        mRecentLocationAccesses.load(showSystem, accesses -> {
+            // Drop results of a load that was superseded by toggling system apps.
+            if (showSystem == mShowSystem) {
+                showRecentAccesses(preference, accesses);
+            }
+        });
+    }
 
+    private void showRecentAccesses(Preference preference,
+            List<RecentAppOpsAccess.Access> accesses) {
+        mCategoryAllRecentLocationAccess.removeAll();
         final UserManager userManager = UserManager.get(mContext);
 
         final List<RecentAppOpsAccess.Access> recentLocationAccesses = new ArrayList<>();
-        for (RecentAppOpsAccess.Access access : mRecentLocationAccesses.getAppListSorted(
-                mShowSystem)) {
+        for (RecentAppOpsAccess.Access access : accesses) {
             if (isRequestMatchesProfileType(
                     userManager, access, ProfileSelectFragment.ProfileType.ALL)) {
                 recentLocationAccesses.add(access);
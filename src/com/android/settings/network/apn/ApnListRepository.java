@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.apn;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.Telephony;
+import android.telephony.SubscriptionManager;
+import android.util.ArraySet;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Loads the APNs of a subscription shown by {@link ApnSettings}, together with the preferred APN,
+ * and caches them per subscription until the telephony carriers provider reports a change.
+ */
+public class ApnListRepository {
+    private static final String TAG = "ApnListRepository";
+
+    private static final String[] CARRIERS_PROJECTION = new String[] {
+            Telephony.Carriers._ID,
+            Telephony.Carriers.NAME,
+            Telephony.Carriers.APN,
+            Telephony.Carriers.TYPE,
+            Telephony.Carriers.MVNO_TYPE,
+            Telephony.Carriers.MVNO_MATCH_DATA,
+            Telephony.Carriers.EDITED_STATUS,
+    };
+
+    private static final int ID_INDEX = 0;
+    private static final int NAME_INDEX = 1;
+    private static final int APN_INDEX = 2;
+    private static final int TYPES_INDEX = 3;
+    private static final int MVNO_TYPE_INDEX = 4;
+    private static final int MVNO_MATCH_DATA_INDEX = 5;
+    private static final int EDITED_INDEX = 6;
+
+    private static final Uri PREFERAPN_URI = Uri.parse(ApnSettings.PREFERRED_APN_URI);
+
+    private static ApnListRepository sInstance;
+
+    private final ContentResolver mContentResolver;
+    private final ContentObserver mContentObserver =
+            new ContentObserver(ThreadUtils.getUiThreadHandler()) {
+                @Override
+                public void onChange(boolean selfChange) {
+                    invalidate();
+                    for (Runnable listener : new ArrayList<>(mListeners)) {
+                        listener.run();
+                    }
+                }
+            };
+    // Accessed on the main thread only.
+    private final ArraySet<Runnable> mListeners = new ArraySet<>();
+
+    // Guarded by this.
+    private final SparseArray<ApnList> mApnLists = new SparseArray<>();
+    private int mGeneration;
+    private boolean mObserving;
+
+    /** An APN row of the carriers provider. */
+    public static final class ApnRow {
+        public final String key;
+        public final String name;
+        public final String apn;
+        public final String type;
+        public final String mvnoType;
+        public final String mvnoMatchData;
+        public final int edited;
+
+        @VisibleForTesting
+        ApnRow(String key, String name, String apn, String type, String mvnoType,
+                String mvnoMatchData, int edited) {
+            this.key = key;
+            this.name = name;
+            this.apn = apn;
+            this.type = type;
+            this.mvnoType = mvnoType;
+            this.mvnoMatchData = mvnoMatchData;
+            this.edited = edited;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ApnRow)) {
+                return false;
+            }
+            final ApnRow other = (ApnRow) o;
+            return edited == other.edited
+                    && Objects.equals(key, other.key)
+                    && Objects.equals(name, other.name)
+                    && Objects.equals(apn, other.apn)
+                    && Objects.equals(type, other.type)
+                    && Objects.equals(mvnoType, other.mvnoType)
+                    && Objects.equals(mvnoMatchData, other.mvnoMatchData);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, name, apn, type, mvnoType, mvnoMatchData, edited);
+        }
+    }
+
+    /** The APNs of a subscription, in the order of the provider, and the preferred APN. */
+    public static final class ApnList {
+        public final int subId;
+        public final boolean hideImsApn;
+        public final List<ApnRow> rows;
+        @Nullable
+        public final String preferredKey;
+
+        ApnList(int subId, boolean hideImsApn, List<ApnRow> rows, String preferredKey) {
+            this.subId = subId;
+            this.hideImsApn = hideImsApn;
+            this.rows = Collections.unmodifiableList(rows);
+            this.preferredKey = preferredKey;
+        }
+    }
+
+    /** Returns the repository of the process. */
+    public static synchronized ApnListRepository getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new ApnListRepository(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    ApnListRepository(Context context) {
+        mContentResolver = context.getContentResolver();
+    }
+
+    /** Returns the cached APNs of {@code subId}, or null if they need to be loaded. */
+    @Nullable
+    public synchronized ApnList getCached(int subId, boolean hideImsApn) {
+        final ApnList apnList = mApnLists.get(subId);
+        return apnList != null && apnList.hideImsApn == hideImsApn ? apnList : null;
+    }
+
+    /**
+     * Returns the APNs of {@code subId}, querying the provider if they aren't cached.
+     *
+     * @param hideImsApn whether the APNs of type ims are left out
+     */
+    @WorkerThread
+    @NonNull
+    public ApnList load(int subId, boolean hideImsApn) {
+        final int generation;
+        synchronized (this) {
+            final ApnList cached = getCached(subId, hideImsApn);
+            if (cached != null) {
+                return cached;
+            }
+            generation = mGeneration;
+            if (!mObserving) {
+                mObserving = true;
+                mContentResolver.registerContentObserver(Telephony.Carriers.CONTENT_URI,
+                        true /* notifyForDescendants */, mContentObserver);
+            }
+        }
+
+        final ApnList apnList = new ApnList(subId, hideImsApn, queryApnRows(subId, hideImsApn),
+                queryPreferredKey(subId));
+        synchronized (this) {
+            // Don't cache what may have been read before a change.
+            if (generation == mGeneration) {
+                mApnLists.put(subId, apnList);
+            }
+        }
+        return apnList;
+    }
+
+    /** Drops the cached APNs, e.g. after the APNs were restored. */
+    public synchronized void invalidate() {
+        mGeneration++;
+        mApnLists.clear();
+    }
+
+    /** Adds a listener run on the main thread after the APNs changed. */
+    @MainThread
+    public void addListener(@NonNull Runnable listener) {
+        mListeners.add(listener);
+    }
+
+    @MainThread
+    public void removeListener(@NonNull Runnable listener) {
+        mListeners.remove(listener);
+    }
+
+    private List<ApnRow> queryApnRows(int subId, boolean hideImsApn) {
+        final Uri simApnUri = Uri.withAppendedPath(Telephony.Carriers.SIM_APN_URI,
+                String.valueOf(subId));
+        final StringBuilder where =
+                new StringBuilder("NOT (type='ia' AND (apn=\"\" OR apn IS NULL)) AND "
+                + "user_visible!=0");
+        // Remove Emergency type, users should not mess with that
+        where.append(" AND NOT (type='emergency')");
+
+        if (hideImsApn) {
+            where.append(" AND NOT (type='ims')");
+        }
+
+        final List<ApnRow> rows = new ArrayList<>();
+        try (Cursor cursor = mContentResolver.query(simApnUri, CARRIERS_PROJECTION,
+                where.toString(), null, Telephony.Carriers.DEFAULT_SORT_ORDER)) {
+            if (cursor == null) {
+                Log.w(TAG, "No APNs for subId " + subId);
+                return rows;
+            }
+            while (cursor.moveToNext()) {
+                rows.add(new ApnRow(
+                        cursor.getString(ID_INDEX),
+                        cursor.getString(NAME_INDEX),
+                        cursor.getString(APN_INDEX),
+                        cursor.getString(TYPES_INDEX),
+                        cursor.getString(MVNO_TYPE_INDEX),
+                        cursor.getString(MVNO_MATCH_DATA_INDEX),
+                        cursor.getInt(EDITED_INDEX)));
+            }
+        }
+        return rows;
+    }
+
+    private String queryPreferredKey(int subId) {
+        try (Cursor cursor = mContentResolver.query(getPreferredApnUri(subId),
+                new String[] {Telephony.Carriers._ID}, null, null,
+                Telephony.Carriers.DEFAULT_SORT_ORDER)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                return cursor.getString(ID_INDEX);
+            }
+        }
+        return null;
+    }
+
+    /** Returns the URI of the preferred APN of {@code subId}. */
+    static Uri getPreferredApnUri(int subId) {
+        if (SubscriptionManager.isValidSubscriptionId(subId)) {
+            return Uri.withAppendedPath(PREFERAPN_URI, "subId/" + String.valueOf(subId));
+        } else {
+            return PREFERAPN_URI;
+        }
+    }
+}
@@ -116,6 +116,13 @@ public class ApnPreference extends Preference
         sSelectedKey = getKey();
     }
 
+    /**
+     * Rebind the radio button after the selected APN changed outside of this preference.
+     */
+    void refreshChecked() {
+        notifyChanged();
+    }
+
     /**
      * Change the preference status.
      */
@@ -28,7 +28,6 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
@@ -47,6 +46,7 @@ import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
 import android.telephony.data.ApnSetting;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -63,8 +63,11 @@ import com.android.settings.flags.Flags;
 import com.android.settings.network.SubscriptionUtil;
 import com.android.settings.spa.SpaActivity;
 import com.android.settingslib.RestrictedLockUtils.EnforcedAdmin;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /** Handle each different apn setting. */
 public class ApnSettings extends RestrictedSettingsFragment
@@ -82,16 +85,6 @@ public class ApnSettings extends RestrictedSettingsFragment
     public static final String MVNO_TYPE = "mvno_type";
     public static final String MVNO_MATCH_DATA = "mvno_match_data";
 
-    private static final String[] CARRIERS_PROJECTION = new String[] {
-            Telephony.Carriers._ID,
-            Telephony.Carriers.NAME,
-            Telephony.Carriers.APN,
-            Telephony.Carriers.TYPE,
-            Telephony.Carriers.MVNO_TYPE,
-            Telephony.Carriers.MVNO_MATCH_DATA,
-            Telephony.Carriers.EDITED_STATUS,
-    };
-
     /** Copied from {@code com.android.internal.telephony.TelephonyIntents} */
     private static final String ACTION_SIM_STATE_CHANGED =
             "android.intent.action.SIM_STATE_CHANGED";
@@ -99,14 +92,6 @@ public class ApnSettings extends RestrictedSettingsFragment
     public static final String INTENT_KEY_ICC_STATE = "ss";
     public static final String INTENT_VALUE_ICC_ABSENT = "ABSENT";
 
-    private static final int ID_INDEX = 0;
-    private static final int NAME_INDEX = 1;
-    private static final int APN_INDEX = 2;
-    private static final int TYPES_INDEX = 3;
-    private static final int MVNO_TYPE_INDEX = 4;
-    private static final int MVNO_MATCH_DATA_INDEX = 5;
-    private static final int EDITED_INDEX = 6;
-
     private static final int MENU_NEW = Menu.FIRST;
     private static final int MENU_RESTORE = Menu.FIRST + 1;
 
@@ -133,6 +118,16 @@ public class ApnSettings extends RestrictedSettingsFragment
 
     private String mSelectedKey;
 
+    private ApnListRepository mApnListRepository;
+    // The APNs shown by the preferences, to only update the preferences of the changed APNs.
+    private ApnListRepository.ApnList mShownApnList;
+    private int mApnListGeneration;
+    private final Runnable mApnListChangedListener = () -> {
+        if (!mRestoreDefaultApnMode) {
+            fillList();
+        }
+    };
+
     private IntentFilter mIntentFilter;
 
     private boolean mUnavailable;
@@ -150,6 +145,9 @@ public class ApnSettings extends RestrictedSettingsFragment
                 PreciseDataConnectionState dataConnectionState) {
             if (dataConnectionState.getState() == TelephonyManager.DATA_CONNECTED) {
                 if (!mRestoreDefaultApnMode) {
+                    // Telephony may have changed the preferred APN without notifying the
+                    // provider, so don't show the cached list.
+                    mApnListRepository.invalidate();
                     fillList();
                 } else {
                     showRestoreDefaultApnDialog();
@@ -185,6 +183,7 @@ public class ApnSettings extends RestrictedSettingsFragment
                     mSubscriptionInfo = getSubscriptionInfo(mSubId);
                     restartPhoneStateListener(mSubId);
                 }
+                mApnListRepository.invalidate();
                 fillList();
             }
         }
@@ -235,6 +234,7 @@ public class ApnSettings extends RestrictedSettingsFragment
         mHideImsApn = b.getBoolean(CarrierConfigManager.KEY_HIDE_IMS_APN_BOOL);
         mHidePresetApnDetails = b.getBoolean(CarrierConfigManager.KEY_HIDE_PRESET_APN_DETAILS_BOOL);
         mUserManager = UserManager.get(activity);
+        mApnListRepository = ApnListRepository.getInstance(activity);
     }
 
     @Override
@@ -264,6 +264,7 @@ public class ApnSettings extends RestrictedSettingsFragment
                 Context.RECEIVER_EXPORTED_UNAUDITED);
 
         restartPhoneStateListener(mSubId);
+        mApnListRepository.addListener(mApnListChangedListener);
 
         if (!mRestoreDefaultApnMode) {
             fillList();
@@ -282,6 +283,7 @@ public class ApnSettings extends RestrictedSettingsFragment
 
         mTelephonyManager.listen(mPhoneStateListener,
                 PhoneStateListener.LISTEN_NONE);
+        mApnListRepository.removeListener(mApnListChangedListener);
     }
 
     @Override
@@ -311,77 +313,111 @@ public class ApnSettings extends RestrictedSettingsFragment
     private void fillList() {
         final int subId = mSubscriptionInfo != null ? mSubscriptionInfo.getSubscriptionId()
                 : SubscriptionManager.INVALID_SUBSCRIPTION_ID;
-        final Uri simApnUri = Uri.withAppendedPath(Telephony.Carriers.SIM_APN_URI,
-                String.valueOf(subId));
-        final StringBuilder where =
-                new StringBuilder("NOT (type='ia' AND (apn=\"\" OR apn IS NULL)) AND "
-                + "user_visible!=0");
-        // Remove Emergency type, users should not mess with that
-        where.append(" AND NOT (type='emergency')");
-
-        if (mHideImsApn) {
-            where.append(" AND NOT (type='ims')");
+        final int generation = ++mApnListGeneration;
+        final ApnListRepository.ApnList cached = mApnListRepository.getCached(subId, mHideImsApn);
+        if (cached != null) {
+            updateApnList(cached);
+            return;
         }
 
-        final Cursor cursor = getContentResolver().query(simApnUri,
-                CARRIERS_PROJECTION, where.toString(), null,
-                Telephony.Carriers.DEFAULT_SORT_ORDER);
-
-        if (cursor != null) {
-            final PreferenceGroup apnPrefList = (PreferenceGroup) findPreference("apn_list");
-            apnPrefList.removeAll();
-
-            final ArrayList<ApnPreference> apnList = new ArrayList<ApnPreference>();
-            final ArrayList<ApnPreference> mmsApnList = new ArrayList<ApnPreference>();
-
-            mSelectedKey = getSelectedApnKey();
-            cursor.moveToFirst();
-            while (!cursor.isAfterLast()) {
-                final String name = cursor.getString(NAME_INDEX);
-                final String apn = cursor.getString(APN_INDEX);
-                final String key = cursor.getString(ID_INDEX);
-                final String type = cursor.getString(TYPES_INDEX);
-                final int edited = cursor.getInt(EDITED_INDEX);
-                mMvnoType = cursor.getString(MVNO_TYPE_INDEX);
-                mMvnoMatchData = cursor.getString(MVNO_MATCH_DATA_INDEX);
-
-                final ApnPreference pref = new ApnPreference(getPrefContext());
-
-                pref.setKey(key);
-                pref.setTitle(name);
-                pref.setPersistent(false);
-                pref.setOnPreferenceChangeListener(this);
-                pref.setSubId(subId);
-                if (mHidePresetApnDetails && edited == Telephony.Carriers.UNEDITED) {
-                    pref.setHideDetails();
-                } else {
-                    pref.setSummary(apn);
+        final boolean hideImsApn = mHideImsApn;
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final ApnListRepository.ApnList apnList = mApnListRepository.load(subId, hideImsApn);
+            ThreadUtils.postOnMainThread(() -> {
+                // Drop the result if a newer list was requested meanwhile.
+                if (generation == mApnListGeneration && isAdded()) {
+                    updateApnList(apnList);
                 }
+            });
+        });
+    }
 
-                final boolean selectable =
-                        ((type == null) || type.contains(ApnSetting.TYPE_DEFAULT_STRING));
-                pref.setSelectable(selectable);
-                if (selectable) {
-                    if ((mSelectedKey != null) && mSelectedKey.equals(key)) {
-                        pref.setChecked();
-                    }
-                    apnList.add(pref);
-                } else {
-                    mmsApnList.add(pref);
-                }
-                cursor.moveToNext();
-            }
-            cursor.close();
+    private void updateApnList(ApnListRepository.ApnList apnList) {
+        final PreferenceGroup apnPrefList = (PreferenceGroup) findPreference("apn_list");
+        if (apnPrefList == null) {
+            return;
+        }
 
-            for (Preference preference : apnList) {
-                apnPrefList.addPreference(preference);
+        final Map<String, ApnListRepository.ApnRow> rows = new ArrayMap<>(apnList.rows.size());
+        final List<ApnListRepository.ApnRow> apnRows = new ArrayList<>();
+        final List<ApnListRepository.ApnRow> mmsApnRows = new ArrayList<>();
+        for (ApnListRepository.ApnRow row : apnList.rows) {
+            rows.put(row.key, row);
+            if (isSelectable(row)) {
+                apnRows.add(row);
+            } else {
+                mmsApnRows.add(row);
             }
-            for (Preference preference : mmsApnList) {
-                apnPrefList.addPreference(preference);
+            mMvnoType = row.mvnoType;
+            mMvnoMatchData = row.mvnoMatchData;
+        }
+        apnRows.addAll(mmsApnRows);
+
+        // Keep the preferences of the APNs which didn't change.
+        final ApnListRepository.ApnList shownApnList = mShownApnList;
+        final Map<String, ApnListRepository.ApnRow> shownRows = new ArrayMap<>();
+        if (shownApnList != null && shownApnList.subId == apnList.subId) {
+            for (ApnListRepository.ApnRow row : shownApnList.rows) {
+                shownRows.put(row.key, row);
+            }
+        }
+        final Map<String, ApnPreference> keptPrefs = new ArrayMap<>();
+        for (int i = apnPrefList.getPreferenceCount() - 1; i >= 0; i--) {
+            final Preference preference = apnPrefList.getPreference(i);
+            final ApnListRepository.ApnRow shownRow = shownRows.get(preference.getKey());
+            if (preference instanceof ApnPreference && shownRow != null
+                    && shownRow.equals(rows.get(shownRow.key))) {
+                keptPrefs.put(shownRow.key, (ApnPreference) preference);
+            } else {
+                apnPrefList.removePreference(preference);
+            }
+        }
+        mShownApnList = apnList;
+
+        final String previousSelectedKey = mSelectedKey;
+        mSelectedKey = apnList.preferredKey;
+        final boolean selectedKeyChanged = !TextUtils.equals(previousSelectedKey, mSelectedKey);
+        for (int index = 0; index < apnRows.size(); index++) {
+            final ApnListRepository.ApnRow row = apnRows.get(index);
+            ApnPreference pref = keptPrefs.get(row.key);
+            final boolean isNew = pref == null;
+            if (isNew) {
+                pref = createApnPreference(row, apnList.subId);
+            }
+            pref.setOrder(index);
+            if (pref.getSelectable() && (mSelectedKey != null) && mSelectedKey.equals(row.key)) {
+                pref.setChecked();
+            }
+            if (isNew) {
+                apnPrefList.addPreference(pref);
+            } else if (selectedKeyChanged && (TextUtils.equals(row.key, previousSelectedKey)
+                    || TextUtils.equals(row.key, mSelectedKey))) {
+                pref.refreshChecked();
             }
         }
     }
 
+    private ApnPreference createApnPreference(ApnListRepository.ApnRow row, int subId) {
+        final ApnPreference pref = new ApnPreference(getPrefContext());
+
+        pref.setKey(row.key);
+        pref.setTitle(row.name);
+        pref.setPersistent(false);
+        pref.setOnPreferenceChangeListener(this);
+        pref.setSubId(subId);
+        if (mHidePresetApnDetails && row.edited == Telephony.Carriers.UNEDITED) {
+            pref.setHideDetails();
+        } else {
+            pref.setSummary(row.apn);
+        }
+        pref.setSelectable(isSelectable(row));
+        return pref;
+    }
+
+    private static boolean isSelectable(ApnListRepository.ApnRow row) {
+        return (row.type == null) || row.type.contains(ApnSetting.TYPE_DEFAULT_STRING);
+    }
+
     @Override
     public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
         if (!mUnavailable) {
@@ -450,19 +486,6 @@ public class ApnSettings extends RestrictedSettingsFragment
         resolver.update(getUriForCurrSubId(PREFERAPN_URI), values, null, null);
     }
 
-    private String getSelectedApnKey() {
-        String key = null;
-
-        final Cursor cursor = getContentResolver().query(getUriForCurrSubId(PREFERAPN_URI),
-                new String[] {"_id"}, null, null, Telephony.Carriers.DEFAULT_SORT_ORDER);
-        if (cursor.getCount() > 0) {
-            cursor.moveToFirst();
-            key = cursor.getString(ID_INDEX);
-        }
-        cursor.close();
-        return key;
-    }
-
     private boolean restoreDefaultApn() {
         // Callback of data connection change could be some noise during the stage of restore.
         mTelephonyManager.listen(mPhoneStateListener, PhoneStateListener.LISTEN_NONE);
@@ -508,6 +531,7 @@ public class ApnSettings extends RestrictedSettingsFragment
                         mRestoreDefaultApnMode = false;
                         return;
                     }
+                    mApnListRepository.invalidate();
                     fillList();
                     getPreferenceScreen().setEnabled(true);
                     mRestoreDefaultApnMode = false;
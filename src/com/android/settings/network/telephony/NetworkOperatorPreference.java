@@ -107,6 +107,14 @@ public class NetworkOperatorPreference extends Preference {
         return mCellId.equals(CellInfoUtil.getCellIdentity(cellinfo));
     }
 
+    /**
+     * Return true when the preference already shows the given cell information, so
+     * {@link #updateCell(CellInfo)} would not change it
+     */
+    public boolean isShowingCellInfo(CellInfo cellinfo) {
+        return mCellInfo != null && mCellInfo.equals(cellinfo);
+    }
+
     /**
      * Return true when this preference is for forbidden network
      */
@@ -34,6 +34,8 @@ import android.telephony.ServiceState;
 import android.telephony.SignalStrength;
 import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
+import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.Log;
 import android.view.View;
 
@@ -51,8 +53,10 @@ import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -79,6 +83,8 @@ public class NetworkSelectSettings extends DashboardFragment {
     private Preference mStatusMessagePreference;
     @VisibleForTesting
     List<CellInfo> mCellInfoList;
+    // Preferences of the operators of mCellInfoList, keyed by the PLMN and RAT of the cell.
+    private Map<String, NetworkOperatorPreference> mOperatorPreferences = new ArrayMap<>();
     private int mSubId = SubscriptionManager.INVALID_SUBSCRIPTION_ID;
     private TelephonyManager mTelephonyManager;
     private List<String> mForbiddenPlmns;
@@ -363,30 +369,25 @@ public class NetworkSelectSettings extends DashboardFragment {
             Log.d(TAG, "no aggregation");
             return new ArrayList<>(cellInfoListInput);
         }
-        ArrayList<CellInfo> aggregatedList = new ArrayList<>();
+        // Keyed by PLMN and RAT, keeping the order of the first cell of each key.
+        final Map<String, CellInfo> aggregatedCells = new LinkedHashMap<>();
         for (CellInfo cellInfo : cellInfoListInput) {
-            String plmn = CellInfoUtil.getNetworkTitle(cellInfo.getCellIdentity(),
-                    CellInfoUtil.getCellIdentityMccMnc(cellInfo.getCellIdentity()));
-            Class className = cellInfo.getClass();
-
-            Optional<CellInfo> itemInTheList = aggregatedList.stream().filter(
-                    item -> {
-                        String itemPlmn = CellInfoUtil.getNetworkTitle(item.getCellIdentity(),
-                                CellInfoUtil.getCellIdentityMccMnc(item.getCellIdentity()));
-                        return itemPlmn.equals(plmn) && item.getClass().equals(className);
-                    })
-                    .findFirst();
-            if (itemInTheList.isPresent()) {
-                if (cellInfo.isRegistered() && !itemInTheList.get().isRegistered()) {
-                    // Adding the registered cellinfo item into list. If there are two registered
-                    // cellinfo items, then select first one from source list.
-                    aggregatedList.set(aggregatedList.indexOf(itemInTheList.get()), cellInfo);
-                }
-                continue;
+            final String key = getAggregationKey(cellInfo);
+            final CellInfo itemInTheList = aggregatedCells.get(key);
+            if (itemInTheList == null
+                    || (cellInfo.isRegistered() && !itemInTheList.isRegistered())) {
+                // Adding the registered cellinfo item into list. If there are two registered
+                // cellinfo items, then select first one from source list.
+                aggregatedCells.put(key, cellInfo);
             }
-            aggregatedList.add(cellInfo);
         }
-        return aggregatedList;
+        return new ArrayList<>(aggregatedCells.values());
+    }
+
+    private static String getAggregationKey(CellInfo cellInfo) {
+        final CellIdentity cellId = cellInfo.getCellIdentity();
+        return cellInfo.getClass().getName() + ":"
+                + CellInfoUtil.getNetworkTitle(cellId, CellInfoUtil.getCellIdentityMccMnc(cellId));
     }
 
     private final NetworkScanHelper.NetworkScanCallback mCallback =
@@ -457,54 +458,65 @@ public class NetworkSelectSettings extends DashboardFragment {
      * @return preference which shows connected
      */
     private NetworkOperatorPreference updateAllPreferenceCategory() {
-        int numberOfPreferences = mPreferenceCategory.getPreferenceCount();
+        final List<String> rowKeys = new ArrayList<>(mCellInfoList.size());
+        final Map<String, Integer> keyCounts = new ArrayMap<>(mCellInfoList.size());
+        for (CellInfo cellInfo : mCellInfoList) {
+            // Cells only share a key when aggregation is disabled, number them apart.
+            final String key = getAggregationKey(cellInfo);
+            final int count = keyCounts.getOrDefault(key, 0);
+            keyCounts.put(key, count + 1);
+            rowKeys.add(count == 0 ? key : key + "#" + count);
+        }
 
-        // remove unused preferences
-        while (numberOfPreferences > mCellInfoList.size()) {
-            numberOfPreferences--;
-            mPreferenceCategory.removePreference(
-                    mPreferenceCategory.getPreference(numberOfPreferences));
+        // remove preferences not showing an operator of the list
+        final Map<String, NetworkOperatorPreference> previousPrefs = mOperatorPreferences;
+        mOperatorPreferences = new ArrayMap<>(mCellInfoList.size());
+        for (String key : rowKeys) {
+            final NetworkOperatorPreference pref = previousPrefs.get(key);
+            if (pref != null && pref.getParent() == mPreferenceCategory) {
+                mOperatorPreferences.put(key, pref);
+            }
+        }
+        final Set<Preference> keptPrefs = new ArraySet<>(mOperatorPreferences.values());
+        for (int index = mPreferenceCategory.getPreferenceCount() - 1; index >= 0; index--) {
+            final Preference rawPref = mPreferenceCategory.getPreference(index);
+            if (!keptPrefs.contains(rawPref)) {
+                mPreferenceCategory.removePreference(rawPref);
+            }
         }
 
-        // update the content of preference
+        // update the content of preference, only the rows whose cell changed are refreshed
+        final NetworkOperatorPreference selectedPref = mSelectedPreference;
         NetworkOperatorPreference connectedPref = null;
         for (int index = 0; index < mCellInfoList.size(); index++) {
             final CellInfo cellInfo = mCellInfoList.get(index);
+            final String key = rowKeys.get(index);
 
-            NetworkOperatorPreference pref = null;
-            if (index < numberOfPreferences) {
-                final Preference rawPref = mPreferenceCategory.getPreference(index);
-                if (rawPref instanceof NetworkOperatorPreference) {
-                    // replace existing preference
-                    pref = (NetworkOperatorPreference) rawPref;
-                    pref.updateCell(cellInfo);
-                } else {
-                    mPreferenceCategory.removePreference(rawPref);
-                }
-            }
+            NetworkOperatorPreference pref = mOperatorPreferences.get(key);
             if (pref == null) {
                 // add new preference
                 pref = createNetworkOperatorPreference(cellInfo);
                 pref.setOrder(index);
                 mPreferenceCategory.addPreference(pref);
+                mOperatorPreferences.put(key, pref);
+            } else {
+                if (!pref.isShowingCellInfo(cellInfo)) {
+                    pref.updateCell(cellInfo);
+                }
+                pref.setOrder(index);
             }
             pref.setKey(pref.getOperatorName());
 
-            if (mCellInfoList.get(index).isRegistered()) {
+            if (cellInfo.isRegistered()) {
                 pref.setSummary(R.string.network_connected);
                 connectedPref = pref;
             } else {
                 pref.setSummary(null);
             }
-        }
-
-        // update selected preference instance by index
-        for (int index = 0; index < mCellInfoList.size(); index++) {
-            final CellInfo cellInfo = mCellInfoList.get(index);
 
-            if ((mSelectedPreference != null) && mSelectedPreference.isSameCell(cellInfo)) {
-                mSelectedPreference = (NetworkOperatorPreference)
-                        (mPreferenceCategory.getPreference(index));
+            // update selected preference instance
+            if ((selectedPref != null) && selectedPref.isSameCell(cellInfo)) {
+                mSelectedPreference = pref;
             }
         }
 
@@ -60,7 +60,6 @@ import com.android.settingslib.utils.ThreadUtils;
 
 import com.google.android.setupdesign.DividerItemDecoration;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -328,6 +327,7 @@ public class PanelFragment extends Fragment {
 
     private void loadAllSlices() {
         mSliceLiveData.clear();
+        mAdapter = null;
         final List<Uri> sliceUris = mPanel.getSlices();
         mPanelSlicesLoaderCountdownLatch = new PanelSlicesLoaderCountdownLatch(sliceUris.size());
 
@@ -336,6 +336,7 @@ public class PanelFragment extends Fragment {
                     (int type, Throwable source)-> {
                             removeSliceLiveData(uri);
                             mPanelSlicesLoaderCountdownLatch.markSliceLoaded(uri);
+                            loadPanelWhenReady();
                     });
 
             // Add slice first to make it in order.  Will remove it later if there's an error.
@@ -345,10 +346,7 @@ public class PanelFragment extends Fragment {
 
                 // If the Slice has already loaded, refresh list with slice data.
                 if (mPanelSlicesLoaderCountdownLatch.isSliceLoaded(uri)) {
-                    if (mAdapter != null) {
-                        int itemIndex = (new ArrayList<>(mSliceLiveData.keySet())).indexOf(uri);
-                        mAdapter.notifyItemChanged(itemIndex);
-                    }
+                    notifySliceChanged(uri);
                     return;
                 }
 
@@ -381,29 +379,52 @@ public class PanelFragment extends Fragment {
                     }, DURATION_SLICE_BINDING_TIMEOUT_MS);
                 }
 
+                notifySliceChanged(uri);
                 loadPanelWhenReady();
             });
         }
     }
 
+    private void notifySliceChanged(Uri uri) {
+        if (mAdapter == null) {
+            return;
+        }
+        final int position = mAdapter.getPosition(uri);
+        if (position >= 0) {
+            mAdapter.notifyItemChanged(position);
+        }
+    }
+
     private void removeSliceLiveData(Uri uri) {
         final List<String> allowList = Arrays.asList(
                 getResources().getStringArray(
                         R.array.config_panel_keep_observe_uri));
         if (!allowList.contains(uri.toString())) {
             mSliceLiveData.remove(uri);
+            if (mAdapter != null) {
+                mAdapter.updateSliceLiveData(mSliceLiveData);
+            }
         }
     }
 
     /**
-     * When all of the Slices have loaded for the first time, then we can setup the
-     * {@link RecyclerView}.
+     * Returns {@code true} if the Slice at {@code uri} has loaded, or failed to load. Rows of
+     * Slices that haven't loaded yet are shown as placeholders.
+     */
+    boolean isSliceLoaded(Uri uri) {
+        return mPanelSlicesLoaderCountdownLatch == null
+                || mPanelSlicesLoaderCountdownLatch.isSliceLoaded(uri);
+    }
+
+    /**
+     * As soon as the first Slice has loaded, set up the {@link RecyclerView}. Slices that are
+     * still loading show up as placeholders and fill in as they arrive.
      * <p>
      * When the Recyclerview has been laid out, we can begin the animation with the
      * {@link mOnGlobalLayoutListener}, which calls {@link #animateIn()}.
      */
     private void loadPanelWhenReady() {
-        if (mPanelSlicesLoaderCountdownLatch.isPanelReadyToLoad()) {
+        if (mAdapter == null && mPanelSlicesLoaderCountdownLatch.isAnySliceLoaded()) {
             mAdapter = new PanelSlicesAdapter(
                     this, mSliceLiveData, mPanel.getMetricsCategory());
             mPanelSlices.setAdapter(mAdapter);
@@ -23,6 +23,7 @@ import static android.view.accessibility.AccessibilityNodeInfo.ACTION_CLICK;
 import android.app.settings.SettingsEnums;
 import android.content.Context;
 import android.net.Uri;
+import android.util.ArrayMap;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -58,15 +59,45 @@ public class PanelSlicesAdapter
     @VisibleForTesting
     static final int MAX_NUM_OF_SLICES = 9;
 
-    private final List<LiveData<Slice>> mSliceLiveData;
+    /**
+     * The height of each Slice row the last time it was shown, so a panel opened again reserves
+     * the same space for the Slices that are still loading. Only used on the main thread.
+     */
+    @VisibleForTesting
+    static final Map<Uri, Integer> sLastKnownHeights = new ArrayMap<>();
+
+    private final List<Uri> mSliceUris = new ArrayList<>();
+    private final List<LiveData<Slice>> mSliceLiveData = new ArrayList<>();
     private final int mMetricsCategory;
     private final PanelFragment mPanelFragment;
 
     public PanelSlicesAdapter(
             PanelFragment fragment, Map<Uri, LiveData<Slice>> sliceLiveData, int metricsCategory) {
         mPanelFragment = fragment;
-        mSliceLiveData = new ArrayList<>(sliceLiveData.values());
         mMetricsCategory = metricsCategory;
+        setSliceLiveData(sliceLiveData);
+    }
+
+    /**
+     * Replaces the Slices shown, e.g. when a Slice failed to load after the panel was shown.
+     */
+    void updateSliceLiveData(Map<Uri, LiveData<Slice>> sliceLiveData) {
+        setSliceLiveData(sliceLiveData);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Returns the position of {@code uri} in the adapter, or -1 if it isn't shown.
+     */
+    int getPosition(Uri uri) {
+        return mSliceUris.indexOf(uri);
+    }
+
+    private void setSliceLiveData(Map<Uri, LiveData<Slice>> sliceLiveData) {
+        mSliceUris.clear();
+        mSliceUris.addAll(sliceLiveData.keySet());
+        mSliceLiveData.clear();
+        mSliceLiveData.addAll(sliceLiveData.values());
     }
 
     @NonNull
@@ -85,7 +116,14 @@ public class PanelSlicesAdapter
 
     @Override
     public void onBindViewHolder(@NonNull SliceRowViewHolder sliceRowViewHolder, int position) {
-        sliceRowViewHolder.onBind(mSliceLiveData.get(position).getValue());
+        final Slice slice = mSliceLiveData.get(position).getValue();
+        final Uri uri = mSliceUris.get(position);
+        if (slice == null && !mPanelFragment.isSliceLoaded(uri)) {
+            sliceRowViewHolder.onBindPlaceholder(getPlaceholderHeight(
+                    sliceRowViewHolder.itemView.getContext(), uri, getItemViewType(position)));
+            return;
+        }
+        sliceRowViewHolder.onBind(slice);
     }
 
     /**
@@ -101,6 +139,22 @@ public class PanelSlicesAdapter
         return mPanelFragment.getPanelViewType();
     }
 
+    /**
+     * Returns the height reserved for the Slice at {@code uri} while it loads: its height when
+     * last shown, or else the usual height of a row of {@code viewType}.
+     */
+    @VisibleForTesting
+    static int getPlaceholderHeight(Context context, Uri uri, int viewType) {
+        final Integer lastKnownHeight = sLastKnownHeights.get(uri);
+        if (lastKnownHeight != null) {
+            return lastKnownHeight;
+        }
+        return context.getResources().getDimensionPixelSize(
+                viewType == PanelContent.VIEW_TYPE_SLIDER
+                        ? R.dimen.panel_slice_slider_placeholder_height
+                        : R.dimen.panel_slice_placeholder_height);
+    }
+
     /**
      * Return the available data from the adapter. If the number of Slices over the max number
      * allowed, the list will only have the first MAX_NUM_OF_SLICES of slices.
@@ -123,6 +177,8 @@ public class PanelSlicesAdapter
         final SliceView sliceView;
         @VisibleForTesting
         final LinearLayout mSliceSliderLayout;
+        // The Uri of the Slice shown, null while showing a placeholder or nothing.
+        private Uri mShownUri;
 
         public SliceRowViewHolder(View view) {
             super(view);
@@ -131,12 +187,30 @@ public class PanelSlicesAdapter
             sliceView.setShowTitleItems(true);
             sliceView.setImportantForAccessibility(View.IMPORTANT_FOR_ACCESSIBILITY_NO);
             mSliceSliderLayout = view.findViewById(R.id.slice_slider_layout);
+            view.addOnLayoutChangeListener(
+                    (v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> {
+                        if (mShownUri != null && bottom > top) {
+                            sLastKnownHeights.put(mShownUri, bottom - top);
+                        }
+                    });
+        }
+
+        /**
+         * Called when the view is displayed before its Slice has loaded. Keeps {@code height} for
+         * the row so the panel doesn't jump when the Slice arrives.
+         */
+        public void onBindPlaceholder(int height) {
+            mShownUri = null;
+            itemView.setMinimumHeight(height);
+            sliceView.setVisibility(View.INVISIBLE);
         }
 
         /**
          * Called when the view is displayed.
          */
         public void onBind(Slice slice) {
+            itemView.setMinimumHeight(0);
+            mShownUri = null;
             // Hides slice which reports with error hint or not contain any slice sub-item.
             if (slice == null || !isValidSlice(slice)) {
                 updateActionLabel();
@@ -145,6 +219,7 @@ public class PanelSlicesAdapter
             } else {
                 sliceView.setSlice(slice);
                 sliceView.setVisibility(View.VISIBLE);
+                mShownUri = slice.getUri();
             }
 
             // Add divider for the end icon
@@ -66,6 +66,13 @@ public class PanelSlicesLoaderCountdownLatch {
         return mLoadedSlices.contains(uri);
     }
 
+    /**
+     * @return {@code true} if at least one Slice has been loaded.
+     */
+    public boolean isAnySliceLoaded() {
+        return !mLoadedSlices.isEmpty();
+    }
+
     /**
      * @return {@code true} when all Slices have loaded, and the Panel has not yet been loaded.
      */
@@ -20,10 +20,14 @@ import android.content.Context;
 import android.safetycenter.SafetyCenterManager;
 import android.safetycenter.SafetyEvent;
 import android.safetycenter.SafetySourceData;
+import android.util.ArrayMap;
 import android.util.Log;
 
 import com.android.internal.annotations.VisibleForTesting;
 
+import java.util.Map;
+import java.util.Objects;
+
 /** A wrapper for the SafetyCenterManager system service. */
 public class SafetyCenterManagerWrapper {
 
@@ -37,20 +41,33 @@ public class SafetyCenterManagerWrapper {
     @VisibleForTesting
     public static SafetyCenterManagerWrapper sInstance;
 
+    /** Last data sent for each source, guarded by itself. */
+    private final Map<String, SafetySourceData> mLastSentData = new ArrayMap<>();
+
     private SafetyCenterManagerWrapper() {}
 
     /** Returns an instance of {@link SafetyCenterManagerWrapper}. */
-    public static SafetyCenterManagerWrapper get() {
+    public static synchronized SafetyCenterManagerWrapper get() {
         if (sInstance == null) {
             sInstance = new SafetyCenterManagerWrapper();
         }
         return sInstance;
     }
 
-    /** Sets the latest safety source data for Safety Center. */
+    /**
+     * Sets the latest safety source data for Safety Center.
+     *
+     * <p>Data that didn't change since it was last sent is skipped for
+     * {@link SafetyEvent#SAFETY_EVENT_TYPE_SOURCE_STATE_CHANGED} events. Other events, e.g.
+     * refresh requests, always need a response.
+     */
     public void setSafetySourceData(Context context, String safetySourceId,
             SafetySourceData safetySourceData,
             SafetyEvent safetyEvent) {
+        if (isUnchanged(safetySourceId, safetySourceData, safetyEvent)) {
+            return;
+        }
+
         SafetyCenterManager safetyCenterManager =
                 context.getSystemService(SafetyCenterManager.class);
 
@@ -69,6 +86,20 @@ public class SafetyCenterManagerWrapper {
             Log.e(TAG, "Failed to send SafetySourceData", e);
             return;
         }
+        synchronized (mLastSentData) {
+            mLastSentData.put(safetySourceId, safetySourceData);
+        }
+    }
+
+    private boolean isUnchanged(String safetySourceId, SafetySourceData safetySourceData,
+            SafetyEvent safetyEvent) {
+        if (safetyEvent.getType() != SafetyEvent.SAFETY_EVENT_TYPE_SOURCE_STATE_CHANGED) {
+            return false;
+        }
+        synchronized (mLastSentData) {
+            return mLastSentData.containsKey(safetySourceId)
+                    && Objects.equals(mLastSentData.get(safetySourceId), safetySourceData);
+        }
     }
 
     /** Returns true is SafetyCenter page is enabled, false otherwise. */
@@ -27,13 +27,22 @@ import android.content.Context;
 import android.content.Intent;
 import android.safetycenter.SafetyCenterManager;
 import android.safetycenter.SafetyEvent;
+import android.util.ArraySet;
+
+import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.privatespace.PrivateSpaceSafetySource;
 import com.android.settings.security.ScreenLockPreferenceDetailsUtils;
+import com.android.settingslib.utils.ThreadUtils;
 
 import com.google.common.collect.ImmutableList;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Broadcast receiver for handling requests from Safety Center for fresh data. */
 public class SafetySourceBroadcastReceiver extends BroadcastReceiver {
@@ -41,6 +50,20 @@ public class SafetySourceBroadcastReceiver extends BroadcastReceiver {
     private static final SafetyEvent EVENT_DEVICE_REBOOTED =
             new SafetyEvent.Builder(SAFETY_EVENT_TYPE_DEVICE_REBOOTED).build();
 
+    private static final int MAX_TRACKED_REFRESH_BROADCASTS = 16;
+
+    /**
+     * Source ids already refreshed for each recent refresh broadcast id, so overlapping requests
+     * for the same broadcast only refresh each source once.
+     */
+    private static final Map<String, Set<String>> sRefreshedSourceIds =
+            new LinkedHashMap<String, Set<String>>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+                    return size() > MAX_TRACKED_REFRESH_BROADCASTS;
+                }
+            };
+
     @Override
     public void onReceive(Context context, Intent intent) {
         if (!SafetyCenterManagerWrapper.get().isEnabled(context)) {
@@ -53,13 +76,15 @@ public class SafetySourceBroadcastReceiver extends BroadcastReceiver {
             final String refreshBroadcastId = intent.getStringExtra(
                     SafetyCenterManager.EXTRA_REFRESH_SAFETY_SOURCES_BROADCAST_ID);
             if (sourceIdsExtra != null && sourceIdsExtra.length > 0 && refreshBroadcastId != null) {
+                final List<String> sourceIds = takeUnrefreshedSourceIds(refreshBroadcastId,
+                        ImmutableList.copyOf(sourceIdsExtra));
+                if (sourceIds.isEmpty()) {
+                    return;
+                }
                 final SafetyEvent safetyEvent = new SafetyEvent.Builder(
                         SAFETY_EVENT_TYPE_REFRESH_REQUESTED)
                         .setRefreshBroadcastId(refreshBroadcastId).build();
-                refreshSafetySources(
-                        context,
-                        ImmutableList.copyOf(sourceIdsExtra),
-                        safetyEvent);
+                refreshSafetySources(context, sourceIds, safetyEvent);
             }
             return;
         }
@@ -70,26 +95,87 @@ public class SafetySourceBroadcastReceiver extends BroadcastReceiver {
         }
     }
 
-    private static void refreshSafetySources(Context context, List<String> sourceIds,
+    /**
+     * Returns the ids in {@code sourceIds} that weren't refreshed yet for
+     * {@code refreshBroadcastId}, and marks them as refreshed.
+     */
+    private static List<String> takeUnrefreshedSourceIds(String refreshBroadcastId,
+            List<String> sourceIds) {
+        synchronized (sRefreshedSourceIds) {
+            Set<String> refreshed = sRefreshedSourceIds.get(refreshBroadcastId);
+            if (refreshed == null) {
+                refreshed = new ArraySet<>();
+                sRefreshedSourceIds.put(refreshBroadcastId, refreshed);
+            }
+            final List<String> unrefreshed = new ArrayList<>();
+            for (String sourceId : sourceIds) {
+                if (refreshed.add(sourceId)) {
+                    unrefreshed.add(sourceId);
+                }
+            }
+            return unrefreshed;
+        }
+    }
+
+    @VisibleForTesting
+    static void clearRefreshedSourceIds() {
+        synchronized (sRefreshedSourceIds) {
+            sRefreshedSourceIds.clear();
+        }
+    }
+
+    private void refreshSafetySources(Context context, List<String> sourceIds,
             SafetyEvent safetyEvent) {
+        final List<Runnable> refreshes = new ArrayList<>();
         if (sourceIds.contains(LockScreenSafetySource.SAFETY_SOURCE_ID)) {
-            LockScreenSafetySource.setSafetySourceData(context,
-                    new ScreenLockPreferenceDetailsUtils(context), safetyEvent);
+            refreshes.add(() -> LockScreenSafetySource.setSafetySourceData(context,
+                    new ScreenLockPreferenceDetailsUtils(context), safetyEvent));
         }
 
         if (sourceIds.contains(BiometricsSafetySource.SAFETY_SOURCE_ID)) {
-            BiometricsSafetySource.setSafetySourceData(context, safetyEvent);
+            refreshes.add(() -> BiometricsSafetySource.setSafetySourceData(context, safetyEvent));
         }
 
         if (sourceIds.contains(PrivateSpaceSafetySource.SAFETY_SOURCE_ID)) {
-            PrivateSpaceSafetySource.setSafetySourceData(context, safetyEvent);
+            refreshes.add(
+                    () -> PrivateSpaceSafetySource.setSafetySourceData(context, safetyEvent));
         }
+        runRefreshes(refreshes);
     }
 
-    private static void refreshAllSafetySources(Context context, SafetyEvent safetyEvent) {
-        LockScreenSafetySource.setSafetySourceData(context,
-                new ScreenLockPreferenceDetailsUtils(context), safetyEvent);
-        BiometricsSafetySource.setSafetySourceData(context, safetyEvent);
-        PrivateSpaceSafetySource.setSafetySourceData(context, safetyEvent);
+    private void refreshAllSafetySources(Context context, SafetyEvent safetyEvent) {
+        runRefreshes(ImmutableList.of(
+                () -> LockScreenSafetySource.setSafetySourceData(context,
+                        new ScreenLockPreferenceDetailsUtils(context), safetyEvent),
+                () -> BiometricsSafetySource.setSafetySourceData(context, safetyEvent),
+                () -> PrivateSpaceSafetySource.setSafetySourceData(context, safetyEvent)));
+    }
+
+    /**
+     * Runs the source refreshes concurrently off the main thread, and keeps the broadcast alive
+     * until all of them are done.
+     */
+    private void runRefreshes(List<Runnable> refreshes) {
+        if (refreshes.isEmpty()) {
+            return;
+        }
+        final PendingResult pendingResult = goAsync();
+        if (pendingResult == null) {
+            // Not dispatched by the system, e.g. called directly. Refresh in place.
+            refreshes.forEach(Runnable::run);
+            return;
+        }
+        final AtomicInteger remaining = new AtomicInteger(refreshes.size());
+        for (Runnable refresh : refreshes) {
+            ThreadUtils.postOnBackgroundThread(() -> {
+                try {
+                    refresh.run();
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        pendingResult.finish();
+                    }
+                }
+            });
+        }
     }
 }
@@ -56,14 +56,16 @@ import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.SliceBroadcastRelay;
 import com.android.settingslib.utils.ThreadUtils;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -78,7 +80,8 @@ import java.util.stream.Collectors;
  * return an stub {@link Slice} with the correct {@link Uri} immediately. In the background, the
  * data corresponding to the key in the {@link Uri} is read by {@link SlicesDatabaseAccessor}, and
  * the entire row is converted into a {@link SliceData}. Once complete, it is stored in
- * {@link #mSliceWeakDataCache}, and then an update sent via the Slice framework to the Slice.
+ * {@link #mSliceDataCache}, and then an update sent via the Slice framework to the Slice.
+ * Slices pinned in a burst are looked up together with a single batched database query.
  * The {@link Slice} displayed by the Slice-presenter will re-query this Slice-provider and find
  * the {@link SliceData} cached to build the full {@link Slice}.
  *
@@ -132,11 +135,25 @@ public class SettingsSliceProvider extends SliceProvider {
 
     private static final KeyValueListParser KEY_VALUE_LIST_PARSER = new KeyValueListParser(',');
 
+    /** Maximum number of {@link SliceData} kept in {@link #mSliceDataCache}. */
+    @VisibleForTesting
+    static final int SLICE_DATA_CACHE_SIZE = 64;
+
+    /** Time window to gather slices pinned together into a single database lookup. */
+    private static final long PINNED_SLICES_BATCH_DELAY_MS = 16L;
+
     @VisibleForTesting
     SlicesDatabaseAccessor mSlicesDatabaseAccessor;
 
+    /**
+     * Bounded LRU cache of {@link SliceData}, written by background loads and read from binder
+     * threads. Entries are evicted explicitly when their slice is unpinned.
+     */
     @VisibleForTesting
-    Map<Uri, SliceData> mSliceWeakDataCache;
+    Map<Uri, SliceData> mSliceDataCache;
+
+    @VisibleForTesting
+    final Set<Uri> mPendingPinnedSlices = new ArraySet<>();
 
     @VisibleForTesting
     final Map<Uri, SliceBackgroundWorker> mPinnedWorkers = new ArrayMap<>();
@@ -154,10 +171,20 @@ public class SettingsSliceProvider extends SliceProvider {
     public boolean onCreateSliceProvider() {
         Log.d(TAG, "onCreateSliceProvider");
         mSlicesDatabaseAccessor = new SlicesDatabaseAccessor(getContext());
-        mSliceWeakDataCache = new WeakHashMap<>();
+        mSliceDataCache = createSliceDataCache();
         return true;
     }
 
+    private static Map<Uri, SliceData> createSliceDataCache() {
+        return Collections.synchronizedMap(
+                new LinkedHashMap<Uri, SliceData>(16, 0.75f, true /* accessOrder */) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Uri, SliceData> eldest) {
+                        return size() > SLICE_DATA_CACHE_SIZE;
+                    }
+                });
+    }
+
     @Override
     public void onSlicePinned(Uri sliceUri) {
         if (!mFirstSlicePinned) {
@@ -192,12 +219,15 @@ public class SettingsSliceProvider extends SliceProvider {
         }
 
         // Start warming the slice, we expect someone will want it soon.
-        loadSliceInBackground(sliceUri);
+        enqueuePinnedSlice(sliceUri);
     }
 
     @Override
     public void onSliceUnpinned(Uri sliceUri) {
-        mSliceWeakDataCache.remove(sliceUri);
+        synchronized (mPendingPinnedSlices) {
+            mPendingPinnedSlices.remove(sliceUri);
+        }
+        mSliceDataCache.remove(sliceUri);
         final Context context = getContext();
         if (!VolumeSliceHelper.unregisterUri(context, sliceUri)) {
             SliceBroadcastRelay.unregisterReceivers(context, sliceUri);
@@ -272,7 +302,7 @@ public class SettingsSliceProvider extends SliceProvider {
                         .createWifiCallingPreferenceSlice(sliceUri);
             }
 
-            final SliceData cachedSliceData = mSliceWeakDataCache.get(sliceUri);
+            final SliceData cachedSliceData = mSliceDataCache.get(sliceUri);
             if (cachedSliceData == null) {
                 loadSliceInBackground(sliceUri);
                 return getSliceStub(sliceUri);
@@ -400,9 +430,15 @@ public class SettingsSliceProvider extends SliceProvider {
         });
     }
 
+    @Override
+    public void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        writer.println("Slice data cache size: " + mSliceDataCache.size());
+        SliceBackgroundWorker.dump(writer);
+    }
+
     @VisibleForTesting
     void loadSlice(Uri uri) {
-        if (mSliceWeakDataCache.containsKey(uri)) {
+        if (mSliceDataCache.containsKey(uri)) {
             Log.d(TAG, uri + " loaded from cache");
             return;
         }
@@ -416,6 +452,45 @@ public class SettingsSliceProvider extends SliceProvider {
             return;
         }
 
+        onSliceDataLoaded(uri, sliceData);
+
+        Log.d(TAG, "Built slice (" + uri + ") in: " +
+                (System.currentTimeMillis() - startBuildTime));
+    }
+
+    /**
+     * Loads the {@link SliceData} of all {@param uris} with one batched database lookup.
+     */
+    @VisibleForTesting
+    void loadSlices(Collection<Uri> uris) {
+        final List<Uri> urisToLoad = new ArrayList<>(uris.size());
+        for (Uri uri : uris) {
+            if (!mSliceDataCache.containsKey(uri)) {
+                urisToLoad.add(uri);
+            }
+        }
+        if (urisToLoad.size() <= 1) {
+            urisToLoad.forEach(this::loadSlice);
+            return;
+        }
+        final long startBuildTime = System.currentTimeMillis();
+
+        final Map<Uri, SliceData> sliceDataMap =
+                mSlicesDatabaseAccessor.getSliceDataFromUris(urisToLoad);
+        for (Uri uri : urisToLoad) {
+            final SliceData sliceData = sliceDataMap.get(uri);
+            if (sliceData == null) {
+                Log.d(TAG, "Could not create slicedata for uri: " + uri);
+                continue;
+            }
+            onSliceDataLoaded(uri, sliceData);
+        }
+
+        Log.d(TAG, "Built " + sliceDataMap.size() + " slices in: "
+                + (System.currentTimeMillis() - startBuildTime));
+    }
+
+    private void onSliceDataLoaded(Uri uri, SliceData sliceData) {
         final BasePreferenceController controller = SliceBuilderUtils.getPreferenceController(
                 getContext(), sliceData);
 
@@ -432,11 +507,8 @@ public class SettingsSliceProvider extends SliceProvider {
 
         ThreadUtils.postOnMainThread(() -> startBackgroundWorker(controller, uri));
 
-        mSliceWeakDataCache.put(uri, sliceData);
+        mSliceDataCache.put(uri, sliceData);
         getContext().getContentResolver().notifyChange(uri, null /* content observer */);
-
-        Log.d(TAG, "Built slice (" + uri + ") in: " +
-                (System.currentTimeMillis() - startBuildTime));
     }
 
     @VisibleForTesting
@@ -444,6 +516,33 @@ public class SettingsSliceProvider extends SliceProvider {
         ThreadUtils.postOnBackgroundThread(() -> loadSlice(uri));
     }
 
+    /**
+     * Queues a pinned slice to be loaded. Slices pinned within
+     * {@link #PINNED_SLICES_BATCH_DELAY_MS} of each other are loaded together.
+     */
+    @VisibleForTesting
+    void enqueuePinnedSlice(Uri uri) {
+        synchronized (mPendingPinnedSlices) {
+            final boolean firstPending = mPendingPinnedSlices.isEmpty();
+            if (!mPendingPinnedSlices.add(uri) || !firstPending) {
+                return;
+            }
+        }
+        ThreadUtils.getUiThreadHandler().postDelayed(
+                () -> ThreadUtils.postOnBackgroundThread(this::loadPendingPinnedSlices),
+                PINNED_SLICES_BATCH_DELAY_MS);
+    }
+
+    @VisibleForTesting
+    void loadPendingPinnedSlices() {
+        final List<Uri> uris;
+        synchronized (mPendingPinnedSlices) {
+            uris = new ArrayList<>(mPendingPinnedSlices);
+            mPendingPinnedSlices.clear();
+        }
+        loadSlices(uris);
+    }
+
     @VisibleForTesting
     /**
      * Registers an IntentFilter in SysUI to notify changes to {@param sliceUri} when broadcasts to
@@ -18,6 +18,7 @@ package com.android.settings.slices;
 
 import android.annotation.MainThread;
 import android.annotation.Nullable;
+import android.content.ContentResolver;
 import android.content.Context;
 import android.net.Uri;
 import android.os.Handler;
@@ -33,11 +34,13 @@ import androidx.annotation.VisibleForTesting;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The Slice background worker is used to make Settings Slices be able to work with data that is
@@ -56,7 +59,8 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
 
     private static final String TAG = "SliceBackgroundWorker";
 
-    private static final long SLICE_UPDATE_THROTTLE_INTERVAL = 300L;
+    @VisibleForTesting
+    static final long SLICE_UPDATE_THROTTLE_INTERVAL = 300L;
 
     private static final Map<Uri, SliceBackgroundWorker> LIVE_WORKERS = new ArrayMap<>();
 
@@ -116,7 +120,12 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
     }
 
     static void shutdown() {
+        final NotifySliceChangeHandler handler = NotifySliceChangeHandler.sHandler;
         for (SliceBackgroundWorker worker : LIVE_WORKERS.values()) {
+            if (handler != null) {
+                // Don't notify the Slices of closed workers.
+                handler.cancelSliceUpdate(worker);
+            }
             try {
                 worker.close();
             } catch (IOException e) {
@@ -171,6 +180,14 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
         return a.equals(b);
     }
 
+    /**
+     * Returns the minimum interval in milliseconds between two change notifications of this
+     * Slice. Override for data that changes in bursts and doesn't need every intermediate state.
+     */
+    protected long getSliceUpdateThrottleInterval() {
+        return SLICE_UPDATE_THROTTLE_INTERVAL;
+    }
+
     /**
      * Notify that data was updated and attempt to sync changes to the Slice.
      */
@@ -188,14 +205,45 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
         NotifySliceChangeHandler.getInstance().cancelSliceUpdate(this);
     }
 
-    private static class NotifySliceChangeHandler extends Handler {
+    /**
+     * Dumps the slice change notification stats for dumpsys.
+     */
+    static void dump(PrintWriter writer) {
+        final NotifySliceChangeHandler handler = NotifySliceChangeHandler.sHandler;
+        if (handler != null) {
+            handler.dump(writer);
+        }
+    }
+
+    /**
+     * Throttles and batches slice change notifications of all workers.
+     *
+     * Each worker notifies at most once per {@link #getSliceUpdateThrottleInterval()}. Workers due
+     * within the same {@link #SLICE_UPDATE_BATCH_WINDOW} are collected and notified with one
+     * multi-Uri {@link ContentResolver#notifyChange} call per authority.
+     */
+    @VisibleForTesting
+    static class NotifySliceChangeHandler extends Handler {
 
         private static final int MSG_UPDATE_SLICE = 1000;
+        private static final int MSG_DISPATCH_SLICE_CHANGES = 1001;
 
-        private static NotifySliceChangeHandler sHandler;
+        /** About one frame, so the batch lands in a single rebind pass in SystemUI. */
+        @VisibleForTesting
+        static final long SLICE_UPDATE_BATCH_WINDOW = 16L;
+
+        @VisibleForTesting
+        static NotifySliceChangeHandler sHandler;
 
         private final Map<Uri, Long> mLastUpdateTimeLookup = Collections.synchronizedMap(
                 new ArrayMap<>());
+        // Workers waiting for the next dispatch, guarded by itself.
+        private final Map<Uri, SliceBackgroundWorker> mDirtyWorkers = new ArrayMap<>();
+
+        private final AtomicLong mMergedUpdateCount = new AtomicLong();
+        private final AtomicLong mDroppedUpdateCount = new AtomicLong();
+        private final AtomicLong mDispatchCount = new AtomicLong();
+        private final AtomicLong mDispatchedUriCount = new AtomicLong();
 
         private static NotifySliceChangeHandler getInstance() {
             if (sHandler == null) {
@@ -207,45 +255,120 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
             return sHandler;
         }
 
-        private NotifySliceChangeHandler(Looper looper) {
+        @VisibleForTesting
+        NotifySliceChangeHandler(Looper looper) {
             super(looper);
         }
 
         @Override
         public void handleMessage(Message msg) {
-            if (msg.what != MSG_UPDATE_SLICE) {
-                return;
+            switch (msg.what) {
+                case MSG_UPDATE_SLICE:
+                    markDirty((SliceBackgroundWorker) msg.obj);
+                    break;
+                case MSG_DISPATCH_SLICE_CHANGES:
+                    dispatchSliceChanges();
+                    break;
             }
+        }
 
-            final SliceBackgroundWorker worker = (SliceBackgroundWorker) msg.obj;
-            final Uri uri = worker.getUri();
-            final Context context = worker.getContext();
-            mLastUpdateTimeLookup.put(uri, SystemClock.uptimeMillis());
-            context.getContentResolver().notifyChange(uri, null);
+        private void markDirty(SliceBackgroundWorker worker) {
+            synchronized (mDirtyWorkers) {
+                if (mDirtyWorkers.put(worker.getUri(), worker) != null) {
+                    mMergedUpdateCount.incrementAndGet();
+                }
+            }
+            if (!hasMessages(MSG_DISPATCH_SLICE_CHANGES)) {
+                sendEmptyMessageDelayed(MSG_DISPATCH_SLICE_CHANGES, SLICE_UPDATE_BATCH_WINDOW);
+            }
+        }
+
+        private void dispatchSliceChanges() {
+            final ArrayMap<String, List<Uri>> urisByAuthority = new ArrayMap<>();
+            final Map<String, Context> contextByAuthority = new ArrayMap<>();
+            synchronized (mDirtyWorkers) {
+                for (SliceBackgroundWorker worker : mDirtyWorkers.values()) {
+                    final Uri uri = worker.getUri();
+                    final String authority = uri.getAuthority();
+                    List<Uri> uris = urisByAuthority.get(authority);
+                    if (uris == null) {
+                        uris = new ArrayList<>();
+                        urisByAuthority.put(authority, uris);
+                        contextByAuthority.put(authority, worker.getContext());
+                    }
+                    uris.add(uri);
+                }
+                mDirtyWorkers.clear();
+            }
+
+            final long now = SystemClock.uptimeMillis();
+            for (int i = 0; i < urisByAuthority.size(); i++) {
+                final String authority = urisByAuthority.keyAt(i);
+                final List<Uri> uris = urisByAuthority.valueAt(i);
+                for (Uri uri : uris) {
+                    mLastUpdateTimeLookup.put(uri, now);
+                }
+                final ContentResolver resolver =
+                        contextByAuthority.get(authority).getContentResolver();
+                if (uris.size() == 1) {
+                    resolver.notifyChange(uris.get(0), null);
+                } else {
+                    resolver.notifyChange(uris, null, 0 /* flags */);
+                }
+                mDispatchCount.incrementAndGet();
+                mDispatchedUriCount.addAndGet(uris.size());
+            }
         }
 
         private void updateSlice(SliceBackgroundWorker worker) {
             if (hasMessages(MSG_UPDATE_SLICE, worker)) {
+                mMergedUpdateCount.incrementAndGet();
                 return;
             }
 
             final Message message = obtainMessage(MSG_UPDATE_SLICE, worker);
+            final long throttleInterval = worker.getSliceUpdateThrottleInterval();
             final long lastUpdateTime = mLastUpdateTimeLookup.getOrDefault(worker.getUri(), 0L);
             if (lastUpdateTime == 0L) {
                 // Postpone the first update triggering by onSlicePinned() to avoid being too close
                 // to the first Slice bind.
-                sendMessageDelayed(message, SLICE_UPDATE_THROTTLE_INTERVAL);
-            } else if (SystemClock.uptimeMillis() - lastUpdateTime
-                    > SLICE_UPDATE_THROTTLE_INTERVAL) {
+                sendMessageDelayed(message, throttleInterval);
+            } else if (SystemClock.uptimeMillis() - lastUpdateTime > throttleInterval) {
                 sendMessage(message);
             } else {
-                sendMessageAtTime(message, lastUpdateTime + SLICE_UPDATE_THROTTLE_INTERVAL);
+                sendMessageAtTime(message, lastUpdateTime + throttleInterval);
             }
         }
 
         private void cancelSliceUpdate(SliceBackgroundWorker worker) {
-            removeMessages(MSG_UPDATE_SLICE, worker);
+            if (hasMessages(MSG_UPDATE_SLICE, worker)) {
+                removeMessages(MSG_UPDATE_SLICE, worker);
+                mDroppedUpdateCount.incrementAndGet();
+            }
+            synchronized (mDirtyWorkers) {
+                if (mDirtyWorkers.remove(worker.getUri()) != null) {
+                    mDroppedUpdateCount.incrementAndGet();
+                }
+            }
             mLastUpdateTimeLookup.remove(worker.getUri());
         }
-    };
+
+        @VisibleForTesting
+        long getMergedUpdateCount() {
+            return mMergedUpdateCount.get();
+        }
+
+        @VisibleForTesting
+        long getDroppedUpdateCount() {
+            return mDroppedUpdateCount.get();
+        }
+
+        private void dump(PrintWriter writer) {
+            writer.println("SliceBackgroundWorker notifications:");
+            writer.println("  dispatches: " + mDispatchCount.get()
+                    + ", uris: " + mDispatchedUriCount.get());
+            writer.println("  merged updates: " + mMergedUpdateCount.get());
+            writer.println("  dropped updates: " + mDroppedUpdateCount.get());
+        }
+    }
 }
@@ -24,6 +24,8 @@ import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import android.os.Binder;
 import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.Log;
 import android.util.Pair;
 
 import androidx.slice.Slice;
@@ -32,13 +34,21 @@ import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.slices.SlicesDatabaseHelper.IndexColumns;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class used to map a {@link Uri} from {@link SettingsSliceProvider} to a Slice.
  */
 public class SlicesDatabaseAccessor {
 
+    private static final String TAG = "SlicesDatabaseAccessor";
+
+    /** Stays well below SQLite's limit of bound variables per statement. */
+    private static final int MAX_KEYS_PER_QUERY = 200;
+
     public static final String[] SELECT_COLUMNS_ALL = {
             IndexColumns.KEY,
             IndexColumns.TITLE,
@@ -78,6 +88,54 @@ public class SlicesDatabaseAccessor {
         }
     }
 
+    /**
+     * Batched version of {@link #getSliceDataFromUri(Uri)}, looking up all {@param uris} with
+     * {@code IN (...)} queries instead of one query per {@link Uri}. Invalid or unknown
+     * {@link Uri uris} are left out of the result.
+     */
+    public Map<Uri, SliceData> getSliceDataFromUris(Collection<Uri> uris) {
+        final Map<String, List<Pair<Uri, Boolean>>> urisByKey = new ArrayMap<>();
+        for (Uri uri : uris) {
+            final Pair<Boolean, String> pathData = SliceBuilderUtils.getPathData(uri);
+            if (pathData == null) {
+                Log.w(TAG, "Invalid Slices uri: " + uri);
+                continue;
+            }
+            urisByKey.computeIfAbsent(pathData.second /* key */, k -> new ArrayList<>())
+                    .add(Pair.create(uri, pathData.first /* isIntentOnly */));
+        }
+        if (urisByKey.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        verifyIndexing();
+        final Map<Uri, SliceData> result = new ArrayMap<>(uris.size());
+        final List<String> keys = new ArrayList<>(urisByKey.keySet());
+        final SQLiteDatabase database = mHelper.getReadableDatabase();
+        for (int start = 0; start < keys.size(); start += MAX_KEYS_PER_QUERY) {
+            final List<String> chunk =
+                    keys.subList(start, Math.min(start + MAX_KEYS_PER_QUERY, keys.size()));
+            final String whereClause = IndexColumns.KEY + " IN ("
+                    + TextUtils.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (Cursor cursor = database.query(TABLE_SLICES_INDEX, SELECT_COLUMNS_ALL,
+                    whereClause, chunk.toArray(new String[0]), null /* groupBy */,
+                    null /* having */, null /* orderBy */)) {
+                final int keyIndex = cursor.getColumnIndex(IndexColumns.KEY);
+                while (cursor.moveToNext()) {
+                    final List<Pair<Uri, Boolean>> matchedUris =
+                            urisByKey.get(cursor.getString(keyIndex));
+                    if (matchedUris == null) {
+                        continue;
+                    }
+                    for (Pair<Uri, Boolean> uri : matchedUris) {
+                        result.put(uri.first, buildSliceData(cursor, uri.first, uri.second));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Query the slices database and return a {@link SliceData} object corresponding to the row
      * matching the {@param key}.
@@ -48,14 +48,13 @@ import com.android.settings.SettingsPreferenceFragment;
 import com.android.settings.Utils;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.search.BaseSearchIndexProvider;
+import com.android.settings.utils.LabelSorter;
 import com.android.settings.widget.GearPreference;
 import com.android.settings.widget.SeekBarPreference;
 import com.android.settingslib.search.SearchIndexable;
 import com.android.settingslib.widget.ActionButtonsPreference;
 
-import java.text.Collator;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -536,12 +535,10 @@ public class TextToSpeechSettings extends SettingsPreferenceFragment
             }
         }
 
-        // Get the primary locale and create a Collator to sort the strings
+        // Sort the list by the display names in the primary locale
         Locale userLocale = getResources().getConfiguration().getLocales().get(0);
-        Collator collator = Collator.getInstance(userLocale);
-
-        // Sort the list
-        Collections.sort(entryPairs, (lhs, rhs) -> collator.compare(lhs.first, rhs.first));
+        LabelSorter.getInstance().sort(entryPairs, userLocale, pair -> pair.first,
+                null /* tieBreaker */);
 
         // Get two arrays out of one of pairs
         mSelectedLocaleIndex = 0; // Will point to the R.string.tts_lang_use_system value
@@ -32,8 +32,8 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.pm.ResolveInfo;
-import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.LocaleList;
 import android.os.RemoteException;
 import android.os.ServiceManager;
 import android.os.UserHandle;
@@ -60,7 +60,9 @@ import com.android.settings.R;
 import com.android.settings.SettingsPreferenceFragment;
 import com.android.settings.Utils;
 import com.android.settingslib.users.AppRestrictionsHelper;
+import com.android.settingslib.utils.ThreadUtils;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -93,6 +95,13 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
 
     private static final String DELIMITER = ";";
 
+    // Number of apps resolved in the background before they are added to the list.
+    private static final int APP_BATCH_SIZE = 8;
+
+    // Restriction defaults of required apps are requested with at most this many ordered
+    // broadcasts in flight, the others wait in mPendingRestrictionRequests.
+    private static final int MAX_CONCURRENT_RESTRICTION_REQUESTS = 4;
+
     /** Key for extra passed in from calling fragment for the userId of the user being edited */
     public static final String EXTRA_USER_ID = "user_id";
 
@@ -109,7 +118,13 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
 
     private HashMap<Integer, AppRestrictionsPreference> mCustomRequestMap = new HashMap<>();
 
-    private AsyncTask mAppLoadingTask;
+    private boolean mAppsLoading;
+    private int mAddedAppCount;
+
+    private AppRestrictionsSchemaCache mSchemaCache;
+    private final ArrayDeque<RestrictionsResultReceiver> mPendingRestrictionRequests =
+            new ArrayDeque<>();
+    private int mRestrictionRequestsInFlight;
 
     private BroadcastReceiver mUserBackgrounding = new BroadcastReceiver() {
         @Override
@@ -231,6 +246,7 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
         }
 
         mHelper = new AppRestrictionsHelper(getContext(), mUser);
+        mSchemaCache = AppRestrictionsSchemaCache.getInstance();
         mPackageManager = getActivity().getPackageManager();
         mIPm = IPackageManager.Stub.asInterface(ServiceManager.getService("package"));
         mUserManager = (UserManager) getActivity().getSystemService(Context.USER_SERVICE);
@@ -270,8 +286,8 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
         getActivity().registerReceiver(mPackageObserver, packageFilter);
 
         mAppListChanged = false;
-        if (mAppLoadingTask == null || mAppLoadingTask.getStatus() == AsyncTask.Status.FINISHED) {
-            mAppLoadingTask = new AppLoadingTask().execute();
+        if (!mAppsLoading) {
+            loadApps();
         }
     }
 
@@ -282,19 +298,17 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
         getActivity().unregisterReceiver(mUserBackgrounding);
         getActivity().unregisterReceiver(mPackageObserver);
         if (mAppListChanged) {
-            new AsyncTask<Void, Void, Void>() {
-                @Override
-                protected Void doInBackground(Void... params) {
-                    mHelper.applyUserAppsStates(AppRestrictionsFragment.this);
-                    return null;
-                }
-            }.execute();
+            ThreadUtils.postOnBackgroundThread(
+                    () -> mHelper.applyUserAppsStates(AppRestrictionsFragment.this));
         }
     }
 
     private void onPackageChanged(Intent intent) {
         String action = intent.getAction();
         String packageName = intent.getData().getSchemeSpecificPart();
+        if (Intent.ACTION_PACKAGE_REMOVED.equals(action)) {
+            mSchemaCache.remove(packageName);
+        }
         // Package added, check if the preference needs to be enabled
         AppRestrictionsPreference pref = (AppRestrictionsPreference)
                 findPreference(getKeyForPackage(packageName));
@@ -319,18 +333,77 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
         }
     }
 
-    private class AppLoadingTask extends AsyncTask<Void, Void, Void> {
+    /** An app of the list, resolved on the loading thread. */
+    private static class AppEntry {
+        final AppRestrictionsHelper.SelectableAppInfo app;
+        final PackageInfo packageInfo;
+        final boolean hasSettings;
 
-        @Override
-        protected Void doInBackground(Void... params) {
-            mHelper.fetchAndMergeApps();
-            return null;
+        AppEntry(AppRestrictionsHelper.SelectableAppInfo app, PackageInfo packageInfo,
+                boolean hasSettings) {
+            this.app = app;
+            this.packageInfo = packageInfo;
+            this.hasSettings = hasSettings;
         }
+    }
 
-        @Override
-        protected void onPostExecute(Void result) {
-            populateApps();
-        }
+    /**
+     * Resolves the apps of the user on a background thread and adds them to the list in
+     * batches, so the first apps show up before the whole list is resolved.
+     */
+    private void loadApps() {
+        mAppsLoading = true;
+        final String settingsPackageName = getActivity().getPackageName();
+        final int userId = mUser.getIdentifier();
+        ThreadUtils.postOnBackgroundThread(() -> {
+            mHelper.fetchAndMergeApps();
+            // Check if the user was removed in the meantime.
+            if (Utils.getExistingUser(mUserManager, mUser) == null) {
+                ThreadUtils.postOnMainThread(() -> mAppsLoading = false);
+                return;
+            }
+            final Set<String> receiverPackages = new HashSet<>();
+            for (ResolveInfo info : mPackageManager.queryBroadcastReceivers(
+                    new Intent(Intent.ACTION_GET_RESTRICTION_ENTRIES), 0)) {
+                receiverPackages.add(info.activityInfo.packageName);
+            }
+
+            List<AppEntry> batch = new ArrayList<>();
+            boolean firstBatch = true;
+            for (AppRestrictionsHelper.SelectableAppInfo app :
+                    new ArrayList<>(mHelper.getVisibleApps())) {
+                final String packageName = app.packageName;
+                if (packageName == null) continue;
+                final boolean hasSettings = receiverPackages.contains(packageName);
+                PackageInfo pi = null;
+                if (!packageName.equals(settingsPackageName)) {
+                    try {
+                        pi = mIPm.getPackageInfo(packageName,
+                                PackageManager.MATCH_ANY_USER
+                                | PackageManager.GET_SIGNATURES, userId);
+                    } catch (RemoteException e) {
+                        // Ignore
+                    }
+                    if (pi == null) {
+                        continue;
+                    }
+                    if (mRestrictedProfile && isAppUnsupportedInRestrictedProfile(pi)) {
+                        continue;
+                    }
+                }
+                batch.add(new AppEntry(app, pi, hasSettings));
+                if (batch.size() == APP_BATCH_SIZE) {
+                    postApps(batch, firstBatch, false /* lastBatch */);
+                    batch = new ArrayList<>();
+                    firstBatch = false;
+                }
+            }
+            postApps(batch, firstBatch, true /* lastBatch */);
+        });
+    }
+
+    private void postApps(List<AppEntry> entries, boolean firstBatch, boolean lastBatch) {
+        ThreadUtils.postOnMainThread(() -> onAppsLoaded(entries, firstBatch, lastBatch));
     }
 
     private boolean isPlatformSigned(PackageInfo pi) {
@@ -347,77 +420,23 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
                 && (privateFlags&ApplicationInfo.PRIVATE_FLAG_HIDDEN) == 0);
     }
 
-    private void populateApps() {
+    private void onAppsLoaded(List<AppEntry> entries, boolean firstBatch, boolean lastBatch) {
+        if (lastBatch) {
+            mAppsLoading = false;
+        }
         final Context context = getActivity();
         if (context == null) return;
-        final PackageManager pm = mPackageManager;
-        final IPackageManager ipm = mIPm;
-        final int userId = mUser.getIdentifier();
 
-        // Check if the user was removed in the meantime.
-        if (Utils.getExistingUser(mUserManager, mUser) == null) {
-            return;
+        if (firstBatch) {
+            mAppList.removeAll();
+            mAddedAppCount = 0;
+            mPendingRestrictionRequests.clear();
         }
-        mAppList.removeAll();
-        Intent restrictionsIntent = new Intent(Intent.ACTION_GET_RESTRICTION_ENTRIES);
-        final List<ResolveInfo> receivers = pm.queryBroadcastReceivers(restrictionsIntent, 0);
-        for (AppRestrictionsHelper.SelectableAppInfo app : mHelper.getVisibleApps()) {
-            String packageName = app.packageName;
-            if (packageName == null) continue;
-            final boolean isSettingsApp = packageName.equals(context.getPackageName());
-            AppRestrictionsPreference p = new AppRestrictionsPreference(getPrefContext(), this);
-            final boolean hasSettings = resolveInfoListHasPackage(receivers, packageName);
-            if (isSettingsApp) {
-                addLocationAppRestrictionsPreference(app, p);
-                // Settings app should be available to restricted user
-                mHelper.setPackageSelected(packageName, true);
-                continue;
-            }
-            PackageInfo pi = null;
-            try {
-                pi = ipm.getPackageInfo(packageName,
-                        PackageManager.MATCH_ANY_USER
-                        | PackageManager.GET_SIGNATURES, userId);
-            } catch (RemoteException e) {
-                // Ignore
-            }
-            if (pi == null) {
-                continue;
-            }
-            if (mRestrictedProfile && isAppUnsupportedInRestrictedProfile(pi)) {
-                continue;
-            }
-            p.setIcon(app.icon != null ? app.icon.mutate() : null);
-            p.setChecked(false);
-            p.setTitle(app.activityName);
-            p.setKey(getKeyForPackage(packageName));
-            p.setSettingsEnabled(hasSettings && app.primaryEntry == null);
-            p.setPersistent(false);
-            p.setOnPreferenceChangeListener(this);
-            p.setOnPreferenceClickListener(this);
-            p.setSummary(getPackageSummary(pi, app));
-            if (pi.requiredForAllUsers || isPlatformSigned(pi)) {
-                p.setChecked(true);
-                p.setImmutable(true);
-                // If the app is required and has no restrictions, skip showing it
-                if (!hasSettings) continue;
-                // Get and populate the defaults, since the user is not going to be
-                // able to toggle this app ON (it's ON by default and immutable).
-                // Only do this for restricted profiles, not single-user restrictions
-                // Also don't do this for secondary icons
-                if (app.primaryEntry == null) {
-                    requestRestrictionsForApp(packageName, p, false);
-                }
-            } else if (!mNewUser && isAppEnabledForUser(pi)) {
-                p.setChecked(true);
-            }
-            if (app.primaryEntry != null) {
-                p.setImmutable(true);
-                p.setChecked(mHelper.isPackageSelected(packageName));
-            }
-            p.setOrder(MAX_APP_RESTRICTIONS * (mAppList.getPreferenceCount() + 2));
-            mHelper.setPackageSelected(packageName, p.isChecked());
-            mAppList.addPreference(p);
+        for (AppEntry entry : entries) {
+            addAppPreference(context, entry);
+        }
+        if (!lastBatch) {
+            return;
         }
         mAppListChanged = true;
         // If this is the first time for a new profile, install/uninstall default apps for profile
@@ -428,6 +447,56 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
         }
     }
 
+    private void addAppPreference(Context context, AppEntry entry) {
+        final AppRestrictionsHelper.SelectableAppInfo app = entry.app;
+        final PackageInfo pi = entry.packageInfo;
+        final String packageName = app.packageName;
+        final boolean hasSettings = entry.hasSettings;
+        AppRestrictionsPreference p = new AppRestrictionsPreference(getPrefContext(), this);
+        if (packageName.equals(context.getPackageName())) {
+            addLocationAppRestrictionsPreference(app, p);
+            // Settings app should be available to restricted user
+            mHelper.setPackageSelected(packageName, true);
+            return;
+        }
+        p.setIcon(app.icon != null ? app.icon.mutate() : null);
+        p.setChecked(false);
+        p.setTitle(app.activityName);
+        p.setKey(getKeyForPackage(packageName));
+        p.setSettingsEnabled(hasSettings && app.primaryEntry == null);
+        p.setPersistent(false);
+        p.setOnPreferenceChangeListener(this);
+        p.setOnPreferenceClickListener(this);
+        p.setSummary(getPackageSummary(pi, app));
+        boolean requestDefaults = false;
+        if (pi.requiredForAllUsers || isPlatformSigned(pi)) {
+            p.setChecked(true);
+            p.setImmutable(true);
+            // If the app is required and has no restrictions, skip showing it
+            if (!hasSettings) return;
+            // Get and populate the defaults, since the user is not going to be
+            // able to toggle this app ON (it's ON by default and immutable).
+            // Only do this for restricted profiles, not single-user restrictions
+            // Also don't do this for secondary icons
+            requestDefaults = app.primaryEntry == null;
+        } else if (!mNewUser && isAppEnabledForUser(pi)) {
+            p.setChecked(true);
+        }
+        if (app.primaryEntry != null) {
+            p.setImmutable(true);
+            p.setChecked(mHelper.isPackageSelected(packageName));
+        }
+        // Not derived from the preference count, restrictions received in between batches
+        // add and remove preferences.
+        p.setOrder(MAX_APP_RESTRICTIONS * (mAddedAppCount + 2));
+        mAddedAppCount++;
+        mHelper.setPackageSelected(packageName, p.isChecked());
+        mAppList.addPreference(p);
+        if (requestDefaults) {
+            requestRestrictionDefaults(packageName, pi.getLongVersionCode(), p);
+        }
+    }
+
     private String getPackageSummary(PackageInfo pi, AppRestrictionsHelper.SelectableAppInfo app) {
         // Check for 3 cases:
         // - Secondary entry that can see primary user accounts
@@ -466,6 +535,7 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
         p.setPersistent(false);
         p.setOnPreferenceClickListener(this);
         p.setOrder(MAX_APP_RESTRICTIONS);
+        mAddedAppCount++;
         mAppList.addPreference(p);
     }
 
@@ -473,15 +543,6 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
         return PKG_PREFIX + packageName;
     }
 
-    private boolean resolveInfoListHasPackage(List<ResolveInfo> receivers, String packageName) {
-        for (ResolveInfo info : receivers) {
-            if (info.activityInfo.packageName.equals(packageName)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private void updateAllEntries(String prefKey, boolean checked) {
         for (int i = 0; i < mAppList.getPreferenceCount(); i++) {
             Preference pref = mAppList.getPreference(i);
@@ -598,23 +659,76 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
      */
     private void requestRestrictionsForApp(String packageName,
             AppRestrictionsPreference preference, boolean invokeIfCustom) {
+        sendRestrictionsRequest(
+                new RestrictionsResultReceiver(packageName, preference, invokeIfCustom));
+    }
+
+    /**
+     * Populates the restriction defaults of a required app, from the schema cache if the app
+     * wasn't updated since it was last queried, otherwise with a queued broadcast to the app.
+     */
+    private void requestRestrictionDefaults(String packageName, long versionCode,
+            AppRestrictionsPreference preference) {
+        final ArrayList<RestrictionEntry> restrictions = mSchemaCache.get(
+                mUser.getIdentifier(), getResources().getConfiguration().getLocales(),
+                packageName, versionCode,
+                mUserManager.getApplicationRestrictions(packageName, mUser));
+        if (restrictions != null) {
+            applyRestrictions(packageName, preference, restrictions);
+            return;
+        }
+        mPendingRestrictionRequests.add(
+                new RestrictionsResultReceiver(packageName, preference, versionCode));
+        sendPendingRestrictionRequests();
+    }
+
+    private void sendPendingRestrictionRequests() {
+        if (getActivity() == null) {
+            mPendingRestrictionRequests.clear();
+            return;
+        }
+        while (mRestrictionRequestsInFlight < MAX_CONCURRENT_RESTRICTION_REQUESTS
+                && !mPendingRestrictionRequests.isEmpty()) {
+            mRestrictionRequestsInFlight++;
+            sendRestrictionsRequest(mPendingRestrictionRequests.poll());
+        }
+    }
+
+    private void sendRestrictionsRequest(RestrictionsResultReceiver receiver) {
         Bundle oldEntries =
-                mUserManager.getApplicationRestrictions(packageName, mUser);
+                mUserManager.getApplicationRestrictions(receiver.packageName, mUser);
         Intent intent = new Intent(Intent.ACTION_GET_RESTRICTION_ENTRIES);
-        intent.setPackage(packageName);
+        intent.setPackage(receiver.packageName);
         intent.putExtra(Intent.EXTRA_RESTRICTIONS_BUNDLE, oldEntries);
+        receiver.sentValues = oldEntries;
+        receiver.sentLocales = getActivity().getResources().getConfiguration().getLocales();
         intent.addFlags(Intent.FLAG_INCLUDE_STOPPED_PACKAGES);
-        getActivity().sendOrderedBroadcast(intent, null,
-                new RestrictionsResultReceiver(packageName, preference, invokeIfCustom),
+        getActivity().sendOrderedBroadcast(intent, null, receiver,
                 null, Activity.RESULT_OK, null, null);
     }
 
+    private void applyRestrictions(String packageName, AppRestrictionsPreference preference,
+            ArrayList<RestrictionEntry> restrictions) {
+        onRestrictionsReceived(preference, restrictions);
+        if (mRestrictedProfile) {
+            mUserManager.setApplicationRestrictions(packageName,
+                    RestrictionsManager.convertRestrictionsToBundle(restrictions), mUser);
+        }
+    }
+
     class RestrictionsResultReceiver extends BroadcastReceiver {
 
         private static final String CUSTOM_RESTRICTIONS_INTENT = Intent.EXTRA_RESTRICTIONS_INTENT;
         String packageName;
         AppRestrictionsPreference preference;
         boolean invokeIfCustom;
+        // Set for the queued requests of restriction defaults, whose result is cached.
+        boolean requestsDefaults;
+        long versionCode;
+        // The values the app was queried with, whose defaults it doesn't return.
+        Bundle sentValues;
+        // The locales the app was queried in, which its titles are in.
+        LocaleList sentLocales;
 
         RestrictionsResultReceiver(String packageName, AppRestrictionsPreference preference,
                 boolean invokeIfCustom) {
@@ -624,18 +738,36 @@ public class AppRestrictionsFragment extends SettingsPreferenceFragment implemen
             this.invokeIfCustom = invokeIfCustom;
         }
 
+        RestrictionsResultReceiver(String packageName, AppRestrictionsPreference preference,
+                long versionCode) {
+            this(packageName, preference, false /* invokeIfCustom */);
+            this.requestsDefaults = true;
+            this.versionCode = versionCode;
+        }
+
         @Override
         public void onReceive(Context context, Intent intent) {
+            try {
+                handleResult();
+            } finally {
+                if (requestsDefaults) {
+                    mRestrictionRequestsInFlight--;
+                    sendPendingRestrictionRequests();
+                }
+            }
+        }
+
+        private void handleResult() {
             Bundle results = getResultExtras(true);
             final ArrayList<RestrictionEntry> restrictions = results.getParcelableArrayList(
                     Intent.EXTRA_RESTRICTIONS_LIST);
             Intent restrictionsIntent = results.getParcelable(CUSTOM_RESTRICTIONS_INTENT);
             if (restrictions != null && restrictionsIntent == null) {
-                onRestrictionsReceived(preference, restrictions);
-                if (mRestrictedProfile) {
-                    mUserManager.setApplicationRestrictions(packageName,
-                            RestrictionsManager.convertRestrictionsToBundle(restrictions), mUser);
+                if (requestsDefaults) {
+                    mSchemaCache.put(mUser.getIdentifier(), sentLocales, packageName,
+                            versionCode, restrictions, sentValues);
                 }
+                applyRestrictions(packageName, preference, restrictions);
             } else if (restrictionsIntent != null) {
                 preference.setRestrictions(restrictions);
                 if (invokeIfCustom && AppRestrictionsFragment.this.isResumed()) {
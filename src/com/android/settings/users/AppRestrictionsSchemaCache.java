@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import android.content.RestrictionEntry;
+import android.os.Bundle;
+import android.os.LocaleList;
+import android.os.Parcel;
+import android.util.ArrayMap;
+import android.util.ArraySet;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Process wide cache of the restriction entries returned by apps for
+ * {@link android.content.Intent#ACTION_GET_RESTRICTION_ENTRIES}, keyed by user, locales, package
+ * and version code, so reopening the app restrictions page doesn't query unchanged apps again.
+ *
+ * Only the schema of the restrictions is reused. On every read, each entry is reset to the value
+ * the app returned as its default and the restrictions bundle of the user is applied on top. An
+ * entry whose default isn't known, because the app got a value for it when it was queried, can't
+ * be reset, so such entries are only served while the user still has a value for them.
+ */
+public class AppRestrictionsSchemaCache {
+
+    private static AppRestrictionsSchemaCache sInstance;
+
+    // Guarded by this.
+    private final Map<Key, Entry> mEntries = new ArrayMap<>();
+
+    private static final class Key {
+        final int userId;
+        final LocaleList locales;
+        final String packageName;
+
+        Key(int userId, LocaleList locales, String packageName) {
+            this.userId = userId;
+            this.locales = locales;
+            this.packageName = packageName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return userId == other.userId && locales.equals(other.locales)
+                    && packageName.equals(other.packageName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, locales, packageName);
+        }
+    }
+
+    private static class Entry {
+        final long versionCode;
+        final List<RestrictionEntry> restrictions;
+        // Keys of the restrictions whose cached value is a value of the user, not the default.
+        final Set<String> keysWithoutDefault;
+
+        Entry(long versionCode, List<RestrictionEntry> restrictions,
+                Set<String> keysWithoutDefault) {
+            this.versionCode = versionCode;
+            this.restrictions = restrictions;
+            this.keysWithoutDefault = keysWithoutDefault;
+        }
+    }
+
+    /** Returns the cache shared by the whole process. */
+    public static synchronized AppRestrictionsSchemaCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new AppRestrictionsSchemaCache();
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    AppRestrictionsSchemaCache() {
+    }
+
+    /**
+     * Returns a copy of the restrictions of {@code packageName} for {@code userId} and
+     * {@code locales}, reset to their defaults with the values of {@code currentValues} applied,
+     * or {@code null} if they aren't cached for {@code versionCode} or can't be reset.
+     */
+    @Nullable
+    public ArrayList<RestrictionEntry> get(int userId, LocaleList locales, String packageName,
+            long versionCode, @Nullable Bundle currentValues) {
+        final Entry entry;
+        synchronized (this) {
+            entry = mEntries.get(new Key(userId, locales, packageName));
+        }
+        if (entry == null || entry.versionCode != versionCode) {
+            return null;
+        }
+        for (String key : entry.keysWithoutDefault) {
+            if (currentValues == null || !currentValues.containsKey(key)) {
+                return null;
+            }
+        }
+        final ArrayList<RestrictionEntry> restrictions = new ArrayList<>(
+                entry.restrictions.size());
+        for (RestrictionEntry restriction : entry.restrictions) {
+            final RestrictionEntry copy = copy(restriction);
+            if (currentValues != null) {
+                applyValue(copy, currentValues);
+            }
+            restrictions.add(copy);
+        }
+        return restrictions;
+    }
+
+    /**
+     * Caches the restrictions returned by {@code packageName} at {@code versionCode} for
+     * {@code userId} and {@code locales}, when it was queried with {@code sentValues}.
+     */
+    public void put(int userId, LocaleList locales, String packageName, long versionCode,
+            List<RestrictionEntry> restrictions, @Nullable Bundle sentValues) {
+        final List<RestrictionEntry> copies = new ArrayList<>(restrictions.size());
+        final Set<String> keysWithoutDefault = new ArraySet<>();
+        for (RestrictionEntry restriction : restrictions) {
+            copies.add(copy(restriction));
+            if (sentValues != null && sentValues.containsKey(restriction.getKey())) {
+                keysWithoutDefault.add(restriction.getKey());
+            }
+        }
+        synchronized (this) {
+            mEntries.put(new Key(userId, locales, packageName),
+                    new Entry(versionCode, copies, keysWithoutDefault));
+        }
+    }
+
+    /** Drops the cached restrictions of {@code packageName} for all users and locales. */
+    public synchronized void remove(String packageName) {
+        mEntries.keySet().removeIf(key -> key.packageName.equals(packageName));
+    }
+    private static RestrictionEntry copy(RestrictionEntry restriction) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            restriction.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return RestrictionEntry.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static void applyValue(RestrictionEntry restriction, Bundle values) {
+        final String key = restriction.getKey();
+        if (!values.containsKey(key)) {
+            return;
+        }
+        switch (restriction.getType()) {
+            case RestrictionEntry.TYPE_BOOLEAN:
+                restriction.setSelectedState(values.getBoolean(key));
+                break;
+            case RestrictionEntry.TYPE_CHOICE:
+            case RestrictionEntry.TYPE_CHOICE_LEVEL:
+            case RestrictionEntry.TYPE_STRING:
+                restriction.setSelectedString(values.getString(key));
+                break;
+            case RestrictionEntry.TYPE_MULTI_SELECT:
+                restriction.setAllSelectedStrings(values.getStringArray(key));
+                break;
+            case RestrictionEntry.TYPE_INTEGER:
+                restriction.setIntValue(values.getInt(key));
+                break;
+            default:
+                // Bundle types aren't shown on the page, keep the values the app returned.
+        }
+    }
+}
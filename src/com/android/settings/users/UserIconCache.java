@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.os.UserHandle;
+import android.os.UserManager;
+import android.util.SparseArray;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.internal.util.UserIcons;
+import com.android.settingslib.drawable.CircleFramedDrawable;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process wide cache of user icons, shared by the user pages so each icon is decoded and
+ * encircled once.
+ *
+ * Entries of a user are dropped when its info changes or it is removed. Once
+ * {@link #observeUserChanges(Context)} was called, the cache keeps listening for these changes
+ * for the life of the process, also while no user page is open.
+ */
+public class UserIconCache {
+
+    private static UserIconCache sInstance;
+
+    // Guarded by this.
+    private final SparseArray<Bitmap> mIcons = new SparseArray<>();
+    private final SparseArray<CircleFramedDrawable> mEncircledIcons = new SparseArray<>();
+    private final List<Integer> mLoadingUserIds = new ArrayList<>();
+    private boolean mObservingUserChanges;
+
+    private final BroadcastReceiver mUserChangeReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final int userId = intent.getIntExtra(Intent.EXTRA_USER_HANDLE, UserHandle.USER_NULL);
+            if (userId != UserHandle.USER_NULL) {
+                remove(userId);
+            }
+        }
+    };
+
+    /** Returns the cache shared by the whole process. */
+    public static synchronized UserIconCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new UserIconCache();
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    UserIconCache() {
+    }
+
+    /**
+     * Starts dropping the icons of users whose info changes or who are removed. Only the first
+     * call registers the receiver, on the application context.
+     */
+    public void observeUserChanges(Context context) {
+        synchronized (this) {
+            if (mObservingUserChanges) {
+                return;
+            }
+            mObservingUserChanges = true;
+        }
+        final IntentFilter filter = new IntentFilter(Intent.ACTION_USER_INFO_CHANGED);
+        filter.addAction(Intent.ACTION_USER_REMOVED);
+        context.getApplicationContext().registerReceiverAsUser(mUserChangeReceiver,
+                UserHandle.ALL, filter, null /* broadcastPermission */, null /* scheduler */,
+                Context.RECEIVER_EXPORTED_UNAUDITED);
+    }
+
+    /** Returns the icon of {@code userId}, or {@code null} if it isn't loaded yet. */
+    @Nullable
+    public synchronized Bitmap get(int userId) {
+        return mIcons.get(userId);
+    }
+
+    /** Caches the icon of {@code userId}. */
+    public synchronized void put(int userId, Bitmap icon) {
+        mIcons.put(userId, icon);
+        mEncircledIcons.remove(userId);
+    }
+
+    /** Drops the cached icon of {@code userId}. */
+    public synchronized void remove(int userId) {
+        mIcons.remove(userId);
+        mEncircledIcons.remove(userId);
+    }
+
+    /**
+     * Returns the icon of {@code userId} encircled to {@code size} pixels, or {@code null} if the
+     * icon isn't loaded yet.
+     */
+    @Nullable
+    public synchronized Drawable getEncircled(int userId, int size) {
+        final Bitmap icon = mIcons.get(userId);
+        if (icon == null) {
+            return null;
+        }
+        CircleFramedDrawable encircled = mEncircledIcons.get(userId);
+        if (encircled == null || encircled.getIntrinsicWidth() != size) {
+            encircled = new CircleFramedDrawable(icon, size);
+            mEncircledIcons.put(userId, encircled);
+        }
+        return encircled;
+    }
+
+    /**
+     * Loads the icons of {@code userIds} in one batch on a background thread, then posts
+     * {@code onLoaded} to the main thread. Users whose icon is cached or already loading are
+     * skipped.
+     */
+    public void load(Resources res, UserManager userManager, List<Integer> userIds,
+            Runnable onLoaded) {
+        final List<Integer> toLoad = new ArrayList<>();
+        synchronized (this) {
+            for (int userId : userIds) {
+                if (mIcons.get(userId) == null && !mLoadingUserIds.contains(userId)) {
+                    mLoadingUserIds.add(userId);
+                    toLoad.add(userId);
+                }
+            }
+        }
+        if (toLoad.isEmpty()) {
+            return;
+        }
+        ThreadUtils.postOnBackgroundThread(() -> {
+            for (int userId : toLoad) {
+                Bitmap bitmap = userManager.getUserIcon(userId);
+                if (bitmap == null) {
+                    bitmap = UserIcons.convertToBitmapAtUserIconSize(res,
+                            UserIcons.getDefaultUserIcon(res, userId, false));
+                }
+                synchronized (this) {
+                    mLoadingUserIds.remove((Integer) userId);
+                    put(userId, bitmap);
+                }
+            }
+            ThreadUtils.getUiThreadHandler().post(onLoaded);
+        });
+    }
+
+    /** Drops all cached icons. */
+    public synchronized void clear() {
+        mIcons.clear();
+        mEncircledIcons.clear();
+    }
+}
@@ -202,7 +202,7 @@ public class UserSettings extends SettingsPreferenceFragment
     @VisibleForTesting
     RestrictedPreference mAddSupervisedUser;
     @VisibleForTesting
-    SparseArray<Bitmap> mUserIcons = new SparseArray<>();
+    UserIconCache mUserIcons = UserIconCache.getInstance();
     private int mRemovingUserId = -1;
     private boolean mAddingUser;
     private boolean mGuestUserAutoCreated;
@@ -398,6 +398,7 @@ public class UserSettings extends SettingsPreferenceFragment
         activity.registerReceiverAsUser(
                 mUserChangeReceiver, UserHandle.ALL, USER_REMOVED_INTENT_FILTER, null, mHandler,
                 Context.RECEIVER_EXPORTED_UNAUDITED);
+        mUserIcons.observeUserChanges(activity);
 
         updateUI();
         mShouldUpdateUserList = false;
@@ -543,8 +544,8 @@ public class UserSettings extends SettingsPreferenceFragment
         int myUserId = UserHandle.myUserId();
         Bitmap b = mUserManager.getUserIcon(myUserId);
         if (b != null) {
-            mMePreference.setIcon(encircleUserIcon(b));
             mUserIcons.put(myUserId, b);
+            mMePreference.setIcon(getEncircledUserIcon(myUserId));
         }
     }
 
@@ -1280,7 +1281,8 @@ public class UserSettings extends SettingsPreferenceFragment
 
         // Load the icons
         if (missingIcons.size() > 0) {
-            loadIconsAsync(missingIcons);
+            mUserIcons.load(getContext().getResources(), mUserManager, missingIcons,
+                    this::onUserIconsLoaded);
         }
 
         // If restricted profiles are supported, mUserListCategory will have a special title
@@ -1535,25 +1537,11 @@ public class UserSettings extends SettingsPreferenceFragment
                 .count();
     }
 
-    private void loadIconsAsync(List<Integer> missingIcons) {
-        new AsyncTask<List<Integer>, Void, Void>() {
-            @Override
-            protected void onPostExecute(Void result) {
-                updateUserList();
-            }
-
-            @Override
-            protected Void doInBackground(List<Integer>... values) {
-                for (int userId : values[0]) {
-                    Bitmap bitmap = mUserManager.getUserIcon(userId);
-                    if (bitmap == null) {
-                        bitmap = getDefaultUserIconAsBitmap(getContext().getResources(), userId);
-                    }
-                    mUserIcons.append(userId, bitmap);
-                }
-                return null;
-            }
-        }.execute(missingIcons);
+    private void onUserIconsLoaded() {
+        if (getActivity() == null) {
+            return;
+        }
+        updateUserList();
     }
 
     private Drawable getEncircledDefaultIcon() {
@@ -1565,12 +1553,17 @@ public class UserSettings extends SettingsPreferenceFragment
     }
 
     private void setPhotoId(Preference pref, UserInfo user) {
-        Bitmap bitmap = mUserIcons.get(user.id);
-        if (bitmap != null) {
-            pref.setIcon(encircleUserIcon(bitmap));
+        final Drawable icon = getEncircledUserIcon(user.id);
+        if (icon != null) {
+            pref.setIcon(icon);
         }
     }
 
+    private Drawable getEncircledUserIcon(int userId) {
+        return mUserIcons.getEncircled(userId, getActivity().getResources()
+                .getDimensionPixelSize(R.dimen.multiple_users_user_icon_size));
+    }
+
     @Override
     public boolean onPreferenceClick(Preference pref) {
         mMetricsFeatureProvider.logSettingsTileClick(pref.getKey(), getMetricsCategory());
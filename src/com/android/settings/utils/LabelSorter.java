@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import android.util.ArrayMap;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sorts lists by their localized labels, shared by the pickers of Settings.
+ *
+ * Labels are turned into {@link CollationKey}s once and cached per locale and label across
+ * screens, so sorting compares precomputed keys instead of collating both labels on every
+ * comparison.
+ */
+public class LabelSorter {
+
+    private static final int MAX_KEYS_PER_LOCALE = 1024;
+
+    private static LabelSorter sInstance;
+
+    // Guarded by this. Collators aren't thread-safe, so keys are only generated with the lock.
+    private final Map<Locale, LocaleKeys> mKeysByLocale = new ArrayMap<>();
+
+    private static class LocaleKeys {
+        final Collator collator;
+        final LruCache<String, CollationKey> keys = new LruCache<>(MAX_KEYS_PER_LOCALE);
+
+        LocaleKeys(Locale locale) {
+            collator = Collator.getInstance(locale);
+        }
+    }
+
+    private static class KeyedItem<T> {
+        final CollationKey key;
+        final T item;
+
+        KeyedItem(CollationKey key, T item) {
+            this.key = key;
+            this.item = item;
+        }
+    }
+
+    /** Returns the sorter shared by the whole process. */
+    public static synchronized LabelSorter getInstance() {
+        if (sInstance == null) {
+            sInstance = new LabelSorter();
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    LabelSorter() {
+    }
+
+    /** Returns the collation key of {@code label} in {@code locale}. A null label sorts as "". */
+    @NonNull
+    public synchronized CollationKey getCollationKey(@NonNull Locale locale,
+            @Nullable CharSequence label) {
+        LocaleKeys localeKeys = mKeysByLocale.get(locale);
+        if (localeKeys == null) {
+            localeKeys = new LocaleKeys(locale);
+            mKeysByLocale.put(locale, localeKeys);
+        }
+        final String source = label == null ? "" : label.toString();
+        CollationKey key = localeKeys.keys.get(source);
+        if (key == null) {
+            key = localeKeys.collator.getCollationKey(source);
+            localeKeys.keys.put(source, key);
+        }
+        return key;
+    }
+
+    /** Compares two labels in the default locale, like {@link Collator#compare}. */
+    public int compare(@Nullable CharSequence lhs, @Nullable CharSequence rhs) {
+        final Locale locale = Locale.getDefault();
+        return getCollationKey(locale, lhs).compareTo(getCollationKey(locale, rhs));
+    }
+
+    /**
+     * Returns a comparator of items by label in {@code locale}, for sorted collections and
+     * comparator chains. Prefer {@link #sort} for lists, which gets each label only once.
+     */
+    @NonNull
+    public <T> Comparator<T> comparing(@NonNull Locale locale,
+            @NonNull Function<? super T, ? extends CharSequence> labelFunction) {
+        return (lhs, rhs) -> getCollationKey(locale, labelFunction.apply(lhs))
+                .compareTo(getCollationKey(locale, labelFunction.apply(rhs)));
+    }
+
+    /** Sorts {@code list} in place by label in the default locale. */
+    public <T> void sort(@NonNull List<T> list,
+            @NonNull Function<? super T, ? extends CharSequence> labelFunction) {
+        sort(list, Locale.getDefault(), labelFunction, null /* tieBreaker */);
+    }
+
+    /**
+     * Sorts {@code list} in place by label in {@code locale}, then by {@code tieBreaker} for
+     * items with equal labels. {@code labelFunction} is called once per item.
+     */
+    public <T> void sort(@NonNull List<T> list, @NonNull Locale locale,
+            @NonNull Function<? super T, ? extends CharSequence> labelFunction,
+            @Nullable Comparator<? super T> tieBreaker) {
+        final int size = list.size();
+        if (size < 2) {
+            return;
+        }
+        final List<KeyedItem<T>> keyedItems = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final T item = list.get(i);
+            keyedItems.add(new KeyedItem<>(getCollationKey(locale, labelFunction.apply(item)),
+                    item));
+        }
+        keyedItems.sort((lhs, rhs) -> {
+            final int result = lhs.key.compareTo(rhs.key);
+            if (result != 0 || tieBreaker == null) {
+                return result;
+            }
+            return tieBreaker.compare(lhs.item, rhs.item);
+        });
+        for (int i = 0; i < size; i++) {
+            list.set(i, keyedItems.get(i).item);
+        }
+    }
+}
@@ -159,6 +159,15 @@ public class ConfigDialogFragment extends InstrumentedDialogFragment implements
         dismiss();
     }
 
+    @Override
+    public void onDismiss(DialogInterface dialog) {
+        super.onDismiss(dialog);
+        // The profile, the lockdown VPN or the connection may have changed.
+        if (getTargetFragment() instanceof VpnSettings) {
+            ((VpnSettings) getTargetFragment()).requestRefresh();
+        }
+    }
+
     @Override
     public void onCancel(DialogInterface dialog) {
         dismiss();
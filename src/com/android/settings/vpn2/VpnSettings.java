@@ -24,8 +24,10 @@ import android.annotation.WorkerThread;
 import android.app.Activity;
 import android.app.AppOpsManager;
 import android.app.settings.SettingsEnums;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
@@ -70,10 +72,12 @@ import com.android.settingslib.RestrictedLockUtilsInternal;
 import com.google.android.collect.Lists;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -86,7 +90,8 @@ public class VpnSettings extends RestrictedDashboardFragment implements
     private static final boolean DEBUG = Log.isLoggable(LOG_TAG, Log.DEBUG);
 
     private static final int RESCAN_MESSAGE = 0;
-    private static final int RESCAN_INTERVAL_MS = 1000;
+    // Legacy VPNs don't report their progress while connecting, so they are polled until then.
+    private static final int LEGACY_VPN_POLL_INTERVAL_MS = 1000;
     private static final String ADVANCED_VPN_GROUP_KEY = "advanced_vpn_group";
     private static final String VPN_GROUP_KEY = "vpn_group";
 
@@ -99,6 +104,7 @@ public class VpnSettings extends RestrictedDashboardFragment implements
     private ConnectivityManager mConnectivityManager;
     private UserManager mUserManager;
     private VpnManager mVpnManager;
+    private AppOpsManager mAppOpsManager;
 
     private Map<String, LegacyVpnPreference> mLegacyVpnPreferences = new ArrayMap<>();
     private Map<AppVpnInfo, AppPreference> mAppPreferences = new ArrayMap<>();
@@ -107,6 +113,8 @@ public class VpnSettings extends RestrictedDashboardFragment implements
     private Handler mUpdater;
     private HandlerThread mUpdaterThread;
     private LegacyVpnInfo mConnectedLegacyVpn;
+    // The state last posted to the UI. Only used on the updater thread.
+    private VpnSnapshot mLastSnapshot;
 
     private boolean mUnavailable;
     private AdvancedVpnFeatureProvider mFeatureProvider;
@@ -129,6 +137,7 @@ public class VpnSettings extends RestrictedDashboardFragment implements
         mUserManager = (UserManager) getSystemService(Context.USER_SERVICE);
         mConnectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
         mVpnManager = (VpnManager) getSystemService(Context.VPN_MANAGEMENT_SERVICE);
+        mAppOpsManager = getContext().getSystemService(AppOpsManager.class);
         mFeatureProvider = FeatureFactory.getFeatureFactory().getAdvancedVpnFeatureProvider();
         mIsAdvancedVpnSupported = mFeatureProvider.isAdvancedVpnSupported(getContext());
 
@@ -208,12 +217,26 @@ public class VpnSettings extends RestrictedDashboardFragment implements
 
         // Start monitoring
         mConnectivityManager.registerNetworkCallback(VPN_REQUEST, mNetworkCallback);
+        final IntentFilter packageFilter = new IntentFilter();
+        packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        packageFilter.addDataScheme("package");
+        getContext().registerReceiverAsUser(mPackageReceiver, UserHandle.ALL, packageFilter,
+                null /* broadcastPermission */, null /* scheduler */);
+        mAppOpsManager.startWatchingMode(OP_ACTIVATE_VPN, null /* packageName */,
+                mOpChangedListener);
+        mAppOpsManager.startWatchingMode(OP_ACTIVATE_PLATFORM_VPN, null /* packageName */,
+                mOpChangedListener);
 
         // Trigger a refresh
-        mUpdaterThread = new HandlerThread("Refresh VPN list in background");
-        mUpdaterThread.start();
-        mUpdater = new Handler(mUpdaterThread.getLooper(), this);
-        mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
+        synchronized (this) {
+            mUpdaterThread = new HandlerThread("Refresh VPN list in background");
+            mUpdaterThread.start();
+            mUpdater = new Handler(mUpdaterThread.getLooper(), this);
+            mLastSnapshot = null;
+            mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
+        }
     }
 
     @Override
@@ -235,6 +258,8 @@ public class VpnSettings extends RestrictedDashboardFragment implements
 
         // Stop monitoring
         mConnectivityManager.unregisterNetworkCallback(mNetworkCallback);
+        getContext().unregisterReceiver(mPackageReceiver);
+        mAppOpsManager.stopWatchingMode(mOpChangedListener);
 
         synchronized (this) {
             mUpdater.removeCallbacksAndMessages(null);
@@ -246,6 +271,19 @@ public class VpnSettings extends RestrictedDashboardFragment implements
         super.onPause();
     }
 
+    /**
+     * Reloads the VPNs in the background, e.g. after a VPN profile was changed. The list is
+     * updated if anything changed.
+     */
+    void requestRefresh() {
+        synchronized (this) {
+            if (mUpdater != null) {
+                mUpdater.removeMessages(RESCAN_MESSAGE);
+                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
+            }
+        }
+    }
+
     @Override @WorkerThread
     public boolean handleMessage(Message message) {
         //Return if activity has been recycled
@@ -256,7 +294,7 @@ public class VpnSettings extends RestrictedDashboardFragment implements
         final Context context = activity.getApplicationContext();
 
         // Run heavy RPCs before switching to UI thread
-        final List<VpnProfile> vpnProfiles = loadVpnProfiles();
+        final Map<String, byte[]> vpnProfileData = loadVpnProfileData();
         final List<AppVpnInfo> vpnApps = getVpnApps(context, /* includeProfiles */ true,
                 mFeatureProvider);
 
@@ -266,20 +304,92 @@ public class VpnSettings extends RestrictedDashboardFragment implements
         final Set<AppVpnInfo> alwaysOnAppVpnInfos = getAlwaysOnAppVpnInfos();
         final String lockdownVpnKey = VpnUtils.getLockdownVpn();
 
-        // Refresh list of VPNs
-        activity.runOnUiThread(new UpdatePreferences(this)
-                .legacyVpns(vpnProfiles, connectedLegacyVpns, lockdownVpnKey)
-                .appVpns(vpnApps, connectedAppVpns, alwaysOnAppVpnInfos));
+        // Refresh list of VPNs, only if something changed since the last refresh
+        final VpnSnapshot snapshot = new VpnSnapshot(vpnProfileData, vpnApps,
+                connectedLegacyVpns, connectedAppVpns, alwaysOnAppVpnInfos, lockdownVpnKey);
+        if (!snapshot.equals(mLastSnapshot)) {
+            mLastSnapshot = snapshot;
+            activity.runOnUiThread(new UpdatePreferences(this)
+                    .legacyVpns(decodeVpnProfiles(vpnProfileData), connectedLegacyVpns,
+                            lockdownVpnKey)
+                    .appVpns(vpnApps, connectedAppVpns, alwaysOnAppVpnInfos));
+        }
 
         synchronized (this) {
             if (mUpdater != null) {
                 mUpdater.removeMessages(RESCAN_MESSAGE);
-                mUpdater.sendEmptyMessageDelayed(RESCAN_MESSAGE, RESCAN_INTERVAL_MS);
+                if (isLegacyVpnConnecting(mConnectedLegacyVpn)) {
+                    mUpdater.sendEmptyMessageDelayed(RESCAN_MESSAGE, LEGACY_VPN_POLL_INTERVAL_MS);
+                }
             }
         }
         return true;
     }
 
+    private static boolean isLegacyVpnConnecting(LegacyVpnInfo info) {
+        return info != null && (info.state == LegacyVpnInfo.STATE_INITIALIZING
+                || info.state == LegacyVpnInfo.STATE_CONNECTING);
+    }
+
+    /** The state of the VPNs shown on the screen, to find out whether it changed. */
+    @VisibleForTesting
+    static class VpnSnapshot {
+        private final Map<String, byte[]> mVpnProfileData;
+        private final List<AppVpnInfo> mVpnApps;
+        private final Map<String, Integer> mLegacyVpnStates = new ArrayMap<>();
+        private final Set<AppVpnInfo> mConnectedAppVpns;
+        private final Set<AppVpnInfo> mAlwaysOnAppVpnInfos;
+        private final String mLockdownVpnKey;
+
+        VpnSnapshot(Map<String, byte[]> vpnProfileData, List<AppVpnInfo> vpnApps,
+                Map<String, LegacyVpnInfo> connectedLegacyVpns, Set<AppVpnInfo> connectedAppVpns,
+                Set<AppVpnInfo> alwaysOnAppVpnInfos, String lockdownVpnKey) {
+            mVpnProfileData = vpnProfileData;
+            mVpnApps = vpnApps;
+            for (LegacyVpnInfo info : connectedLegacyVpns.values()) {
+                mLegacyVpnStates.put(info.key, info.state);
+            }
+            mConnectedAppVpns = connectedAppVpns;
+            mAlwaysOnAppVpnInfos = alwaysOnAppVpnInfos;
+            mLockdownVpnKey = lockdownVpnKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof VpnSnapshot)) {
+                return false;
+            }
+            final VpnSnapshot other = (VpnSnapshot) o;
+            return sameProfileData(mVpnProfileData, other.mVpnProfileData)
+                    && mVpnApps.equals(other.mVpnApps)
+                    && mLegacyVpnStates.equals(other.mLegacyVpnStates)
+                    && mConnectedAppVpns.equals(other.mConnectedAppVpns)
+                    && mAlwaysOnAppVpnInfos.equals(other.mAlwaysOnAppVpnInfos)
+                    && TextUtils.equals(mLockdownVpnKey, other.mLockdownVpnKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mVpnProfileData.keySet(), mVpnApps, mLegacyVpnStates,
+                    mConnectedAppVpns, mAlwaysOnAppVpnInfos, mLockdownVpnKey);
+        }
+
+        private static boolean sameProfileData(Map<String, byte[]> a, Map<String, byte[]> b) {
+            if (a.size() != b.size()) {
+                return false;
+            }
+            for (Map.Entry<String, byte[]> entry : a.entrySet()) {
+                if (!Arrays.equals(entry.getValue(), b.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     @VisibleForTesting
     static class UpdatePreferences implements Runnable {
         private List<VpnProfile> vpnProfiles = Collections.<VpnProfile>emptyList();
@@ -512,19 +622,27 @@ public class VpnSettings extends RestrictedDashboardFragment implements
     private NetworkCallback mNetworkCallback = new NetworkCallback() {
         @Override
         public void onAvailable(Network network) {
-            if (mUpdater != null) {
-                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
-            }
+            requestRefresh();
         }
 
         @Override
         public void onLost(Network network) {
-            if (mUpdater != null) {
-                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
-            }
+            requestRefresh();
+        }
+    };
+
+    // VPN apps can be installed, updated or removed in any profile.
+    private final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            requestRefresh();
         }
     };
 
+    // Apps are allowed or forgotten as VPNs through these app ops.
+    private final AppOpsManager.OnOpChangedListener mOpChangedListener =
+            (op, packageName) -> requestRefresh();
+
     @VisibleForTesting @UiThread
     public LegacyVpnPreference findOrCreatePreference(VpnProfile profile, boolean update) {
         LegacyVpnPreference pref = mLegacyVpnPreferences.get(profile.key);
@@ -683,12 +801,19 @@ public class VpnSettings extends RestrictedDashboardFragment implements
                 && TextUtils.equals(packageName, featureProvider.getAdvancedVpnPackageName());
     }
 
-    private static List<VpnProfile> loadVpnProfiles() {
+    private static Map<String, byte[]> loadVpnProfileData() {
+        final Map<String, byte[]> result = new ArrayMap<>();
+        for (String key : LegacyVpnProfileStore.list(Credentials.VPN)) {
+            result.put(key, LegacyVpnProfileStore.get(Credentials.VPN + key));
+        }
+        return result;
+    }
+
+    private static List<VpnProfile> decodeVpnProfiles(Map<String, byte[]> vpnProfileData) {
         final ArrayList<VpnProfile> result = Lists.newArrayList();
 
-        for (String key : LegacyVpnProfileStore.list(Credentials.VPN)) {
-            final VpnProfile profile = VpnProfile.decode(key,
-                    LegacyVpnProfileStore.get(Credentials.VPN + key));
+        for (Map.Entry<String, byte[]> entry : vpnProfileData.entrySet()) {
+            final VpnProfile profile = VpnProfile.decode(entry.getKey(), entry.getValue());
             if (profile != null) {
                 result.add(profile);
             }
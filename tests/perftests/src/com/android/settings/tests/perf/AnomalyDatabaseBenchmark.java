@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.tests.perf;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import com.android.settings.fuelgauge.batterytip.AnomalyDatabaseHelper;
+import com.android.settings.fuelgauge.batterytip.BatteryDatabaseManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a day of synthetic anomalies into {@link BatteryDatabaseManager} and reports the
+ * insert and query latency.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AnomalyDatabaseBenchmark {
+    private static final String TAG = "AnomalyDatabaseBenchmark";
+    // Synthetic records live far in the past, so they never mix with real ones and are
+    // removed by the retention clean up even if the test is interrupted.
+    private static final long DAY_START_MS = TimeUnit.DAYS.toMillis(365);
+    private static final long DAY_END_MS = DAY_START_MS + TimeUnit.DAYS.toMillis(1);
+    private static final int ANOMALY_COUNT = 2000;
+    private static final int BURST_SIZE = 20;
+    private static final int APP_COUNT = 150;
+    private static final int FIRST_UID = 90000;
+    private static final int QUERY_TIMES = 50;
+
+    private Context mContext;
+    private BatteryDatabaseManager mDatabaseManager;
+    private Bundle mBundle;
+
+    @Before
+    public void setUp() {
+        mContext = getInstrumentation().getTargetContext();
+        mDatabaseManager = BatteryDatabaseManager.getInstance(mContext);
+        mBundle = new Bundle();
+        mDatabaseManager.deleteAllAnomaliesBeforeTimeStamp(DAY_END_MS);
+    }
+
+    @After
+    public void tearDown() {
+        mDatabaseManager.deleteAllAnomaliesBeforeTimeStamp(DAY_END_MS);
+        getInstrumentation().sendStatus(0, mBundle);
+    }
+
+    @Test
+    public void replayOneDayOfAnomalies() {
+        final Random random = new Random(0);
+        final long intervalMs = (DAY_END_MS - DAY_START_MS) / ANOMALY_COUNT;
+
+        final long insertStartMs = SystemClock.elapsedRealtime();
+        for (int burst = 0; burst < ANOMALY_COUNT / BURST_SIZE; burst++) {
+            final int firstIndex = burst * BURST_SIZE;
+            final List<BatteryDatabaseManager.AnomalyRecord> anomalies = new ArrayList<>();
+            for (int i = firstIndex; i < firstIndex + BURST_SIZE; i++) {
+                final int uid = FIRST_UID + random.nextInt(APP_COUNT);
+                anomalies.add(
+                        new BatteryDatabaseManager.AnomalyRecord(
+                                uid,
+                                "com.android.settings.benchmark" + uid,
+                                random.nextInt(3),
+                                random.nextInt(4) == 0
+                                        ? AnomalyDatabaseHelper.State.HANDLED
+                                        : AnomalyDatabaseHelper.State.NEW,
+                                DAY_START_MS + i * intervalMs));
+            }
+            mDatabaseManager.insertAnomalies(anomalies);
+        }
+        final long insertTotalMs = SystemClock.elapsedRealtime() - insertStartMs;
+
+        final long queryStartMs = SystemClock.elapsedRealtime();
+        for (int i = 0; i < QUERY_TIMES; i++) {
+            mDatabaseManager.queryAllAnomalies(
+                    DAY_END_MS - TimeUnit.HOURS.toMillis(i % 24 + 1),
+                    AnomalyDatabaseHelper.State.NEW);
+        }
+        final long queryTotalMs = SystemClock.elapsedRealtime() - queryStartMs;
+
+        final long compactStartMs = SystemClock.elapsedRealtime();
+        mDatabaseManager.compactAnomalies(DAY_END_MS, ANOMALY_COUNT);
+        final long compactTotalMs = SystemClock.elapsedRealtime() - compactStartMs;
+
+        mBundle.putString(TAG + "_insert_total_ms", String.valueOf(insertTotalMs));
+        mBundle.putString(TAG + "_insert_per_anomaly_us",
+                String.valueOf(insertTotalMs * 1000 / ANOMALY_COUNT));
+        mBundle.putString(TAG + "_query_avg_us",
+                String.valueOf(queryTotalMs * 1000 / QUERY_TIMES));
+        mBundle.putString(TAG + "_compact_ms", String.valueOf(compactTotalMs));
+    }
+}
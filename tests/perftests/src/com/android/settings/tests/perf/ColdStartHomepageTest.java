@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.tests.perf;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+
+import static junit.framework.TestCase.fail;
+
+import android.os.Bundle;
+
+import androidx.test.runner.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the cold start of the Settings process to the first frame of
+ * {@code SettingsHomepageActivity}, as reported by {@code am start -W}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ColdStartHomepageTest {
+    private static final String HOMEPAGE_COMPONENT =
+            "com.android.settings/.homepage.SettingsHomepageActivity";
+    private static final int TIME_OUT = 5000;
+    private static final int TEST_TIME = 10;
+    private static final Pattern PATTERN = Pattern.compile("TotalTime:\\s([0-9]+)");
+    private static final String RESULT_PREFIX = "ColdStartHomepageTest_";
+
+    private UiDevice mDevice;
+    private final List<Integer> mResult = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        mDevice = UiDevice.getInstance(getInstrumentation());
+        mDevice.pressHome();
+        mDevice.waitForIdle(TIME_OUT);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final Bundle bundle = new Bundle();
+        if (mResult.size() == TEST_TIME) {
+            Collections.sort(mResult);
+            bundle.putString(RESULT_PREFIX + "min", String.valueOf(mResult.get(0)));
+            bundle.putString(RESULT_PREFIX + "median", String.valueOf(mResult.get(TEST_TIME / 2)));
+            bundle.putString(RESULT_PREFIX + "max", String.valueOf(mResult.get(TEST_TIME - 1)));
+        }
+        bundle.putString(RESULT_PREFIX + "all_results", mResult.toString());
+        getInstrumentation().sendStatus(0, bundle);
+        closeApp();
+    }
+
+    @Test
+    public void coldStartHomepage() throws Exception {
+        for (int i = 0; i < TEST_TIME; i++) {
+            closeApp();
+            mDevice.waitForIdle(TIME_OUT);
+
+            final String result = mDevice.executeShellCommand(
+                    "am start -W -S -n " + HOMEPAGE_COMPONENT);
+            final Matcher matcher = PATTERN.matcher(result);
+            if (!matcher.find()) {
+                fail("TotalTime not found.\n " + result);
+            }
+            mResult.add(Integer.valueOf(matcher.group(1)));
+            mDevice.pressHome();
+        }
+    }
+
+    private void closeApp() throws Exception {
+        mDevice.executeShellCommand("am force-stop com.android.settings");
+        Thread.sleep(1000);
+    }
+}
@@ -34,6 +34,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ActivityInfo;
 import android.content.pm.ApplicationInfo;
+import android.content.pm.ComponentInfo;
 import android.content.pm.ResolveInfo;
 import android.content.pm.ServiceInfo;
 import android.database.ContentObserver;
@@ -52,6 +53,7 @@ import com.android.settings.testutils.XmlTestUtils;
 import com.android.settings.testutils.shadow.ShadowApplicationPackageManager;
 import com.android.settings.testutils.shadow.ShadowBluetoothAdapter;
 import com.android.settings.testutils.shadow.ShadowBluetoothUtils;
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
 import com.android.settings.testutils.shadow.ShadowUserManager;
 import com.android.settingslib.RestrictedPreference;
 import com.android.settingslib.bluetooth.LocalBluetoothManager;
@@ -87,6 +89,7 @@ import java.util.List;
         ShadowUserManager.class,
         ShadowColorDisplayManager.class,
         ShadowApplicationPackageManager.class,
+        ShadowThreadUtils.class,
 })
 public class AccessibilitySettingsTest {
     private static final String PACKAGE_NAME = "com.android.test";
@@ -431,6 +434,29 @@ public class AccessibilitySettingsTest {
         assertThat(pref).isNull();
     }
 
+    @Test
+    public void removeServicesWithShortcut_samePackageAndLabel_removesService() {
+        final AccessibilityServiceInfo duplicateService =
+                getMockAccessibilityServiceInfo(PACKAGE_NAME, "Duplicate");
+        final AccessibilityServiceInfo otherService =
+                getMockAccessibilityServiceInfo(PACKAGE_NAME, "Other");
+        final List<AccessibilityServiceInfo> services =
+                new ArrayList<>(List.of(duplicateService, otherService));
+        final ActivityInfo activityInfo = new ActivityInfo();
+        activityInfo.packageName = PACKAGE_NAME;
+        activityInfo.name = "Duplicate";
+        when(mShortcutInfo.getActivityInfo()).thenReturn(activityInfo);
+        final AccessibilityLabelCache labelCache = Mockito.mock(AccessibilityLabelCache.class);
+        // Labels are the class names, so only the first service has the label of the shortcut.
+        when(labelCache.getLabel(any())).thenAnswer(
+                invocation -> ((ComponentInfo) invocation.getArgument(0)).name);
+
+        AccessibilitySettings.removeServicesWithShortcut(services,
+                singletonList(mShortcutInfo), labelCache);
+
+        assertThat(services).containsExactly(otherService);
+    }
+
     private AccessibilityServiceInfo getMockAccessibilityServiceInfo(String packageName,
             String className) {
         return getMockAccessibilityServiceInfo(new ComponentName(packageName, className));
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.accounts;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.accounts.Account;
+import android.content.SyncAdapterType;
+
+import com.android.settings.testutils.shadow.ShadowContentResolver;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = ShadowContentResolver.class)
+public class AccountSyncStateSnapshotTest {
+
+    private static final int USER_ID = 0;
+    private final Account mAccount = new Account("acct1", "type1");
+
+    @After
+    public void tearDown() {
+        ShadowContentResolver.reset();
+    }
+
+    @Test
+    public void load_splitsAdaptersOfAccountType() {
+        final SyncAdapterType visible = new SyncAdapterType("visible", "type1",
+                true /* userVisible */, true /* supportsUploading */);
+        final SyncAdapterType notSyncable = new SyncAdapterType("notSyncable", "type1",
+                true /* userVisible */, true /* supportsUploading */);
+        final SyncAdapterType invisible = new SyncAdapterType("invisible", "type1",
+                false /* userVisible */, true /* supportsUploading */);
+        final SyncAdapterType otherType = new SyncAdapterType("other", "type2",
+                true /* userVisible */, true /* supportsUploading */);
+        ShadowContentResolver.setSyncAdapterTypes(
+                new SyncAdapterType[]{visible, notSyncable, invisible, otherType});
+        ShadowContentResolver.setSyncable("notSyncable", 0);
+
+        final AccountSyncStateSnapshot snapshot =
+                AccountSyncStateSnapshot.load(mAccount, USER_ID);
+
+        assertThat(snapshot.getVisibleAdapters()).containsExactly(visible);
+        assertThat(snapshot.getInvisibleAdapters()).containsExactly(invisible);
+        assertThat(snapshot.getAuthorityState("visible")).isNotNull();
+        assertThat(snapshot.getAuthorityState("notSyncable")).isNull();
+        assertThat(snapshot.getAuthorityState("other")).isNull();
+    }
+
+    @Test
+    public void load_sameState_authorityStatesEqual() {
+        ShadowContentResolver.setSyncAdapterTypes(new SyncAdapterType[]{
+                new SyncAdapterType("auth", "type1", true /* userVisible */,
+                        true /* supportsUploading */)});
+
+        final AccountSyncStateSnapshot first = AccountSyncStateSnapshot.load(mAccount, USER_ID);
+        final AccountSyncStateSnapshot second = AccountSyncStateSnapshot.load(mAccount, USER_ID);
+
+        assertThat(second.hasSameAdapters(first)).isTrue();
+        assertThat(second.getAuthorityState("auth")).isEqualTo(first.getAuthorityState("auth"));
+    }
+
+    @Test
+    public void load_syncDisabled_authorityStateChanged() {
+        ShadowContentResolver.setSyncAdapterTypes(new SyncAdapterType[]{
+                new SyncAdapterType("auth", "type1", true /* userVisible */,
+                        true /* supportsUploading */)});
+        final AccountSyncStateSnapshot first = AccountSyncStateSnapshot.load(mAccount, USER_ID);
+
+        ShadowContentResolver.setSyncAutomatically("auth", false);
+        final AccountSyncStateSnapshot second = AccountSyncStateSnapshot.load(mAccount, USER_ID);
+
+        assertThat(second.getAuthorityState("auth").syncEnabled).isFalse();
+        assertThat(second.getAuthorityState("auth"))
+                .isNotEqualTo(first.getAuthorityState("auth"));
+    }
+}
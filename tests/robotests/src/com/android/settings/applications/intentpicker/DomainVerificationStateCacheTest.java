@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.intentpicker;
+
+import static android.content.pm.verify.domain.DomainVerificationUserState.DOMAIN_STATE_NONE;
+import static android.content.pm.verify.domain.DomainVerificationUserState.DOMAIN_STATE_SELECTED;
+import static android.content.pm.verify.domain.DomainVerificationUserState.DOMAIN_STATE_VERIFIED;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.pm.PackageManager;
+import android.content.pm.verify.domain.DomainVerificationManager;
+import android.content.pm.verify.domain.DomainVerificationUserState;
+import android.os.SystemClock;
+import android.util.ArrayMap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Map;
+
+@RunWith(RobolectricTestRunner.class)
+public class DomainVerificationStateCacheTest {
+    private static final String PACKAGE_NAME = "com.example.app";
+    private static final int USER_ID = 0;
+
+    @Mock
+    private DomainVerificationManager mDomainVerificationManager;
+    @Mock
+    private DomainVerificationUserState mUserState;
+
+    private DomainVerificationStateCache mCache;
+
+    @Before
+    public void setUp() throws PackageManager.NameNotFoundException {
+        MockitoAnnotations.initMocks(this);
+        final Map<String, Integer> hostToState = new ArrayMap<>();
+        hostToState.put("a.example.com", DOMAIN_STATE_VERIFIED);
+        hostToState.put("b.example.com", DOMAIN_STATE_VERIFIED);
+        hostToState.put("c.example.com", DOMAIN_STATE_NONE);
+        when(mUserState.getHostToStateMap()).thenReturn(hostToState);
+        when(mUserState.isLinkHandlingAllowed()).thenReturn(true);
+        when(mDomainVerificationManager.getDomainVerificationUserState(anyString()))
+                .thenReturn(mUserState);
+        mCache = new DomainVerificationStateCache();
+    }
+
+    @Test
+    public void get_countsLinksPerState() {
+        final DomainVerificationStateCache.Snapshot snapshot =
+                mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        assertThat(snapshot.isLinkHandlingAllowed()).isTrue();
+        assertThat(snapshot.getLinksCount(DOMAIN_STATE_VERIFIED)).isEqualTo(2);
+        assertThat(snapshot.getLinksCount(DOMAIN_STATE_NONE)).isEqualTo(1);
+        assertThat(snapshot.getLinksCount(DOMAIN_STATE_SELECTED)).isEqualTo(0);
+        assertThat(snapshot.getLinks(DOMAIN_STATE_SELECTED)).isEmpty();
+        assertThat(snapshot.getLinks(DOMAIN_STATE_NONE)).containsExactly("c.example.com");
+    }
+
+    @Test
+    public void get_twice_readsOnce() throws PackageManager.NameNotFoundException {
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        verify(mDomainVerificationManager, times(1)).getDomainVerificationUserState(PACKAGE_NAME);
+    }
+
+    @Test
+    public void get_afterInvalidate_readsAgain() throws PackageManager.NameNotFoundException {
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        mCache.invalidate(USER_ID, PACKAGE_NAME);
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        verify(mDomainVerificationManager, times(2)).getDomainVerificationUserState(PACKAGE_NAME);
+    }
+
+    @Test
+    public void get_expired_readsAgain() throws PackageManager.NameNotFoundException {
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        SystemClock.sleep(DomainVerificationStateCache.MAX_AGE_MS);
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        verify(mDomainVerificationManager, times(2)).getDomainVerificationUserState(PACKAGE_NAME);
+    }
+
+    @Test
+    public void get_otherManager_sharesSnapshot() throws PackageManager.NameNotFoundException {
+        final DomainVerificationManager otherManager = mock(DomainVerificationManager.class);
+
+        final DomainVerificationStateCache.Snapshot snapshot =
+                mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        assertThat(mCache.get(otherManager, USER_ID, PACKAGE_NAME)).isSameInstanceAs(snapshot);
+        verify(otherManager, never()).getDomainVerificationUserState(anyString());
+    }
+
+    @Test
+    public void get_otherUser_readsAgain() throws PackageManager.NameNotFoundException {
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+        mCache.get(mDomainVerificationManager, USER_ID + 10, PACKAGE_NAME);
+
+        verify(mDomainVerificationManager, times(2)).getDomainVerificationUserState(PACKAGE_NAME);
+    }
+
+    @Test
+    public void get_afterMaxAge_evictsExpiredSnapshots() {
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+        mCache.get(mDomainVerificationManager, USER_ID, "com.example.other");
+
+        SystemClock.sleep(DomainVerificationStateCache.MAX_AGE_MS);
+        mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        assertThat(mCache.getCachedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_packageNotFound_returnsEmptySnapshot()
+            throws PackageManager.NameNotFoundException {
+        when(mDomainVerificationManager.getDomainVerificationUserState(anyString()))
+                .thenThrow(new PackageManager.NameNotFoundException());
+
+        final DomainVerificationStateCache.Snapshot snapshot =
+                mCache.get(mDomainVerificationManager, USER_ID, PACKAGE_NAME);
+
+        assertThat(snapshot.getUserState()).isNull();
+        assertThat(snapshot.isLinkHandlingAllowed()).isFalse();
+        assertThat(snapshot.getLinks(DOMAIN_STATE_VERIFIED)).isNull();
+        assertThat(snapshot.getLinksCount(DOMAIN_STATE_VERIFIED)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.bluetooth;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.bluetooth.BluetoothDevice;
+
+import com.android.settingslib.bluetooth.CachedBluetoothDevice;
+import com.android.settingslib.bluetooth.CachedBluetoothDeviceManager;
+import com.android.settingslib.bluetooth.LocalBluetoothManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class CachedBluetoothDeviceSnapshotTest {
+
+    @Mock
+    private LocalBluetoothManager mLocalManager;
+    @Mock
+    private CachedBluetoothDeviceManager mCachedDeviceManager;
+    @Mock
+    private CachedBluetoothDevice mCachedDevice;
+    @Mock
+    private CachedBluetoothDevice mOtherCachedDevice;
+    @Mock
+    private BluetoothDevice mDevice;
+    @Mock
+    private BluetoothDevice mOtherDevice;
+
+    private final List<CachedBluetoothDevice> mCachedDevices = new ArrayList<>();
+    private CachedBluetoothDeviceSnapshot mSnapshot;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mLocalManager.getCachedDeviceManager()).thenReturn(mCachedDeviceManager);
+        when(mCachedDeviceManager.getCachedDevicesCopy()).thenReturn(mCachedDevices);
+        when(mCachedDevice.getDevice()).thenReturn(mDevice);
+        when(mOtherCachedDevice.getDevice()).thenReturn(mOtherDevice);
+        mCachedDevices.add(mCachedDevice);
+        mSnapshot = new CachedBluetoothDeviceSnapshot(mLocalManager);
+    }
+
+    @Test
+    public void get_sameLocalManager_returnSameSnapshot() {
+        assertThat(CachedBluetoothDeviceSnapshot.get(mLocalManager))
+                .isSameInstanceAs(CachedBluetoothDeviceSnapshot.get(mLocalManager));
+    }
+
+    @Test
+    public void contains_repeatedLookups_copyCachedDevicesOnce() {
+        assertThat(mSnapshot.contains(mCachedDevice)).isTrue();
+        assertThat(mSnapshot.contains(mOtherCachedDevice)).isFalse();
+        assertThat(mSnapshot.findDevice(mDevice)).isEqualTo(mCachedDevice);
+
+        verify(mCachedDeviceManager, times(1)).getCachedDevicesCopy();
+    }
+
+    @Test
+    public void invalidate_deviceAdded_returnNewDevice() {
+        assertThat(mSnapshot.findDevice(mOtherDevice)).isNull();
+
+        mCachedDevices.add(mOtherCachedDevice);
+        mSnapshot.invalidate();
+
+        assertThat(mSnapshot.findDevice(mOtherDevice)).isEqualTo(mOtherCachedDevice);
+        assertThat(mSnapshot.getDevices()).containsExactly(mCachedDevice, mOtherCachedDevice);
+    }
+
+    @Test
+    public void findDevice_deviceSwitchedAfterSnapshot_returnCurrentOwner() {
+        assertThat(mSnapshot.findDevice(mDevice)).isEqualTo(mCachedDevice);
+
+        // Switching the content with a member device changes the device without an invalidate.
+        when(mCachedDevice.getDevice()).thenReturn(mOtherDevice);
+
+        assertThat(mSnapshot.findDevice(mDevice)).isNull();
+        assertThat(mSnapshot.findDevice(mOtherDevice)).isEqualTo(mCachedDevice);
+        assertThat(mSnapshot.contains(mCachedDevice)).isTrue();
+        verify(mCachedDeviceManager, times(1)).getCachedDevicesCopy();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import org.json.JSONArray;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class StartupSchedulerTest {
+
+    private StartupScheduler mScheduler;
+    private List<String> mRunTasks;
+
+    @Before
+    public void setUp() {
+        mScheduler = new StartupScheduler();
+        mRunTasks = new ArrayList<>();
+    }
+
+    @Test
+    public void schedule_blocking_runsRightAway() throws Exception {
+        mScheduler.schedule("task", StartupScheduler.PHASE_BLOCKING, () -> mRunTasks.add("task"));
+
+        assertThat(mRunTasks).containsExactly("task");
+        final JSONArray dump = mScheduler.dump();
+        assertThat(dump.length()).isEqualTo(1);
+        assertThat(dump.getJSONObject(0).getString("name")).isEqualTo("task");
+        assertThat(dump.getJSONObject(0).getString("phase")).isEqualTo("blocking");
+    }
+
+    @Test
+    public void schedule_idle_runsWhenMainThreadIsIdle() throws Exception {
+        mScheduler.schedule("idle", StartupScheduler.PHASE_IDLE, () -> mRunTasks.add("idle"));
+        mScheduler.schedule("blocking", StartupScheduler.PHASE_BLOCKING,
+                () -> mRunTasks.add("blocking"));
+
+        assertThat(mRunTasks).containsExactly("blocking");
+
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertThat(mRunTasks).containsExactly("blocking", "idle").inOrder();
+        assertThat(mScheduler.dump().getJSONObject(1).getString("phase")).isEqualTo("idle");
+    }
+}
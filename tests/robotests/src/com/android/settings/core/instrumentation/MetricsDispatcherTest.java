@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
+import com.android.settingslib.core.instrumentation.LogWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = ShadowThreadUtils.class)
+public class MetricsDispatcherTest {
+
+    @Mock
+    private LogWriter mWriter1;
+    @Mock
+    private LogWriter mWriter2;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void synchronous_writesToAllWriters() {
+        final MetricsDispatcher dispatcher = new MetricsDispatcher(
+                List.of(mWriter1, mWriter2), MetricsDispatcher.DEFAULT_CAPACITY,
+                true /* synchronous */);
+
+        dispatcher.clicked(1, "key");
+
+        verify(mWriter1).clicked(1, "key");
+        verify(mWriter2).clicked(1, "key");
+        assertThat(dispatcher.getQueuedEventCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void asynchronous_writesEventsInOrder() {
+        final MetricsDispatcher dispatcher = new MetricsDispatcher(List.of(mWriter1));
+
+        dispatcher.changed(1, "first", 1);
+        dispatcher.changed(1, "second", 2);
+
+        final InOrder inOrder = inOrder(mWriter1);
+        inOrder.verify(mWriter1).changed(1, "first", 1);
+        inOrder.verify(mWriter1).changed(1, "second", 2);
+    }
+
+    @Test
+    public void asynchronous_bufferFull_dropsAndCountsEvents() {
+        final MetricsDispatcher dispatcher = new MetricsDispatcher(
+                List.of(mWriter1), 2 /* capacity */, false /* synchronous */);
+        // Log more events while the first one is being written, so they pile up in the buffer.
+        doAnswer(invocation -> {
+            for (int i = 0; i < 3; i++) {
+                dispatcher.changed(2, "nested", i);
+            }
+            return null;
+        }).when(mWriter1).clicked(1, "key");
+
+        dispatcher.clicked(1, "key");
+
+        verify(mWriter1, times(2)).changed(eq(2), eq("nested"), anyInt());
+        assertThat(dispatcher.getDroppedEventCount()).isEqualTo(1);
+        assertThat(dispatcher.getQueuedEventCount()).isEqualTo(3);
+    }
+}
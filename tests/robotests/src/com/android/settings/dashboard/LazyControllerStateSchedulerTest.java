@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.preference.Preference;
+
+import com.android.settingslib.core.AbstractPreferenceController;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+public class LazyControllerStateSchedulerTest {
+
+    private LazyControllerStateScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mScheduler = new LazyControllerStateScheduler(2 /* eagerCount */, 1 /* idleBatchSize */);
+    }
+
+    @Test
+    public void isEager_belowEagerCount_returnTrue() {
+        assertThat(mScheduler.isEager(1)).isTrue();
+        assertThat(mScheduler.isEager(2)).isFalse();
+    }
+
+    @Test
+    public void flushThrough_onlyUpdatesControllersAboveThePosition() {
+        final AbstractPreferenceController near = mockController(true);
+        final AbstractPreferenceController far = mockController(true);
+        final Preference nearPref = mock(Preference.class);
+        final Preference farPref = mock(Preference.class);
+        mScheduler.schedule(30, far, farPref);
+        mScheduler.schedule(5, near, nearPref);
+        mScheduler.start();
+
+        mScheduler.flushThrough(10);
+
+        verify(near).updateState(nearPref);
+        verify(far, never()).updateState(any());
+        assertThat(mScheduler.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void flush_unavailableController_shouldNotUpdateState() {
+        final AbstractPreferenceController controller = mockController(false);
+        final Preference preference = mock(Preference.class);
+        mScheduler.schedule(5, controller, preference);
+
+        mScheduler.flush(preference);
+
+        verify(controller, never()).updateState(any());
+        assertThat(mScheduler.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void start_mainThreadIdle_shouldDrainQueue() {
+        final AbstractPreferenceController controller1 = mockController(true);
+        final AbstractPreferenceController controller2 = mockController(true);
+        mScheduler.schedule(5, controller1, mock(Preference.class));
+        mScheduler.schedule(6, controller2, mock(Preference.class));
+
+        mScheduler.start();
+        ShadowLooper.idleMainLooper();
+
+        verify(controller1).updateState(any());
+        verify(controller2).updateState(any());
+        assertThat(mScheduler.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void cancel_shouldDropPendingWork() {
+        final AbstractPreferenceController controller = mockController(true);
+        mScheduler.schedule(5, controller, mock(Preference.class));
+        mScheduler.start();
+
+        mScheduler.cancel();
+        ShadowLooper.idleMainLooper();
+
+        verify(controller, never()).updateState(any());
+        assertThat(mScheduler.getPendingCount()).isEqualTo(0);
+    }
+
+    private static AbstractPreferenceController mockController(boolean available) {
+        final AbstractPreferenceController controller = mock(AbstractPreferenceController.class);
+        when(controller.isAvailable()).thenReturn(available);
+        return controller;
+    }
+}
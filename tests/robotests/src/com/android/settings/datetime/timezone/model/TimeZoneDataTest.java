@@ -35,6 +35,7 @@ import org.robolectric.RobolectricTestRunner;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Locale;
 
 @RunWith(RobolectricTestRunner.class)
 public class TimeZoneDataTest {
@@ -68,6 +69,20 @@ public class TimeZoneDataTest {
         assertThat(timeZoneData.getRegionIds()).containsExactly("US", "GB");
     }
 
+    @Test
+    public void getLocalizedRegions_sortedByNameAndCachedPerLocale() {
+        when(mCountryZonesFinder.lookupAllCountryIsoCodes()).thenReturn(Arrays.asList("us", "GB"));
+        TimeZoneData timeZoneData = new TimeZoneData(mCountryZonesFinder);
+
+        LocalizedRegions regions = timeZoneData.getLocalizedRegions(Locale.US);
+
+        assertThat(regions.size()).isEqualTo(2);
+        assertThat(regions.getName(0)).isEqualTo("United Kingdom");
+        assertThat(regions.getRegionId(1)).isEqualTo("US");
+        assertThat(regions.getSearchIndex().search("us")).asList().containsExactly(1);
+        assertThat(timeZoneData.getLocalizedRegions(Locale.US)).isSameInstanceAs(regions);
+    }
+
     @Test
     public void testLookupCountryCodesForZoneId() {
         TimeZoneData timeZoneData = new TimeZoneData(mCountryZonesFinder);
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datetime.timezone.model;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+@RunWith(RobolectricTestRunner.class)
+public class TimeZoneSearchIndexTest {
+
+    private TimeZoneSearchIndex mIndex;
+
+    @Before
+    public void setUp() {
+        mIndex = new TimeZoneSearchIndex(Arrays.asList(
+                new String[] {"US", "United States"},
+                new String[] {"HK", "Hong Kong"},
+                new String[] {"GB", "United Kingdom", "Great Britain"}), Locale.US);
+    }
+
+    @Test
+    public void search_emptyPrefix_returnsAllPositions() {
+        assertThat(mIndex.search("")).asList().containsExactly(0, 1, 2).inOrder();
+    }
+
+    @Test
+    public void search_matchesWholeKeysAndWordPrefixes() {
+        assertThat(mIndex.search("Unit")).asList().containsExactly(0, 2).inOrder();
+        assertThat(mIndex.search("kon")).asList().containsExactly(1);
+        assertThat(mIndex.search("brit")).asList().containsExactly(2);
+        assertThat(mIndex.search("gb")).asList().containsExactly(2);
+    }
+
+    @Test
+    public void search_matchInsideWord_returnsNothing() {
+        assertThat(mIndex.search("nited")).isEmpty();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+import android.os.SystemClock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(RobolectricTestRunner.class)
+public class BatteryUsageStatsCacheTest {
+
+    @Mock private BatteryStatsManager mBatteryStatsManager;
+    @Mock private BatteryUsageStats mBatteryUsageStats;
+
+    private Context mContext;
+    private BatteryUsageStatsCache mCache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = spy(RuntimeEnvironment.application);
+        doReturn(mContext).when(mContext).getApplicationContext();
+        doReturn(mBatteryStatsManager)
+                .when(mContext)
+                .getSystemService(Context.BATTERY_STATS_SERVICE);
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenReturn(mBatteryUsageStats);
+        mCache = new BatteryUsageStatsCache(mContext);
+    }
+
+    @Test
+    public void getInstance_activityAndApplicationContext_sameCache() {
+        final Context activityContext = spy(RuntimeEnvironment.application);
+        doReturn(mContext).when(activityContext).getApplicationContext();
+
+        assertThat(BatteryUsageStatsCache.getInstance(activityContext))
+                .isSameInstanceAs(BatteryUsageStatsCache.getInstance(mContext));
+    }
+
+    @Test
+    public void acquire_coveredByCachedFlags_reusesSnapshot() {
+        final BatteryUsageStatsCache.Handle first =
+                mCache.acquire(BatteryUsageStatsCache.QUERY_PROCESS_STATE_DATA);
+        final BatteryUsageStatsCache.Handle second = mCache.acquire(/* flags= */ 0);
+
+        assertThat(second.getStats()).isSameInstanceAs(first.getStats());
+        verify(mBatteryStatsManager, times(1)).getBatteryUsageStats(any());
+    }
+
+    @Test
+    public void acquire_notCoveredByCachedFlags_fetchesAgain() {
+        mCache.acquire(/* flags= */ 0);
+        mCache.acquire(BatteryUsageStatsCache.QUERY_PROCESS_STATE_DATA);
+
+        verify(mBatteryStatsManager, times(2)).getBatteryUsageStats(any());
+    }
+
+    @Test
+    public void acquire_withHistory_getsOwnCopyOfSharedSnapshot() throws Exception {
+        mCache = spy(mCache);
+        doAnswer(invocation -> mock(BatteryUsageStats.class)).when(mCache).copy(any());
+
+        final BatteryUsageStatsCache.Handle first =
+                mCache.acquire(BatteryUsageStatsCache.QUERY_HISTORY);
+        final BatteryUsageStatsCache.Handle second =
+                mCache.acquire(BatteryUsageStatsCache.QUERY_HISTORY);
+        final BatteryUsageStatsCache.Handle third = mCache.acquire(/* flags= */ 0);
+
+        verify(mBatteryStatsManager, times(1)).getBatteryUsageStats(any());
+        assertThat(first.getStats()).isNotSameInstanceAs(second.getStats());
+        assertThat(first.getStats()).isNotSameInstanceAs(mBatteryUsageStats);
+        assertThat(third.getStats()).isSameInstanceAs(mBatteryUsageStats);
+
+        first.close();
+        verify(first.getStats()).close();
+        verify(mBatteryUsageStats, never()).close();
+    }
+
+    @Test
+    public void acquire_concurrentHistoryMiss_queriesHistoryOnce() throws Exception {
+        mCache = spy(mCache);
+        doAnswer(invocation -> mock(BatteryUsageStats.class)).when(mCache).copy(any());
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        final CountDownLatch finishFetch = new CountDownLatch(1);
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenAnswer(invocation -> {
+                    fetchStarted.countDown();
+                    finishFetch.await(5, TimeUnit.SECONDS);
+                    return mBatteryUsageStats;
+                });
+        final AtomicReference<BatteryUsageStatsCache.Handle> firstHandle =
+                new AtomicReference<>();
+        final Thread first = new Thread(() ->
+                firstHandle.set(mCache.acquire(BatteryUsageStatsCache.QUERY_HISTORY)));
+        first.start();
+        fetchStarted.await(5, TimeUnit.SECONDS);
+
+        final AtomicReference<BatteryUsageStatsCache.Handle> secondHandle =
+                new AtomicReference<>();
+        final Thread second = new Thread(() ->
+                secondHandle.set(mCache.acquire(BatteryUsageStatsCache.QUERY_HISTORY)));
+        second.start();
+        finishFetch.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        verify(mBatteryStatsManager, times(1)).getBatteryUsageStats(any());
+        verify(mCache, times(2)).copy(mBatteryUsageStats);
+        assertThat(secondHandle.get().getStats())
+                .isNotSameInstanceAs(firstHandle.get().getStats());
+    }
+
+    @Test
+    public void acquire_expired_fetchesAgain() {
+        mCache.acquire(/* flags= */ 0).close();
+        SystemClock.sleep(BatteryUsageStatsCache.TTL_MS);
+
+        mCache.acquire(/* flags= */ 0);
+
+        verify(mBatteryStatsManager, times(2)).getBatteryUsageStats(any());
+    }
+
+    @Test
+    public void acquire_concurrentMiss_waitsForOneFetch() throws Exception {
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        final CountDownLatch finishFetch = new CountDownLatch(1);
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenAnswer(invocation -> {
+                    fetchStarted.countDown();
+                    finishFetch.await(5, TimeUnit.SECONDS);
+                    return mBatteryUsageStats;
+                });
+        final AtomicReference<BatteryUsageStatsCache.Handle> firstHandle =
+                new AtomicReference<>();
+        final Thread first = new Thread(() -> firstHandle.set(mCache.acquire(/* flags= */ 0)));
+        first.start();
+        fetchStarted.await(5, TimeUnit.SECONDS);
+
+        final AtomicReference<BatteryUsageStatsCache.Handle> secondHandle =
+                new AtomicReference<>();
+        final Thread second = new Thread(() -> secondHandle.set(mCache.acquire(/* flags= */ 0)));
+        second.start();
+        finishFetch.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        verify(mBatteryStatsManager, times(1)).getBatteryUsageStats(any());
+        assertThat(secondHandle.get().getStats()).isSameInstanceAs(firstHandle.get().getStats());
+    }
+
+    @Test
+    public void acquire_fetchFails_notCached() {
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenThrow(new RuntimeException());
+
+        try {
+            mCache.acquire(/* flags= */ 0);
+        } catch (RuntimeException expected) {
+            // Expected.
+        }
+
+        assertThat(mCache.getCachedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void close_lastHandleAfterInvalidate_closesStats() throws Exception {
+        final BatteryUsageStatsCache.Handle first = mCache.acquire(/* flags= */ 0);
+        final BatteryUsageStatsCache.Handle second = mCache.acquire(/* flags= */ 0);
+
+        mCache.invalidate();
+        first.close();
+        first.close();
+        verify(mBatteryUsageStats, never()).close();
+        assertThat(mCache.getCachedCount()).isEqualTo(0);
+
+        second.close();
+        verify(mBatteryUsageStats).close();
+    }
+
+    @Test
+    public void close_whileCached_keepsStatsOpen() throws Exception {
+        mCache.acquire(/* flags= */ 0).close();
+
+        verify(mBatteryUsageStats, never()).close();
+        assertThat(mCache.getCachedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void wrap_close_closesStats() throws Exception {
+        final BatteryUsageStats stats = mock(BatteryUsageStats.class);
+
+        mCache.wrap(stats).close();
+
+        verify(stats).close();
+    }
+}
@@ -159,6 +159,7 @@ public class BatteryUtilsTest {
         mLowApplicationInfo.targetSdkVersion = Build.VERSION_CODES.L;
 
         mContext = spy(RuntimeEnvironment.application);
+        doReturn(mContext).when(mContext).getApplicationContext();
         doReturn(mPackageManager).when(mContext).getPackageManager();
         doReturn(mAppOpsManager).when(mContext).getSystemService(Context.APP_OPS_SERVICE);
         doReturn(mBatteryStatsManager)
@@ -28,6 +28,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -58,6 +59,7 @@ import com.android.settings.R;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.testutils.FakeFeatureFactory;
 import com.android.settings.testutils.shadow.ShadowConnectivityManager;
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
 import com.android.settingslib.fuelgauge.PowerAllowlistBackend;
 
 import org.junit.Before;
@@ -72,6 +74,7 @@ import org.robolectric.android.controller.ServiceController;
 import org.robolectric.annotation.Config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -86,6 +89,7 @@ public class AnomalyDetectionJobServiceTest {
             "anomaly_type=6,auto_restriction=false";
     private static final int ANOMALY_TYPE = 6;
     private static final long VERSION_CODE = 15;
+    private static final String KEY_FAIL = "fail";
     @Mock private UserManager mUserManager;
     @Mock private BatteryDatabaseManager mBatteryDatabaseManager;
     @Mock private BatteryUtils mBatteryUtils;
@@ -367,6 +371,35 @@ public class AnomalyDetectionJobServiceTest {
         mAnomalyDetectionJobService.completeWork(mJobParameters, mJobWorkItem);
     }
 
+    @Test
+    @Config(shadows = {ShadowThreadUtils.class})
+    public void onStartJob_oneAnomalyFails_insertOthersAndCompleteAllWork() {
+        BatteryDatabaseManager.setUpForTest(mBatteryDatabaseManager);
+        final JobWorkItem failingItem = mock(JobWorkItem.class);
+        when(failingItem.getIntent()).thenReturn(new Intent().putExtra(KEY_FAIL, true));
+        when(mJobWorkItem.getIntent()).thenReturn(new Intent().putExtra(KEY_FAIL, false));
+        when(mJobParameters.dequeueWork()).thenReturn(failingItem, mJobWorkItem, null);
+        final BatteryDatabaseManager.AnomalyRecord anomaly =
+                new BatteryDatabaseManager.AnomalyRecord(
+                        UID, SYSTEM_PACKAGE, ANOMALY_TYPE, AnomalyDatabaseHelper.State.NEW, 0L);
+        doAnswer(
+                        invocation -> {
+                            if (invocation.<Bundle>getArgument(8).getBoolean(KEY_FAIL)) {
+                                throw new IllegalStateException();
+                            }
+                            return anomaly;
+                        })
+                .when(mAnomalyDetectionJobService)
+                .processAnomaly(any(), any(), any(), any(), any(), any(), any(), any(), any());
+
+        mAnomalyDetectionJobService.onStartJob(mJobParameters);
+
+        verify(mBatteryDatabaseManager).insertAnomalies(Collections.singletonList(anomaly));
+        verify(mJobParameters).completeWork(failingItem);
+        verify(mJobParameters).completeWork(mJobWorkItem);
+        BatteryDatabaseManager.setUpForTest(null);
+    }
+
     @Test
     public void restartWorkAfterBeenStopped_jobStarted() {
         mAnomalyDetectionJobService.onStopJob(mJobParameters);
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batterytip;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+
+import com.android.settings.testutils.DatabaseTestUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class BatteryDatabaseManagerTest {
+    private static final int UID = 1234;
+    private static final int UID_OTHER = 5678;
+    private static final String PACKAGE_NAME = "com.android.package";
+    private static final String PACKAGE_NAME_OTHER = "com.android.package.other";
+    private static final int ANOMALY_TYPE = 1;
+
+    private Context mContext;
+    private BatteryDatabaseManager mDatabaseManager;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mDatabaseManager = BatteryDatabaseManager.getInstance(mContext);
+    }
+
+    @After
+    public void cleanUp() {
+        DatabaseTestUtils.clearDb(mContext);
+    }
+
+    @Test
+    public void insertAnomalies_allCommitted() {
+        final int inserted =
+                mDatabaseManager.insertAnomalies(
+                        Arrays.asList(
+                                new BatteryDatabaseManager.AnomalyRecord(
+                                        UID,
+                                        PACKAGE_NAME,
+                                        ANOMALY_TYPE,
+                                        AnomalyDatabaseHelper.State.NEW,
+                                        1L),
+                                new BatteryDatabaseManager.AnomalyRecord(
+                                        UID_OTHER,
+                                        PACKAGE_NAME_OTHER,
+                                        ANOMALY_TYPE,
+                                        AnomalyDatabaseHelper.State.NEW,
+                                        2L)));
+
+        assertThat(inserted).isEqualTo(2);
+        final List<AppInfo> appInfos =
+                mDatabaseManager.queryAllAnomalies(0, AnomalyDatabaseHelper.State.NEW);
+        assertThat(appInfos).hasSize(2);
+    }
+
+    @Test
+    public void insertAnomalies_duplicate_skippedWithoutDroppingOthers() {
+        final BatteryDatabaseManager.AnomalyRecord anomaly =
+                new BatteryDatabaseManager.AnomalyRecord(
+                        UID, PACKAGE_NAME, ANOMALY_TYPE, AnomalyDatabaseHelper.State.NEW, 1L);
+
+        final int inserted =
+                mDatabaseManager.insertAnomalies(
+                        Arrays.asList(
+                                anomaly,
+                                anomaly,
+                                new BatteryDatabaseManager.AnomalyRecord(
+                                        UID_OTHER,
+                                        PACKAGE_NAME_OTHER,
+                                        ANOMALY_TYPE,
+                                        AnomalyDatabaseHelper.State.NEW,
+                                        2L)));
+
+        assertThat(inserted).isEqualTo(2);
+        assertThat(mDatabaseManager.queryAllAnomalies(0, AnomalyDatabaseHelper.State.NEW))
+                .hasSize(2);
+    }
+
+    @Test
+    public void compactAnomalies_deleteOldestUpToLimit() {
+        mDatabaseManager.insertAnomaly(
+                UID, PACKAGE_NAME, ANOMALY_TYPE, AnomalyDatabaseHelper.State.NEW, 1L);
+        mDatabaseManager.insertAnomaly(
+                UID_OTHER, PACKAGE_NAME_OTHER, ANOMALY_TYPE, AnomalyDatabaseHelper.State.NEW, 2L);
+        mDatabaseManager.insertAnomaly(
+                UID, PACKAGE_NAME, ANOMALY_TYPE, AnomalyDatabaseHelper.State.NEW, 100L);
+
+        final int deleted = mDatabaseManager.compactAnomalies(50L, 1 /* maxRows */);
+
+        assertThat(deleted).isEqualTo(1);
+        final List<AppInfo> appInfos =
+                mDatabaseManager.queryAllAnomalies(1L, AnomalyDatabaseHelper.State.NEW);
+        assertThat(appInfos).hasSize(2);
+    }
+}
@@ -47,6 +47,7 @@ public class BatteryUsageStatsLoaderTest {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         mContext = spy(RuntimeEnvironment.application);
+        doReturn(mContext).when(mContext).getApplicationContext();
         doReturn(mBatteryStatsManager)
                 .when(mContext)
                 .getSystemService(Context.BATTERY_STATS_SERVICE);
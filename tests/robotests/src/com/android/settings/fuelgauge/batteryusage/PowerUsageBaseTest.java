@@ -28,13 +28,13 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
 import android.content.Context;
-import android.os.BatteryUsageStats;
 import android.os.Bundle;
 
 import androidx.loader.app.LoaderManager;
 import androidx.loader.content.Loader;
 
 import com.android.settings.fuelgauge.BatteryBroadcastReceiver;
+import com.android.settings.fuelgauge.BatteryUsageStatsCache;
 import com.android.settings.testutils.shadow.ShadowDashboardFragment;
 import com.android.settingslib.core.AbstractPreferenceController;
 
@@ -53,7 +53,7 @@ import java.util.List;
 public class PowerUsageBaseTest {
 
     @Mock private LoaderManager mLoaderManager;
-    @Mock private Loader<BatteryUsageStats> mBatteryUsageStatsLoader;
+    @Mock private Loader<BatteryUsageStatsCache.Handle> mBatteryUsageStatsLoader;
     private TestFragment mFragment;
 
     @Before
@@ -36,7 +36,7 @@ import org.robolectric.shadows.ShadowContentResolver;
 @RunWith(RobolectricTestRunner.class)
 public class UserDictionaryCursorLoaderTest {
 
-    private ContentProvider mContentProvider;
+    private FakeProvider mContentProvider;
     private UserDictionaryCursorLoader mLoader;
 
     @Before
@@ -54,8 +54,38 @@ public class UserDictionaryCursorLoaderTest {
         assertThat(cursor.getCount()).isEqualTo(4);
     }
 
+    @Test
+    public void testLoad_duplicateRemoved_moveToPositionSkipsDuplicate() {
+        final Cursor cursor = mLoader.loadInBackground();
+
+        assertThat(cursor.moveToPosition(3)).isTrue();
+        assertThat(cursor.getInt(0)).isEqualTo(5);
+        assertThat(cursor.moveToPrevious()).isTrue();
+        assertThat(cursor.getInt(0)).isEqualTo(3);
+        assertThat(cursor.moveToNext()).isTrue();
+        assertThat(cursor.moveToNext()).isFalse();
+        assertThat(cursor.isAfterLast()).isTrue();
+    }
+
+    @Test
+    public void testLoad_withPrefix_queryEscapedPrefix() {
+        mLoader = new UserDictionaryCursorLoader(RuntimeEnvironment.application, "" /* locale */,
+                "wo_rd%");
+
+        mLoader.loadInBackground();
+
+        assertThat(mContentProvider.mSelection).contains("LIKE ?");
+        assertThat(mContentProvider.mSelectionArgs).asList().containsExactly("wo\\_rd\\%%");
+        assertThat(mContentProvider.mSortOrder)
+                .isEqualTo(UserDictionaryCursorLoader.QUERY_SORT_ORDER);
+    }
+
     public static class FakeProvider extends ContentProvider {
 
+        private String mSelection;
+        private String[] mSelectionArgs;
+        private String mSortOrder;
+
         @Override
         public boolean onCreate() {
             return false;
@@ -64,6 +94,9 @@ public class UserDictionaryCursorLoaderTest {
         @Override
         public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
                 String sortOrder) {
+            mSelection = selection;
+            mSelectionArgs = selectionArgs;
+            mSortOrder = sortOrder;
             final MatrixCursor cursor = new MatrixCursor(
                     UserDictionaryCursorLoader.QUERY_PROJECTION);
             cursor.addRow(new Object[]{1, "word1", "shortcut1"});
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.UserHandle;
+
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
+import com.android.settingslib.applications.RecentAppOpsAccess;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = {ShadowThreadUtils.class})
+public class RecentLocationAccessCacheTest {
+
+    @Mock
+    private RecentAppOpsAccess mRecentAppOpsAccess;
+
+    private final List<RecentAppOpsAccess.Access> mAccesses = ImmutableList.of(
+            new RecentAppOpsAccess.Access("app", UserHandle.CURRENT, null, "app", "", 0));
+    private RecentLocationAccessCache mCache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mRecentAppOpsAccess.getAppListSorted(false)).thenReturn(mAccesses);
+        mCache = new RecentLocationAccessCache(mRecentAppOpsAccess);
+    }
+
+    @Test
+    public void load_twice_readHistoryOnce() {
+        final List<List<RecentAppOpsAccess.Access>> results = new ArrayList<>();
+
+        mCache.load(false, results::add);
+        mCache.load(false, results::add);
+
+        verify(mRecentAppOpsAccess, times(1)).getAppListSorted(false);
+        assertThat(results).containsExactly(mAccesses, mAccesses);
+        assertThat(mCache.getCachedAccesses(false)).isEqualTo(mAccesses);
+    }
+
+    @Test
+    public void load_afterInvalidate_readHistoryAgain() {
+        mCache.load(false, accesses -> {});
+
+        mCache.invalidate();
+        mCache.load(false, accesses -> {});
+
+        verify(mRecentAppOpsAccess, times(2)).getAppListSorted(false);
+    }
+
+    @Test
+    public void load_differentShowSystem_cachedSeparately() {
+        mCache.load(false, accesses -> {});
+
+        assertThat(mCache.getCachedAccesses(true)).isNull();
+    }
+}
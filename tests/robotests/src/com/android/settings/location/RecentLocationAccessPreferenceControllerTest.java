@@ -35,6 +35,7 @@ import androidx.preference.PreferenceScreen;
 import com.android.settings.R;
 import com.android.settings.dashboard.DashboardFragment;
 import com.android.settings.testutils.shadow.ShadowDeviceConfig;
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
 import com.android.settingslib.applications.RecentAppOpsAccess;
 
 import com.google.common.collect.ImmutableList;
@@ -54,7 +55,7 @@ import org.robolectric.annotation.Config;
 import java.util.ArrayList;
 
 @RunWith(RobolectricTestRunner.class)
-@Config(shadows = {ShadowDeviceConfig.class})
+@Config(shadows = {ShadowDeviceConfig.class, ShadowThreadUtils.class})
 public class RecentLocationAccessPreferenceControllerTest {
     private static final String PREFERENCE_KEY = "test_preference_key";
     @Mock
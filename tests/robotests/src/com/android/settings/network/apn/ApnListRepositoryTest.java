@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.apn;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.Telephony;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowContentResolver;
+
+@RunWith(RobolectricTestRunner.class)
+public class ApnListRepositoryTest {
+    private static final int SUB_ID = 2;
+
+    private Context mContext;
+    private FakeProvider mContentProvider;
+    private ApnListRepository mRepository;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mContentProvider = new FakeProvider();
+        ShadowContentResolver.registerProviderInternal(
+                Telephony.Carriers.CONTENT_URI.getAuthority(), mContentProvider);
+        mRepository = new ApnListRepository(mContext);
+    }
+
+    @Test
+    public void load_returnsApnsAndPreferredKey() {
+        final ApnListRepository.ApnList apnList = mRepository.load(SUB_ID, false);
+
+        assertThat(apnList.subId).isEqualTo(SUB_ID);
+        assertThat(apnList.rows).hasSize(2);
+        assertThat(apnList.rows.get(0).key).isEqualTo("1");
+        assertThat(apnList.rows.get(1).type).isEqualTo("mms");
+        assertThat(apnList.preferredKey).isEqualTo("1");
+    }
+
+    @Test
+    public void load_hideImsApn_excludesImsInSelection() {
+        mRepository.load(SUB_ID, true);
+
+        assertThat(mContentProvider.mApnSelection).contains("NOT (type='ims')");
+    }
+
+    @Test
+    public void load_cached_doesNotQueryAgain() {
+        final ApnListRepository.ApnList apnList = mRepository.load(SUB_ID, false);
+
+        assertThat(mRepository.load(SUB_ID, false)).isSameInstanceAs(apnList);
+        assertThat(mRepository.getCached(SUB_ID, false)).isSameInstanceAs(apnList);
+        assertThat(mContentProvider.mApnQueryCount).isEqualTo(1);
+    }
+
+    @Test
+    public void getCached_otherImsOption_returnsNull() {
+        mRepository.load(SUB_ID, false);
+
+        assertThat(mRepository.getCached(SUB_ID, true)).isNull();
+    }
+
+    @Test
+    public void invalidate_queriesAgain() {
+        mRepository.load(SUB_ID, false);
+
+        mRepository.invalidate();
+        mRepository.load(SUB_ID, false);
+
+        assertThat(mContentProvider.mApnQueryCount).isEqualTo(2);
+    }
+
+    @Test
+    public void load_observesCarriersProvider() {
+        mRepository.load(SUB_ID, false);
+
+        assertThat(shadowOf(mContext.getContentResolver())
+                .getContentObservers(Telephony.Carriers.CONTENT_URI)).hasSize(1);
+    }
+
+    public static class FakeProvider extends ContentProvider {
+        private int mApnQueryCount;
+        private String mApnSelection;
+
+        @Override
+        public boolean onCreate() {
+            return false;
+        }
+
+        @Override
+        public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                String sortOrder) {
+            final MatrixCursor cursor = new MatrixCursor(projection);
+            if (uri.getPath().contains("preferapn")) {
+                cursor.addRow(new Object[] {"1"});
+                return cursor;
+            }
+            mApnQueryCount++;
+            mApnSelection = selection;
+            cursor.addRow(new Object[] {"1", "Internet", "internet", "default,supl", null, null,
+                    Telephony.Carriers.UNEDITED});
+            cursor.addRow(new Object[] {"2", "MMS", "mms", "mms", null, null,
+                    Telephony.Carriers.UNEDITED});
+            return cursor;
+        }
+
+        @Override
+        public String getType(Uri uri) {
+            return null;
+        }
+
+        @Override
+        public Uri insert(Uri uri, ContentValues values) {
+            return null;
+        }
+
+        @Override
+        public int delete(Uri uri, String selection, String[] selectionArgs) {
+            return 0;
+        }
+
+        @Override
+        public int update(Uri uri, ContentValues values, String selection,
+                String[] selectionArgs) {
+            return 0;
+        }
+    }
+}
@@ -83,6 +83,7 @@ public class PanelSlicesAdapterTest {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         mContext = RuntimeEnvironment.application;
+        PanelSlicesAdapter.sLastKnownHeights.clear();
 
         mPanelFeatureProvider = spy(new PanelFeatureProviderImpl());
         mFakeFeatureFactory = FakeFeatureFactory.setupForTest();
@@ -217,6 +218,78 @@ public class PanelSlicesAdapterTest {
         verify(viewHolder).updateActionLabel();
     }
 
+    @Test
+    public void onBindViewHolder_sliceNotLoaded_showPlaceholder() {
+        final LiveData<Slice> liveData = mock(LiveData.class);
+        mData.put(VOLUME_NOTIFICATION_URI, liveData);
+        doReturn(false).when(mPanelFragment).isSliceLoaded(VOLUME_NOTIFICATION_URI);
+        final PanelSlicesAdapter adapter =
+                new PanelSlicesAdapter(mPanelFragment, mData, 0 /* metrics category */);
+        final SliceRowViewHolder viewHolder =
+                adapter.onCreateViewHolder(new FrameLayout(mContext), 0 /* view type*/);
+
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        assertThat(viewHolder.sliceView.getVisibility()).isEqualTo(View.INVISIBLE);
+        assertThat(viewHolder.itemView.getMinimumHeight()).isEqualTo(
+                mContext.getResources().getDimensionPixelSize(
+                        R.dimen.panel_slice_placeholder_height));
+    }
+
+    @Test
+    public void onBindViewHolder_sliderSliceNotLoaded_useSliderPlaceholderHeight() {
+        final LiveData<Slice> liveData = mock(LiveData.class);
+        mData.put(VOLUME_NOTIFICATION_URI, liveData);
+        doReturn(false).when(mPanelFragment).isSliceLoaded(VOLUME_NOTIFICATION_URI);
+        doReturn(VIEW_TYPE_SLIDER).when(mPanelFragment).getPanelViewType();
+        final PanelSlicesAdapter adapter =
+                new PanelSlicesAdapter(mPanelFragment, mData, 0 /* metrics category */);
+        final SliceRowViewHolder viewHolder =
+                adapter.onCreateViewHolder(new FrameLayout(mContext), VIEW_TYPE_SLIDER);
+
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        assertThat(viewHolder.itemView.getMinimumHeight()).isEqualTo(
+                mContext.getResources().getDimensionPixelSize(
+                        R.dimen.panel_slice_slider_placeholder_height));
+    }
+
+    @Test
+    public void onBindViewHolder_sliceShownBefore_useLastKnownHeight() {
+        final LiveData<Slice> liveData = mock(LiveData.class);
+        mData.put(VOLUME_NOTIFICATION_URI, liveData);
+        doReturn(false).when(mPanelFragment).isSliceLoaded(VOLUME_NOTIFICATION_URI);
+        PanelSlicesAdapter.sLastKnownHeights.put(VOLUME_NOTIFICATION_URI, 123);
+        final PanelSlicesAdapter adapter =
+                new PanelSlicesAdapter(mPanelFragment, mData, 0 /* metrics category */);
+        final SliceRowViewHolder viewHolder =
+                adapter.onCreateViewHolder(new FrameLayout(mContext), 0 /* view type*/);
+
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        assertThat(viewHolder.itemView.getMinimumHeight()).isEqualTo(123);
+    }
+
+    @Test
+    public void onBind_sliceLaidOut_recordLastKnownHeight() {
+        final Slice slice = new Slice.Builder(VOLUME_NOTIFICATION_URI)
+                .addSubSlice(new Slice.Builder(VOLUME_NOTIFICATION_URI).build())
+                .build();
+        final LiveData<Slice> liveData = mock(LiveData.class);
+        when(liveData.getValue()).thenReturn(slice);
+        mData.put(VOLUME_NOTIFICATION_URI, liveData);
+        final PanelSlicesAdapter adapter =
+                new PanelSlicesAdapter(mPanelFragment, mData, 0 /* metrics category */);
+        final SliceRowViewHolder viewHolder =
+                adapter.onCreateViewHolder(new FrameLayout(mContext), 0 /* view type*/);
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        viewHolder.itemView.layout(0, 0, 100, 150);
+
+        assertThat(PanelSlicesAdapter.sLastKnownHeights.get(VOLUME_NOTIFICATION_URI))
+                .isEqualTo(150);
+    }
+
     @Test
     public void onCreateViewHolder_viewTypeSlider_verifyLayout() {
         final PanelSlicesAdapter adapter =
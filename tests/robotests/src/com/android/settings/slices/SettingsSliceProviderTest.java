@@ -149,7 +149,7 @@ public class SettingsSliceProviderTest {
 
         mProvider = spy(new SettingsSliceProvider());
         ShadowStrictMode.reset();
-        mProvider.mSliceWeakDataCache = new HashMap<>();
+        mProvider.mSliceDataCache = new HashMap<>();
         mProvider.mSlicesDatabaseAccessor = new SlicesDatabaseAccessor(mContext);
         when(mProvider.getContext()).thenReturn(mContext);
 
@@ -185,7 +185,7 @@ public class SettingsSliceProviderTest {
         SliceTestUtils.insertSliceToDb(mContext, KEY);
 
         mProvider.loadSlice(INTENT_SLICE_URI);
-        SliceData data = mProvider.mSliceWeakDataCache.get(INTENT_SLICE_URI);
+        SliceData data = mProvider.mSliceDataCache.get(INTENT_SLICE_URI);
 
         assertThat(data.getKey()).isEqualTo(KEY);
         assertThat(data.getTitle()).isEqualTo(SliceTestUtils.FAKE_TITLE);
@@ -215,14 +215,39 @@ public class SettingsSliceProviderTest {
                 .isEqualTo(FakeToggleController.TestWorker.class);
     }
 
+    @Test
+    public void loadSlices_multipleUris_loadedWithOneQuery() {
+        SliceTestUtils.insertSliceToDb(mContext, KEY);
+        mProvider.mSlicesDatabaseAccessor = spy(mProvider.mSlicesDatabaseAccessor);
+
+        mProvider.loadSlices(Arrays.asList(INTENT_SLICE_URI, ACTION_SLICE_URI));
+
+        verify(mProvider.mSlicesDatabaseAccessor).getSliceDataFromUris(any());
+        verify(mProvider.mSlicesDatabaseAccessor, never()).getSliceDataFromUri(any());
+        assertThat(mProvider.mSliceDataCache.get(INTENT_SLICE_URI).getKey()).isEqualTo(KEY);
+        assertThat(mProvider.mSliceDataCache.get(ACTION_SLICE_URI).getKey()).isEqualTo(KEY);
+    }
+
+    @Test
+    public void loadPendingPinnedSlices_unpinnedBeforeLoad_skipUnpinnedSlice() {
+        mProvider.enqueuePinnedSlice(INTENT_SLICE_URI);
+        mProvider.enqueuePinnedSlice(ACTION_SLICE_URI);
+        mProvider.onSliceUnpinned(INTENT_SLICE_URI);
+
+        mProvider.loadPendingPinnedSlices();
+
+        verify(mProvider).loadSlices(Collections.singletonList(ACTION_SLICE_URI));
+        assertThat(mProvider.mPendingPinnedSlices).isEmpty();
+    }
+
     @Test
     public void testLoadSlice_cachedEntryRemovedOnUnpinned() {
         SliceData data = getMockData();
-        mProvider.mSliceWeakDataCache.put(data.getUri(), data);
+        mProvider.mSliceDataCache.put(data.getUri(), data);
         mProvider.onSliceUnpinned(data.getUri());
         SliceTestUtils.insertSliceToDb(mContext, data.getKey());
 
-        SliceData cachedData = mProvider.mSliceWeakDataCache.get(data.getUri());
+        SliceData cachedData = mProvider.mSliceDataCache.get(data.getUri());
 
         assertThat(cachedData).isNull();
     }
@@ -232,7 +257,7 @@ public class SettingsSliceProviderTest {
         ShadowThreadUtils.setIsMainThread(true);
         final StrictMode.ThreadPolicy oldThreadPolicy = StrictMode.getThreadPolicy();
         SliceData data = getMockData();
-        mProvider.mSliceWeakDataCache.put(data.getUri(), data);
+        mProvider.mSliceDataCache.put(data.getUri(), data);
         mProvider.onBindSlice(data.getUri());
 
         final StrictMode.ThreadPolicy newThreadPolicy = StrictMode.getThreadPolicy();
@@ -246,7 +271,7 @@ public class SettingsSliceProviderTest {
         ShadowThreadUtils.setIsMainThread(false);
 
         SliceData data = getMockData();
-        mProvider.mSliceWeakDataCache.put(data.getUri(), data);
+        mProvider.mSliceDataCache.put(data.getUri(), data);
         mProvider.onBindSlice(data.getUri());
 
         assertThat(ShadowStrictMode.isThreadPolicyOverridden()).isTrue();
@@ -274,7 +299,7 @@ public class SettingsSliceProviderTest {
     public void onBindSlice_nightModeChanged_shouldReloadTheme() {
         mContext.getResources().getConfiguration().uiMode = UI_MODE_NIGHT_NO;
         final SliceData data = getMockData();
-        mProvider.mSliceWeakDataCache.put(data.getUri(), data);
+        mProvider.mSliceDataCache.put(data.getUri(), data);
         mProvider.onBindSlice(data.getUri());
 
         mContext.getResources().getConfiguration().uiMode = UI_MODE_NIGHT_YES;
@@ -287,7 +312,7 @@ public class SettingsSliceProviderTest {
     public void onBindSlice_nightModeNotChanged_shouldNotReloadTheme() {
         mContext.getResources().getConfiguration().uiMode = UI_MODE_NIGHT_NO;
         SliceData data = getMockData();
-        mProvider.mSliceWeakDataCache.put(data.getUri(), data);
+        mProvider.mSliceDataCache.put(data.getUri(), data);
         mProvider.onBindSlice(data.getUri());
 
         mContext.getResources().getConfiguration().uiMode = UI_MODE_NIGHT_NO;
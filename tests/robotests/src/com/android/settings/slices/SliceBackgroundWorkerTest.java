@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.slices;
+
+import static com.android.settings.slices.SliceBackgroundWorker.SLICE_UPDATE_THROTTLE_INTERVAL;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Looper;
+
+import com.android.settings.slices.SliceBackgroundWorker.NotifySliceChangeHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class SliceBackgroundWorkerTest {
+
+    private static final Uri URI = Uri.parse("content://com.android.settings.slices/action/a");
+    private static final Uri OTHER_URI =
+            Uri.parse("content://com.android.settings.slices/action/b");
+    private static final long SLOW_THROTTLE_INTERVAL = 1000L;
+    private static final long BATCH_WINDOW = NotifySliceChangeHandler.SLICE_UPDATE_BATCH_WINDOW;
+
+    @Mock
+    private ContentResolver mResolver;
+
+    private Context mContext;
+    private NotifySliceChangeHandler mHandler;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = spy(RuntimeEnvironment.application);
+        doReturn(mContext).when(mContext).getApplicationContext();
+        doReturn(mResolver).when(mContext).getContentResolver();
+        mHandler = new NotifySliceChangeHandler(Looper.getMainLooper());
+        NotifySliceChangeHandler.sHandler = mHandler;
+    }
+
+    @After
+    public void tearDown() {
+        SliceBackgroundWorker.shutdown();
+        NotifySliceChangeHandler.sHandler = null;
+    }
+
+    @Test
+    public void notifySliceChange_firstUpdate_postponedByThrottleInterval() {
+        final TestWorker worker = new TestWorker(mContext, URI);
+
+        worker.notifySliceChange();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL - 1);
+        verify(mResolver, never()).notifyChange(any(Uri.class), any());
+
+        idle(1 + BATCH_WINDOW);
+        verify(mResolver).notifyChange(URI, null);
+    }
+
+    @Test
+    public void notifySliceChange_pendingUpdate_mergesUpdates() {
+        final TestWorker worker = new TestWorker(mContext, URI);
+
+        worker.notifySliceChange();
+        worker.notifySliceChange();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL + BATCH_WINDOW);
+
+        verify(mResolver, times(1)).notifyChange(URI, null);
+        assertThat(mHandler.getMergedUpdateCount()).isEqualTo(1);
+        assertThat(mHandler.getDroppedUpdateCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void notifySliceChange_workersDueTogether_notifiesOncePerAuthority() {
+        final TestWorker worker = new TestWorker(mContext, URI);
+        final TestWorker otherWorker = new TestWorker(mContext, OTHER_URI);
+
+        worker.notifySliceChange();
+        otherWorker.notifySliceChange();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL + BATCH_WINDOW);
+
+        final ArgumentCaptor<Collection<Uri>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(mResolver).notifyChange(captor.capture(), isNull(), eq(0));
+        assertThat(captor.getValue()).containsExactly(URI, OTHER_URI);
+        verify(mResolver, never()).notifyChange(any(Uri.class), any());
+    }
+
+    @Test
+    public void notifySliceChange_withinThrottleInterval_waitsForInterval() {
+        final TestWorker worker = new TestWorker(mContext, URI);
+        worker.notifySliceChange();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL + BATCH_WINDOW);
+
+        worker.notifySliceChange();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL - BATCH_WINDOW - 1);
+        verify(mResolver, times(1)).notifyChange(URI, null);
+
+        idle(2 * BATCH_WINDOW + 1);
+        verify(mResolver, times(2)).notifyChange(URI, null);
+    }
+
+    @Test
+    public void notifySliceChange_overriddenThrottleInterval_usesWorkerInterval() {
+        final SlowTestWorker worker = new SlowTestWorker(mContext, URI);
+        worker.notifySliceChange();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL + BATCH_WINDOW);
+        verify(mResolver, never()).notifyChange(any(Uri.class), any());
+
+        idle(SLOW_THROTTLE_INTERVAL);
+        verify(mResolver, times(1)).notifyChange(URI, null);
+
+        worker.notifySliceChange();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL + BATCH_WINDOW);
+        verify(mResolver, times(1)).notifyChange(URI, null);
+
+        idle(SLOW_THROTTLE_INTERVAL);
+        verify(mResolver, times(2)).notifyChange(URI, null);
+    }
+
+    @Test
+    public void unpin_pendingUpdate_dropsUpdate() {
+        final TestWorker worker = new TestWorker(mContext, URI);
+
+        worker.notifySliceChange();
+        worker.unpin();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL + BATCH_WINDOW);
+
+        verify(mResolver, never()).notifyChange(any(Uri.class), any());
+        assertThat(mHandler.getDroppedUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void unpin_waitingForDispatch_dropsUpdate() {
+        final TestWorker worker = new TestWorker(mContext, URI);
+
+        worker.notifySliceChange();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL);
+        worker.unpin();
+        idle(BATCH_WINDOW);
+
+        verify(mResolver, never()).notifyChange(any(Uri.class), any());
+        verify(mResolver, never()).notifyChange(any(Collection.class), any(), anyInt());
+        assertThat(mHandler.getDroppedUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shutdown_pendingUpdate_closesWorkerAndDropsUpdate() {
+        final Sliceable sliceable = mock(Sliceable.class);
+        doReturn(TestWorker.class).when(sliceable).getBackgroundWorkerClass();
+        final TestWorker worker =
+                (TestWorker) SliceBackgroundWorker.getInstance(mContext, sliceable, URI);
+
+        worker.notifySliceChange();
+        SliceBackgroundWorker.shutdown();
+        idle(SLICE_UPDATE_THROTTLE_INTERVAL + BATCH_WINDOW);
+
+        assertThat(worker.mClosed).isTrue();
+        assertThat(SliceBackgroundWorker.<TestWorker>getInstance(URI)).isNull();
+        verify(mResolver, never()).notifyChange(any(Uri.class), any());
+        assertThat(mHandler.getDroppedUpdateCount()).isEqualTo(1);
+    }
+
+    private static void idle(long millis) {
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+    }
+
+    public static class TestWorker extends SliceBackgroundWorker<String> {
+
+        private boolean mClosed;
+
+        public TestWorker(Context context, Uri uri) {
+            super(context, uri);
+        }
+
+        @Override
+        protected void onSlicePinned() {
+        }
+
+        @Override
+        protected void onSliceUnpinned() {
+        }
+
+        @Override
+        public void close() {
+            mClosed = true;
+        }
+    }
+
+    public static class SlowTestWorker extends TestWorker {
+
+        public SlowTestWorker(Context context, Uri uri) {
+            super(context, uri);
+        }
+
+        @Override
+        protected long getSliceUpdateThrottleInterval() {
+            return SLOW_THROTTLE_INTERVAL;
+        }
+    }
+}
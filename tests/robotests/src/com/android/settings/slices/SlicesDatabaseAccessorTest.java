@@ -56,8 +56,10 @@ import org.robolectric.shadow.api.Shadow;
 import org.robolectric.shadows.ShadowAccessibilityManager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(shadows = {ShadowUserManager.class, ShadowUtils.class,
@@ -164,6 +166,25 @@ public class SlicesDatabaseAccessorTest {
         assertThat(data.getHighlightMenuRes()).isEqualTo(SliceTestUtils.FAKE_HIGHLIGHT_MENU_RES);
     }
 
+    @Test
+    public void getSliceDataFromUris_validAndInvalidUris_returnValidOnes() {
+        final String key = "key";
+        final String otherKey = "other_key";
+        SliceTestUtils.insertSliceToDb(mContext, key);
+        SliceTestUtils.insertSliceToDb(mContext, otherKey);
+        final Uri uri = buildIntentUri(key);
+        final Uri otherUri = buildIntentUri(otherKey);
+        final Uri unknownUri = buildIntentUri("unknown_key");
+
+        final Map<Uri, SliceData> dataMap =
+                mAccessor.getSliceDataFromUris(Arrays.asList(uri, otherUri, unknownUri));
+
+        assertThat(dataMap).hasSize(2);
+        assertThat(dataMap.get(uri).getKey()).isEqualTo(key);
+        assertThat(dataMap.get(uri).getUri()).isEqualTo(uri);
+        assertThat(dataMap.get(otherUri).getKey()).isEqualTo(otherKey);
+    }
+
     @Test(expected = IllegalStateException.class)
     @Ignore
     public void testGetSliceFromUri_invalidUri_errorThrown() {
@@ -341,4 +362,13 @@ public class SlicesDatabaseAccessorTest {
             return null;
         }
     }
+
+    private static Uri buildIntentUri(String key) {
+        return new Uri.Builder()
+                .scheme(SCHEME_CONTENT)
+                .authority(SettingsSliceProvider.SLICE_AUTHORITY)
+                .appendPath(SettingsSlicesContract.PATH_SETTING_INTENT)
+                .appendPath(key)
+                .build();
+    }
 }
@@ -22,6 +22,8 @@ import android.accounts.Account;
 import android.annotation.UserIdInt;
 import android.content.ContentResolver;
 import android.content.SyncAdapterType;
+import android.content.SyncInfo;
+import android.content.SyncStatusInfo;
 import android.database.Cursor;
 import android.database.MatrixCursor;
 import android.net.Uri;
@@ -31,7 +33,9 @@ import android.text.TextUtils;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Implements(ContentResolver.class)
@@ -75,6 +79,17 @@ public class ShadowContentResolver {
         }
     }
 
+    @Implementation
+    protected static List<SyncInfo> getCurrentSyncsAsUser(int userId) {
+        return new ArrayList<>();
+    }
+
+    @Implementation
+    protected static SyncStatusInfo getSyncStatusAsUser(Account account, String authority,
+            int userId) {
+        return null;
+    }
+
     @Implementation
     protected static boolean getMasterSyncAutomaticallyAsUser(int userId) {
         return sMasterSyncAutomatically.getOrDefault(userId, true);
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.RestrictionEntry;
+import android.os.Bundle;
+import android.os.LocaleList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class AppRestrictionsSchemaCacheTest {
+
+    private static final String PACKAGE = "com.example.app";
+    private static final String KEY = "allow_chat";
+    private static final int USER_ID = 10;
+    private static final LocaleList LOCALES = LocaleList.forLanguageTags("en-US");
+
+    private AppRestrictionsSchemaCache mCache;
+
+    @Before
+    public void setUp() {
+        mCache = new AppRestrictionsSchemaCache();
+        final List<RestrictionEntry> restrictions = new ArrayList<>();
+        restrictions.add(new RestrictionEntry(KEY, false));
+        mCache.put(USER_ID, LOCALES, PACKAGE, 1L, restrictions, null /* sentValues */);
+    }
+
+    @Test
+    public void get_sameVersion_returnsCachedRestrictions() {
+        final ArrayList<RestrictionEntry> restrictions =
+                mCache.get(USER_ID, LOCALES, PACKAGE, 1L, null);
+
+        assertThat(restrictions).hasSize(1);
+        assertThat(restrictions.get(0).getKey()).isEqualTo(KEY);
+        assertThat(restrictions.get(0).getSelectedState()).isFalse();
+    }
+
+    @Test
+    public void get_otherVersion_returnsNull() {
+        assertThat(mCache.get(USER_ID, LOCALES, PACKAGE, 2L, null)).isNull();
+    }
+
+    @Test
+    public void get_otherUser_returnsNull() {
+        assertThat(mCache.get(USER_ID + 1, LOCALES, PACKAGE, 1L, null)).isNull();
+    }
+
+    @Test
+    public void get_otherLocales_returnsNull() {
+        assertThat(mCache.get(USER_ID, LocaleList.forLanguageTags("fr-FR"), PACKAGE, 1L, null))
+                .isNull();
+    }
+
+    @Test
+    public void get_withCurrentValues_appliesValuesToCopy() {
+        final Bundle values = new Bundle();
+        values.putBoolean(KEY, true);
+
+        assertThat(mCache.get(USER_ID, LOCALES, PACKAGE, 1L, values).get(0).getSelectedState())
+                .isTrue();
+        assertThat(mCache.get(USER_ID, LOCALES, PACKAGE, 1L, null).get(0).getSelectedState())
+                .isFalse();
+    }
+
+    @Test
+    public void get_queriedWithValue_servedOnlyWhileValueIsSet() {
+        final Bundle sentValues = new Bundle();
+        sentValues.putBoolean(KEY, true);
+        final List<RestrictionEntry> restrictions = new ArrayList<>();
+        restrictions.add(new RestrictionEntry(KEY, true));
+        mCache.put(USER_ID, LOCALES, PACKAGE, 1L, restrictions, sentValues);
+
+        final Bundle currentValues = new Bundle();
+        currentValues.putBoolean(KEY, false);
+        assertThat(mCache.get(USER_ID, LOCALES, PACKAGE, 1L, currentValues).get(0)
+                .getSelectedState()).isFalse();
+        // The default isn't known, so the stale value must not be shown.
+        assertThat(mCache.get(USER_ID, LOCALES, PACKAGE, 1L, new Bundle())).isNull();
+    }
+
+    @Test
+    public void remove_dropsRestrictions() {
+        mCache.remove(PACKAGE);
+
+        assertThat(mCache.get(USER_ID, LOCALES, PACKAGE, 1L, null)).isNull();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Bitmap;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+public class UserIconCacheTest {
+    private static final int USER_ID = 10;
+    private static final int OTHER_USER_ID = 11;
+
+    private Context mContext;
+    private UserIconCache mCache;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mCache = new UserIconCache();
+        mCache.put(USER_ID, Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+        mCache.put(OTHER_USER_ID, Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void userInfoChanged_observing_dropsIconOfUser() {
+        mCache.observeUserChanges(mContext);
+
+        sendUserBroadcast(Intent.ACTION_USER_INFO_CHANGED, USER_ID);
+
+        assertThat(mCache.get(USER_ID)).isNull();
+        assertThat(mCache.get(OTHER_USER_ID)).isNotNull();
+    }
+
+    @Test
+    public void userRemoved_observing_dropsIconOfUser() {
+        mCache.observeUserChanges(mContext);
+
+        sendUserBroadcast(Intent.ACTION_USER_REMOVED, USER_ID);
+
+        assertThat(mCache.get(USER_ID)).isNull();
+    }
+
+    @Test
+    public void userInfoChanged_notObserving_keepsIcon() {
+        sendUserBroadcast(Intent.ACTION_USER_INFO_CHANGED, USER_ID);
+
+        assertThat(mCache.get(USER_ID)).isNotNull();
+    }
+
+    private void sendUserBroadcast(String action, int userId) {
+        mContext.sendBroadcast(new Intent(action).putExtra(Intent.EXTRA_USER_HANDLE, userId));
+        ShadowLooper.idleMainLooper();
+    }
+}
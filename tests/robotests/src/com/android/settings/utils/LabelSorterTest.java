@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.util.Pair;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+@RunWith(RobolectricTestRunner.class)
+public class LabelSorterTest {
+
+    private LabelSorter mSorter;
+
+    @Before
+    public void setUp() {
+        mSorter = new LabelSorter();
+    }
+
+    @Test
+    public void sort_ordersByLabel() {
+        final List<String> labels = new ArrayList<>(Arrays.asList("banana", "Apple", "cherry"));
+
+        mSorter.sort(labels, Locale.US, label -> label, null /* tieBreaker */);
+
+        assertThat(labels).containsExactly("Apple", "banana", "cherry").inOrder();
+    }
+
+    @Test
+    public void sort_equalLabels_usesTieBreaker() {
+        final List<Pair<String, Integer>> items = new ArrayList<>(Arrays.asList(
+                Pair.create("b", 0), Pair.create("a", 2), Pair.create("a", 1)));
+
+        mSorter.sort(items, Locale.US, item -> item.first, (a, b) -> a.second - b.second);
+
+        assertThat(items).containsExactly(
+                Pair.create("a", 1), Pair.create("a", 2), Pair.create("b", 0)).inOrder();
+    }
+
+    @Test
+    public void sort_nullLabel_sortsFirst() {
+        final List<String> labels = new ArrayList<>(Arrays.asList("a", null));
+
+        mSorter.sort(labels, Locale.US, label -> label, null /* tieBreaker */);
+
+        assertThat(labels).containsExactly(null, "a").inOrder();
+    }
+}
@@ -80,6 +80,8 @@ public class CredentialManagerPreferenceControllerTest {
         mCredentialsPreferenceCategory.setKey("credentials_test");
         mScreen.addPreference(mCredentialsPreferenceCategory);
         mReceivedResultCode = Optional.empty();
+        // The metadata cache is shared by the process, don't reuse labels of other tests.
+        CredentialProviderMetadataCache.getInstance().invalidate(null /* packageName */);
         mDelegate =
                 new CredentialManagerPreferenceController.Delegate() {
                     public void setActivityResult(int resultCode) {
@@ -323,6 +325,12 @@ public class CredentialManagerPreferenceControllerTest {
         assertThat(prefs.containsKey(TEST_PACKAGE_NAME_C)).isTrue();
         assertThat(prefs.get(TEST_PACKAGE_NAME_C).getTitle()).isEqualTo(TEST_TITLE_SERVICE_C);
         assertThat(prefs.get(TEST_PACKAGE_NAME_C).isChecked()).isTrue();
+        assertThat(
+                        Lists.newArrayList(
+                                prefs.get(TEST_PACKAGE_NAME_A).getOrder(),
+                                prefs.get(TEST_PACKAGE_NAME_B).getOrder(),
+                                prefs.get(TEST_PACKAGE_NAME_C).getOrder()))
+                .containsExactly(0, 1, 2);
     }
 
     @Test
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.credentials;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.ServiceInfo;
+import android.credentials.CredentialProviderInfo;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class CredentialProviderMetadataCacheTest {
+
+    private static final String TEST_PACKAGE_NAME_A = "com.android.providerA";
+    private static final String TEST_PACKAGE_NAME_B = "com.android.providerB";
+    private static final int USER_ID = 0;
+
+    private Context mContext;
+    private CredentialProviderMetadataCache mCache;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mCache = new CredentialProviderMetadataCache();
+    }
+
+    @Test
+    public void get_sameProvider_returnsCachedMetadata() {
+        final CombinedProviderInfo info = createProviderInfo(TEST_PACKAGE_NAME_A, "test app A");
+
+        final CredentialProviderMetadataCache.Metadata metadata =
+                mCache.get(mContext, USER_ID, info);
+
+        assertThat(metadata.getLabel().toString()).isEqualTo("test app A");
+        assertThat(mCache.get(mContext, USER_ID, info)).isSameInstanceAs(metadata);
+    }
+
+    @Test
+    public void invalidate_onlyDropsPackage() {
+        final CombinedProviderInfo infoA = createProviderInfo(TEST_PACKAGE_NAME_A, "test app A");
+        final CombinedProviderInfo infoB = createProviderInfo(TEST_PACKAGE_NAME_B, "test app B");
+        final CredentialProviderMetadataCache.Metadata metadataA =
+                mCache.get(mContext, USER_ID, infoA);
+        final CredentialProviderMetadataCache.Metadata metadataB =
+                mCache.get(mContext, USER_ID, infoB);
+
+        mCache.invalidate(TEST_PACKAGE_NAME_A);
+
+        assertThat(mCache.get(mContext, USER_ID, infoA)).isNotSameInstanceAs(metadataA);
+        assertThat(mCache.get(mContext, USER_ID, infoB)).isSameInstanceAs(metadataB);
+    }
+
+    @Test
+    public void get_otherUser_loadsSeparately() {
+        final CombinedProviderInfo info = createProviderInfo(TEST_PACKAGE_NAME_A, "test app A");
+
+        final CredentialProviderMetadataCache.Metadata metadata =
+                mCache.get(mContext, USER_ID, info);
+
+        assertThat(mCache.get(mContext, USER_ID + 10, info)).isNotSameInstanceAs(metadata);
+        assertThat(mCache.get(mContext, USER_ID, info)).isSameInstanceAs(metadata);
+    }
+
+    @Test
+    public void invalidate_changesGeneration() {
+        final int generation = mCache.getGeneration();
+
+        mCache.invalidate(TEST_PACKAGE_NAME_A);
+
+        assertThat(mCache.getGeneration()).isNotEqualTo(generation);
+    }
+
+    @Test
+    public void getInstance_returnsSameCache() {
+        assertThat(CredentialProviderMetadataCache.getInstance())
+                .isSameInstanceAs(CredentialProviderMetadataCache.getInstance());
+    }
+
+    private CombinedProviderInfo createProviderInfo(String packageName, String label) {
+        ServiceInfo si = new ServiceInfo();
+        si.packageName = packageName;
+        si.name = "CredManProvider";
+        si.nonLocalizedLabel = label;
+
+        si.applicationInfo = new ApplicationInfo();
+        si.applicationInfo.packageName = packageName;
+        si.applicationInfo.nonLocalizedLabel = label;
+
+        CredentialProviderInfo cpi =
+                new CredentialProviderInfo.Builder(si).setOverrideLabel(label).build();
+        return new CombinedProviderInfo(
+                Lists.newArrayList(cpi),
+                null /* asi */,
+                false /* isDefaultAutofillProvider */,
+                false /* isPrimaryCredmanProvider */);
+    }
+}
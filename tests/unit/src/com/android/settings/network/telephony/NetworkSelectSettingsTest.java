@@ -199,6 +199,22 @@ public class NetworkSelectSettingsTest {
         assertThat(preference.getOperatorName()).isEqualTo(mCellId2.getOperatorAlphaLong());
     }
 
+    @Test
+    @UiThreadTest
+    public void updateAllPreferenceCategory_sameOperatorsAgain_keepPreferences() {
+        mNetworkSelectSettings.onCreateInitialization();
+        mNetworkSelectSettings.enablePreferenceScreen(true);
+        mNetworkSelectSettings.scanResultHandler(Arrays.asList(mCellInfo1, mCellInfo2));
+        final Preference preference1 = mPreferenceCategory.getPreference(0);
+        final Preference preference2 = mPreferenceCategory.getPreference(1);
+
+        mNetworkSelectSettings.scanResultHandler(Arrays.asList(mCellInfo1, mCellInfo2));
+
+        assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(2);
+        assertThat(mPreferenceCategory.getPreference(0)).isSameInstanceAs(preference1);
+        assertThat(mPreferenceCategory.getPreference(1)).isSameInstanceAs(preference2);
+    }
+
     @Test
     @UiThreadTest
     public void updateForbiddenPlmns_forbiddenPlmnsNull_shouldNotCrash() {
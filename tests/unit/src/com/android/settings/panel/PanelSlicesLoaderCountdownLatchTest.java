@@ -69,6 +69,15 @@ public class PanelSlicesLoaderCountdownLatchTest {
         assertThat(mSliceCountdownLatch.isPanelReadyToLoad()).isFalse();
     }
 
+    @Test
+    public void isAnySliceLoaded_oneSliceLoaded_returnsTrue() {
+        assertThat(mSliceCountdownLatch.isAnySliceLoaded()).isFalse();
+
+        mSliceCountdownLatch.markSliceLoaded(URIS[0]);
+
+        assertThat(mSliceCountdownLatch.isAnySliceLoaded()).isTrue();
+    }
+
     @Test
     public void areSlicesReadyToLoad_allSlicesLoaded_returnsTrue() {
         for (int i = 0; i < URIS.length; i++) {
@@ -79,6 +79,7 @@ public class SafetySourceBroadcastReceiverTest {
     @After
     public void tearDown() {
         SafetyCenterManagerWrapper.sInstance = null;
+        SafetySourceBroadcastReceiver.clearRefreshedSourceIds();
     }
 
     @Test
@@ -182,6 +183,24 @@ public class SafetySourceBroadcastReceiverTest {
                                 .build());
     }
 
+    @Test
+    public void onReceive_onRefresh_sameBroadcastIdTwice_setsDataOnce() {
+        when(mSafetyCenterManagerWrapper.isEnabled(mApplicationContext)).thenReturn(true);
+        Intent intent =
+                new Intent()
+                        .setAction(ACTION_REFRESH_SAFETY_SOURCES)
+                        .putExtra(
+                                EXTRA_REFRESH_SAFETY_SOURCE_IDS,
+                                new String[] {LockScreenSafetySource.SAFETY_SOURCE_ID})
+                        .putExtra(EXTRA_REFRESH_SAFETY_SOURCES_BROADCAST_ID, REFRESH_BROADCAST_ID);
+
+        new SafetySourceBroadcastReceiver().onReceive(mApplicationContext, intent);
+        new SafetySourceBroadcastReceiver().onReceive(mApplicationContext, intent);
+
+        verify(mSafetyCenterManagerWrapper, times(1))
+                .setSafetySourceData(any(), any(), any(), any());
+    }
+
     @Test
     public void onReceive_onRefresh_withLockscreenSourceId_setsLockscreenData() {
         when(mSafetyCenterManagerWrapper.isEnabled(mApplicationContext)).thenReturn(true);
@@ -36,6 +36,7 @@ import android.content.pm.PackageManager;
 import android.os.Looper;
 import android.os.UserHandle;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 import android.util.ArraySet;
 
 import androidx.preference.Preference;
@@ -59,7 +60,9 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @RunWith(AndroidJUnit4.class)
@@ -282,4 +285,29 @@ public class VpnSettingsTest {
 
         verify(mContext, never()).startActivityAsUser(any(), any());
     }
+
+    @Test
+    public void vpnSnapshot_sameState_isEqual() {
+        VpnSettings.VpnSnapshot snapshot = createSnapshot(new byte[] {1}, "key");
+
+        assertThat(snapshot).isEqualTo(createSnapshot(new byte[] {1}, "key"));
+    }
+
+    @Test
+    public void vpnSnapshot_changedProfileOrLockdown_isNotEqual() {
+        VpnSettings.VpnSnapshot snapshot = createSnapshot(new byte[] {1}, "key");
+
+        assertThat(snapshot).isNotEqualTo(createSnapshot(new byte[] {2}, "key"));
+        assertThat(snapshot).isNotEqualTo(createSnapshot(new byte[] {1}, null));
+    }
+
+    private static VpnSettings.VpnSnapshot createSnapshot(byte[] profileData,
+            String lockdownVpnKey) {
+        Map<String, byte[]> vpnProfileData = new ArrayMap<>();
+        vpnProfileData.put("key", profileData);
+        List<AppVpnInfo> vpnApps = new ArrayList<>();
+        vpnApps.add(new AppVpnInfo(USER_ID_1, VPN_PACKAGE_NAME));
+        return new VpnSettings.VpnSnapshot(vpnProfileData, vpnApps, Collections.emptyMap(),
+                Collections.emptySet(), Collections.emptySet(), lockdownVpnKey);
+    }
 }